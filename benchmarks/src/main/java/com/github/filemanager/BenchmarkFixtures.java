@@ -0,0 +1,178 @@
+/*
+The MIT License
+
+Copyright (c) 2015-2023 Valentyn Kolesnikov (https://github.com/javadev/file-manager)
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package com.github.filemanager;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Random;
+
+import org.eclipse.jgit.api.errors.GitAPIException;
+
+/**
+ * 벤치마크에서 사용하는 합성 fixture(디렉토리, git repository, 큰 파일)를 만든다.
+ *
+ * <p>같은 인자로 만든 fixture는 항상 같은 내용을 가지므로(고정 seed) 빌드 간 결과를 비교할 수 있다. 만든 fixture는
+ * FILEMANAGER_FIXTURE_DIR 환경 변수 (기본값: java.io.tmpdir/filemanager-fixtures) 아래에 이름별로 남겨 두고 다음 실행에서 재사용한다.
+ * 완성된 fixture에는 .complete 파일이 있으며, 없으면 지우고 다시 만든다.
+ */
+final class BenchmarkFixtures {
+
+    private static final String COMPLETE_MARKER = ".complete";
+    private static final long SEED = 42;
+
+    private BenchmarkFixtures() {
+    }
+
+    static Path fixtureRoot() {
+        String dir = System.getenv("FILEMANAGER_FIXTURE_DIR"); // JMH가 fork한 JVM에도 그대로 전달된다.
+        return dir != null ? Paths.get(dir) : Paths.get(System.getProperty("java.io.tmpdir"), "filemanager-fixtures");
+    }
+
+    /**
+     * fileCount개의 작은 파일과 fileCount / 100개의 하위 디렉토리를 가진 평평한 디렉토리.
+     */
+    static Path directory(int fileCount) throws IOException {
+        Path dir = fixtureRoot().resolve("dir-" + fileCount);
+        if (isComplete(dir)) {
+            return dir;
+        }
+        deleteRecursively(dir);
+        Files.createDirectories(dir);
+        Random random = new Random(SEED);
+        for (int ii = 0; ii < fileCount / 100; ii++) {
+            Files.createDirectory(dir.resolve(String.format("dir%05d", ii)));
+        }
+        for (int ii = 0; ii < fileCount; ii++) {
+            writeRandom(dir.resolve(String.format("file%07d.txt", ii)), random, random.nextInt(4096));
+        }
+        markComplete(dir);
+        return dir;
+    }
+
+    /**
+     * fileCount개의 파일을 commitCount개의 커밋에 걸쳐 추가/수정한 repository. 각 커밋은 파일 몇 개를 바꾸며, 마지막 상태에서
+     * 파일의 1%는 수정되고 1%는 untracked 상태로 남겨 status 계산에 변경사항이 포함되도록 한다.
+     */
+    static Path repository(int fileCount, int commitCount) throws IOException, GitAPIException {
+        Path dir = fixtureRoot().resolve("repo-" + fileCount + "-" + commitCount);
+        if (isComplete(dir)) {
+            return dir;
+        }
+        deleteRecursively(dir);
+        FixtureGenerator generator = new FixtureGenerator(SEED).files(fileCount).commits(commitCount);
+        generator.generate(dir);
+        Random random = new Random(SEED);
+        for (int ii = 0; ii < Math.max(1, fileCount / 100); ii++) {
+            int index = random.nextInt(fileCount);
+            Files.write(dir.resolve(generator.path(index)), generator.content(index, Integer.MAX_VALUE));
+            writeRandom(dir.resolve("untracked" + ii + ".txt"), random, 128);
+        }
+        markComplete(dir);
+        return dir;
+    }
+
+    /**
+     * repositoryCount개의 작은 repository를 depth 단계 아래에 흩어 놓은 workspace. repository 탐색 벤치마크에서 사용한다.
+     */
+    static Path workspace(int repositoryCount, int depth) throws IOException, GitAPIException {
+        Path dir = fixtureRoot().resolve("workspace-" + repositoryCount + "-" + depth);
+        if (isComplete(dir)) {
+            return dir;
+        }
+        deleteRecursively(dir);
+        for (int ii = 0; ii < repositoryCount; ii++) {
+            Path repository = dir;
+            for (int level = 0; level < depth; level++) {
+                repository = repository.resolve("group" + (ii >> (2 * (depth - level))) % 8);
+            }
+            new FixtureGenerator(SEED + ii).files(20).commits(1).generate(repository.resolve("repo" + ii));
+        }
+        markComplete(dir);
+        return dir;
+    }
+
+    /**
+     * 복사 벤치마크용으로 size 바이트의 무작위 바이너리 파일을 만든다.
+     */
+    static Path largeFile(long size) throws IOException {
+        Path dir = fixtureRoot().resolve("file-" + size);
+        Path file = dir.resolve("data.bin");
+        if (isComplete(dir)) {
+            return file;
+        }
+        deleteRecursively(dir);
+        Files.createDirectories(dir);
+        Random random = new Random(SEED);
+        byte[] buffer = new byte[1 << 20];
+        try (OutputStream out = Files.newOutputStream(file)) {
+            for (long written = 0; written < size; written += buffer.length) {
+                random.nextBytes(buffer);
+                out.write(buffer, 0, (int) Math.min(buffer.length, size - written));
+            }
+        }
+        markComplete(dir);
+        return file;
+    }
+
+    static void deleteRecursively(Path dir) throws IOException {
+        if (!Files.exists(dir)) {
+            return;
+        }
+        Files.walkFileTree(dir, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                Files.delete(file);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult postVisitDirectory(Path d, IOException exc) throws IOException {
+                Files.delete(d);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    private static void writeRandom(Path file, Random random, int length) throws IOException {
+        byte[] bytes = new byte[length];
+        for (int ii = 0; ii < length; ii++) {
+            bytes[ii] = (byte) (ii % 64 == 63 ? '\n' : 'a' + random.nextInt(26));
+        }
+        Files.write(file, bytes);
+    }
+
+    static boolean isComplete(Path dir) {
+        return Files.exists(dir.resolve(COMPLETE_MARKER));
+    }
+
+    static void markComplete(Path dir) throws IOException {
+        Files.write(dir.resolve(COMPLETE_MARKER), new byte[0]);
+    }
+}
@@ -0,0 +1,187 @@
+/*
+The MIT License
+
+Copyright (c) 2015-2023 Valentyn Kolesnikov (https://github.com/javadev/file-manager)
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package com.github.filemanager;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.ListBranchCommand;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.Ref;
+import org.eclipse.jgit.revwalk.RevCommit;
+
+/**
+ * RepositoryCloner를 임시 bare repository에 대해 실제로 실행해 보고, 기대와 다르면 0이 아닌 값으로 종료한다.
+ *
+ * <p>FixtureGenerator로 커밋 50개, branch 3개, 파일 2000개짜리 repository를 만들어 bare로 clone한 뒤, 그 bare
+ * repository를 file:// URI로 전체 clone, depth, single branch, no checkout, cancel 각각의 설정으로 clone해서 결과를 확인한다.
+ * 네트워크를 쓰지 않으며 임시 디렉토리는 끝나면 지운다.
+ *
+ * <pre>
+ * java -cp target/benchmarks.jar com.github.filemanager.CloneCheck
+ * </pre>
+ */
+final class CloneCheck {
+
+    private static final int FILES = 2000;
+    private static final int COMMITS = 50;
+    private static final int BRANCHES = 3;
+
+    private final Path root;
+    private final String uri;
+    private int failures = 0;
+
+    private CloneCheck(Path root, String uri) {
+        this.root = root;
+        this.uri = uri;
+    }
+
+    private void check(String name, boolean ok, String detail) {
+        if (!ok) {
+            failures++;
+        }
+        System.out.println(String.format("%-14s %-4s %s", name, ok ? "OK" : "FAIL", detail));
+    }
+
+    private void fullClone() throws Exception {
+        File directory = root.resolve("full").toFile();
+        final List<String> tasks = new ArrayList<String>();
+        new RepositoryCloner(uri, directory).call((task, completed, total, bytes) -> {
+            if (!tasks.contains(task)) {
+                tasks.add(task);
+            }
+        });
+        try (Git git = Git.open(directory)) {
+            int commits = count(git.log().call());
+            int branches = git.branchList().setListMode(ListBranchCommand.ListMode.REMOTE).call().size();
+            check("full", commits == COMMITS && branches == BRANCHES + 1 && fileCount(directory) == FILES && !tasks.isEmpty(),
+                    commits + " commits, " + branches + " remote branches, " + fileCount(directory) + " files, progress " + tasks);
+        }
+    }
+
+    private void depth() throws Exception {
+        File directory = root.resolve("depth").toFile();
+        new RepositoryCloner(uri, directory).setDepth(1).call(null);
+        try (Git git = Git.open(directory)) {
+            int commits = count(git.log().call());
+            boolean shallow = new File(git.getRepository().getDirectory(), Constants.SHALLOW).isFile();
+            check("depth", commits == 1 && shallow, commits + " commits, shallow file " + (shallow ? "present" : "missing"));
+        }
+    }
+
+    private void singleBranch() throws Exception {
+        File directory = root.resolve("single").toFile();
+        String branch = String.format("branch%06d", 1);
+        new RepositoryCloner(uri, directory).setSingleBranch(true).setBranch(branch).call(null);
+        try (Git git = Git.open(directory)) {
+            List<Ref> remotes = git.branchList().setListMode(ListBranchCommand.ListMode.REMOTE).call();
+            String head = git.getRepository().getFullBranch();
+            check("single-branch", remotes.size() == 1 && head.equals(Constants.R_HEADS + branch),
+                    remotes.size() + " remote branch(es), HEAD " + head);
+        }
+    }
+
+    private void noCheckout() throws Exception {
+        File directory = root.resolve("no-checkout").toFile();
+        new RepositoryCloner(uri, directory).setNoCheckout(true).call(null);
+        try (Git git = Git.open(directory)) {
+            boolean resolved = git.getRepository().resolve(Constants.HEAD) != null;
+            check("no-checkout", resolved && fileCount(directory) == 0, "HEAD " + (resolved ? "resolved" : "missing")
+                    + ", " + fileCount(directory) + " files checked out");
+        }
+    }
+
+    private void cancel() {
+        File directory = root.resolve("cancel").toFile();
+        final RepositoryCloner cloner = new RepositoryCloner(uri, directory);
+        Exception failure = null;
+        try {
+            // 첫 진행 상황에서 취소한다. 받는 도중에 끊기므로 JGit의 로컬 upload 스레드가 Pipe closed를 출력하는데, 정상이다.
+            cloner.call((task, completed, total, bytes) -> cloner.cancel());
+        } catch (Exception e) {
+            failure = e;
+        }
+        check("cancel", failure != null && cloner.isCancelled() && !directory.exists(),
+                (failure == null ? "no exception" : failure.getClass().getSimpleName())
+                        + ", directory " + (directory.exists() ? "left behind" : "removed"));
+    }
+
+    private static int count(Iterable<RevCommit> commits) {
+        int count = 0;
+        for (RevCommit ignored : commits) {
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * .git을 뺀 작업 디렉토리의 파일 수.
+     */
+    private static int fileCount(File dir) {
+        int count = 0;
+        File[] files = dir.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                if (file.isDirectory()) {
+                    count += file.getName().equals(Constants.DOT_GIT) ? 0 : fileCount(file);
+                } else {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Path root = Files.createTempDirectory("clone-check");
+        try {
+            Path source = root.resolve("source");
+            new FixtureGenerator(1).files(FILES).commits(COMMITS).branches(BRANCHES).checkout(false).generate(source);
+            File bare = root.resolve("bare.git").toFile();
+            Git.cloneRepository().setBare(true).setURI(source.toUri().toString()).setDirectory(bare).call().close();
+
+            CloneCheck check = new CloneCheck(root, bare.toURI().toString());
+            check.fullClone();
+            check.depth();
+            check.singleBranch();
+            check.noCheckout();
+            check.cancel();
+            if (check.failures > 0) {
+                System.out.println(check.failures + " check(s) failed");
+                System.exit(1);
+            }
+        } finally {
+            try {
+                BenchmarkFixtures.deleteRecursively(root);
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+}
@@ -0,0 +1,98 @@
+/*
+The MIT License
+
+Copyright (c) 2015-2023 Valentyn Kolesnikov (https://github.com/javadev/file-manager)
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package com.github.filemanager;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.errors.GitAPIException;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * "Git commit history" 창을 열 때의 비용 (그래프 로그 + 커밋 테이블)과 "Show Diff"의 diff 생성 비용.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class CommitHistoryBenchmark {
+
+    @Param({"1000"})
+    public int fileCount;
+
+    @Param({"100", "1000"})
+    public int commitCount;
+
+    private File repository;
+    private Git git;
+    private String headCommit;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, GitAPIException {
+        repository = BenchmarkFixtures.repository(fileCount, commitCount).toFile();
+        git = Git.open(repository);
+        RevCommit head = git.log().setMaxCount(1).call().iterator().next();
+        headCommit = head.getName();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        git.close();
+    }
+
+    @Benchmark
+    public void loadHistory(Blackhole blackhole) {
+        List<Boolean> syncTableWithGraph = new ArrayList<Boolean>();
+        blackhole.consume(FileManager.loadGraphLog(repository, syncTableWithGraph));
+        blackhole.consume(FileManager.loadCommitRows(git, syncTableWithGraph));
+    }
+
+    /**
+     * 파일 몇 개만 바꾼 최신 커밋의 diff.
+     */
+    @Benchmark
+    public List<String> diffHeadCommit() {
+        return FileManager.loadCommitDiff(repository, headCommit, git.getRepository());
+    }
+}
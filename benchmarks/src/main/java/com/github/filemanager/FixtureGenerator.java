@@ -0,0 +1,368 @@
+/*
+The MIT License
+
+Copyright (c) 2015-2023 Valentyn Kolesnikov (https://github.com/javadev/file-manager)
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package com.github.filemanager;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TimeZone;
+import java.util.TreeMap;
+
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.errors.GitAPIException;
+import org.eclipse.jgit.dircache.DirCache;
+import org.eclipse.jgit.dircache.DirCacheCheckout;
+import org.eclipse.jgit.internal.storage.file.ObjectDirectory;
+import org.eclipse.jgit.internal.storage.file.PackInserter;
+import org.eclipse.jgit.lib.CommitBuilder;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.FileMode;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectInserter;
+import org.eclipse.jgit.lib.PersonIdent;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.lib.TreeFormatter;
+
+/**
+ * 대규모 repository fixture를 만드는 도구. 워킹 트리와 git 명령을 거치지 않고 JGit의 ObjectInserter로 blob, tree, commit을
+ * 하나의 pack에 직접 써 넣으므로 파일 100만 개, 커밋 50만 개 규모도 네트워크 없이 빠르게 만들 수 있다.
+ *
+ * <p>파일 내용, 바뀌는 파일, merge 구조, 커밋 시각이 모두 seed에서 결정되므로 같은 인자로 만든 repository는 커밋 ID까지 같다.
+ * 파일은 디렉토리 하나에 FANOUT개씩 들어가도록 d00/d01/... 아래에 배치한다. 커밋마다 바뀐 경로의 tree만 다시 쓰므로
+ * 커밋 하나의 비용은 전체 파일 수가 아니라 트리 깊이에 비례한다.
+ *
+ * <pre>
+ * java -cp benchmarks.jar com.github.filemanager.FixtureGenerator --out=/data/fixtures/big \
+ *     --seed=1 --files=1000000 --commits=500000 --branches=10000 --merge-every=20 --flat-entries=2000000
+ * </pre>
+ */
+final class FixtureGenerator {
+
+    static final int FANOUT = 100;
+    private static final long BASE_TIME = 1_600_000_000_000L;
+
+    private final long seed;
+    private int fileCount = 1000;
+    private int commitCount = 100;
+    private int branchCount = 0;
+    private int mergeEvery = 0;
+    private int filesPerCommit = 3;
+    private boolean checkout = true;
+
+    FixtureGenerator(long seed) {
+        this.seed = seed;
+    }
+
+    FixtureGenerator files(int fileCount) {
+        this.fileCount = fileCount;
+        return this;
+    }
+
+    FixtureGenerator commits(int commitCount) {
+        this.commitCount = commitCount;
+        return this;
+    }
+
+    FixtureGenerator branches(int branchCount) {
+        this.branchCount = branchCount;
+        return this;
+    }
+
+    /**
+     * 0보다 크면 대략 mergeEvery 커밋마다 이전 커밋에서 갈라진 곁가지를 만들고 merge 커밋으로 합친다. 곁가지는 다른 곁가지
+     * 위에서도 갈라지므로 merge 그래프가 깊어진다.
+     */
+    FixtureGenerator mergeEvery(int mergeEvery) {
+        this.mergeEvery = mergeEvery;
+        return this;
+    }
+
+    FixtureGenerator filesPerCommit(int filesPerCommit) {
+        this.filesPerCommit = filesPerCommit;
+        return this;
+    }
+
+    /**
+     * false이면 .git만 만들고 워킹 트리와 index는 만들지 않는다 (히스토리만 필요한 경우).
+     */
+    FixtureGenerator checkout(boolean checkout) {
+        this.checkout = checkout;
+        return this;
+    }
+
+    /**
+     * directory에 repository를 만들고 master의 마지막 커밋 ID를 반환한다. directory는 비어 있거나 없어야 한다.
+     */
+    ObjectId generate(Path directory) throws IOException, GitAPIException {
+        Files.createDirectories(directory);
+        Git.init().setDirectory(directory.toFile()).setInitialBranch(Constants.MASTER).call().close();
+
+        Random random = new Random(seed);
+        int[] versions = new int[fileCount];
+        List<ObjectId> commits = new ArrayList<ObjectId>(commitCount);
+        ObjectId head;
+        ObjectId headTree;
+        try (Git git = Git.open(directory.toFile())) {
+            Repository repository = git.getRepository();
+            // internal API지만 loose object 수백만 개 대신 pack 하나를 바로 쓸 수 있다.
+            PackInserter inserter = ((ObjectDirectory) repository.getObjectDatabase()).newPackInserter();
+            inserter.checkExisting(false);
+            inserter.setCompressionLevel(1);
+            try {
+                TreeNode root = new TreeNode();
+                for (int ii = 0; ii < fileCount; ii++) {
+                    root.put(path(ii), inserter.insert(Constants.OBJ_BLOB, content(ii, 0)));
+                }
+                head = insertCommit(inserter, root.write(inserter), "Initial commit", 0);
+                commits.add(head);
+                while (commits.size() < commitCount) {
+                    if (mergeEvery > 0 && commits.size() % mergeEvery == 0 && commitCount - commits.size() >= 2) {
+                        // 최근 커밋(이전 곁가지 포함) 중 하나에서 갈라진 곁가지를 만들고 merge 한다.
+                        int window = Math.min(commits.size(), mergeEvery * 2);
+                        ObjectId tip = commits.get(commits.size() - 1 - random.nextInt(window));
+                        int sideLength = Math.min(1 + random.nextInt(3), commitCount - commits.size() - 1);
+                        for (int ii = 0; ii < sideLength; ii++) {
+                            change(root, inserter, random, versions);
+                            tip = insertCommit(inserter, root.write(inserter), "Side change " + commits.size(), commits.size(), tip);
+                            commits.add(tip);
+                        }
+                        head = insertCommit(inserter, root.write(inserter), "Merge " + commits.size(), commits.size(), head, tip);
+                    } else {
+                        change(root, inserter, random, versions);
+                        head = insertCommit(inserter, root.write(inserter), "Change " + commits.size(), commits.size(), head);
+                    }
+                    commits.add(head);
+                }
+                headTree = root.write(inserter);
+                inserter.flush();
+            } finally {
+                inserter.close();
+            }
+            writePackedRefs(repository, head, commits, random);
+        }
+
+        if (checkout) {
+            try (Git git = Git.open(directory.toFile())) {
+                Repository repository = git.getRepository();
+                DirCache dirCache = repository.lockDirCache();
+                try {
+                    new DirCacheCheckout(repository, dirCache, headTree).checkout();
+                } finally {
+                    dirCache.unlock();
+                }
+            }
+        }
+        return head;
+    }
+
+    /**
+     * 빈 파일 entries개를 가진 디렉토리를 만든다. 디렉토리 하나에 수백만 개의 항목이 있는 경우의 목록 읽기에 사용한다.
+     */
+    static void flatDirectory(Path directory, int entries) throws IOException {
+        Files.createDirectories(directory);
+        for (int ii = 0; ii < entries; ii++) {
+            Files.createFile(directory.resolve(String.format("entry%08d", ii)));
+        }
+    }
+
+    /**
+     * 파일 index의 repository 내 경로. 예: FANOUT이 100이고 파일이 100만 개이면 d12/d34/file0123456.txt.
+     */
+    String path(int index) {
+        int depth = 0;
+        for (long capacity = FANOUT; capacity < fileCount; capacity *= FANOUT) {
+            depth++;
+        }
+        StringBuilder path = new StringBuilder();
+        for (int level = depth; level > 0; level--) {
+            long divisor = 1;
+            for (int ii = 0; ii < level; ii++) {
+                divisor *= FANOUT;
+            }
+            appendPadded(path.append('d'), (index / divisor) % FANOUT, 2).append('/');
+        }
+        return appendPadded(path.append("file"), index, 7).append(".txt").toString();
+    }
+
+    private static StringBuilder appendPadded(StringBuilder builder, long value, int width) {
+        String digits = Long.toString(value);
+        for (int ii = digits.length(); ii < width; ii++) {
+            builder.append('0');
+        }
+        return builder.append(digits);
+    }
+
+    /**
+     * 파일 index의 version번째 내용. seed, index, version이 같으면 항상 같은 내용이다.
+     */
+    byte[] content(int index, int version) {
+        Random random = new Random(seed * 31 + index * 1_000_003L + version);
+        int lines = 2 + random.nextInt(20);
+        StringBuilder text = new StringBuilder();
+        text.append("file ").append(index).append(" version ").append(version).append('\n');
+        for (int line = 0; line < lines; line++) {
+            long bits = 0;
+            for (int ii = 0, length = 8 + random.nextInt(56); ii < length; ii++) {
+                if (ii % 12 == 0) { // 26^12 < 2^63 이므로 nextLong 하나로 글자 12개를 만든다.
+                    bits = random.nextLong() >>> 1;
+                }
+                text.append((char) ('a' + bits % 26));
+                bits /= 26;
+            }
+            text.append('\n');
+        }
+        return text.toString().getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * 실제 커밋처럼 한 디렉토리 안의 파일들을 바꾼다. 커밋마다 다시 써야 하는 tree가 경로 하나로 줄어든다.
+     */
+    private void change(TreeNode root, ObjectInserter inserter, Random random, int[] versions) throws IOException {
+        int directoryStart = random.nextInt(fileCount) / FANOUT * FANOUT;
+        int directorySize = Math.min(FANOUT, fileCount - directoryStart);
+        for (int ii = 0; ii < filesPerCommit; ii++) {
+            int index = directoryStart + random.nextInt(directorySize);
+            root.put(path(index), inserter.insert(Constants.OBJ_BLOB, content(index, ++versions[index])));
+        }
+    }
+
+    private static ObjectId insertCommit(ObjectInserter inserter, ObjectId tree, String message, int index,
+                                         ObjectId... parents) throws IOException {
+        PersonIdent ident = new PersonIdent("fixture", "fixture@example.com",
+                new Date(BASE_TIME + index * 60_000L), TimeZone.getTimeZone("UTC"));
+        CommitBuilder commit = new CommitBuilder();
+        commit.setTreeId(tree);
+        commit.setParentIds(parents);
+        commit.setAuthor(ident);
+        commit.setCommitter(ident);
+        commit.setMessage(message + "\n");
+        return inserter.insert(commit);
+    }
+
+    /**
+     * master와 branchCount개의 branch를 packed-refs 파일 하나에 쓴다. branch는 임의의 커밋을 가리킨다.
+     */
+    private void writePackedRefs(Repository repository, ObjectId head, List<ObjectId> commits, Random random) throws IOException {
+        TreeMap<String, ObjectId> refs = new TreeMap<String, ObjectId>();
+        refs.put(Constants.R_HEADS + Constants.MASTER, head);
+        for (int ii = 0; ii < branchCount; ii++) {
+            refs.put(String.format("%sbranch%06d", Constants.R_HEADS, ii), commits.get(random.nextInt(commits.size())));
+        }
+        Path packedRefs = repository.getDirectory().toPath().resolve(Constants.PACKED_REFS);
+        try (Writer writer = Files.newBufferedWriter(packedRefs, StandardCharsets.US_ASCII)) {
+            writer.write("# pack-refs with: peeled fully-peeled sorted \n");
+            for (Map.Entry<String, ObjectId> ref : refs.entrySet()) {
+                writer.write(ref.getValue().name() + " " + ref.getKey() + "\n");
+            }
+        }
+    }
+
+    /**
+     * 메모리 안의 디렉토리 트리. 자식은 이름 순서로 정렬된 blob ID 또는 하위 TreeNode이며, 내용이 바뀌면 경로 위의 노드들의
+     * tree ID를 지워서 다음 write 때 그 노드들만 다시 쓴다.
+     */
+    private static final class TreeNode {
+
+        private final TreeMap<String, Object> children = new TreeMap<String, Object>();
+        private ObjectId id;
+
+        void put(String path, ObjectId blob) {
+            TreeNode node = this;
+            int start = 0;
+            for (int slash = path.indexOf('/'); slash >= 0; slash = path.indexOf('/', start)) {
+                node.id = null;
+                String name = path.substring(start, slash);
+                Object child = node.children.get(name);
+                if (child == null) {
+                    child = new TreeNode();
+                    node.children.put(name, child);
+                }
+                node = (TreeNode) child;
+                start = slash + 1;
+            }
+            node.id = null;
+            node.children.put(path.substring(start), blob);
+        }
+
+        /**
+         * 한 디렉토리에는 파일만 있거나 디렉토리만 있으므로 이름의 사전순(TreeMap 순서)이 git의 tree entry 순서와 같다.
+         */
+        ObjectId write(ObjectInserter inserter) throws IOException {
+            if (id != null) {
+                return id;
+            }
+            TreeFormatter formatter = new TreeFormatter();
+            for (Map.Entry<String, Object> child : children.entrySet()) {
+                if (child.getValue() instanceof TreeNode) {
+                    formatter.append(child.getKey(), FileMode.TREE, ((TreeNode) child.getValue()).write(inserter));
+                } else {
+                    formatter.append(child.getKey(), FileMode.REGULAR_FILE, (ObjectId) child.getValue());
+                }
+            }
+            id = inserter.insert(formatter);
+            return id;
+        }
+    }
+
+    public static void main(String[] args) throws IOException, GitAPIException {
+        Map<String, String> options = new TreeMap<String, String>();
+        for (String arg : args) {
+            int equals = arg.indexOf('=');
+            if (!arg.startsWith("--") || equals < 0) {
+                System.err.println("Usage: FixtureGenerator --out=DIR [--seed=N] [--files=N] [--commits=N] [--branches=N]"
+                        + " [--merge-every=N] [--files-per-commit=N] [--no-checkout=true] [--flat-entries=N]");
+                System.exit(2);
+            }
+            options.put(arg.substring(2, equals), arg.substring(equals + 1));
+        }
+        Path out = Paths.get(options.getOrDefault("out", "fixture"));
+        FixtureGenerator generator = new FixtureGenerator(Long.parseLong(options.getOrDefault("seed", "1")))
+                .files(Integer.parseInt(options.getOrDefault("files", "1000")))
+                .commits(Integer.parseInt(options.getOrDefault("commits", "100")))
+                .branches(Integer.parseInt(options.getOrDefault("branches", "0")))
+                .mergeEvery(Integer.parseInt(options.getOrDefault("merge-every", "0")))
+                .filesPerCommit(Integer.parseInt(options.getOrDefault("files-per-commit", "3")))
+                .checkout(!Boolean.parseBoolean(options.getOrDefault("no-checkout", "false")));
+        long start = System.currentTimeMillis();
+        // 해시 충돌 검사를 하는 JGit 기본 SHA-1 대신 JDK 구현을 쓴다. 직접 만든 객체만 쓰므로 검사가 필요 없다.
+        System.setProperty("org.eclipse.jgit.util.sha1.implementation", "jdkNative");
+        ObjectId head = generator.generate(out.resolve("repository"));
+        System.out.println("repository: " + out.resolve("repository") + " master=" + head.name()
+                + " (" + (System.currentTimeMillis() - start) + " ms)");
+        int flatEntries = Integer.parseInt(options.getOrDefault("flat-entries", "0"));
+        if (flatEntries > 0) {
+            start = System.currentTimeMillis();
+            flatDirectory(out.resolve("flat"), flatEntries);
+            System.out.println("flat directory: " + out.resolve("flat") + " (" + (System.currentTimeMillis() - start) + " ms)");
+        }
+    }
+}
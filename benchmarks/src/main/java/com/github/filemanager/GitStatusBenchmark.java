@@ -0,0 +1,98 @@
+/*
+The MIT License
+
+Copyright (c) 2015-2023 Valentyn Kolesnikov (https://github.com/javadev/file-manager)
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package com.github.filemanager;
+
+import java.awt.Color;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.eclipse.jgit.api.errors.GitAPIException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * renderGitFileStatus가 하는 일: repository의 status 계산과, 테이블 각 행의 파일 상태 색 결정.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class GitStatusBenchmark {
+
+    @Param({"1000", "10000"})
+    public int fileCount;
+
+    @Param({"100"})
+    public int commitCount;
+
+    private File repository;
+    private FileManager.GitFileStatus status;
+    private List<File> rows;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, GitAPIException {
+        Path root = BenchmarkFixtures.repository(fileCount, commitCount);
+        repository = root.toFile();
+        status = FileManager.loadGitFileStatus(repository);
+        try (Stream<Path> files = Files.walk(root)) {
+            rows = new ArrayList<File>(files.filter(file -> !file.startsWith(root.resolve(".git")))
+                    .map(Path::toFile).collect(Collectors.toList()));
+        }
+    }
+
+    @Benchmark
+    public void loadStatus(Blackhole blackhole) throws IOException, GitAPIException {
+        blackhole.consume(FileManager.loadGitFileStatus(repository));
+    }
+
+    /**
+     * 테이블 렌더러가 행마다 호출하는 색 결정. 행 수는 repository의 전체 파일 수와 같다.
+     */
+    @Benchmark
+    public void colorRows(Blackhole blackhole) {
+        for (File file : rows) {
+            blackhole.consume(status.colorOf(file, Color.BLACK));
+        }
+    }
+}
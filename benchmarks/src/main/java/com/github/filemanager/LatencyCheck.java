@@ -0,0 +1,284 @@
+/*
+The MIT License
+
+Copyright (c) 2015-2023 Valentyn Kolesnikov (https://github.com/javadev/file-manager)
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package com.github.filemanager;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+
+import javax.swing.filechooser.FileSystemView;
+
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.errors.GitAPIException;
+
+/**
+ * 큰 fixture에서 FileManager의 작업들을 처음부터 끝까지 실행하고, 기록해 둔 시간 예산을 넘으면 0이 아닌 값으로 종료한다.
+ *
+ * <p>fixture 규모와 작업별 예산(ms, 여러 번 실행한 중앙값 기준)은 latency-budgets.properties에 함께 기록한다. fixture는
+ * FixtureGenerator로 seed에서 만들어 FILEMANAGER_FIXTURE_DIR 아래에 재사용한다.
+ *
+ * <p>예산은 기준 장비에서 잰 중앙값이다. 실행할 때마다 장비 속도를 재는 고정 작업(calibrate)을 먼저 돌려서, 기준 장비의
+ * baseline과의 비율만큼 예산을 늘리거나 줄이고 tolerance 배율을 곱해 비교한다. 그래서 느린 CI 장비에서도 예산을 고치지 않고
+ * 실행할 수 있다. 기준 장비를 바꾸려면 --record=FILE로 실행하면 그 장비의 baseline과 중앙값을 FILE에 쓴다.
+ *
+ * <pre>
+ * java -cp target/benchmarks.jar com.github.filemanager.LatencyCheck [--budgets=FILE] [--record=FILE] [--runs=N]
+ * </pre>
+ */
+final class LatencyCheck {
+
+    private static final double DEFAULT_TOLERANCE = 1.5;
+    private static final int CALIBRATION_BYTES = 64 << 20;
+    private static final int CALIBRATION_FILES = 20000;
+
+    private final Properties settings;
+    private final int runs;
+    private final Map<String, Long> medians = new LinkedHashMap<String, Long>();
+    private long baseline;
+
+    private LatencyCheck(Properties settings, int runs) {
+        this.settings = settings;
+        this.runs = runs;
+    }
+
+    private int setting(String key) {
+        return Integer.parseInt(settings.getProperty("fixture." + key).trim());
+    }
+
+    /**
+     * 모든 작업을 측정한다. 각 작업은 한 번 예열한 뒤 runs번 실행하고 중앙값을 기록한다.
+     */
+    private void measure() throws Exception {
+        baseline = median("baseline", new Callable<Object>() {
+            public Object call() throws Exception {
+                return calibrate();
+            }
+        });
+        long seed = setting("seed");
+        final Path fixture = BenchmarkFixtures.fixtureRoot().resolve("latency-" + seed + "-" + setting("files") + "-"
+                + setting("commits") + "-" + setting("branches") + "-" + setting("mergeEvery") + "-" + setting("flatEntries"));
+        final Path repository = fixture.resolve("repository");
+        final Path flat = fixture.resolve("flat");
+        if (!BenchmarkFixtures.isComplete(fixture)) {
+            BenchmarkFixtures.deleteRecursively(fixture);
+            System.out.println("Generating fixture in " + fixture + " ...");
+            long start = System.currentTimeMillis();
+            new FixtureGenerator(seed).files(setting("files")).commits(setting("commits"))
+                    .branches(setting("branches")).mergeEvery(setting("mergeEvery")).generate(repository);
+            FixtureGenerator.flatDirectory(flat, setting("flatEntries"));
+            BenchmarkFixtures.markComplete(fixture);
+            System.out.println("Generated in " + (System.currentTimeMillis() - start) + " ms");
+        }
+        final Path workspace = BenchmarkFixtures.workspace(setting("repositories"), 2);
+        final File source = BenchmarkFixtures.largeFile(64L << 20).toFile();
+        final File target = new File(source.getParentFile(), "latency-copy.bin");
+        final FileSystemView fileSystemView = FileSystemView.getFileSystemView();
+        final String headCommit;
+        try (Git git = Git.open(repository.toFile())) {
+            headCommit = git.getRepository().resolve("HEAD").name();
+        }
+
+        time("listFlatDirectory", new Callable<Object>() {
+            public Object call() {
+                FileTableModel model = new FileTableModel();
+                model.setFiles(fileSystemView.getFiles(flat.toFile(), true));
+                return model;
+            }
+        });
+        time("loadStatus", new Callable<Object>() {
+            public Object call() throws IOException, GitAPIException {
+                return FileManager.loadGitFileStatus(repository.toFile());
+            }
+        });
+        time("loadHistory", new Callable<Object>() {
+            public Object call() throws IOException {
+                try (Git git = Git.open(repository.toFile())) {
+                    List<Boolean> syncTableWithGraph = new ArrayList<Boolean>();
+                    FileManager.loadGraphLog(repository.toFile(), syncTableWithGraph);
+                    return FileManager.loadCommitRows(git, syncTableWithGraph);
+                }
+            }
+        });
+        time("diffHeadCommit", new Callable<Object>() {
+            public Object call() throws IOException {
+                try (Git git = Git.open(repository.toFile())) {
+                    return FileManager.loadCommitDiff(repository.toFile(), headCommit, git.getRepository());
+                }
+            }
+        });
+        time("scanWorkspace", new Callable<Object>() {
+            public Object call() throws InterruptedException {
+                ForkJoinPool pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+                try {
+                    final List<Object> found = new ArrayList<Object>();
+                    new RepositoryScanner(workspace, Math.min(8, Runtime.getRuntime().availableProcessors()))
+                            .run(pool, status -> found.add(status));
+                    return found;
+                } finally {
+                    pool.shutdown();
+                }
+            }
+        });
+        time("copyFile", new Callable<Object>() {
+            public Object call() throws IOException {
+                Files.deleteIfExists(target.toPath());
+                return FileManager.copyFile(source, target);
+            }
+        });
+        Files.deleteIfExists(target.toPath());
+    }
+
+    /**
+     * 장비 속도를 재는 고정 작업. fixture와 상관없이 CPU(64MB SHA-256)와 파일 시스템(작은 파일 2만 개를 만들고 나열한 뒤 지우기)을
+     * 함께 쓴다. 측정하는 작업들도 대부분 이 두 가지에 묶여 있다.
+     */
+    static Object calibrate() throws IOException, NoSuchAlgorithmException {
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        byte[] block = new byte[1 << 20];
+        new Random(1).nextBytes(block);
+        for (int ii = 0; ii < CALIBRATION_BYTES / block.length; ii++) {
+            digest.update(block);
+        }
+        Path dir = Files.createTempDirectory("latency-calibrate");
+        try {
+            for (int ii = 0; ii < CALIBRATION_FILES; ii++) {
+                Files.createFile(dir.resolve("f" + ii));
+            }
+            if (dir.toFile().list().length != CALIBRATION_FILES) {
+                throw new IOException("Unexpected listing of " + dir);
+            }
+        } finally {
+            BenchmarkFixtures.deleteRecursively(dir);
+        }
+        return digest.digest();
+    }
+
+    private void time(String operation, Callable<Object> task) throws Exception {
+        medians.put(operation, median(operation, task));
+    }
+
+    private long median(String operation, Callable<Object> task) throws Exception {
+        task.call();
+        long[] times = new long[runs];
+        for (int ii = 0; ii < runs; ii++) {
+            long start = System.nanoTime();
+            task.call();
+            times[ii] = (System.nanoTime() - start) / 1_000_000;
+        }
+        Arrays.sort(times);
+        System.out.println(String.format("%-20s median %6d ms (min %d, max %d)", operation, times[runs / 2], times[0], times[runs - 1]));
+        return times[runs / 2];
+    }
+
+    /**
+     * @return 예산을 넘은 작업 수. 예산이 없는 작업은 실패로 센다.
+     */
+    private int check() {
+        int failures = 0;
+        long referenceBaseline = Long.parseLong(settings.getProperty("baseline").trim());
+        double tolerance = Double.parseDouble(settings.getProperty("tolerance", String.valueOf(DEFAULT_TOLERANCE)).trim());
+        double scale = Math.max(1, baseline) / (double) Math.max(1, referenceBaseline);
+        System.out.println();
+        System.out.println(String.format("baseline %d ms / reference %d ms: budgets x %.2f (tolerance %.2f)",
+                baseline, referenceBaseline, scale * tolerance, tolerance));
+        for (Map.Entry<String, Long> median : medians.entrySet()) {
+            String budget = settings.getProperty("budget." + median.getKey());
+            long allowed = budget == null ? -1 : Math.max(1, Math.round(Long.parseLong(budget.trim()) * scale * tolerance));
+            boolean ok = budget != null && median.getValue() <= allowed;
+            if (!ok) {
+                failures++;
+            }
+            System.out.println(String.format("%-20s %6d ms / budget %6s ms  %s", median.getKey(), median.getValue(),
+                    budget == null ? "-" : String.valueOf(allowed), ok ? "OK" : "OVER BUDGET"));
+        }
+        return failures;
+    }
+
+    private void record(Path file) throws IOException {
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write("# Recorded by LatencyCheck --record on " + System.getProperty("os.name") + " " + System.getProperty("os.arch")
+                    + ", " + Runtime.getRuntime().availableProcessors() + " cores, Java " + System.getProperty("java.version") + ".\n");
+            writer.write("# Budgets are the measured medians; LatencyCheck scales them by the baseline ratio and the tolerance.\n");
+            writer.write("baseline=" + baseline + "\n");
+            writer.write("tolerance=" + settings.getProperty("tolerance", String.valueOf(DEFAULT_TOLERANCE)).trim() + "\n");
+            for (String key : new String[]{"seed", "files", "commits", "branches", "mergeEvery", "flatEntries", "repositories"}) {
+                writer.write("fixture." + key + "=" + setting(key) + "\n");
+            }
+            for (Map.Entry<String, Long> median : medians.entrySet()) {
+                writer.write("budget." + median.getKey() + "=" + Math.max(1, median.getValue()) + "\n");
+            }
+        }
+        System.out.println("Budgets written to " + file);
+    }
+
+    public static void main(String[] args) throws Exception {
+        String budgets = null;
+        String recordTo = null;
+        int runs = 5;
+        for (String arg : args) {
+            if (arg.startsWith("--budgets=")) {
+                budgets = arg.substring("--budgets=".length());
+            } else if (arg.startsWith("--record=")) {
+                recordTo = arg.substring("--record=".length());
+            } else if (arg.startsWith("--runs=")) {
+                runs = Integer.parseInt(arg.substring("--runs=".length()));
+            } else {
+                System.err.println("Usage: LatencyCheck [--budgets=FILE] [--record=FILE] [--runs=N]");
+                System.exit(2);
+            }
+        }
+        Properties settings = new Properties();
+        try (InputStream in = budgets != null ? Files.newInputStream(Paths.get(budgets))
+                : LatencyCheck.class.getResourceAsStream("/latency-budgets.properties")) {
+            settings.load(in);
+        }
+        LatencyCheck check = new LatencyCheck(settings, Math.max(1, runs));
+        check.measure();
+        if (recordTo != null) {
+            check.record(Paths.get(recordTo));
+            return;
+        }
+        int failures = check.check();
+        if (failures > 0) {
+            System.out.println(failures + " operation(s) over budget");
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+/*
+The MIT License
+
+Copyright (c) 2015-2023 Valentyn Kolesnikov (https://github.com/javadev/file-manager)
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package com.github.filemanager;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import javax.swing.filechooser.FileSystemView;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * 디렉토리 목록을 읽어 FileTableModel을 채우고, 테이블이 보이는 행을 그릴 때처럼 모든 셀 값을 읽는 비용.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class ListingBenchmark {
+
+    @Param({"1000", "10000"})
+    public int fileCount;
+
+    private File directory;
+    private FileSystemView fileSystemView;
+    private FileTableModel model;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = BenchmarkFixtures.directory(fileCount).toFile();
+        fileSystemView = FileSystemView.getFileSystemView();
+        model = new FileTableModel();
+        model.setFiles(fileSystemView.getFiles(directory, true));
+    }
+
+    /**
+     * FileManager.showChildren/setTableData와 같은 경로: 목록을 읽고 모델에 넣는다.
+     */
+    @Benchmark
+    public void listDirectory(Blackhole blackhole) {
+        File[] files = fileSystemView.getFiles(directory, true);
+        FileTableModel fileTableModel = new FileTableModel();
+        fileTableModel.setFiles(files);
+        blackhole.consume(fileTableModel);
+    }
+
+    /**
+     * 모든 행의 모든 열 값을 읽는다 (아이콘, 표시 이름, 크기, 수정 시각, 권한).
+     */
+    @Benchmark
+    public void readAllCells(Blackhole blackhole) {
+        for (int row = 0; row < model.getRowCount(); row++) {
+            for (int column = 0; column < model.getColumnCount(); column++) {
+                blackhole.consume(model.getValueAt(row, column));
+            }
+        }
+    }
+}
@@ -0,0 +1,102 @@
+/*
+The MIT License
+
+Copyright (c) 2015-2023 Valentyn Kolesnikov (https://github.com/javadev/file-manager)
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package com.github.filemanager;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.jgit.api.errors.GitAPIException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * 여러 repository가 들어 있는 workspace에서 repository를 찾는 비용. Git dashboard의 RepositoryScanner와, 선택이 바뀔 때마다
+ * 실행하는 isInGitRepository(git status 프로세스)를 비교한다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class RepositoryDiscoveryBenchmark {
+
+    @Param({"50"})
+    public int repositoryCount;
+
+    @Param({"2"})
+    public int depth;
+
+    private Path workspace;
+    private File firstRepository;
+    private ForkJoinPool pool;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, GitAPIException, InterruptedException {
+        workspace = BenchmarkFixtures.workspace(repositoryCount, depth);
+        pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+        final File[] found = new File[1];
+        new RepositoryScanner(workspace, 1).run(pool, status -> found[0] = status.directory.toFile());
+        firstRepository = found[0];
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    /**
+     * 모든 repository를 찾고 각각의 status까지 계산한다.
+     */
+    @Benchmark
+    public int scanWorkspace() throws InterruptedException {
+        final AtomicInteger count = new AtomicInteger();
+        new RepositoryScanner(workspace, Math.min(8, Runtime.getRuntime().availableProcessors()))
+                .run(pool, status -> count.incrementAndGet());
+        return count.get();
+    }
+
+    /**
+     * repository 하나가 git repository인지 판정한다 (트리에서 디렉토리를 선택할 때마다 실행된다).
+     */
+    @Benchmark
+    public boolean isInGitRepository() {
+        return FileManager.isInGitRepository(firstRepository);
+    }
+}
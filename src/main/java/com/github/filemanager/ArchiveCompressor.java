@@ -0,0 +1,558 @@
+/*
+The MIT License
+
+Copyright (c) 2015-2023 Valentyn Kolesnikov (https://github.com/javadev/file-manager)
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package com.github.filemanager;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.PosixFilePermission;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.zip.Deflater;
+
+import org.apache.commons.io.output.CountingOutputStream;
+
+/**
+ * 파일이나 디렉토리를 zip 또는 tar.gz로 압축한다. 압축은 ParallelDeflateOutputStream이 블록 단위로 모든 코어에 나누어
+ * 하고(pigz 방식), 결과는 처음부터 끝까지 순서대로 한 번만 쓴다. 크기를 미리 알 필요가 없도록 zip은 항목마다 data
+ * descriptor를 쓰고, 4GB나 65535개를 넘으면 zip64 레코드를 쓴다. 압축한 뒤에 4GB를 넘을 수 있는 파일(needsZip64Local)만
+ * local header에 값이 0인 zip64 extra field를 미리 넣고 data descriptor의 크기를 8바이트로 쓴다. 압축하는 도중에 파일이 커져
+ * 4GB를 넘으면 예외를 던진다.
+ *
+ * <p>JDK 17까지의 ZipInputStream은 local header의 zip64 extra를 보지 않고 실제 크기가 4GB를 넘을 때만 8바이트 descriptor를
+ * 읽는다. 그래서 4GB에서 deflate가 최악으로 늘어나는 만큼(약 4MB) 모자란 크기의 파일은 그 ZipInputStream으로 읽을 수 없다.
+ * 압축하기 전에는 결과가 4GB를 넘을지 알 수 없고 이미 쓴 local header는 고칠 수 없으므로, 이 좁은 구간은 형식에 맞는 zip64를
+ * 쓰는 쪽을 택한다. ZipFile, unzip, 7-Zip과 최신 JDK의 ZipInputStream은 문제없이 읽는다.
+ * tar는 POSIX ustar 형식이며 긴 이름과 8GB 이상의
+ * 파일은 PAX 확장 헤더로 기록한다.
+ *
+ * <p>RepositoryCloner처럼 Swing과 무관하며 call은 백그라운드 스레드에서 호출한다. 진행 상황은 읽은 바이트 수로 알린다.
+ */
+final class ArchiveCompressor {
+
+    enum Format {
+        ZIP("zip", ".zip"),
+        TAR_GZ("tar.gz", ".tar.gz");
+
+        private final String label;
+        final String suffix;
+
+        Format(String label, String suffix) {
+            this.label = label;
+            this.suffix = suffix;
+        }
+
+        @Override
+        public String toString() {
+            return label;
+        }
+    }
+
+    /**
+     * 진행 상황을 받는 인터페이스. 압축하는 스레드에서 최대 PROGRESS_INTERVAL_MILLIS마다 한 번 호출된다.
+     */
+    interface Listener {
+
+        /**
+         * @param name       압축 중인 항목 이름
+         * @param bytes      지금까지 읽은 바이트 수
+         * @param totalBytes 압축할 파일 크기의 합
+         */
+        void progress(String name, long bytes, long totalBytes);
+    }
+
+    private static final long PROGRESS_INTERVAL_MILLIS = 100;
+    private static final int BUFFER_SIZE = 1 << 20;
+    private static final long ZIP64_MAGIC = 0xFFFFFFFFL;
+    private static final int ZIP_FLAG_DATA_DESCRIPTOR = 1 << 3;
+    private static final int ZIP_FLAG_UTF8 = 1 << 11;
+    private static final int ZIP_VERSION = 20;
+    private static final int ZIP64_VERSION = 45;
+    private static final int ZIP_UNIX = 3;
+    private static final long TAR_MAX_SIZE = 077777777777L;
+    private static final int TAR_BLOCK = 512;
+
+    private final File source;
+    private final File target;
+    private final Format format;
+    private int level = Deflater.DEFAULT_COMPRESSION;
+    private volatile boolean cancelled = false;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private Listener listener;
+    private long bytesRead;
+    private long totalBytes;
+    private long lastProgress;
+
+    ArchiveCompressor(File source, File target, Format format) {
+        this.source = source;
+        this.target = target;
+        this.format = format;
+    }
+
+    /**
+     * Deflater 압축 수준 (0-9). 기본값은 Deflater.DEFAULT_COMPRESSION.
+     */
+    ArchiveCompressor setLevel(int level) {
+        this.level = level;
+        return this;
+    }
+
+    File getTarget() {
+        return target;
+    }
+
+    /**
+     * 어느 스레드에서나 호출할 수 있다. 다음 버퍼를 읽을 때 중단하고 만들던 파일을 지운다.
+     */
+    void cancel() {
+        cancelled = true;
+    }
+
+    boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * 압축하고 만들어진 파일의 크기를 반환한다. 실패하거나 취소되면 만들던 파일을 지우며, 취소된 경우에는
+     * InterruptedIOException을 던진다.
+     */
+    long call(Listener listener) throws IOException {
+        this.listener = listener;
+        List<Entry> entries = collect();
+        totalBytes = 0;
+        for (Entry entry : entries) {
+            if (entry.attributes.isRegularFile()) {
+                totalBytes += entry.attributes.size();
+            }
+        }
+        bytesRead = 0;
+        Metrics.Sample sample = Metrics.start("archive.compress");
+        ForkJoinPool pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+        boolean completed = false;
+        try (CountingOutputStream out = new CountingOutputStream(new BufferedOutputStream(new FileOutputStream(target), BUFFER_SIZE))) {
+            if (format == Format.ZIP) {
+                writeZip(out, entries, pool);
+            } else {
+                writeTarGz(out, entries, pool);
+            }
+            completed = true;
+        } finally {
+            pool.shutdown();
+            if (completed) {
+                sample.stop();
+            } else {
+                sample.error();
+                target.delete();
+            }
+        }
+        listener.progress("", bytesRead, totalBytes);
+        return target.length();
+    }
+
+    /**
+     * 압축할 항목을 모은다. 이름은 source의 상위 디렉토리 기준이므로 압축을 풀면 source 이름의 디렉토리가 생긴다.
+     */
+    private List<Entry> collect() throws IOException {
+        final Path base = source.getAbsoluteFile().toPath().getParent();
+        final Path targetPath = target.getAbsoluteFile().toPath();
+        final List<Entry> entries = new ArrayList<Entry>();
+        Files.walkFileTree(source.getAbsoluteFile().toPath(), new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attributes) throws IOException {
+                checkCancelled();
+                entries.add(new Entry(dir, name(base, dir), attributes));
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) {
+                if (!file.equals(targetPath) && !attributes.isOther()) { // 만들고 있는 압축 파일, 장치 파일 등은 건너뛴다.
+                    entries.add(new Entry(file, name(base, file), attributes));
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        return entries;
+    }
+
+    private static String name(Path base, Path path) {
+        return (base == null ? path : base.relativize(path)).toString().replace(File.separatorChar, '/');
+    }
+
+    private void writeTarGz(OutputStream out, List<Entry> entries, ForkJoinPool pool) throws IOException {
+        // gzip 헤더: magic, deflate, flag 없음, mtime 없음, OS unknown
+        out.write(new byte[]{0x1f, (byte) 0x8b, 8, 0, 0, 0, 0, 0, 0, (byte) 255});
+        ParallelDeflateOutputStream deflate = new ParallelDeflateOutputStream(out, pool, level);
+        for (Entry entry : entries) {
+            writeTarHeader(deflate, entry);
+            if (entry.attributes.isRegularFile()) {
+                long size = entry.attributes.size();
+                long copied = copy(entry, deflate, size);
+                // 목록을 만든 뒤 파일이 줄어들었으면 헤더의 크기만큼 0으로 채운다.
+                for (long remaining = size - copied; remaining > 0; remaining -= Math.min(remaining, BUFFER_SIZE)) {
+                    deflate.write(new byte[(int) Math.min(remaining, BUFFER_SIZE)]);
+                }
+                padTar(deflate, size);
+            }
+        }
+        deflate.write(new byte[TAR_BLOCK * 2]); // 끝을 나타내는 빈 블록 두 개
+        deflate.finish();
+        writeInt(out, deflate.getCrc());
+        writeInt(out, deflate.getBytesIn()); // ISIZE는 2^32로 나눈 나머지
+    }
+
+    private static void writeTarHeader(OutputStream out, Entry entry) throws IOException {
+        BasicFileAttributes attributes = entry.attributes;
+        String name = attributes.isDirectory() ? entry.name + "/" : entry.name;
+        String link = attributes.isSymbolicLink() ? Files.readSymbolicLink(entry.path).toString() : "";
+        long size = attributes.isRegularFile() ? attributes.size() : 0L;
+        long mtime = Math.max(0L, attributes.lastModifiedTime().toMillis() / 1000);
+        char type = attributes.isDirectory() ? '5' : attributes.isSymbolicLink() ? '2' : '0';
+        byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+        byte[] linkBytes = link.getBytes(StandardCharsets.UTF_8);
+
+        StringBuilder pax = new StringBuilder();
+        if (nameBytes.length > 100) {
+            paxRecord(pax, "path", name);
+        }
+        if (linkBytes.length > 100) {
+            paxRecord(pax, "linkpath", link);
+        }
+        if (size > TAR_MAX_SIZE) {
+            paxRecord(pax, "size", Long.toString(size));
+        }
+        if (pax.length() > 0) {
+            byte[] paxBytes = pax.toString().getBytes(StandardCharsets.UTF_8);
+            out.write(tarHeader("././@PaxHeader".getBytes(StandardCharsets.US_ASCII), paxBytes.length, mtime, 0644, 'x', new byte[0]));
+            out.write(paxBytes);
+            padTar(out, paxBytes.length);
+        }
+        out.write(tarHeader(nameBytes, size > TAR_MAX_SIZE ? 0L : size, mtime, mode(entry), type, linkBytes));
+    }
+
+    /**
+     * PAX 레코드 "길이 key=value\n". 길이는 길이 자신의 자릿수까지 포함한 바이트 수이다.
+     */
+    private static void paxRecord(StringBuilder pax, String key, String value) {
+        int body = (" " + key + "=" + value + "\n").getBytes(StandardCharsets.UTF_8).length;
+        int length = body + Integer.toString(body).length();
+        if (Integer.toString(length).length() != Integer.toString(body).length()) {
+            length++;
+        }
+        pax.append(length).append(' ').append(key).append('=').append(value).append('\n');
+    }
+
+    private static byte[] tarHeader(byte[] name, long size, long mtime, int mode, char type, byte[] link) {
+        byte[] header = new byte[TAR_BLOCK];
+        System.arraycopy(name, 0, header, 0, Math.min(name.length, 100)); // 긴 이름은 PAX 헤더가 대신한다.
+        putOctal(header, 100, 8, mode);
+        putOctal(header, 108, 8, 0); // uid
+        putOctal(header, 116, 8, 0); // gid
+        putOctal(header, 124, 12, size);
+        putOctal(header, 136, 12, mtime);
+        header[156] = (byte) type;
+        System.arraycopy(link, 0, header, 157, Math.min(link.length, 100));
+        System.arraycopy("ustar\u000000".getBytes(StandardCharsets.US_ASCII), 0, header, 257, 8);
+        for (int ii = 148; ii < 156; ii++) {
+            header[ii] = ' '; // checksum을 계산할 때 checksum 칸은 공백으로 친다.
+        }
+        int checksum = 0;
+        for (byte b : header) {
+            checksum += b & 0xff;
+        }
+        putOctal(header, 148, 7, checksum);
+        return header;
+    }
+
+    /**
+     * length-1자리 8진수와 NUL을 쓴다.
+     */
+    private static void putOctal(byte[] header, int offset, int length, long value) {
+        String octal = Long.toOctalString(value);
+        int digits = length - 1;
+        for (int ii = 0; ii < digits; ii++) {
+            int index = ii - (digits - octal.length());
+            header[offset + ii] = (byte) (index < 0 ? '0' : octal.charAt(index));
+        }
+        header[offset + digits] = 0;
+    }
+
+    private static void padTar(OutputStream out, long size) throws IOException {
+        int remainder = (int) (size % TAR_BLOCK);
+        if (remainder != 0) {
+            out.write(new byte[TAR_BLOCK - remainder]);
+        }
+    }
+
+    /**
+     * size바이트 파일을 압축한 결과가 4GB를 넘을 수 있으면 true. 압축이 안 되는 내용은 deflate 후 조금 커진다
+     * (zlib의 deflateBound와 블록마다 붙는 SYNC_FLUSH를 합쳐 128KB 블록마다 64바이트 이하). 두 배의 여유를 둔다.
+     */
+    static boolean needsZip64Local(long size) {
+        return size >= ZIP64_MAGIC || size + (size >> 10) + 1024 >= ZIP64_MAGIC;
+    }
+
+    private void writeZip(CountingOutputStream out, List<Entry> entries, ForkJoinPool pool) throws IOException {
+        List<ZipRecord> records = new ArrayList<ZipRecord>();
+        for (Entry entry : entries) {
+            if (entry.attributes.isSymbolicLink()) {
+                System.out.println("Skipped symbolic link: " + entry.path); // zip에는 링크를 담지 않는다.
+                continue;
+            }
+            boolean directory = entry.attributes.isDirectory();
+            ZipRecord record = new ZipRecord();
+            record.name = (directory ? entry.name + "/" : entry.name).getBytes(StandardCharsets.UTF_8);
+            record.directory = directory;
+            record.flags = ZIP_FLAG_UTF8 | (directory ? 0 : ZIP_FLAG_DATA_DESCRIPTOR);
+            record.method = directory ? 0 : 8;
+            record.time = dosTime(entry.attributes.lastModifiedTime().toMillis());
+            record.mode = mode(entry) | (directory ? 0040000 : 0100000);
+            record.offset = out.getByteCount();
+            // local header의 zip64 extra 유무와 data descriptor의 크기 필드 길이(8 / 4바이트)는 항상 같아야 한다.
+            boolean zip64 = !directory && needsZip64Local(entry.attributes.size());
+            record.zip64 = zip64;
+
+            // 크기와 CRC는 압축한 뒤에 data descriptor로 쓴다.
+            writeInt(out, 0x04034b50L);
+            writeShort(out, zip64 ? ZIP64_VERSION : ZIP_VERSION);
+            writeShort(out, record.flags);
+            writeShort(out, record.method);
+            writeInt(out, record.time);
+            writeInt(out, 0);
+            writeInt(out, zip64 ? ZIP64_MAGIC : 0);
+            writeInt(out, zip64 ? ZIP64_MAGIC : 0);
+            writeShort(out, record.name.length);
+            writeShort(out, zip64 ? 20 : 0);
+            out.write(record.name);
+            if (zip64) {
+                writeShort(out, 0x0001);
+                writeShort(out, 16);
+                writeLong(out, 0); // size
+                writeLong(out, 0); // compressed size
+            }
+
+            if (!directory) {
+                ParallelDeflateOutputStream deflate = new ParallelDeflateOutputStream(out, pool, level);
+                copy(entry, deflate, Long.MAX_VALUE);
+                deflate.finish();
+                record.crc = deflate.getCrc();
+                record.compressedSize = deflate.getBytesOut();
+                record.size = deflate.getBytesIn();
+                if (!zip64 && (record.compressedSize >= ZIP64_MAGIC || record.size >= ZIP64_MAGIC)) {
+                    throw new IOException("압축하는 도중에 파일이 4GB를 넘게 커졌습니다: " + entry.path);
+                }
+                writeInt(out, 0x08074b50L);
+                writeInt(out, record.crc);
+                if (zip64) {
+                    writeLong(out, record.compressedSize);
+                    writeLong(out, record.size);
+                } else {
+                    writeInt(out, record.compressedSize);
+                    writeInt(out, record.size);
+                }
+            }
+            records.add(record);
+        }
+
+        long centralOffset = out.getByteCount();
+        for (ZipRecord record : records) {
+            writeCentralHeader(out, record);
+        }
+        long centralSize = out.getByteCount() - centralOffset;
+        if (records.size() >= 0xFFFF || centralOffset >= ZIP64_MAGIC || centralSize >= ZIP64_MAGIC) {
+            long zip64EndOffset = out.getByteCount();
+            writeInt(out, 0x06064b50L); // zip64 end of central directory
+            writeLong(out, 44);
+            writeShort(out, ZIP_UNIX << 8 | ZIP64_VERSION);
+            writeShort(out, ZIP64_VERSION);
+            writeInt(out, 0);
+            writeInt(out, 0);
+            writeLong(out, records.size());
+            writeLong(out, records.size());
+            writeLong(out, centralSize);
+            writeLong(out, centralOffset);
+            writeInt(out, 0x07064b50L); // zip64 end of central directory locator
+            writeInt(out, 0);
+            writeLong(out, zip64EndOffset);
+            writeInt(out, 1);
+        }
+        writeInt(out, 0x06054b50L);
+        writeShort(out, 0);
+        writeShort(out, 0);
+        writeShort(out, Math.min(records.size(), 0xFFFF));
+        writeShort(out, Math.min(records.size(), 0xFFFF));
+        writeInt(out, Math.min(centralSize, ZIP64_MAGIC));
+        writeInt(out, Math.min(centralOffset, ZIP64_MAGIC));
+        writeShort(out, 0);
+    }
+
+    private static void writeCentralHeader(OutputStream out, ZipRecord record) throws IOException {
+        // 4GB를 넘는 값은 zip64 extra field에 size, compressed size, offset 순서로 쓴다.
+        int zip64Fields = (record.size >= ZIP64_MAGIC ? 1 : 0) + (record.compressedSize >= ZIP64_MAGIC ? 1 : 0)
+                + (record.offset >= ZIP64_MAGIC ? 1 : 0);
+        writeInt(out, 0x02014b50L);
+        writeShort(out, ZIP_UNIX << 8 | ZIP64_VERSION);
+        writeShort(out, zip64Fields > 0 || record.zip64 ? ZIP64_VERSION : ZIP_VERSION);
+        writeShort(out, record.flags);
+        writeShort(out, record.method);
+        writeInt(out, record.time);
+        writeInt(out, record.crc);
+        writeInt(out, Math.min(record.compressedSize, ZIP64_MAGIC));
+        writeInt(out, Math.min(record.size, ZIP64_MAGIC));
+        writeShort(out, record.name.length);
+        writeShort(out, zip64Fields > 0 ? 4 + zip64Fields * 8 : 0);
+        writeShort(out, 0); // comment
+        writeShort(out, 0); // disk number
+        writeShort(out, 0); // internal attributes
+        writeInt(out, (long) record.mode << 16 | (record.directory ? 0x10 : 0));
+        writeInt(out, Math.min(record.offset, ZIP64_MAGIC));
+        out.write(record.name);
+        if (zip64Fields > 0) {
+            writeShort(out, 0x0001);
+            writeShort(out, zip64Fields * 8);
+            if (record.size >= ZIP64_MAGIC) {
+                writeLong(out, record.size);
+            }
+            if (record.compressedSize >= ZIP64_MAGIC) {
+                writeLong(out, record.compressedSize);
+            }
+            if (record.offset >= ZIP64_MAGIC) {
+                writeLong(out, record.offset);
+            }
+        }
+    }
+
+    /**
+     * 파일을 읽어 out으로 복사한다. limit 바이트까지만 읽으며, 읽은 바이트 수를 반환한다.
+     */
+    private long copy(Entry entry, OutputStream out, long limit) throws IOException {
+        long copied = 0;
+        try (InputStream in = Files.newInputStream(entry.path)) {
+            while (copied < limit) {
+                int n = in.read(buffer, 0, (int) Math.min(buffer.length, limit - copied));
+                if (n < 0) {
+                    break;
+                }
+                out.write(buffer, 0, n);
+                copied += n;
+                bytesRead += n;
+                checkCancelled();
+                long now = System.currentTimeMillis();
+                if (now - lastProgress >= PROGRESS_INTERVAL_MILLIS) {
+                    lastProgress = now;
+                    listener.progress(entry.name, bytesRead, totalBytes);
+                }
+            }
+        }
+        return copied;
+    }
+
+    private void checkCancelled() throws InterruptedIOException {
+        if (cancelled) {
+            throw new InterruptedIOException("Compression cancelled");
+        }
+    }
+
+    private static int mode(Entry entry) {
+        try {
+            int mode = 0;
+            for (PosixFilePermission permission : Files.getPosixFilePermissions(entry.path, LinkOption.NOFOLLOW_LINKS)) {
+                mode |= 0400 >> permission.ordinal(); // OWNER_READ부터 OTHERS_EXECUTE까지 비트 순서와 같다.
+            }
+            return mode;
+        } catch (IOException | UnsupportedOperationException e) {
+            return entry.attributes.isDirectory() ? 0755 : entry.attributes.isSymbolicLink() ? 0777 : 0644;
+        }
+    }
+
+    /**
+     * MS-DOS 날짜/시간. 1980년 이전은 1980-01-01로 기록한다.
+     */
+    private static long dosTime(long millis) {
+        LocalDateTime time = LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault());
+        if (time.getYear() < 1980) {
+            return 1 << 21 | 1 << 16;
+        }
+        return (long) Math.min(time.getYear() - 1980, 127) << 25 | time.getMonthValue() << 21 | time.getDayOfMonth() << 16
+                | time.getHour() << 11 | time.getMinute() << 5 | time.getSecond() >> 1;
+    }
+
+    private static void writeShort(OutputStream out, int value) throws IOException {
+        out.write(value);
+        out.write(value >>> 8);
+    }
+
+    private static void writeInt(OutputStream out, long value) throws IOException {
+        writeShort(out, (int) value & 0xffff);
+        writeShort(out, (int) (value >>> 16) & 0xffff);
+    }
+
+    private static void writeLong(OutputStream out, long value) throws IOException {
+        writeInt(out, value & ZIP64_MAGIC);
+        writeInt(out, value >>> 32);
+    }
+
+    private static final class Entry {
+
+        final Path path;
+        final String name;
+        final BasicFileAttributes attributes;
+
+        Entry(Path path, String name, BasicFileAttributes attributes) {
+            this.path = path;
+            this.name = name;
+            this.attributes = attributes;
+        }
+    }
+
+    private static final class ZipRecord {
+
+        byte[] name;
+        boolean directory;
+        int flags;
+        int method;
+        long time;
+        long crc;
+        long compressedSize;
+        long size;
+        long offset;
+        int mode;
+        boolean zip64; // local header에 zip64 extra를 썼다.
+    }
+}
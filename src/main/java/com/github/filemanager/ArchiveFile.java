@@ -0,0 +1,316 @@
+/*
+The MIT License
+
+Copyright (c) 2015-2023 Valentyn Kolesnikov (https://github.com/javadev/file-manager)
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package com.github.filemanager;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import javax.swing.Icon;
+import javax.swing.UIManager;
+import javax.swing.filechooser.FileSystemView;
+
+/**
+ * zip/jar 압축 파일 안의 항목을 가리키는 File. 경로는 압축 파일 경로 아래에 항목 경로를 이어 붙인 것이므로 트리와 테이블에서
+ * 일반 디렉토리처럼 다룰 수 있다.
+ *
+ * <p>압축 파일은 NIO zip FileSystem으로 열며, 여는 시점에는 중앙 디렉토리만 읽는다. 항목의 속성은 목록을 읽을 때
+ * 함께 저장해 두므로(CachedFile과 같은 방식) 그리는 동안 압축 파일에 다시 접근하지 않는다. 항목 하나를 꺼낼 때도 그 항목만
+ * 스트림으로 풀어서 복사한다.
+ */
+class ArchiveFile extends File {
+
+    private static final Set<String> SUFFIXES = new HashSet<String>(Arrays.asList("zip", "jar", "war", "ear"));
+
+    /**
+     * 열어 둔 압축 파일 FileSystem. 압축 파일의 크기나 수정 시각이 바뀌면 닫고 다시 연다.
+     */
+    private static final Map<Path, OpenArchive> OPEN_ARCHIVES = new HashMap<Path, OpenArchive>();
+
+    private final File archive;
+    private final String entryName;
+    private final boolean directory;
+    private final long length;
+    private final long lastModified;
+
+    private ArchiveFile(File archive, String entryName, boolean directory, long length, long lastModified) {
+        super(archive, entryName);
+        this.archive = archive;
+        this.entryName = entryName;
+        this.directory = directory;
+        this.length = length;
+        this.lastModified = lastModified;
+    }
+
+    /**
+     * 트리에서 디렉토리처럼 펼칠 수 있는 압축 파일인지 확장자로 판정한다. 압축 파일 안의 압축 파일은 펼치지 않는다.
+     */
+    static boolean isArchive(File file) {
+        return !(file instanceof ArchiveFile) && hasArchiveSuffix(file) && file.isFile();
+    }
+
+    /**
+     * isArchive와 같지만 파일 시스템에 접근하지 않는다.
+     */
+    static boolean hasArchiveSuffix(File file) {
+        String name = file.getName();
+        int dot = name.lastIndexOf('.');
+        return dot > 0 && SUFFIXES.contains(name.substring(dot + 1).toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * 압축 파일의 최상위 또는 압축 파일 안 디렉토리의 항목을 읽는다. 해당 디렉토리의 항목만 읽으며 하위 디렉토리는 펼칠 때 읽는다.
+     */
+    static File[] list(File directory) throws IOException {
+        File archive = directory instanceof ArchiveFile ? ((ArchiveFile) directory).archive : directory;
+        String prefix = directory instanceof ArchiveFile ? ((ArchiveFile) directory).entryName + "/" : "";
+        FileSystem fileSystem = open(archive);
+        Path dir = directory instanceof ArchiveFile ? ((ArchiveFile) directory).getEntryPath() : fileSystem.getPath("/");
+        List<File> files = new ArrayList<File>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir)) {
+            for (Path entry : stream) {
+                BasicFileAttributes attributes = Files.readAttributes(entry, BasicFileAttributes.class);
+                String name = entry.getFileName().toString();
+                if (name.endsWith("/")) {
+                    name = name.substring(0, name.length() - 1);
+                }
+                files.add(new ArchiveFile(archive, prefix + name, attributes.isDirectory(),
+                        attributes.isDirectory() ? 0L : attributes.size(), attributes.lastModifiedTime().toMillis()));
+            }
+        }
+        return files.toArray(new File[0]);
+    }
+
+    /**
+     * 압축 파일의 FileSystem을 연다. 이미 열려 있고 압축 파일이 바뀌지 않았으면 그대로 사용한다.
+     */
+    private static FileSystem open(File archive) throws IOException {
+        Path key = archive.toPath().toAbsolutePath();
+        long length = archive.length();
+        long lastModified = archive.lastModified();
+        synchronized (OPEN_ARCHIVES) {
+            OpenArchive open = OPEN_ARCHIVES.get(key);
+            if (open != null && open.fileSystem.isOpen() && open.length == length && open.lastModified == lastModified) {
+                Metrics.cacheHit("archive");
+                return open.fileSystem;
+            }
+            Metrics.cacheMiss("archive");
+            if (open != null) {
+                try {
+                    open.fileSystem.close();
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+            }
+            Metrics.Sample sample = Metrics.start("archive.open");
+            FileSystem fileSystem;
+            try {
+                fileSystem = FileSystems.newFileSystem(key, (ClassLoader) null);
+            } catch (IOException | RuntimeException e) {
+                sample.error();
+                OPEN_ARCHIVES.remove(key);
+                throw e;
+            }
+            sample.stop();
+            OPEN_ARCHIVES.put(key, new OpenArchive(fileSystem, length, lastModified));
+            return fileSystem;
+        }
+    }
+
+    /**
+     * 열어 둔 압축 파일을 모두 닫는다. 프로그램을 끝낼 때 호출한다.
+     */
+    static void closeAll() {
+        synchronized (OPEN_ARCHIVES) {
+            for (OpenArchive open : OPEN_ARCHIVES.values()) {
+                try {
+                    open.fileSystem.close();
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+            }
+            OPEN_ARCHIVES.clear();
+        }
+    }
+
+    File getArchive() {
+        return archive;
+    }
+
+    /**
+     * zip FileSystem 안에서 이 항목의 경로.
+     */
+    Path getEntryPath() throws IOException {
+        return open(archive).getPath("/" + entryName);
+    }
+
+    /**
+     * 이 항목을 target으로 복사한다. 디렉토리이면 하위 항목까지 복사한다. 압축 파일 전체를 풀지 않고 필요한 항목만 읽는다.
+     *
+     * @return 복사한 파일 수
+     */
+    int extractTo(File target) throws IOException {
+        Metrics.Sample sample = Metrics.start("archive.extract");
+        try {
+            int count = extract(getEntryPath(), target.toPath());
+            sample.stop();
+            return count;
+        } catch (IOException | RuntimeException e) {
+            sample.error();
+            throw e;
+        }
+    }
+
+    private static int extract(Path source, Path target) throws IOException {
+        if (!Files.isDirectory(source)) {
+            Files.copy(source, target, StandardCopyOption.REPLACE_EXISTING);
+            return 1;
+        }
+        Files.createDirectories(target);
+        int count = 0;
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(source)) {
+            for (Path child : stream) {
+                String name = child.getFileName().toString();
+                if (name.endsWith("/")) {
+                    name = name.substring(0, name.length() - 1);
+                }
+                if (name.isEmpty() || ".".equals(name) || "..".equals(name)) {
+                    continue; // 대상 디렉토리 밖으로 나가는 항목은 꺼내지 않는다.
+                }
+                count += extract(child, target.resolve(name));
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 외부 프로그램이나 뷰어로 열 수 있도록 항목을 임시 디렉토리에 꺼낸다. 같은 항목을 다시 열면 이미 꺼낸 파일을 사용한다.
+     */
+    File extractToTemp() throws IOException {
+        File directory = new File(System.getProperty("java.io.tmpdir"),
+                "filemanager-" + Integer.toHexString(archive.getAbsolutePath().hashCode()) + "-" + Long.toHexString(archive.lastModified()));
+        File target = new File(directory, entryName);
+        if (!target.getCanonicalPath().startsWith(directory.getCanonicalPath() + File.separator)) {
+            throw new IOException("Invalid entry name: " + entryName);
+        }
+        if (target.isFile() && target.length() == length) {
+            return target;
+        }
+        Files.createDirectories(target.getParentFile().toPath());
+        extractTo(target);
+        target.setLastModified(lastModified);
+        target.deleteOnExit();
+        return target;
+    }
+
+    /**
+     * FileSystemView는 실제로 없는 경로의 아이콘을 돌려주지 않으므로 압축 파일 항목은 기본 아이콘을 사용한다.
+     */
+    static Icon getSystemIcon(FileSystemView fileSystemView, File file) {
+        if (file instanceof ArchiveFile) {
+            return UIManager.getIcon(file.isDirectory() ? "FileView.directoryIcon" : "FileView.fileIcon");
+        }
+        return fileSystemView.getSystemIcon(file);
+    }
+
+    static String getSystemDisplayName(FileSystemView fileSystemView, File file) {
+        return file instanceof ArchiveFile ? file.getName() : fileSystemView.getSystemDisplayName(file);
+    }
+
+    @Override
+    public File getParentFile() {
+        int slash = entryName.lastIndexOf('/');
+        if (slash < 0) {
+            return archive;
+        }
+        return new ArchiveFile(archive, entryName.substring(0, slash), true, 0L, archive.lastModified());
+    }
+
+    @Override
+    public boolean isDirectory() {
+        return directory;
+    }
+
+    @Override
+    public boolean isFile() {
+        return !directory;
+    }
+
+    @Override
+    public boolean exists() {
+        return true;
+    }
+
+    @Override
+    public long length() {
+        return length;
+    }
+
+    @Override
+    public long lastModified() {
+        return lastModified;
+    }
+
+    @Override
+    public boolean canRead() {
+        return true;
+    }
+
+    @Override
+    public boolean canWrite() {
+        return false;
+    }
+
+    @Override
+    public boolean canExecute() {
+        return false;
+    }
+
+    private static final class OpenArchive {
+
+        final FileSystem fileSystem;
+        final long length;
+        final long lastModified;
+
+        OpenArchive(FileSystem fileSystem, long length, long lastModified) {
+            this.fileSystem = fileSystem;
+            this.length = length;
+            this.lastModified = lastModified;
+        }
+    }
+}
@@ -0,0 +1,116 @@
+/*
+The MIT License
+
+Copyright (c) 2015-2023 Valentyn Kolesnikov (https://github.com/javadev/file-manager)
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package com.github.filemanager;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.jgit.api.CheckoutCommand;
+import org.eclipse.jgit.api.CheckoutResult;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.Status;
+import org.eclipse.jgit.api.StatusCommand;
+import org.eclipse.jgit.api.errors.GitAPIException;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.storage.file.FileRepositoryBuilder;
+
+/**
+ * branch checkout을 JGit으로 실행하고 작업 트리에서 바뀐 경로를 돌려준다.
+ *
+ * <p>예전에는 git checkout 프로세스를 실행한 뒤 전체 status를 다시 계산하고 디렉토리를 다시 읽었다. 이제는 CheckoutResult의
+ * 수정/삭제 목록만 status를 다시 계산해서 이전 status에 덮어쓴다. JGit checkout은 sparse checkout 패턴을 따르지 않으므로
+ * sparse checkout이 켜진 repository에서는 git 프로세스를 그대로 사용하고 전체를 갱신한다.
+ */
+final class BranchCheckout {
+
+    /* 작업 트리 루트 */
+    File workTree;
+    /* checkout이 쓰거나 지운 작업 트리 상대 경로. null이면 알 수 없으므로 전체를 갱신해야 한다. */
+    List<String> paths;
+    /* 이전 status에 paths의 새 상태를 반영한 것. null이면 전체 status를 다시 계산해야 한다. */
+    FileManager.GitFileStatus status;
+
+    private BranchCheckout() {
+    }
+
+    /**
+     * gitDir의 작업 트리를 branchName으로 checkout한다. previous가 같은 repository의 status이고 바뀐 경로가 maxPaths 이하이면
+     * 그 경로만 다시 계산한 status를 함께 돌려준다.
+     *
+     * @throws org.eclipse.jgit.api.errors.CheckoutConflictException 커밋하지 않은 변경이 덮어써지는 경우. 작업 트리는 바뀌지 않는다.
+     */
+    static BranchCheckout run(File gitDir, String branchName, FileManager.GitFileStatus previous, int maxPaths)
+            throws IOException, GitAPIException, InterruptedException {
+        BranchCheckout result = new BranchCheckout();
+        try (Repository repository = FileManager.openRepository(new FileRepositoryBuilder().setGitDir(gitDir).readEnvironment().findGitDir());
+             Git git = new Git(repository)) {
+            result.workTree = repository.getWorkTree();
+            if (SparseCheckout.isEnabled(repository)) {
+                checkoutWithProcess(result.workTree, branchName);
+                return result;
+            }
+
+            CheckoutCommand checkout = git.checkout().setName(branchName);
+            FileManager.callGit("checkout", checkout);
+            CheckoutResult checkoutResult = checkout.getResult();
+            result.paths = new ArrayList<String>(checkoutResult.getModifiedList());
+            result.paths.addAll(checkoutResult.getRemovedList());
+
+            if (previous == null || !repository.getDirectory().equals(previous.gitDir) || result.paths.size() > maxPaths) {
+                return result;
+            }
+            Status partial = null;
+            if (!result.paths.isEmpty()) { // 경로를 하나도 지정하지 않으면 전체 status가 계산된다.
+                StatusCommand statusCommand = git.status();
+                for (String path : result.paths) {
+                    statusCommand.addPath(path);
+                }
+                partial = FileManager.callGit("status", statusCommand);
+            }
+            result.status = previous.withPaths(repository.getBranch(), result.paths, partial);
+            return result;
+        }
+    }
+
+    private static void checkoutWithProcess(File workTree, String branchName) throws IOException, InterruptedException {
+        ProcessBuilder processBuilder = new ProcessBuilder("git", "checkout", branchName);
+        processBuilder.directory(workTree);
+        processBuilder.redirectErrorStream(true);
+        Process process = Metrics.startProcess(processBuilder);
+        StringBuilder output = new StringBuilder();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                output.append(line).append('\n');
+            }
+        }
+        if (process.waitFor() != 0) {
+            throw new IOException(output.toString().trim());
+        }
+    }
+}
@@ -0,0 +1,421 @@
+/*
+The MIT License
+
+Copyright (c) 2015-2023 Valentyn Kolesnikov (https://github.com/javadev/file-manager)
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package com.github.filemanager;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32C;
+
+/**
+ * 파일이나 디렉토리 아래의 모든 파일의 체크섬(SHA-256, SHA-1, CRC32C)을 계산하거나, manifest에 기록된 값과 비교한다.
+ *
+ * <p>파일마다 한 번만 읽으면서 고른 알고리즘을 모두 갱신한다. 파일 단위로 ForkJoinPool에서 병렬로 계산하며, 읽기 버퍼는
+ * BUFFER_SIZE짜리 direct buffer를 재사용하므로 동시에 읽는 파일 수(= pool의 병렬도)만큼만 만들어진다.
+ *
+ * <p>manifest는 {@code sha256sum --tag}와 같은 BSD 형식({@code SHA256 (path) = hex})으로 쓰므로 한 파일에 여러 알고리즘을
+ * 담을 수 있고 coreutils로도 확인할 수 있다. 읽을 때는 GNU 형식({@code hex  path})도 받으며, 이때 알고리즘은 값의 길이로
+ * 정한다. 경로는 manifest가 있는 디렉토리 기준의 상대 경로이다.
+ */
+class ChecksumCalculator {
+
+    enum Algorithm {
+        SHA_256("SHA-256", "SHA256", 64),
+        SHA_1("SHA-1", "SHA1", 40),
+        CRC32C("CRC32C", "CRC32C", 8);
+
+        final String label;
+        final String tag;
+        final int hexLength;
+
+        Algorithm(String label, String tag, int hexLength) {
+            this.label = label;
+            this.tag = tag;
+            this.hexLength = hexLength;
+        }
+
+        @Override
+        public String toString() {
+            return label;
+        }
+
+        Hasher newHasher() {
+            if (this == CRC32C) {
+                final CRC32C crc = new CRC32C();
+                return new Hasher() {
+                    public void update(ByteBuffer buffer) {
+                        crc.update(buffer);
+                    }
+
+                    public String hex() {
+                        return String.format("%08x", crc.getValue());
+                    }
+                };
+            }
+            final MessageDigest digest;
+            try {
+                digest = MessageDigest.getInstance(label);
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+            return new Hasher() {
+                public void update(ByteBuffer buffer) {
+                    digest.update(buffer);
+                }
+
+                public String hex() {
+                    StringBuilder hex = new StringBuilder();
+                    for (byte b : digest.digest()) {
+                        hex.append(String.format("%02x", b));
+                    }
+                    return hex.toString();
+                }
+            };
+        }
+
+        static Algorithm forTag(String tag) {
+            for (Algorithm algorithm : values()) {
+                if (algorithm.tag.equalsIgnoreCase(tag) || algorithm.label.equalsIgnoreCase(tag)) {
+                    return algorithm;
+                }
+            }
+            return null;
+        }
+
+        static Algorithm forHexLength(int length) {
+            for (Algorithm algorithm : values()) {
+                if (algorithm.hexLength == length) {
+                    return algorithm;
+                }
+            }
+            return null;
+        }
+    }
+
+    private interface Hasher {
+
+        void update(ByteBuffer buffer);
+
+        String hex();
+    }
+
+    /**
+     * NOT_CHECKED는 Stop으로 중단되어 끝까지 읽지 못했거나 시작하지 못한 파일이다.
+     */
+    enum Status {
+        COMPUTED, OK, FAILED, MISSING, ERROR, NOT_CHECKED
+    }
+
+    /**
+     * 파일 하나의 계산 결과. manifest와 비교한 경우 expected에 기록된 값이 들어 있다.
+     */
+    static class Result {
+
+        final Path path;
+        final String name;
+        final Map<Algorithm, String> expected;
+        final Map<Algorithm, String> checksums = new EnumMap<Algorithm, String>(Algorithm.class);
+        long size = -1;
+        IOException error;
+        boolean checked; // 끝까지 읽어서 checksums가 채워졌다.
+
+        Result(Path path, String name, Map<Algorithm, String> expected) {
+            this.path = path;
+            this.name = name;
+            this.expected = expected;
+        }
+
+        Status getStatus() {
+            if (error != null) {
+                return error instanceof NoSuchFileException ? Status.MISSING : Status.ERROR;
+            }
+            if (!checked) {
+                return Status.NOT_CHECKED;
+            }
+            if (expected == null) {
+                return Status.COMPUTED;
+            }
+            for (Map.Entry<Algorithm, String> entry : expected.entrySet()) {
+                if (!entry.getValue().equalsIgnoreCase(checksums.get(entry.getKey()))) {
+                    return Status.FAILED;
+                }
+            }
+            return Status.OK;
+        }
+    }
+
+    private static final int BUFFER_SIZE = 1 << 20;
+    private static final Pattern TAGGED_LINE = Pattern.compile("^([\\w-]+) ?\\((.*)\\) ?= ?([0-9a-fA-F]+)$");
+    private static final Pattern GNU_LINE = Pattern.compile("^\\\\?([0-9a-fA-F]+) [ *](.*)$");
+
+    private final List<Result> results;
+    private final Set<Algorithm> algorithms;
+    private final long totalBytes;
+    private final Queue<ByteBuffer> buffers = new ConcurrentLinkedQueue<ByteBuffer>();
+    private final AtomicLong filesHashed = new AtomicLong();
+    private final AtomicLong bytesHashed = new AtomicLong();
+    private volatile boolean cancelled = false;
+
+    private ChecksumCalculator(List<Result> results, Set<Algorithm> algorithms) {
+        this.results = results;
+        this.algorithms = algorithms;
+        long total = 0;
+        for (Result result : results) {
+            total += Math.max(0, result.size);
+        }
+        this.totalBytes = total;
+    }
+
+    /**
+     * source가 파일이면 그 파일을, 디렉토리이면 아래의 모든 일반 파일을 계산한다. 이름은 source의 상위 디렉토리 기준이다.
+     */
+    static ChecksumCalculator forTree(File source, Set<Algorithm> algorithms) throws IOException {
+        final Path start = source.getAbsoluteFile().toPath();
+        final Path base = start.getParent();
+        final List<Result> results = new ArrayList<Result>();
+        Files.walkFileTree(start, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) {
+                if (attributes.isRegularFile()) {
+                    String name = (base == null ? file : base.relativize(file)).toString().replace(File.separatorChar, '/');
+                    Result result = new Result(file, name, null);
+                    result.size = attributes.size();
+                    results.add(result);
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException e) {
+                e.printStackTrace(); // 읽을 수 없는 디렉토리는 건너뛴다.
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        results.sort((a, b) -> a.name.compareTo(b.name));
+        return new ChecksumCalculator(results, algorithms);
+    }
+
+    /**
+     * manifest를 읽어 기록된 파일과 알고리즘만 계산하도록 준비한다. 알 수 없는 형식의 줄은 건너뛴다.
+     */
+    static ChecksumCalculator forManifest(File manifest) throws IOException {
+        Path base = manifest.getAbsoluteFile().toPath().getParent();
+        Map<String, Map<Algorithm, String>> expected = new LinkedHashMap<String, Map<Algorithm, String>>();
+        Set<Algorithm> algorithms = EnumSet.noneOf(Algorithm.class);
+        try (BufferedReader reader = Files.newBufferedReader(manifest.toPath(), StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.trim().isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                Algorithm algorithm = null;
+                String name = null;
+                String hex = null;
+                Matcher tagged = TAGGED_LINE.matcher(line);
+                Matcher gnu = GNU_LINE.matcher(line);
+                if (tagged.matches()) {
+                    algorithm = Algorithm.forTag(tagged.group(1));
+                    name = tagged.group(2);
+                    hex = tagged.group(3);
+                } else if (gnu.matches()) {
+                    algorithm = Algorithm.forHexLength(gnu.group(1).length());
+                    name = gnu.group(2);
+                    hex = gnu.group(1);
+                }
+                if (algorithm == null || hex.length() != algorithm.hexLength) {
+                    System.out.println("Skipped manifest line: " + line);
+                    continue;
+                }
+                algorithms.add(algorithm);
+                expected.computeIfAbsent(name, key -> new EnumMap<Algorithm, String>(Algorithm.class)).put(algorithm, hex);
+            }
+        }
+        List<Result> results = new ArrayList<Result>();
+        for (Map.Entry<String, Map<Algorithm, String>> entry : expected.entrySet()) {
+            Path path = base.resolve(entry.getKey().replace('/', File.separatorChar)).normalize();
+            Result result = new Result(path, entry.getKey(), entry.getValue());
+            try {
+                result.size = Files.size(path);
+            } catch (IOException e) {
+                result.error = e; // 계산할 때 다시 시도하지 않고 MISSING/ERROR로 보고한다.
+            }
+            results.add(result);
+        }
+        return new ChecksumCalculator(results, algorithms);
+    }
+
+    /**
+     * 계산한 결과를 BSD 형식 manifest로 쓴다. 경로는 manifest가 있는 디렉토리 기준이며, 읽지 못한 파일은 쓰지 않는다.
+     * 상대 경로로 나타낼 수 없는 파일(예: Windows에서 다른 드라이브)은 절대 경로로 쓴다.
+     */
+    static void writeManifest(File manifest, List<Result> results) throws IOException {
+        Path base = manifest.getAbsoluteFile().toPath().normalize().getParent();
+        try (BufferedWriter writer = Files.newBufferedWriter(manifest.toPath(), StandardCharsets.UTF_8)) {
+            for (Result result : results) {
+                if (result.error != null || !result.checked) {
+                    continue;
+                }
+                Path path = result.path.toAbsolutePath().normalize();
+                String name;
+                try {
+                    name = base.relativize(path).toString().replace(File.separatorChar, '/');
+                } catch (IllegalArgumentException e) {
+                    name = path.toString();
+                }
+                for (Map.Entry<Algorithm, String> entry : result.checksums.entrySet()) {
+                    writer.write(entry.getKey().tag + " (" + name + ") = " + entry.getValue());
+                    writer.newLine();
+                }
+            }
+        }
+    }
+
+    Set<Algorithm> getAlgorithms() {
+        return algorithms;
+    }
+
+    int getFileCount() {
+        return results.size();
+    }
+
+    long getTotalBytes() {
+        return totalBytes;
+    }
+
+    long getFilesHashed() {
+        return filesHashed.get();
+    }
+
+    long getBytesHashed() {
+        return bytesHashed.get();
+    }
+
+    void cancel() {
+        cancelled = true;
+    }
+
+    boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * 모든 파일을 계산할 때까지 반환하지 않는다. 결과는 이름 순서(manifest는 기록된 순서)이다.
+     */
+    List<Result> run(ForkJoinPool pool) {
+        Metrics.Sample sample = Metrics.start("checksum.run");
+        final List<RecursiveAction> tasks = new ArrayList<RecursiveAction>();
+        for (final Result result : results) {
+            if (result.error != null) {
+                filesHashed.incrementAndGet();
+                continue;
+            }
+            tasks.add(new RecursiveAction() {
+                @Override
+                protected void compute() {
+                    if (!cancelled) {
+                        hash(result);
+                    }
+                    if (result.checked || result.error != null) {
+                        filesHashed.incrementAndGet();
+                    }
+                }
+            });
+        }
+        pool.invoke(new RecursiveAction() {
+            @Override
+            protected void compute() {
+                invokeAll(tasks);
+            }
+        });
+        sample.stop();
+        return results;
+    }
+
+    private void hash(Result result) {
+        Map<Algorithm, Hasher> hashers = new EnumMap<Algorithm, Hasher>(Algorithm.class);
+        for (Algorithm algorithm : result.expected != null ? result.expected.keySet() : algorithms) {
+            hashers.put(algorithm, algorithm.newHasher());
+        }
+        ByteBuffer buffer = buffers.poll();
+        if (buffer == null) {
+            buffer = ByteBuffer.allocateDirect(BUFFER_SIZE); // 동시에 계산하는 파일 수만큼만 만들어진다.
+        }
+        try (FileChannel channel = FileChannel.open(result.path, StandardOpenOption.READ)) {
+            long size = 0;
+            while (true) {
+                if (cancelled) {
+                    return; // 일부만 읽은 값은 기록하지 않는다.
+                }
+                buffer.clear();
+                int read = channel.read(buffer);
+                if (read < 0) {
+                    break;
+                }
+                buffer.flip();
+                for (Hasher hasher : hashers.values()) {
+                    buffer.rewind(); // 알고리즘마다 같은 내용을 처음부터 읽는다.
+                    hasher.update(buffer);
+                }
+                size += read;
+                bytesHashed.addAndGet(read);
+            }
+            result.size = size;
+            for (Map.Entry<Algorithm, Hasher> entry : hashers.entrySet()) {
+                result.checksums.put(entry.getKey(), entry.getValue().hex());
+            }
+            result.checked = true;
+        } catch (IOException e) {
+            result.error = e;
+        } finally {
+            buffers.add(buffer);
+        }
+    }
+}
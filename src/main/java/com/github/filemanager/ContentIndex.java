@@ -0,0 +1,738 @@
+/*
+The MIT License
+
+Copyright (c) 2015-2023 Valentyn Kolesnikov (https://github.com/javadev/file-manager)
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package com.github.filemanager;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 디렉토리 아래 텍스트 파일들의 내용을 디스크에 저장해 두는 전문(full-text) 인덱스.
+ *
+ * <p>용어는 ASCII 소문자로 바꾼 내용의 바이트 3-gram이다. 검색어의 3-gram을 모두 포함하는 파일만 후보로 돌려주므로,
+ * 후보를 ContentSearcher로 다시 확인하면 전체 스캔과 같은 결과를 얻는다 (단어 중간의 부분 문자열도 찾는다).
+ * 인덱스는 ~/.filemanager/index/ 아래 루트마다 하나의 디렉토리에 IndexSegment 파일들과 그 목록(segments)으로 저장된다.
+ *
+ * <p>update는 증분으로 동작한다: 경로, 크기, 수정 시간이 바뀐 파일만 다시 읽어 새 세그먼트에 기록하고, 사라진 파일은
+ * 삭제 표시(tombstone)로 남긴다. 같은 경로는 가장 최근 세그먼트의 항목이 우선한다. 세그먼트가 MAX_SEGMENTS 개를 넘으면
+ * 크기가 작은 이웃 세그먼트들의 살아 있는 문서만 모아 하나로 병합한다.
+ *
+ * <p>인덱스를 연 뒤에는 루트 아래 디렉토리를 DirectoryWatcher로 감시하고, 마지막 update 이후에 생기거나 바뀌거나 지워진 파일을
+ * dirty로 표시한다. 연 직후에는 백그라운드에서 한 번 탐색해 인덱스와 크기, 수정 시간이 다른 파일을 표시한다. candidates는
+ * 파일 시스템을 탐색하지 않고 posting 목록의 파일과 dirty 파일만 돌려주므로, 다시 update 하기 전에도 바뀐 파일이 검색 결과에서
+ * 빠지지 않는다. 감시 한도(MAX_WATCHED_DIRECTORIES)를 넘는 디렉토리의 변경은 다음 update 때 반영된다.
+ */
+final class ContentIndex {
+
+    /**
+     * update 진행 상황을 전달받는 인터페이스. update를 호출한 스레드에서 호출된다.
+     */
+    interface ProgressListener {
+
+        void progress(int filesIndexed, int filesChanged);
+    }
+
+    private static final int WINDOW_SIZE = 64 * 1024 * 1024;
+    private static final int BATCH_SIZE = 256;
+    private static final int FLUSH_DOCUMENTS = 20000;
+    private static final long FLUSH_BYTES = 256L * 1024 * 1024;
+    private static final int MAX_SEGMENTS = 8;
+    private static final int MAX_WATCHED_DIRECTORIES = 10000;
+    // 병합 결과가 IndexSegment의 int 위치(2GB) 안에 넉넉히 들어가도록 병합할 세그먼트 파일 크기의 합을 제한한다.
+    private static final long MAX_MERGE_BYTES = 1L << 30;
+    private static final String MANIFEST = "segments";
+    private static final String SEGMENT_SUFFIX = ".seg";
+
+    // 파일 하나에서 이미 나온 3-gram을 표시한다 (2^24 비트 = 2MB). 스레드마다 재사용하고 사용한 비트만 지운다.
+    private static final ThreadLocal<BitSet> SEEN_TRIGRAMS = ThreadLocal.withInitial(() -> new BitSet(1 << 24));
+
+    private final Path root;
+    private final Path directory;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Object updateLock = new Object();
+    private List<String> segmentNames = Collections.emptyList();
+    private List<IndexSegment> segments = Collections.emptyList();
+    private List<BitSet> live = Collections.emptyList();
+    private Map<String, long[]> documents = Collections.emptyMap(); // 경로 -> {크기, 수정 시간}
+    private int sequence = 0;
+    private volatile boolean cancelled = false;
+    /* 인덱스와 내용이 다를 수 있는 파일 -> 표시한 순서. update는 시작하기 전에 표시된 것만 지운다. */
+    private final Map<String, Long> dirty = new ConcurrentHashMap<String, Long>();
+    private final AtomicLong dirtySequence = new AtomicLong();
+    private final DirectoryWatcher watcher;
+    /* 백그라운드 재검사는 한 스레드에서 차례로 하고, update와 겹치지 않도록 updateLock을 잡는다. */
+    private final ExecutorService revalidator = Executors.newSingleThreadExecutor(new ThreadFactory() {
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "content-index");
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+
+    private ContentIndex(Path root) {
+        this.root = root;
+        this.directory = directoryFor(root);
+        DirectoryWatcher directoryWatcher = null;
+        try {
+            directoryWatcher = new DirectoryWatcher(MAX_WATCHED_DIRECTORIES, new DirectoryWatcher.Listener() {
+                public void created(Path dir, Path child) {
+                    if (Files.isDirectory(child, LinkOption.NOFOLLOW_LINKS)) {
+                        GitIgnoreRules rules = GitIgnoreRules.forDirectory(dir);
+                        if (rules == null || !rules.isIgnored(child, true)) {
+                            revalidateAsync(child);
+                        }
+                    } else {
+                        fileChanged(child);
+                    }
+                }
+
+                public void deleted(Path dir, Path child) {
+                    fileChanged(child);
+                    String prefix = child.toString() + File.separator; // 지운 디렉토리 아래의 파일들
+                    lock.readLock().lock();
+                    try {
+                        for (String path : documents.keySet()) {
+                            if (path.startsWith(prefix)) {
+                                markDirty(path);
+                            }
+                        }
+                    } finally {
+                        lock.readLock().unlock();
+                    }
+                }
+
+                public void modified(Path dir, Path child) {
+                    if (!Files.isDirectory(child, LinkOption.NOFOLLOW_LINKS)) {
+                        fileChanged(child);
+                    }
+                }
+
+                public void overflow(Path dir) {
+                    revalidateAsync(dir);
+                }
+            });
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        this.watcher = directoryWatcher;
+    }
+
+    /**
+     * root의 인덱스를 연다. 아직 만들어진 적이 없으면 빈 인덱스를 반환하고, 파일은 첫 update 때 생성된다.
+     */
+    static ContentIndex open(Path root) throws IOException {
+        ContentIndex index = new ContentIndex(root.toAbsolutePath().normalize());
+        synchronized (index.updateLock) {
+            index.load();
+        }
+        index.revalidateAsync(index.root); // 닫혀 있던 동안 바뀐 파일을 찾고 디렉토리를 감시에 등록한다.
+        return index;
+    }
+
+    void close() {
+        revalidator.shutdownNow();
+        if (watcher != null) {
+            try {
+                watcher.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * 감시 이벤트로 알게 된 파일을 dirty로 표시한다. 인덱스 디렉토리와 .gitignore로 제외된 파일은 update와 같이 무시한다.
+     */
+    private void fileChanged(Path file) {
+        if (file.startsWith(directory)) {
+            return;
+        }
+        GitIgnoreRules rules = GitIgnoreRules.forDirectory(file.getParent());
+        if (rules == null || !rules.isIgnored(file, false)) {
+            markDirty(file.toString());
+        }
+    }
+
+    private void markDirty(String path) {
+        dirty.put(path, dirtySequence.incrementAndGet());
+    }
+
+    private void revalidateAsync(final Path dir) {
+        try {
+            revalidator.execute(new Runnable() {
+                public void run() {
+                    synchronized (updateLock) { // update 도중에 예전 documents와 비교해서 표시하면 update가 지우지 못한다.
+                        revalidate(dir);
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // 이미 닫혔다.
+        }
+    }
+
+    /**
+     * dir 아래를 탐색해 인덱스와 크기나 수정 시간이 다른 파일, 인덱스에만 있는 파일을 dirty로 표시하고 디렉토리를 감시에 등록한다.
+     * 백그라운드에서만 호출한다.
+     */
+    private void revalidate(Path dir) {
+        Queue<FileEntry> files = new ConcurrentLinkedQueue<FileEntry>();
+        ForkJoinPool.commonPool().invoke(new WalkTask(dir, GitIgnoreRules.forDirectory(dir), files, false));
+        Set<String> seen = new HashSet<String>();
+        String prefix = dir.toString().endsWith(File.separator) ? dir.toString() : dir.toString() + File.separator;
+        lock.readLock().lock();
+        try {
+            for (FileEntry entry : files) {
+                seen.add(entry.path);
+                long[] attributes = documents.get(entry.path);
+                if (attributes == null || attributes[0] != entry.size || attributes[1] != entry.modified) {
+                    markDirty(entry.path);
+                }
+            }
+            for (String path : documents.keySet()) {
+                if (path.startsWith(prefix) && !seen.contains(path)) {
+                    markDirty(path);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * path 자신 또는 가장 가까운 상위 디렉토리 중 인덱스가 있는 루트를 찾는다. 없으면 null.
+     */
+    static Path findIndexedRoot(Path path) {
+        for (Path p = path.toAbsolutePath().normalize(); p != null; p = p.getParent()) {
+            if (Files.isRegularFile(directoryFor(p).resolve(MANIFEST))) {
+                return p;
+            }
+        }
+        return null;
+    }
+
+    private static Path directoryFor(Path root) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-1").digest(root.toString().getBytes(StandardCharsets.UTF_8));
+            StringBuilder name = new StringBuilder();
+            for (int ii = 0; ii < 8; ii++) {
+                name.append(String.format("%02x", digest[ii]));
+            }
+            return Paths.get(System.getProperty("user.home"), ".filemanager", "index", name.toString());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    Path getRoot() {
+        return root;
+    }
+
+    int getDocumentCount() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * query를 포함할 수 있는 scope 아래의 파일 목록을 반환한다. query가 세 바이트보다 짧아 인덱스로 좁힐 수 없으면 null을 반환하므로
+     * 호출하는 쪽에서 전체 스캔을 해야 한다. 정규식은 지원하지 않는다.
+     * 파일 시스템은 탐색하지 않는다. dirty로 표시된 파일(마지막 update 이후에 생기거나 바뀐 파일)은 아직 있으면 내용과 상관없이
+     * 후보에 넣고, 지워졌으면 뺀다.
+     */
+    List<Path> candidates(String query, Path scope) {
+        byte[] bytes = query.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length < 3) {
+            return null;
+        }
+        int[] trigrams = new int[bytes.length - 2];
+        int gram = 0;
+        for (int ii = 0; ii < bytes.length; ii++) {
+            gram = ((gram << 8) | toLowerCase(bytes[ii] & 0xff)) & 0xffffff;
+            if (ii >= 2) {
+                trigrams[ii - 2] = gram;
+            }
+        }
+        Path absoluteScope = scope.toAbsolutePath().normalize();
+        List<Path> result = new ArrayList<Path>();
+        lock.readLock().lock();
+        try {
+            for (int s = 0; s < segments.size(); s++) {
+                IndexSegment segment = segments.get(s);
+                BitSet matches = (BitSet) live.get(s).clone();
+                byte[] key = new byte[3];
+                for (int ii = 0; ii < trigrams.length && !matches.isEmpty(); ii++) {
+                    key[0] = (byte) (trigrams[ii] >>> 16);
+                    key[1] = (byte) (trigrams[ii] >>> 8);
+                    key[2] = (byte) trigrams[ii];
+                    BitSet next = new BitSet();
+                    int term = segment.lowerBound(key);
+                    if (segment.termStartsWith(term, key)) {
+                        segment.readPostings(term, matches, next); // 지금까지의 교집합에 있는 문서만 남긴다.
+                    }
+                    matches = next;
+                }
+                for (int doc = matches.nextSetBit(0); doc >= 0; doc = matches.nextSetBit(doc + 1)) {
+                    String path = segment.getPath(doc);
+                    if (!dirty.containsKey(path)) { // 바뀐 파일은 아래에서 한 번만 넣는다.
+                        Path file = Paths.get(path);
+                        if (file.startsWith(absoluteScope)) {
+                            result.add(file);
+                        }
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        for (String path : dirty.keySet()) {
+            Path file = Paths.get(path);
+            if (file.startsWith(absoluteScope) && Files.isRegularFile(file, LinkOption.NOFOLLOW_LINKS)) {
+                result.add(file);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 루트 아래를 다시 탐색해 바뀐 파일만 인덱스에 반영한다. 한 번에 하나의 update만 실행된다.
+     * 취소하더라도 그때까지 읽은 파일은 저장되므로 다음 update는 이어서 진행된다.
+     */
+    void update(ForkJoinPool pool, ProgressListener listener) throws IOException {
+        synchronized (updateLock) {
+            cancelled = false;
+            long mark = dirtySequence.get(); // 이후에 표시된 파일은 이번 탐색에 반영되지 않았을 수 있다.
+            Map<String, long[]> known;
+            lock.readLock().lock();
+            try {
+                known = documents;
+            } finally {
+                lock.readLock().unlock();
+            }
+
+            Queue<FileEntry> files = new ConcurrentLinkedQueue<FileEntry>();
+            pool.invoke(new WalkTask(root, GitIgnoreRules.forDirectory(root), files, true));
+            if (cancelled) {
+                return;
+            }
+            Set<String> seen = new HashSet<String>();
+            List<FileEntry> changed = new ArrayList<FileEntry>();
+            for (FileEntry entry : files) {
+                seen.add(entry.path);
+                long[] attributes = known.get(entry.path);
+                if (attributes == null || attributes[0] != entry.size || attributes[1] != entry.modified) {
+                    changed.add(entry);
+                }
+            }
+
+            List<String> names = new ArrayList<String>(segmentNames);
+            IndexSegment.Builder builder = new IndexSegment.Builder();
+            for (String path : known.keySet()) {
+                if (!seen.contains(path)) {
+                    builder.addDocument(path, IndexSegment.TOMBSTONE, 0);
+                }
+            }
+            for (int start = 0; start < changed.size() && !cancelled; start += BATCH_SIZE) {
+                final List<FileEntry> batch = changed.subList(start, Math.min(start + BATCH_SIZE, changed.size()));
+                final int[][] trigrams = new int[batch.size()][];
+                // 파일 읽기는 병렬로 하고, 문서 id는 순서대로 붙여야 하므로 빌더에는 한 스레드에서 추가한다.
+                pool.invoke(new RecursiveAction() {
+                    @Override
+                    protected void compute() {
+                        List<RecursiveAction> tasks = new ArrayList<RecursiveAction>(batch.size());
+                        for (int ii = 0; ii < batch.size(); ii++) {
+                            final int index = ii;
+                            tasks.add(new RecursiveAction() {
+                                @Override
+                                protected void compute() {
+                                    trigrams[index] = readTrigrams(Paths.get(batch.get(index).path));
+                                }
+                            });
+                        }
+                        invokeAll(tasks);
+                    }
+                });
+                for (int ii = 0; ii < batch.size(); ii++) {
+                    if (trigrams[ii] == null) { // 읽을 수 없는 파일은 다음 update 때 다시 시도한다.
+                        markDirty(batch.get(ii).path);
+                        continue;
+                    }
+                    FileEntry entry = batch.get(ii);
+                    int doc = builder.addDocument(entry.path, entry.size, entry.modified);
+                    for (int trigram : trigrams[ii]) {
+                        builder.addTerm(trigram, doc);
+                    }
+                }
+                if (builder.getDocCount() >= FLUSH_DOCUMENTS || builder.getEstimatedBytes() >= FLUSH_BYTES) {
+                    names.add(writeSegment(builder));
+                    builder = new IndexSegment.Builder();
+                }
+                if (listener != null) {
+                    listener.progress(start + batch.size(), changed.size());
+                }
+            }
+            if (builder.getDocCount() > 0) {
+                names.add(writeSegment(builder));
+            }
+            if (!names.equals(segmentNames)) {
+                if (names.size() > MAX_SEGMENTS) {
+                    names = mergeSegments(names);
+                }
+                writeManifest(names);
+                load();
+            }
+            if (!cancelled) {
+                clearDirty(mark);
+            }
+        }
+    }
+
+    private void clearDirty(long mark) {
+        for (Map.Entry<String, Long> entry : dirty.entrySet()) {
+            if (entry.getValue() <= mark) {
+                dirty.remove(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    /**
+     * 파일 내용의 3-gram 목록. 바이너리 파일이나 빈 파일은 빈 배열, 읽을 수 없으면 null.
+     * 줄바꿈을 포함하는 3-gram은 검색어에 나올 수 없으므로 건너뛴다.
+     */
+    private static int[] readTrigrams(Path file) {
+        BitSet seen = SEEN_TRIGRAMS.get();
+        int[] trigrams = new int[1024];
+        int count = 0;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size == 0 || ContentSearcher.isBinary(channel)) {
+                return new int[0];
+            }
+            int gram = 0;
+            int length = 0; // 줄바꿈 이후 이어진 바이트 수
+            for (long position = 0; position < size; position += WINDOW_SIZE) {
+                MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(WINDOW_SIZE, size - position));
+                int limit = window.limit();
+                for (int ii = 0; ii < limit; ii++) {
+                    int b = window.get(ii) & 0xff;
+                    if (b == '\n') {
+                        length = 0;
+                        continue;
+                    }
+                    gram = ((gram << 8) | toLowerCase(b)) & 0xffffff;
+                    if (++length >= 3 && !seen.get(gram)) {
+                        seen.set(gram);
+                        if (count == trigrams.length) {
+                            trigrams = Arrays.copyOf(trigrams, count * 2);
+                        }
+                        trigrams[count++] = gram;
+                    }
+                }
+            }
+            return Arrays.copyOf(trigrams, count);
+        } catch (IOException | SecurityException e) {
+            return null;
+        } finally {
+            for (int ii = 0; ii < count; ii++) {
+                seen.clear(trigrams[ii]);
+            }
+        }
+    }
+
+    private static int toLowerCase(int b) {
+        return b >= 'A' && b <= 'Z' ? b + ('a' - 'A') : b;
+    }
+
+    /**
+     * 세그먼트가 MAX_SEGMENTS 개가 되도록 이웃한 세그먼트들을 병합한다. 같은 경로는 최근 세그먼트가 우선하므로 이웃한 것만 병합할 수
+     * 있다. 세그먼트 안의 위치는 int이고 파일 전체를 매핑하므로, 파일 크기의 합이 MAX_MERGE_BYTES 이하인 범위 중 가장 작은 것을
+     * 고른다. 그런 범위가 없으면 더 적게 병합하고, 두 개도 병합할 수 없으면 그대로 둔다 (검색은 세그먼트 수만큼 느려질 뿐이다).
+     */
+    private List<String> mergeSegments(List<String> names) throws IOException {
+        long[] sizes = new long[names.size()];
+        for (int ii = 0; ii < sizes.length; ii++) {
+            sizes[ii] = Files.size(directory.resolve(names.get(ii)));
+        }
+        for (int length = names.size() - MAX_SEGMENTS + 1; length >= 2; length--) {
+            int best = -1;
+            long bestBytes = Long.MAX_VALUE;
+            for (int start = 0; start + length <= sizes.length; start++) {
+                long bytes = 0;
+                for (int ii = start; ii < start + length; ii++) {
+                    bytes += sizes[ii];
+                }
+                if (bytes < bestBytes) {
+                    best = start;
+                    bestBytes = bytes;
+                }
+            }
+            if (bestBytes <= MAX_MERGE_BYTES) {
+                List<String> merged = new ArrayList<String>(names.subList(0, best));
+                merged.add(merge(names.subList(best, best + length), best == 0));
+                merged.addAll(names.subList(best + length, names.size()));
+                return merged;
+            }
+        }
+        return names;
+    }
+
+    /**
+     * 이웃한 세그먼트들의 살아 있는 문서만 모아 새 세그먼트 하나로 기록한다. 가장 오래된 세그먼트부터 병합하면(oldest) 삭제 표시는
+     * 더 이상 필요 없고, 그렇지 않으면 더 오래된 세그먼트의 항목을 가리도록 삭제 표시를 남긴다.
+     */
+    private String merge(List<String> names, boolean oldest) throws IOException {
+        List<IndexSegment> opened = new ArrayList<IndexSegment>();
+        for (String name : names) {
+            opened.add(IndexSegment.open(directory.resolve(name)));
+        }
+        List<BitSet> lives = new ArrayList<BitSet>();
+        computeLive(opened, lives);
+        final IndexSegment.Builder builder = new IndexSegment.Builder();
+        if (!oldest) {
+            // 삭제 표시에는 용어가 없으므로 먼저 추가해도 용어별 문서 id 순서에 영향이 없다.
+            Set<String> seen = new HashSet<String>();
+            for (int s = opened.size() - 1; s >= 0; s--) {
+                IndexSegment segment = opened.get(s);
+                for (int doc = 0; doc < segment.getDocCount(); doc++) {
+                    if (seen.add(segment.getPath(doc)) && segment.getSize(doc) == IndexSegment.TOMBSTONE) {
+                        builder.addDocument(segment.getPath(doc), IndexSegment.TOMBSTONE, 0);
+                    }
+                }
+            }
+        }
+        for (int s = 0; s < opened.size(); s++) {
+            IndexSegment segment = opened.get(s);
+            BitSet segmentLive = lives.get(s);
+            final int[] docs = new int[segment.getDocCount()];
+            for (int doc = segmentLive.nextSetBit(0); doc >= 0; doc = segmentLive.nextSetBit(doc + 1)) {
+                docs[doc] = builder.addDocument(segment.getPath(doc), segment.getSize(doc), segment.getModified(doc));
+            }
+            // 세그먼트를 오래된 순서로 처리하므로 용어마다 새 문서 id가 증가하는 순서로 추가된다.
+            for (int term = 0; term < segment.getTermCount(); term++) {
+                byte[] bytes = segment.getTerm(term);
+                final int trigram = ((bytes[0] & 0xff) << 16) | ((bytes[1] & 0xff) << 8) | (bytes[2] & 0xff);
+                segment.readPostings(term, segmentLive, doc -> builder.addTerm(trigram, docs[doc]));
+            }
+        }
+        return writeSegment(builder);
+    }
+
+    private String writeSegment(IndexSegment.Builder builder) throws IOException {
+        Files.createDirectories(directory);
+        String name = String.format("%08d", ++sequence) + SEGMENT_SUFFIX;
+        builder.write(directory.resolve(name));
+        return name;
+    }
+
+    /**
+     * 세그먼트 목록은 임시 파일에 쓴 뒤 원자적으로 교체하므로, 도중에 중단되어도 이전 목록 또는 새 목록 중 하나가 남는다.
+     */
+    private void writeManifest(List<String> names) throws IOException {
+        Files.createDirectories(directory);
+        List<String> lines = new ArrayList<String>();
+        lines.add(root.toString());
+        lines.addAll(names);
+        Path temp = directory.resolve(MANIFEST + ".tmp");
+        Files.write(temp, lines, StandardCharsets.UTF_8);
+        Files.move(temp, directory.resolve(MANIFEST), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * 세그먼트 목록을 읽어 세그먼트를 열고, 목록에 없는 세그먼트 파일(병합 전 파일이나 중단된 update의 파일)은 지운다.
+     */
+    private void load() throws IOException {
+        List<String> names = new ArrayList<String>();
+        Path manifest = directory.resolve(MANIFEST);
+        if (Files.isRegularFile(manifest)) {
+            List<String> lines = Files.readAllLines(manifest, StandardCharsets.UTF_8);
+            names.addAll(lines.subList(1, lines.size())); // 첫 줄은 루트 경로
+        }
+        List<IndexSegment> opened = new ArrayList<IndexSegment>();
+        for (String name : names) {
+            opened.add(IndexSegment.open(directory.resolve(name)));
+        }
+        List<BitSet> lives = new ArrayList<BitSet>();
+        Map<String, long[]> docs = computeLive(opened, lives);
+
+        if (Files.isDirectory(directory)) {
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + SEGMENT_SUFFIX)) {
+                for (Path file : stream) {
+                    String name = file.getFileName().toString();
+                    try {
+                        sequence = Math.max(sequence, Integer.parseInt(name.substring(0, name.length() - SEGMENT_SUFFIX.length())));
+                    } catch (NumberFormatException e) {
+                        continue;
+                    }
+                    if (!names.contains(name)) {
+                        try {
+                            Files.deleteIfExists(file);
+                        } catch (IOException e) {
+                            // 아직 매핑되어 있어 지울 수 없는 경우(Windows)에는 다음에 다시 시도한다.
+                        }
+                    }
+                }
+            }
+        }
+
+        lock.writeLock().lock();
+        try {
+            segmentNames = names;
+            segments = opened;
+            live = lives;
+            documents = docs;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 최근 세그먼트부터 보면서 경로마다 가장 최근 항목만 살려 둔다. lives에 세그먼트 순서대로 살아 있는 문서를 채우고
+     * 살아 있는 문서의 {크기, 수정 시간}을 반환한다.
+     */
+    private static Map<String, long[]> computeLive(List<IndexSegment> segments, List<BitSet> lives) {
+        Map<String, long[]> docs = new HashMap<String, long[]>();
+        Set<String> seen = new HashSet<String>();
+        BitSet[] result = new BitSet[segments.size()];
+        for (int s = segments.size() - 1; s >= 0; s--) {
+            IndexSegment segment = segments.get(s);
+            result[s] = new BitSet(segment.getDocCount());
+            for (int doc = 0; doc < segment.getDocCount(); doc++) {
+                String path = segment.getPath(doc);
+                if (!seen.add(path)) {
+                    continue;
+                }
+                long size = segment.getSize(doc);
+                if (size != IndexSegment.TOMBSTONE) {
+                    result[s].set(doc);
+                    docs.put(path, new long[]{size, segment.getModified(doc)});
+                }
+            }
+        }
+        lives.addAll(Arrays.asList(result));
+        return docs;
+    }
+
+    private static final class FileEntry {
+
+        final String path;
+        final long size;
+        final long modified;
+
+        FileEntry(String path, long size, long modified) {
+            this.path = path;
+            this.size = size;
+            this.modified = modified;
+        }
+    }
+
+    /**
+     * ContentSearcher와 같은 규칙(.gitignore, 심볼릭 링크를 따라가지 않음)으로 파일을 모은다.
+     */
+    private class WalkTask extends RecursiveAction {
+
+        private final Path dir;
+        private final GitIgnoreRules rules;
+        private final Queue<FileEntry> files;
+        private final boolean cancellable; // 백그라운드 재검사는 update의 cancel에 영향을 받지 않는다.
+
+        WalkTask(Path dir, GitIgnoreRules rules, Queue<FileEntry> files, boolean cancellable) {
+            this.dir = dir;
+            this.rules = rules;
+            this.files = files;
+            this.cancellable = cancellable;
+        }
+
+        @Override
+        protected void compute() {
+            if (cancellable && cancelled) {
+                return;
+            }
+            if (watcher != null) {
+                watcher.tryRegister(dir);
+            }
+            List<WalkTask> tasks = new ArrayList<WalkTask>();
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir)) {
+                for (Path child : stream) {
+                    BasicFileAttributes attributes;
+                    try {
+                        attributes = Files.readAttributes(child, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+                    } catch (IOException e) {
+                        continue;
+                    }
+                    if (rules != null && rules.isIgnored(child, attributes.isDirectory())) {
+                        continue;
+                    }
+                    if (attributes.isDirectory()) {
+                        tasks.add(new WalkTask(child, rules == null ? null : rules.child(child), files, cancellable));
+                    } else if (attributes.isRegularFile()) {
+                        files.add(new FileEntry(child.toString(), attributes.size(), attributes.lastModifiedTime().toMillis()));
+                    }
+                }
+            } catch (IOException | SecurityException e) {
+                return;
+            }
+            invokeAll(tasks);
+        }
+    }
+}
@@ -0,0 +1,385 @@
+/*
+The MIT License
+
+Copyright (c) 2015-2023 Valentyn Kolesnikov (https://github.com/javadev/file-manager)
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package com.github.filemanager;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 디렉토리 아래 파일들의 내용을 병렬로 검색하는 클래스 ("search in files").
+ *
+ * <p>디렉토리와 파일마다 ForkJoinPool 작업을 만들어 work-stealing으로 분배한다. 파일은 FileChannel.map으로 window 단위로
+ * 매핑해서 읽으므로 힙으로 복사하지 않는다. 앞부분에 NUL 바이트가 있는 파일은 바이너리로 보고 건너뛰며, 검색 루트가 git 저장소
+ * 안에 있으면 .gitignore 규칙에 해당하는 파일도 건너뛴다.
+ *
+ * <p>리터럴 검색은 질의어의 UTF-8 바이트를 Boyer-Moore-Horspool로 찾는다. 정규식과 대소문자 무시 검색은 매핑된 바이트를
+ * ISO-8859-1 문자열처럼 보는 CharSequence 위에서 수행하므로, ASCII가 아닌 문자는 리터럴 검색에서만 정확히 찾을 수 있다.
+ */
+class ContentSearcher {
+
+    /**
+     * 검색 결과 한 줄
+     */
+    static class Match {
+
+        final File file;
+        final long line;
+        final String snippet;
+
+        Match(File file, long line, String snippet) {
+            this.file = file;
+            this.line = line;
+            this.snippet = snippet;
+        }
+    }
+
+    private static final int WINDOW_SIZE = 64 * 1024 * 1024;
+    private static final int SNIFF_LENGTH = 8000; // git과 같은 크기만큼 앞부분을 검사한다.
+    private static final int MAX_SNIPPET_LENGTH = 200;
+    private static final int MAX_MATCHES_PER_FILE = 1000;
+
+    private final Path root;
+    private final byte[] literal;
+    private final int[] skipTable;
+    private final Pattern pattern;
+    private final int maxMatches;
+    private volatile Consumer<Match> consumer;
+
+    private final AtomicInteger matchCount = new AtomicInteger();
+    private final AtomicLong filesScanned = new AtomicLong();
+    private final AtomicLong bytesScanned = new AtomicLong();
+    private volatile boolean cancelled = false;
+
+    /**
+     * @param regex      true이면 query를 정규식으로 해석한다.
+     * @param ignoreCase 대소문자를 구분하지 않는다.
+     */
+    ContentSearcher(Path root, String query, boolean regex, boolean ignoreCase, int maxMatches) {
+        this.root = root;
+        this.maxMatches = maxMatches;
+        if (regex || ignoreCase) {
+            String expression = regex ? query : Pattern.quote(query);
+            // 매핑된 바이트를 ISO-8859-1 문자로 보므로 패턴의 리터럴 문자도 UTF-8 바이트 단위 문자로 바꿔 둔다.
+            expression = new String(expression.getBytes(StandardCharsets.UTF_8), StandardCharsets.ISO_8859_1);
+            this.pattern = Pattern.compile(expression, Pattern.MULTILINE | (ignoreCase ? Pattern.CASE_INSENSITIVE : 0));
+            this.literal = null;
+            this.skipTable = null;
+        } else {
+            this.pattern = null;
+            this.literal = query.getBytes(StandardCharsets.UTF_8);
+            this.skipTable = new int[256];
+            for (int ii = 0; ii < 256; ii++) {
+                skipTable[ii] = literal.length;
+            }
+            for (int ii = 0; ii < literal.length - 1; ii++) {
+                skipTable[literal[ii] & 0xff] = literal.length - 1 - ii;
+            }
+        }
+    }
+
+    /**
+     * 검색이 끝나거나 취소될 때까지 반환하지 않는다. consumer는 검색 스레드들에서 동시에 호출된다.
+     */
+    void run(ForkJoinPool pool, Consumer<Match> consumer) {
+        this.consumer = consumer;
+        pool.invoke(new DirectoryTask(root, GitIgnoreRules.forDirectory(root)));
+    }
+
+    /**
+     * 디렉토리를 탐색하지 않고 주어진 파일들만 검색한다. ContentIndex가 좁혀 준 후보 파일을 확인할 때 사용한다.
+     */
+    void runFiles(ForkJoinPool pool, final List<Path> files, Consumer<Match> consumer) {
+        this.consumer = consumer;
+        pool.invoke(new RecursiveAction() {
+            @Override
+            protected void compute() {
+                List<RecursiveAction> tasks = new ArrayList<RecursiveAction>(files.size());
+                for (final Path file : files) {
+                    tasks.add(new RecursiveAction() {
+                        @Override
+                        protected void compute() {
+                            if (!isStopped()) {
+                                searchFile(file);
+                            }
+                        }
+                    });
+                }
+                invokeAll(tasks);
+            }
+        });
+    }
+
+    void cancel() {
+        cancelled = true;
+    }
+
+    boolean isStopped() {
+        return cancelled || matchCount.get() >= maxMatches;
+    }
+
+    long getFilesScanned() {
+        return filesScanned.get();
+    }
+
+    long getBytesScanned() {
+        return bytesScanned.get();
+    }
+
+    int getMatchCount() {
+        return Math.min(matchCount.get(), maxMatches);
+    }
+
+    private void searchFile(Path path) {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size == 0 || isBinary(channel)) {
+                return;
+            }
+            filesScanned.incrementAndGet();
+            long position = 0;
+            long line = 1;
+            int fileMatches = 0;
+            while (position < size && !isStopped() && fileMatches < MAX_MATCHES_PER_FILE) {
+                int length = (int) Math.min(WINDOW_SIZE, size - position);
+                MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+                // 줄이 window 경계에서 잘리지 않도록 마지막 줄바꿈까지만 처리하고, 나머지는 다음 window에서 다시 매핑한다.
+                int end = length;
+                if (position + length < size) {
+                    int lastNewline = lastIndexOf(window, (byte) '\n', length - 1);
+                    if (lastNewline >= 0) {
+                        end = lastNewline + 1;
+                    }
+                }
+                Counter counter = new Counter(line);
+                fileMatches += pattern != null
+                        ? searchRegex(path, window, end, counter, MAX_MATCHES_PER_FILE - fileMatches)
+                        : searchLiteral(path, window, end, counter, MAX_MATCHES_PER_FILE - fileMatches);
+                line = counter.countTo(window, end);
+                position += end;
+                bytesScanned.addAndGet(end);
+            }
+        } catch (IOException | SecurityException e) {
+            // 읽을 수 없는 파일은 건너뛴다.
+        }
+    }
+
+    static boolean isBinary(FileChannel channel) throws IOException {
+        ByteBuffer head = ByteBuffer.allocate((int) Math.min(SNIFF_LENGTH, channel.size()));
+        channel.read(head, 0);
+        for (int ii = 0; ii < head.position(); ii++) {
+            if (head.get(ii) == 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int searchLiteral(Path path, ByteBuffer buffer, int end, Counter counter, int limit) {
+        int n = literal.length;
+        int found = 0;
+        int ii = 0;
+        while (ii + n <= end && found < limit && !isStopped()) {
+            int jj = n - 1;
+            while (jj >= 0 && buffer.get(ii + jj) == literal[jj]) {
+                jj--;
+            }
+            if (jj < 0) {
+                int lineEnd = indexOf(buffer, (byte) '\n', ii, end);
+                report(path, buffer, ii, lineEnd, counter);
+                found++;
+                ii = lineEnd + 1; // 한 줄에는 한 번만 보고한다.
+            } else {
+                ii += skipTable[buffer.get(ii + n - 1) & 0xff];
+            }
+        }
+        return found;
+    }
+
+    private int searchRegex(Path path, ByteBuffer buffer, int end, Counter counter, int limit) {
+        Matcher matcher = pattern.matcher(new Latin1Sequence(buffer, 0, end));
+        int found = 0;
+        int from = 0;
+        while (from < end && found < limit && !isStopped() && matcher.find(from)) {
+            int lineEnd = indexOf(buffer, (byte) '\n', matcher.start(), end);
+            report(path, buffer, matcher.start(), lineEnd, counter);
+            found++;
+            from = lineEnd + 1;
+        }
+        return found;
+    }
+
+    private void report(Path path, ByteBuffer buffer, int matchStart, int lineEnd, Counter counter) {
+        if (matchCount.getAndIncrement() >= maxMatches) {
+            return;
+        }
+        int lineStart = lastIndexOf(buffer, (byte) '\n', matchStart - 1) + 1;
+        long line = counter.countTo(buffer, lineStart);
+        // 긴 줄은 일치한 위치 주변만 잘라서 보여준다.
+        int from = Math.max(lineStart, matchStart - MAX_SNIPPET_LENGTH / 2);
+        int to = Math.min(lineEnd, from + MAX_SNIPPET_LENGTH);
+        byte[] bytes = new byte[to - from];
+        for (int ii = 0; ii < bytes.length; ii++) {
+            bytes[ii] = buffer.get(from + ii);
+        }
+        String snippet = new String(bytes, StandardCharsets.UTF_8).trim();
+        consumer.accept(new Match(path.toFile(), line, snippet));
+    }
+
+    private static int indexOf(ByteBuffer buffer, byte value, int from, int end) {
+        for (int ii = from; ii < end; ii++) {
+            if (buffer.get(ii) == value) {
+                return ii;
+            }
+        }
+        return end;
+    }
+
+    private static int lastIndexOf(ByteBuffer buffer, byte value, int from) {
+        for (int ii = from; ii >= 0; ii--) {
+            if (buffer.get(ii) == value) {
+                return ii;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * window 안에서 앞으로만 진행하며 줄 번호를 센다. 일치 항목이 여러 개여도 window 전체를 한 번만 훑는다.
+     */
+    private static class Counter {
+
+        private long line;
+        private int position = 0;
+
+        Counter(long line) {
+            this.line = line;
+        }
+
+        long countTo(ByteBuffer buffer, int offset) {
+            for (; position < offset; position++) {
+                if (buffer.get(position) == '\n') {
+                    line++;
+                }
+            }
+            return line;
+        }
+    }
+
+    /**
+     * ByteBuffer의 각 바이트를 한 문자로 보는 복사 없는 CharSequence.
+     */
+    private static class Latin1Sequence implements CharSequence {
+
+        private final ByteBuffer buffer;
+        private final int offset;
+        private final int length;
+
+        Latin1Sequence(ByteBuffer buffer, int offset, int length) {
+            this.buffer = buffer;
+            this.offset = offset;
+            this.length = length;
+        }
+
+        public int length() {
+            return length;
+        }
+
+        public char charAt(int index) {
+            return (char) (buffer.get(offset + index) & 0xff);
+        }
+
+        public CharSequence subSequence(int start, int end) {
+            return new Latin1Sequence(buffer, offset + start, end - start);
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder builder = new StringBuilder(length);
+            for (int ii = 0; ii < length; ii++) {
+                builder.append(charAt(ii));
+            }
+            return builder.toString();
+        }
+    }
+
+    private class DirectoryTask extends RecursiveAction {
+
+        private final Path dir;
+        private final GitIgnoreRules rules;
+
+        DirectoryTask(Path dir, GitIgnoreRules rules) {
+            this.dir = dir;
+            this.rules = rules;
+        }
+
+        @Override
+        protected void compute() {
+            if (isStopped()) {
+                return;
+            }
+            List<RecursiveAction> tasks = new ArrayList<RecursiveAction>();
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir)) {
+                for (final Path child : stream) {
+                    boolean directory = Files.isDirectory(child, LinkOption.NOFOLLOW_LINKS);
+                    if (rules != null && rules.isIgnored(child, directory)) {
+                        continue;
+                    }
+                    if (directory) {
+                        tasks.add(new DirectoryTask(child, rules == null ? null : rules.child(child)));
+                    } else if (Files.isRegularFile(child, LinkOption.NOFOLLOW_LINKS)) {
+                        tasks.add(new RecursiveAction() {
+                            @Override
+                            protected void compute() {
+                                if (!isStopped()) {
+                                    searchFile(child);
+                                }
+                            }
+                        });
+                    }
+                }
+            } catch (IOException | SecurityException e) {
+                return;
+            }
+            invokeAll(tasks);
+        }
+    }
+}
@@ -0,0 +1,150 @@
+/*
+The MIT License
+
+Copyright (c) 2015-2023 Valentyn Kolesnikov (https://github.com/javadev/file-manager)
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package com.github.filemanager;
+
+import java.awt.BorderLayout;
+import java.awt.Component;
+import java.awt.Dimension;
+import java.awt.FlowLayout;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.util.Map;
+
+import javax.swing.JButton;
+import javax.swing.JPanel;
+import javax.swing.JScrollPane;
+import javax.swing.JTabbedPane;
+import javax.swing.JTable;
+import javax.swing.Timer;
+import javax.swing.table.DefaultTableModel;
+
+/**
+ * Metrics의 값을 표로 보여주는 진단 패널. 화면에 표시되는 동안 1초마다 갱신한다.
+ */
+class DiagnosticsPanel extends JPanel {
+
+    private static final int REFRESH_MILLIS = 1000;
+
+    private final DefaultTableModel operationModel = readOnlyModel(
+            new String[]{"Operation", "Count", "Errors", "Mean ms", "p50 ms", "p90 ms", "p99 ms", "Max ms"},
+            new Class<?>[]{String.class, Long.class, Long.class, Double.class, Double.class, Double.class, Double.class, Double.class});
+    private final DefaultTableModel counterModel = readOnlyModel(
+            new String[]{"Counter", "Value"}, new Class<?>[]{String.class, Long.class});
+    private final DefaultTableModel cacheModel = readOnlyModel(
+            new String[]{"Cache", "Hits", "Misses", "Hit rate %"}, new Class<?>[]{String.class, Long.class, Long.class, Double.class});
+    private final JTabbedPane tabs = new JTabbedPane();
+    private final Timer refreshTimer;
+
+    DiagnosticsPanel() {
+        super(new BorderLayout(3, 3));
+        addTab("Operations", operationModel, 250);
+        addTab("Counters", counterModel, 250);
+        addTab("Caches", cacheModel, 250);
+        add(tabs, BorderLayout.CENTER);
+
+        JButton resetButton = new JButton("Reset");
+        resetButton.addActionListener(new ActionListener() {
+            public void actionPerformed(ActionEvent ae) {
+                Metrics.reset();
+                refresh();
+            }
+        });
+        JPanel buttons = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+        buttons.add(resetButton);
+        add(buttons, BorderLayout.SOUTH);
+        setPreferredSize(new Dimension(900, 400));
+
+        refreshTimer = new Timer(REFRESH_MILLIS, new ActionListener() {
+            public void actionPerformed(ActionEvent ae) {
+                refresh();
+            }
+        });
+        refresh();
+    }
+
+    /**
+     * 다른 진단 정보(예: EDT 지연)를 탭으로 추가할 때 사용한다.
+     */
+    void addTab(String title, Component component) {
+        tabs.addTab(title, component);
+    }
+
+    void refresh() {
+        operationModel.setRowCount(0);
+        for (Metrics.Operation operation : Metrics.getOperations()) {
+            operationModel.addRow(new Object[]{operation.name, operation.getCount(), operation.getErrorCount(),
+                    round(operation.getMeanMillis()), round(operation.getPercentileMillis(0.5)),
+                    round(operation.getPercentileMillis(0.9)), round(operation.getPercentileMillis(0.99)),
+                    round(operation.getMaxMillis())});
+        }
+        counterModel.setRowCount(0);
+        for (Map.Entry<String, Long> counter : Metrics.getCounters().entrySet()) {
+            counterModel.addRow(new Object[]{counter.getKey(), counter.getValue()});
+        }
+        for (Metrics.Operation operation : Metrics.getOperations()) {
+            if (operation.name.startsWith("exec.")) { // 명령별 실행 횟수
+                counterModel.addRow(new Object[]{operation.name, operation.getCount()});
+            }
+        }
+        cacheModel.setRowCount(0);
+        for (Metrics.Cache cache : Metrics.getCaches()) {
+            cacheModel.addRow(new Object[]{cache.name, cache.getHits(), cache.getMisses(), round(cache.getHitRate() * 100)});
+        }
+    }
+
+    @Override
+    public void addNotify() {
+        super.addNotify();
+        refreshTimer.start();
+    }
+
+    @Override
+    public void removeNotify() {
+        refreshTimer.stop();
+        super.removeNotify();
+    }
+
+    private void addTab(String title, DefaultTableModel model, int firstColumnWidth) {
+        JTable table = new JTable(model);
+        table.setAutoCreateRowSorter(true);
+        table.getColumnModel().getColumn(0).setPreferredWidth(firstColumnWidth);
+        tabs.addTab(title, new JScrollPane(table));
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+
+    private static DefaultTableModel readOnlyModel(String[] columns, final Class<?>[] classes) {
+        return new DefaultTableModel(columns, 0) {
+            public boolean isCellEditable(int row, int column) {
+                return false;
+            }
+
+            public Class<?> getColumnClass(int column) {
+                return classes[column];
+            }
+        };
+    }
+}
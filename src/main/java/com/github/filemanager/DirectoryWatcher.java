@@ -0,0 +1,187 @@
+/*
+The MIT License
+
+Copyright (c) 2015-2023 Valentyn Kolesnikov (https://github.com/javadev/file-manager)
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package com.github.filemanager;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * WatchService를 감싸서 디렉토리의 생성/삭제/수정 이벤트를 Listener로 전달하는 클래스.
+ *
+ * <p>등록할 수 있는 디렉토리 수는 maxRegistrations로 제한되며, 한도를 넘으면 가장 오래 사용하지 않은
+ * 디렉토리의 등록을 해제한다. 이벤트는 감시 스레드에서 전달되므로 Swing 컴포넌트를 변경하려면 Listener 쪽에서 EDT로
+ * 넘겨야 한다.
+ */
+class DirectoryWatcher implements Closeable {
+
+    /**
+     * 감시 중인 디렉토리에서 발생한 이벤트를 전달받는 인터페이스.
+     */
+    interface Listener {
+
+        void created(Path dir, Path child);
+
+        void deleted(Path dir, Path child);
+
+        void modified(Path dir, Path child);
+
+        /**
+         * 이벤트가 너무 많아 일부가 유실되었을 때 호출된다. 해당 디렉토리를 다시 스캔해야 한다.
+         */
+        void overflow(Path dir);
+    }
+
+    private final WatchService watchService;
+    private final Listener listener;
+    private final int maxRegistrations;
+    private final Map<Path, WatchKey> keys;
+    private final Thread thread;
+    private volatile boolean closed = false;
+
+    DirectoryWatcher(int maxRegistrations, Listener listener) throws IOException {
+        this.watchService = FileSystems.getDefault().newWatchService();
+        this.listener = listener;
+        this.maxRegistrations = maxRegistrations;
+        // access order = true 이므로 등록/조회할 때마다 가장 최근 항목이 뒤로 이동한다 (LRU)
+        this.keys = new LinkedHashMap<Path, WatchKey>(16, 0.75f, true);
+        this.thread = new Thread(new Runnable() {
+            public void run() {
+                processEvents();
+            }
+        }, "directory-watcher");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * 디렉토리를 감시 대상으로 등록한다. 이미 등록된 경우에는 LRU 순서만 갱신한다.
+     *
+     * @return 등록에 성공했으면 true
+     */
+    synchronized boolean register(Path dir) {
+        if (closed) {
+            return false;
+        }
+        if (keys.get(dir) != null) {
+            return true;
+        }
+        try {
+            WatchKey key = dir.register(watchService,
+                    StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_DELETE,
+                    StandardWatchEventKinds.ENTRY_MODIFY);
+            keys.put(dir, key);
+        } catch (IOException | UnsupportedOperationException e) {
+            e.printStackTrace();
+            return false;
+        }
+        // 한도를 넘은 경우 가장 오래 사용하지 않은 등록부터 해제
+        Iterator<Map.Entry<Path, WatchKey>> iterator = keys.entrySet().iterator();
+        while (keys.size() > maxRegistrations && iterator.hasNext()) {
+            Map.Entry<Path, WatchKey> eldest = iterator.next();
+            eldest.getValue().cancel();
+            iterator.remove();
+        }
+        return true;
+    }
+
+    /**
+     * register와 같지만 한도에 도달했으면 기존 등록을 해제하지 않고 false를 반환한다. 먼저 등록한 상위 디렉토리를 우선해야
+     * 하는 경우(예: 파일 이름 인덱스)에 사용한다.
+     */
+    synchronized boolean tryRegister(Path dir) {
+        if (keys.size() >= maxRegistrations && !keys.containsKey(dir)) {
+            return false;
+        }
+        return register(dir);
+    }
+
+    synchronized void unregister(Path dir) {
+        WatchKey key = keys.remove(dir);
+        if (key != null) {
+            key.cancel();
+        }
+    }
+
+    synchronized boolean isWatching(Path dir) {
+        return keys.containsKey(dir);
+    }
+
+    synchronized int getRegistrationCount() {
+        return keys.size();
+    }
+
+    private void processEvents() {
+        while (!closed) {
+            WatchKey key;
+            try {
+                key = watchService.take();
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                return;
+            }
+            Path dir = (Path) key.watchable();
+            for (WatchEvent<?> event : key.pollEvents()) {
+                WatchEvent.Kind<?> kind = event.kind();
+                if (kind == StandardWatchEventKinds.OVERFLOW) {
+                    listener.overflow(dir);
+                    continue;
+                }
+                Path child = dir.resolve((Path) event.context());
+                if (kind == StandardWatchEventKinds.ENTRY_CREATE) {
+                    listener.created(dir, child);
+                } else if (kind == StandardWatchEventKinds.ENTRY_DELETE) {
+                    listener.deleted(dir, child);
+                } else if (kind == StandardWatchEventKinds.ENTRY_MODIFY) {
+                    listener.modified(dir, child);
+                }
+            }
+            if (!key.reset()) { // 디렉토리 자체가 삭제되었거나 등록이 해제된 경우
+                synchronized (this) {
+                    if (keys.get(dir) == key) {
+                        keys.remove(dir);
+                    }
+                }
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        synchronized (this) {
+            keys.clear();
+        }
+        watchService.close();
+    }
+}
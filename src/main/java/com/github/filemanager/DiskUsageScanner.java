@@ -0,0 +1,249 @@
+/*
+The MIT License
+
+Copyright (c) 2015-2023 Valentyn Kolesnikov (https://github.com/javadev/file-manager)
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package com.github.filemanager;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 디렉토리 아래의 디스크 사용량을 병렬로 집계한다.
+ *
+ * <p>큰 볼륨도 스캔할 수 있도록 파일마다 객체를 만들지 않는다. 디렉토리마다 Node 하나를 두고, 파일은 크기가 큰
+ * MAX_FILES_PER_NODE 개만 이름과 크기 배열로 남기며 나머지는 합계만 기록한다. 디렉토리의 목록을 읽는 즉시 크기를 상위
+ * 노드들에 더하므로, 스캔 도중에도 getRoot()에서 지금까지의 집계를 읽을 수 있다.
+ */
+class DiskUsageScanner {
+
+    static final int MAX_FILES_PER_NODE = 16;
+
+    /**
+     * 디렉토리 하나. contents는 목록을 다 읽은 뒤 한 번만 설정되므로 null이면 아직 스캔 중이다.
+     */
+    static final class Node {
+
+        private static final AtomicLongFieldUpdater<Node> SIZE = AtomicLongFieldUpdater.newUpdater(Node.class, "size");
+
+        final Node parent;
+        final String name; // 루트 노드는 전체 경로
+        private volatile long size;
+        private volatile Contents contents;
+
+        Node(Node parent, String name) {
+            this.parent = parent;
+            this.name = name;
+        }
+
+        /**
+         * 지금까지 집계된 하위 전체의 크기.
+         */
+        long getSize() {
+            return size;
+        }
+
+        Contents getContents() {
+            return contents;
+        }
+
+        Path getPath(Path root) {
+            return parent == null ? root : parent.getPath(root).resolve(name);
+        }
+    }
+
+    /**
+     * 디렉토리의 내용. 배열은 만든 뒤 바뀌지 않는다.
+     */
+    static final class Contents {
+
+        final Node[] directories;
+        final String[] fileNames;  // 크기가 큰 파일, 크기 내림차순
+        final long[] fileSizes;
+        final long otherFilesSize; // fileNames에 포함되지 않은 파일들의 합계
+        final int fileCount;
+
+        Contents(Node[] directories, String[] fileNames, long[] fileSizes, long otherFilesSize, int fileCount) {
+            this.directories = directories;
+            this.fileNames = fileNames;
+            this.fileSizes = fileSizes;
+            this.otherFilesSize = otherFilesSize;
+            this.fileCount = fileCount;
+        }
+    }
+
+    /**
+     * 확장자별 합계.
+     */
+    static final class TypeStats {
+
+        final LongAdder bytes = new LongAdder();
+        final LongAdder files = new LongAdder();
+    }
+
+    private final Path root;
+    private final Node rootNode;
+    private final Map<String, TypeStats> types = new ConcurrentHashMap<String, TypeStats>();
+    private final AtomicLong filesScanned = new AtomicLong();
+    private final AtomicLong directoriesScanned = new AtomicLong();
+    private volatile boolean cancelled = false;
+
+    DiskUsageScanner(Path root) {
+        this.root = root;
+        this.rootNode = new Node(null, root.toString());
+    }
+
+    Path getRoot() {
+        return root;
+    }
+
+    Node getRootNode() {
+        return rootNode;
+    }
+
+    Map<String, TypeStats> getTypes() {
+        return types;
+    }
+
+    long getFilesScanned() {
+        return filesScanned.get();
+    }
+
+    long getDirectoriesScanned() {
+        return directoriesScanned.get();
+    }
+
+    void cancel() {
+        cancelled = true;
+    }
+
+    boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * 스캔이 끝나거나 취소될 때까지 반환하지 않는다.
+     */
+    void run(ForkJoinPool pool) {
+        pool.invoke(new ScanTask(rootNode, root));
+    }
+
+    static String typeOf(String fileName) {
+        int dot = fileName.lastIndexOf('.');
+        return dot <= 0 || dot == fileName.length() - 1 ? "(none)" : fileName.substring(dot + 1).toLowerCase();
+    }
+
+    private class ScanTask extends RecursiveAction {
+
+        private final Node node;
+        private final Path dir;
+
+        ScanTask(Node node, Path dir) {
+            this.node = node;
+            this.dir = dir;
+        }
+
+        @Override
+        protected void compute() {
+            if (cancelled) {
+                return;
+            }
+            List<Node> directories = new ArrayList<Node>();
+            List<ScanTask> tasks = new ArrayList<ScanTask>();
+            String[] names = new String[MAX_FILES_PER_NODE];
+            long[] sizes = new long[MAX_FILES_PER_NODE];
+            int kept = 0;
+            long filesSize = 0;
+            int fileCount = 0;
+            Map<String, long[]> localTypes = new HashMap<String, long[]>(); // 확장자 -> {bytes, files}
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir)) {
+                for (Path child : stream) {
+                    BasicFileAttributes attributes;
+                    try {
+                        attributes = Files.readAttributes(child, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+                    } catch (IOException e) {
+                        continue;
+                    }
+                    String name = child.getFileName().toString();
+                    if (attributes.isDirectory()) {
+                        Node childNode = new Node(node, name);
+                        directories.add(childNode);
+                        tasks.add(new ScanTask(childNode, child));
+                        continue;
+                    }
+                    long size = attributes.size();
+                    filesSize += size;
+                    fileCount++;
+                    long[] type = localTypes.computeIfAbsent(typeOf(name), key -> new long[2]);
+                    type[0] += size;
+                    type[1]++;
+                    // 크기 내림차순으로 상위 MAX_FILES_PER_NODE 개만 유지 (삽입 정렬)
+                    if (kept < MAX_FILES_PER_NODE || size > sizes[kept - 1]) {
+                        int position = kept < MAX_FILES_PER_NODE ? kept++ : kept - 1;
+                        while (position > 0 && sizes[position - 1] < size) {
+                            sizes[position] = sizes[position - 1];
+                            names[position] = names[position - 1];
+                            position--;
+                        }
+                        sizes[position] = size;
+                        names[position] = name;
+                    }
+                }
+            } catch (IOException | SecurityException e) {
+                // 읽을 수 없는 디렉토리는 빈 디렉토리로 본다.
+            }
+            long keptSize = 0;
+            for (int ii = 0; ii < kept; ii++) {
+                keptSize += sizes[ii];
+            }
+            String[] fileNames = new String[kept];
+            long[] fileSizes = new long[kept];
+            System.arraycopy(names, 0, fileNames, 0, kept);
+            System.arraycopy(sizes, 0, fileSizes, 0, kept);
+            node.contents = new Contents(directories.toArray(new Node[0]), fileNames, fileSizes, filesSize - keptSize, fileCount);
+            for (Node n = node; n != null; n = n.parent) {
+                Node.SIZE.addAndGet(n, filesSize);
+            }
+            for (Map.Entry<String, long[]> entry : localTypes.entrySet()) {
+                TypeStats stats = types.computeIfAbsent(entry.getKey(), key -> new TypeStats());
+                stats.bytes.add(entry.getValue()[0]);
+                stats.files.add(entry.getValue()[1]);
+            }
+            filesScanned.addAndGet(fileCount);
+            directoriesScanned.incrementAndGet();
+            invokeAll(tasks);
+        }
+    }
+}
@@ -0,0 +1,299 @@
+/*
+The MIT License
+
+Copyright (c) 2015-2023 Valentyn Kolesnikov (https://github.com/javadev/file-manager)
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package com.github.filemanager;
+
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.FontMetrics;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.Shape;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.geom.Rectangle2D;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+import javax.swing.JComponent;
+
+/**
+ * DiskUsageScanner의 집계를 squarified treemap으로 그리는 컴포넌트.
+ *
+ * <p>그릴 때마다 현재까지의 크기로 배치를 다시 계산하므로, 스캔 중에 주기적으로 repaint 하면 큰 디렉토리부터 자리를 잡아 가며
+ * 점점 세밀해진다. 디렉토리 타일은 MAX_DEPTH 단계까지 안쪽에 하위 항목을 그린다. 타일을 클릭하면 그 디렉토리(파일이면 파일이
+ * 있는 디렉토리)를 listener에 알리고, 더블 클릭하면 그 디렉토리를 확대한다.
+ */
+class DiskUsageView extends JComponent {
+
+    private static final int MAX_DEPTH = 3;
+    private static final int MAX_ITEMS = 500; // 한 디렉토리에서 배치할 최대 항목 수 (나머지는 1픽셀보다 작다)
+    private static final int HEADER_HEIGHT = 14;
+
+    /**
+     * 화면에 그린 타일 하나. 파일 타일이면 fileName이 설정되고, 나머지 파일들을 합친 타일이면 fileName이 null이다.
+     */
+    private static final class Tile {
+
+        final Rectangle2D.Double bounds;
+        final DiskUsageScanner.Node node; // 디렉토리 타일이면 그 디렉토리, 아니면 파일이 있는 디렉토리
+        final boolean directory;
+        final String fileName;
+        final long size;
+
+        Tile(Rectangle2D.Double bounds, DiskUsageScanner.Node node, boolean directory, String fileName, long size) {
+            this.bounds = bounds;
+            this.node = node;
+            this.directory = directory;
+            this.fileName = fileName;
+            this.size = size;
+        }
+    }
+
+    private final DiskUsageScanner scanner;
+    private final Consumer<Path> listener;
+    private final List<Tile> tiles = new ArrayList<Tile>(); // 그린 순서 (상위 타일이 먼저)
+    private DiskUsageScanner.Node current;
+
+    DiskUsageView(DiskUsageScanner scanner, Consumer<Path> listener) {
+        this.scanner = scanner;
+        this.listener = listener;
+        this.current = scanner.getRootNode();
+        setPreferredSize(new Dimension(800, 500));
+        setToolTipText(""); // getToolTipText(MouseEvent)를 사용하기 위해 등록
+        addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                Tile tile = tileAt(e.getX(), e.getY());
+                if (tile == null) {
+                    return;
+                }
+                if (e.getClickCount() == 2 && tile.directory) {
+                    current = tile.node;
+                    repaint();
+                } else if (e.getClickCount() == 1) {
+                    DiskUsageView.this.listener.accept(tile.node.getPath(DiskUsageView.this.scanner.getRoot()));
+                }
+            }
+        });
+    }
+
+    Path getCurrentPath() {
+        return current.getPath(scanner.getRoot());
+    }
+
+    /**
+     * 한 단계 위 디렉토리를 보여준다. 스캔한 루트보다 위로는 올라가지 않는다.
+     */
+    void zoomOut() {
+        if (current.parent != null) {
+            current = current.parent;
+            repaint();
+        }
+    }
+
+    @Override
+    public String getToolTipText(MouseEvent e) {
+        Tile tile = tileAt(e.getX(), e.getY());
+        if (tile == null) {
+            return null;
+        }
+        Path path = tile.node.getPath(scanner.getRoot());
+        String name = tile.directory ? path.toString()
+                : tile.fileName != null ? path.resolve(tile.fileName).toString() : path + " (other files)";
+        return name + " - " + FileManager.formatSize(tile.size);
+    }
+
+    private Tile tileAt(int x, int y) {
+        for (int ii = tiles.size() - 1; ii >= 0; ii--) { // 가장 안쪽 타일부터
+            if (tiles.get(ii).bounds.contains(x, y)) {
+                return tiles.get(ii);
+            }
+        }
+        return null;
+    }
+
+    @Override
+    protected void paintComponent(Graphics graphics) {
+        Graphics2D g = (Graphics2D) graphics.create();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+            g.setColor(getBackground() != null ? getBackground() : Color.WHITE);
+            g.fillRect(0, 0, getWidth(), getHeight());
+            tiles.clear();
+            paintNode(g, current, new Rectangle2D.Double(0, 0, getWidth(), getHeight()), 0);
+        } finally {
+            g.dispose();
+        }
+    }
+
+    private void paintNode(Graphics2D g, DiskUsageScanner.Node node, Rectangle2D.Double rect, int depth) {
+        DiskUsageScanner.Contents contents = node.getContents();
+        if (contents == null) { // 아직 목록을 읽는 중
+            return;
+        }
+        // 항목: 하위 디렉토리, 큰 파일들, 나머지 파일 합계
+        int count = contents.directories.length + contents.fileNames.length + 1;
+        long[] sizes = new long[count];
+        int[] order = new int[count];
+        for (int ii = 0; ii < contents.directories.length; ii++) {
+            sizes[ii] = contents.directories[ii].getSize();
+        }
+        System.arraycopy(contents.fileSizes, 0, sizes, contents.directories.length, contents.fileSizes.length);
+        sizes[count - 1] = contents.otherFilesSize;
+        int items = 0;
+        long total = 0;
+        for (int ii = 0; ii < count; ii++) {
+            if (sizes[ii] > 0) {
+                order[items++] = ii;
+                total += sizes[ii];
+            }
+        }
+        if (items == 0 || rect.width < 1 || rect.height < 1) {
+            return;
+        }
+        sortBySizeDescending(order, items, sizes);
+        items = Math.min(items, MAX_ITEMS);
+
+        double scale = rect.width * rect.height / total;
+        double[] areas = new double[items];
+        for (int ii = 0; ii < items; ii++) {
+            areas[ii] = sizes[order[ii]] * scale;
+        }
+        Rectangle2D.Double[] bounds = new Rectangle2D.Double[items];
+        squarify(areas, rect, bounds);
+
+        FontMetrics metrics = g.getFontMetrics();
+        for (int ii = 0; ii < items; ii++) {
+            Rectangle2D.Double r = bounds[ii];
+            if (r == null || r.width < 1 || r.height < 1) {
+                continue;
+            }
+            int index = order[ii];
+            boolean directory = index < contents.directories.length;
+            String fileName = null;
+            String label;
+            Color color;
+            Tile tile;
+            if (directory) {
+                DiskUsageScanner.Node child = contents.directories[index];
+                label = child.name;
+                color = Color.getHSBColor((child.name.hashCode() & 0xff) / 255f, 0.35f, Math.max(0.5f, 0.95f - depth * 0.1f));
+                tile = new Tile(r, child, true, null, sizes[index]);
+            } else if (index < count - 1) {
+                fileName = contents.fileNames[index - contents.directories.length];
+                label = fileName;
+                color = Color.getHSBColor((DiskUsageScanner.typeOf(fileName).hashCode() & 0xff) / 255f, 0.55f, 0.85f);
+                tile = new Tile(r, node, false, fileName, sizes[index]);
+            } else {
+                label = (contents.fileCount - contents.fileNames.length) + " other files";
+                color = Color.LIGHT_GRAY;
+                tile = new Tile(r, node, false, null, sizes[index]);
+            }
+            tiles.add(tile);
+            g.setColor(color);
+            g.fill(r);
+            g.setColor(color.darker());
+            g.draw(r);
+            if (r.width > 30 && r.height > metrics.getHeight()) {
+                Shape clip = g.getClip();
+                g.clip(r);
+                g.setColor(Color.BLACK);
+                g.drawString(label + " " + FileManager.formatSize(sizes[index]), (float) r.x + 3, (float) r.y + metrics.getAscent());
+                g.setClip(clip);
+            }
+            if (directory && depth < MAX_DEPTH && r.width > 40 && r.height > HEADER_HEIGHT + 16) {
+                paintNode(g, tile.node, new Rectangle2D.Double(r.x + 2, r.y + HEADER_HEIGHT, r.width - 4, r.height - HEADER_HEIGHT - 2), depth + 1);
+            }
+        }
+    }
+
+    private static void sortBySizeDescending(int[] order, int length, final long[] sizes) {
+        Integer[] boxed = new Integer[length];
+        for (int ii = 0; ii < length; ii++) {
+            boxed[ii] = order[ii];
+        }
+        Arrays.sort(boxed, (a, b) -> Long.compare(sizes[b], sizes[a]));
+        for (int ii = 0; ii < length; ii++) {
+            order[ii] = boxed[ii];
+        }
+    }
+
+    /**
+     * Bruls, Huizing, van Wijk의 squarified treemap. areas는 내림차순이고 합이 rect의 넓이와 같아야 한다.
+     * 짧은 변을 따라 한 줄씩 채우며, 항목을 더했을 때 줄에서 가장 길쭉한 사각형의 비율이 나빠지면 다음 줄로 넘어간다.
+     */
+    static void squarify(double[] areas, Rectangle2D.Double rect, Rectangle2D.Double[] out) {
+        double x = rect.x;
+        double y = rect.y;
+        double width = rect.width;
+        double height = rect.height;
+        int start = 0;
+        while (start < areas.length) {
+            double side = Math.min(width, height);
+            if (side <= 0) {
+                return;
+            }
+            int end = start + 1;
+            double sum = areas[start];
+            double worst = worstRatio(areas[start], areas[start], sum, side);
+            while (end < areas.length) {
+                double nextSum = sum + areas[end];
+                double nextWorst = worstRatio(areas[start], areas[end], nextSum, side);
+                if (nextWorst > worst) {
+                    break;
+                }
+                sum = nextSum;
+                worst = nextWorst;
+                end++;
+            }
+            double thickness = sum / side;
+            double offset = 0;
+            for (int ii = start; ii < end; ii++) {
+                double length = areas[ii] / thickness;
+                out[ii] = width >= height
+                        ? new Rectangle2D.Double(x, y + offset, thickness, length)
+                        : new Rectangle2D.Double(x + offset, y, length, thickness);
+                offset += length;
+            }
+            if (width >= height) {
+                x += thickness;
+                width -= thickness;
+            } else {
+                y += thickness;
+                height -= thickness;
+            }
+            start = end;
+        }
+    }
+
+    private static double worstRatio(double largest, double smallest, double sum, double side) {
+        double sideSquared = side * side;
+        double sumSquared = sum * sum;
+        return Math.max(sideSquared * largest / sumSquared, sumSquared / (sideSquared * smallest));
+    }
+}
@@ -0,0 +1,277 @@
+/*
+The MIT License
+
+Copyright (c) 2015-2023 Valentyn Kolesnikov (https://github.com/javadev/file-manager)
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package com.github.filemanager;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 디렉토리 아래에서 내용이 같은 파일들을 찾는다.
+ *
+ * <p>모든 파일을 끝까지 읽지 않도록 세 단계로 후보를 줄인다.
+ * <ol>
+ * <li>크기가 같은 파일끼리 묶는다. 크기가 유일한 파일은 읽지 않는다.</li>
+ * <li>앞과 뒤 SAMPLE_SIZE 바이트의 해시로 다시 나눈다. 파일이 2 * SAMPLE_SIZE 이하이면 이 해시가 곧 전체 내용의 해시다.</li>
+ * <li>남은 후보만 전체 내용을 SHA-256으로 해시한다.</li>
+ * </ol>
+ * 각 단계의 해시는 ForkJoinPool에서 파일 단위로 병렬 계산한다. 하드 링크(같은 파일 키)는 공간을 차지하지 않으므로 한 번만 센다.
+ * .gitignore는 적용하지 않는다 (빌드 결과물처럼 무시된 파일이 주로 중복되기 때문).
+ */
+class DuplicateFinder {
+
+    /**
+     * 내용이 같은 파일들의 묶음.
+     */
+    static class Group {
+
+        final long size;
+        final List<Path> files;
+
+        Group(long size, List<Path> files) {
+            this.size = size;
+            this.files = files;
+        }
+
+        /**
+         * 하나만 남기고 지우면 확보되는 바이트 수.
+         */
+        long getReclaimableBytes() {
+            return size * (files.size() - 1);
+        }
+    }
+
+    private static final int SAMPLE_SIZE = 4096;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Path root;
+    private final AtomicLong filesScanned = new AtomicLong();
+    private final AtomicLong bytesHashed = new AtomicLong();
+    private final Queue<ByteBuffer> buffers = new ConcurrentLinkedQueue<ByteBuffer>();
+    private volatile String stage = "Scanning";
+    private volatile boolean cancelled = false;
+
+    DuplicateFinder(Path root) {
+        this.root = root;
+    }
+
+    void cancel() {
+        cancelled = true;
+    }
+
+    boolean isCancelled() {
+        return cancelled;
+    }
+
+    String getStage() {
+        return stage;
+    }
+
+    long getFilesScanned() {
+        return filesScanned.get();
+    }
+
+    long getBytesHashed() {
+        return bytesHashed.get();
+    }
+
+    /**
+     * 검색이 끝나거나 취소될 때까지 반환하지 않는다. 결과는 확보할 수 있는 공간이 큰 순서로 정렬된다.
+     */
+    List<Group> run(ForkJoinPool pool) {
+        Map<Long, Queue<Path>> bySize = new ConcurrentHashMap<Long, Queue<Path>>();
+        pool.invoke(new WalkTask(root, bySize, ConcurrentHashMap.<Object>newKeySet()));
+
+        // 크기는 탐색할 때 읽은 값을 끝까지 들고 다닌다. 다시 stat 하면 그 사이에 지워진 파일에서 -1이 나올 수 있다.
+        List<Group> candidates = new ArrayList<Group>();
+        for (Map.Entry<Long, Queue<Path>> entry : bySize.entrySet()) {
+            if (entry.getValue().size() > 1) {
+                candidates.add(new Group(entry.getKey(), new ArrayList<Path>(entry.getValue())));
+            }
+        }
+        stage = "Hashing samples";
+        candidates = split(pool, candidates, true);
+        stage = "Hashing contents";
+        List<Group> large = new ArrayList<Group>();
+        List<Group> groups = new ArrayList<Group>();
+        for (Group group : candidates) {
+            (group.size > 2 * SAMPLE_SIZE ? large : groups).add(group);
+        }
+        groups.addAll(split(pool, large, false));
+        groups.sort((a, b) -> Long.compare(b.getReclaimableBytes(), a.getReclaimableBytes()));
+        return cancelled ? new ArrayList<Group>() : groups;
+    }
+
+    /**
+     * 각 묶음의 파일들을 병렬로 해시해서 해시가 같은 파일끼리 다시 묶는다. 파일이 하나뿐인 묶음은 버린다.
+     */
+    private List<Group> split(ForkJoinPool pool, List<Group> groups, final boolean sample) {
+        // 다른 묶음의 파일과 섞이지 않도록 묶음마다 따로 해시별로 모은다.
+        final List<Map<String, Queue<Path>>> byHash = new ArrayList<Map<String, Queue<Path>>>();
+        final List<RecursiveAction> tasks = new ArrayList<RecursiveAction>();
+        for (Group group : groups) {
+            final Map<String, Queue<Path>> groupByHash = new ConcurrentHashMap<String, Queue<Path>>();
+            byHash.add(groupByHash);
+            for (final Path file : group.files) {
+                tasks.add(new RecursiveAction() {
+                    @Override
+                    protected void compute() {
+                        if (cancelled) {
+                            return;
+                        }
+                        String hash = hash(file, sample);
+                        if (hash != null) {
+                            groupByHash.computeIfAbsent(hash, key -> new ConcurrentLinkedQueue<Path>()).add(file);
+                        }
+                    }
+                });
+            }
+        }
+        pool.invoke(new RecursiveAction() {
+            @Override
+            protected void compute() {
+                invokeAll(tasks);
+            }
+        });
+        List<Group> result = new ArrayList<Group>();
+        for (int ii = 0; ii < groups.size(); ii++) {
+            for (Collection<Path> files : byHash.get(ii).values()) {
+                if (files.size() > 1) {
+                    result.add(new Group(groups.get(ii).size, new ArrayList<Path>(files)));
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * sample이면 앞과 뒤 SAMPLE_SIZE 바이트만, 아니면 전체 내용을 해시한다. 읽을 수 없으면 null.
+     */
+    private String hash(Path file, boolean sample) {
+        ByteBuffer buffer = buffers.poll();
+        if (buffer == null) {
+            buffer = ByteBuffer.allocateDirect(BUFFER_SIZE); // 동시에 해시하는 파일 수만큼만 만들어진다.
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            long size = channel.size();
+            if (sample && size > 2 * SAMPLE_SIZE) {
+                update(digest, channel, buffer, 0, SAMPLE_SIZE);
+                update(digest, channel, buffer, size - SAMPLE_SIZE, size);
+            } else {
+                update(digest, channel, buffer, 0, size);
+            }
+            StringBuilder hex = new StringBuilder();
+            for (byte b : digest.digest()) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (IOException | SecurityException e) {
+            return null;
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        } finally {
+            buffers.add(buffer);
+        }
+    }
+
+    private void update(MessageDigest digest, FileChannel channel, ByteBuffer buffer, long from, long to) throws IOException {
+        long position = from;
+        while (position < to && !cancelled) {
+            buffer.clear();
+            buffer.limit((int) Math.min(buffer.capacity(), to - position));
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                break;
+            }
+            buffer.flip();
+            digest.update(buffer);
+            position += read;
+            bytesHashed.addAndGet(read);
+        }
+    }
+
+    private class WalkTask extends RecursiveAction {
+
+        private final Path dir;
+        private final Map<Long, Queue<Path>> bySize;
+        private final Set<Object> fileKeys;
+
+        WalkTask(Path dir, Map<Long, Queue<Path>> bySize, Set<Object> fileKeys) {
+            this.dir = dir;
+            this.bySize = bySize;
+            this.fileKeys = fileKeys;
+        }
+
+        @Override
+        protected void compute() {
+            if (cancelled) {
+                return;
+            }
+            List<WalkTask> tasks = new ArrayList<WalkTask>();
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir)) {
+                for (Path child : stream) {
+                    BasicFileAttributes attributes;
+                    try {
+                        attributes = Files.readAttributes(child, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+                    } catch (IOException e) {
+                        continue;
+                    }
+                    if (attributes.isDirectory()) {
+                        tasks.add(new WalkTask(child, bySize, fileKeys));
+                    } else if (attributes.isRegularFile() && attributes.size() > 0) { // 빈 파일은 지워도 공간이 생기지 않는다.
+                        filesScanned.incrementAndGet();
+                        Object key = attributes.fileKey();
+                        if (key != null && !fileKeys.add(key)) {
+                            continue; // 이미 센 파일의 하드 링크
+                        }
+                        bySize.computeIfAbsent(attributes.size(), size -> new ConcurrentLinkedQueue<Path>()).add(child);
+                    }
+                }
+            } catch (IOException | SecurityException e) {
+                return;
+            }
+            invokeAll(tasks);
+        }
+    }
+}
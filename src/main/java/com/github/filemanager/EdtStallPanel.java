@@ -0,0 +1,154 @@
+/*
+The MIT License
+
+Copyright (c) 2015-2023 Valentyn Kolesnikov (https://github.com/javadev/file-manager)
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package com.github.filemanager;
+
+import java.awt.BorderLayout;
+import java.awt.FlowLayout;
+import java.awt.Font;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.util.List;
+
+import javax.swing.JButton;
+import javax.swing.JPanel;
+import javax.swing.JScrollPane;
+import javax.swing.JSplitPane;
+import javax.swing.JTable;
+import javax.swing.JTextArea;
+import javax.swing.ListSelectionModel;
+import javax.swing.Timer;
+import javax.swing.event.ListSelectionEvent;
+import javax.swing.event.ListSelectionListener;
+import javax.swing.table.DefaultTableModel;
+
+/**
+ * EdtWatchdog이 모은 EDT 지연을 위치별로 보여주는 진단 창의 탭. 행을 선택하면 가장 오래 걸린 경우의 스택을 아래에 보여준다.
+ */
+class EdtStallPanel extends JPanel {
+
+    private static final int REFRESH_MILLIS = 1000;
+
+    private final EdtWatchdog watchdog;
+    private final DefaultTableModel model = new DefaultTableModel(
+            new String[]{"Location", "Count", "Total ms", "Max ms", "Slowest event"}, 0) {
+        public boolean isCellEditable(int row, int column) {
+            return false;
+        }
+
+        public Class<?> getColumnClass(int column) {
+            return column == 1 ? Integer.class : column == 2 || column == 3 ? Double.class : String.class;
+        }
+    };
+    private final JTable table = new JTable(model);
+    private final JTextArea stackArea = new JTextArea();
+    private final Timer refreshTimer;
+    private List<EdtWatchdog.Offender> offenders;
+
+    EdtStallPanel(EdtWatchdog watchdog) {
+        super(new BorderLayout(3, 3));
+        this.watchdog = watchdog;
+
+        table.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        table.getColumnModel().getColumn(0).setPreferredWidth(300);
+        table.getSelectionModel().addListSelectionListener(new ListSelectionListener() {
+            public void valueChanged(ListSelectionEvent lse) {
+                if (!lse.getValueIsAdjusting()) {
+                    showStack();
+                }
+            }
+        });
+        stackArea.setEditable(false);
+        stackArea.setFont(new Font(Font.MONOSPACED, Font.PLAIN, stackArea.getFont().getSize()));
+
+        JSplitPane splitPane = new JSplitPane(JSplitPane.VERTICAL_SPLIT, new JScrollPane(table), new JScrollPane(stackArea));
+        splitPane.setResizeWeight(0.5);
+        add(splitPane, BorderLayout.CENTER);
+
+        JButton clearButton = new JButton("Clear");
+        clearButton.addActionListener(new ActionListener() {
+            public void actionPerformed(ActionEvent ae) {
+                EdtStallPanel.this.watchdog.reset();
+                refresh();
+            }
+        });
+        JPanel buttons = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+        buttons.add(clearButton);
+        add(buttons, BorderLayout.SOUTH);
+
+        refreshTimer = new Timer(REFRESH_MILLIS, new ActionListener() {
+            public void actionPerformed(ActionEvent ae) {
+                refresh();
+            }
+        });
+        refresh();
+    }
+
+    void refresh() {
+        String selected = table.getSelectedRow() < 0 ? null
+                : (String) model.getValueAt(table.getSelectedRow(), 0);
+        offenders = watchdog.getOffenders();
+        model.setRowCount(0);
+        for (EdtWatchdog.Offender offender : offenders) {
+            model.addRow(new Object[]{offender.location, offender.count, round(offender.getTotalMillis()),
+                    round(offender.getMaxMillis()), offender.worstEvent});
+        }
+        for (int row = 0; selected != null && row < model.getRowCount(); row++) { // 갱신 후에도 선택을 유지한다.
+            if (selected.equals(model.getValueAt(row, 0))) {
+                table.setRowSelectionInterval(row, row);
+                break;
+            }
+        }
+        if (table.getSelectedRow() < 0) {
+            stackArea.setText("");
+        }
+    }
+
+    private void showStack() {
+        int row = table.getSelectedRow();
+        if (row < 0 || row >= offenders.size()) {
+            return;
+        }
+        StackTraceElement[] stack = offenders.get(row).worstStack;
+        stackArea.setText(stack == null
+                ? "No stack captured: the event ended before the watchdog saw it pass " + EdtWatchdog.THRESHOLD_MILLIS + " ms."
+                : EdtWatchdog.formatStack(stack, Integer.MAX_VALUE));
+        stackArea.setCaretPosition(0);
+    }
+
+    @Override
+    public void addNotify() {
+        super.addNotify();
+        refreshTimer.start();
+    }
+
+    @Override
+    public void removeNotify() {
+        refreshTimer.stop();
+        super.removeNotify();
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+}
@@ -0,0 +1,312 @@
+/*
+The MIT License
+
+Copyright (c) 2015-2023 Valentyn Kolesnikov (https://github.com/javadev/file-manager)
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package com.github.filemanager;
+
+import java.awt.AWTEvent;
+import java.awt.EventQueue;
+import java.awt.Toolkit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * EDT에서 이벤트 하나를 처리하는 데 걸린 시간을 재서, 임계값(시스템 속성 filemanager.edtStallMs, 기본 100ms, 0이면 끔)을
+ * 넘은 이벤트를 지연(stall)으로 기록하는 EventQueue.
+ *
+ * <p>감시 스레드가 처리 중인 이벤트를 주기적으로 확인하다가 임계값을 넘으면 그 순간의 EDT 스택을 저장한다 (이벤트가 끝난 뒤의
+ * 스택으로는 어디서 막혔는지 알 수 없다). 지연은 스택에서 가장 위에 있는 이 패키지 코드의 위치(없으면 이벤트 종류)로
+ * 묶어서 횟수, 합계, 최대 시간과 가장 오래 걸린 경우의 스택을 모으고, 표준 출력, edt.stall 작업(Metrics), 진단 창의
+ * "EDT stalls" 탭에 보여준다.
+ *
+ * <p>모달 대화상자는 이벤트 처리 도중에 다른 이벤트를 처리하는 내부 루프를 돌리므로, 안쪽 이벤트를 처리하거나 내부 루프가
+ * getNextEvent에서 다음 이벤트를 기다리는 시간은 바깥 이벤트의 시간에서 뺀다.
+ */
+final class EdtWatchdog extends EventQueue {
+
+    static final long THRESHOLD_MILLIS = Long.getLong("filemanager.edtStallMs", 100);
+    private static final int MAX_OFFENDERS = 200;
+    private static final int LOGGED_FRAMES = 25;
+    private static final String OTHER = "(other)";
+
+    private static EdtWatchdog installed;
+
+    private final long thresholdNanos = TimeUnit.MILLISECONDS.toNanos(THRESHOLD_MILLIS);
+    private final Map<String, Offender> offenders = new LinkedHashMap<String, Offender>();
+    private volatile Dispatch current;
+
+    /**
+     * 시스템 EventQueue 위에 감시용 EventQueue를 올린다. 임계값이 0 이하이면 아무것도 하지 않고 null을 반환한다.
+     */
+    static synchronized EdtWatchdog install() {
+        if (installed == null && THRESHOLD_MILLIS > 0) {
+            installed = new EdtWatchdog();
+            Toolkit.getDefaultToolkit().getSystemEventQueue().push(installed);
+            installed.startSampler();
+        }
+        return installed;
+    }
+
+    static synchronized EdtWatchdog getInstalled() {
+        return installed;
+    }
+
+    /**
+     * 처리 중인 이벤트 하나. parent는 모달 루프 바깥의 이벤트이다. busyNanos는 EDT에서만 쓴다.
+     */
+    private static final class Dispatch {
+
+        final Dispatch parent;
+        final AWTEvent event;
+        final Thread thread = Thread.currentThread();
+        volatile long segmentStart; // 내부 루프에서 기다리거나 안쪽 이벤트를 처리하는 동안은 -1
+        volatile StackTraceElement[] stack;
+        long busyNanos;
+
+        Dispatch(Dispatch parent, AWTEvent event, long start) {
+            this.parent = parent;
+            this.event = event;
+            this.segmentStart = start;
+        }
+
+        void pause(long now) {
+            if (segmentStart >= 0) {
+                busyNanos += now - segmentStart;
+                segmentStart = -1;
+            }
+        }
+
+        void resume(long now) {
+            segmentStart = now;
+        }
+    }
+
+    /**
+     * 같은 위치에서 발생한 지연의 합계.
+     */
+    static final class Offender {
+
+        final String location;
+        int count;
+        long totalNanos;
+        long maxNanos;
+        String worstEvent;
+        StackTraceElement[] worstStack;
+
+        Offender(String location) {
+            this.location = location;
+        }
+
+        Offender(Offender other) {
+            this.location = other.location;
+            this.count = other.count;
+            this.totalNanos = other.totalNanos;
+            this.maxNanos = other.maxNanos;
+            this.worstEvent = other.worstEvent;
+            this.worstStack = other.worstStack;
+        }
+
+        double getTotalMillis() {
+            return totalNanos / 1000000.0;
+        }
+
+        double getMaxMillis() {
+            return maxNanos / 1000000.0;
+        }
+    }
+
+    /**
+     * 이벤트 처리 도중에 불렸다면 모달 등의 내부 루프가 다음 이벤트를 기다리는 것이므로 바깥 이벤트의 시간을 멈춘다.
+     */
+    @Override
+    public AWTEvent getNextEvent() throws InterruptedException {
+        Dispatch waiting = current;
+        if (waiting == null) {
+            return super.getNextEvent();
+        }
+        waiting.pause(System.nanoTime());
+        try {
+            return super.getNextEvent();
+        } finally {
+            waiting.resume(System.nanoTime());
+        }
+    }
+
+    @Override
+    protected void dispatchEvent(AWTEvent event) {
+        long start = System.nanoTime();
+        Dispatch parent = current;
+        if (parent != null) {
+            parent.pause(start);
+        }
+        Dispatch dispatch = new Dispatch(parent, event, start);
+        current = dispatch;
+        try {
+            super.dispatchEvent(event);
+        } finally {
+            long end = System.nanoTime();
+            current = parent;
+            if (parent != null) {
+                parent.resume(end);
+            }
+            dispatch.pause(end);
+            if (dispatch.busyNanos >= thresholdNanos) {
+                stalled(dispatch);
+            }
+        }
+    }
+
+    /**
+     * 시간 합계가 큰 순서로 복사본을 반환한다.
+     */
+    synchronized List<Offender> getOffenders() {
+        List<Offender> result = new ArrayList<Offender>();
+        for (Offender offender : offenders.values()) {
+            result.add(new Offender(offender));
+        }
+        Collections.sort(result, new Comparator<Offender>() {
+            public int compare(Offender o1, Offender o2) {
+                return Long.compare(o2.totalNanos, o1.totalNanos);
+            }
+        });
+        return result;
+    }
+
+    synchronized void reset() {
+        offenders.clear();
+    }
+
+    private void stalled(Dispatch dispatch) {
+        StackTraceElement[] stack = dispatch.stack;
+        String location = location(stack, dispatch.event);
+        String event = describe(dispatch.event);
+        long nanos = dispatch.busyNanos;
+        Metrics.record("edt.stall", nanos, false);
+
+        boolean worst;
+        synchronized (this) {
+            Offender offender = offenders.get(location);
+            if (offender == null) {
+                if (offenders.size() >= MAX_OFFENDERS) {
+                    location = OTHER;
+                    offender = offenders.get(OTHER);
+                }
+                if (offender == null) {
+                    offender = new Offender(location);
+                    offenders.put(location, offender);
+                }
+            }
+            offender.count++;
+            offender.totalNanos += nanos;
+            worst = nanos > offender.maxNanos;
+            if (worst) {
+                offender.maxNanos = nanos;
+                offender.worstEvent = event;
+                offender.worstStack = stack;
+            }
+        }
+
+        System.out.println("EDT stall: " + TimeUnit.NANOSECONDS.toMillis(nanos) + " ms in " + location + " (" + event + ")");
+        if (worst && stack != null) { // 같은 위치에서 최대값을 갱신했을 때만 스택을 출력한다.
+            System.out.println(formatStack(stack, LOGGED_FRAMES));
+        }
+    }
+
+    /**
+     * 처리 중인 이벤트가 임계값을 넘었는지 확인하고 EDT 스택을 저장하는 데몬 스레드를 시작한다.
+     */
+    private void startSampler() {
+        final long intervalMillis = Math.max(5, THRESHOLD_MILLIS / 4);
+        Thread sampler = new Thread(new Runnable() {
+            public void run() {
+                while (true) {
+                    try {
+                        Thread.sleep(intervalMillis);
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    sample();
+                }
+            }
+        }, "edt-watchdog");
+        sampler.setDaemon(true);
+        sampler.start();
+    }
+
+    private void sample() {
+        Dispatch dispatch = current;
+        if (dispatch == null || dispatch.stack != null) {
+            return;
+        }
+        long segmentStart = dispatch.segmentStart;
+        if (segmentStart < 0 || System.nanoTime() - segmentStart < thresholdNanos) {
+            return;
+        }
+        StackTraceElement[] stack = dispatch.thread.getStackTrace();
+        if (current == dispatch && dispatch.segmentStart == segmentStart) { // 스택을 읽는 사이에 기다리기 시작했으면 버린다.
+            dispatch.stack = stack;
+        }
+    }
+
+    /**
+     * 스택에서 가장 위에 있는 이 패키지의 프레임. 예: FileManager.deleteFile(FileManager.java:930)
+     */
+    static String location(StackTraceElement[] stack, AWTEvent event) {
+        if (stack != null) {
+            String prefix = EdtWatchdog.class.getPackage().getName() + ".";
+            for (StackTraceElement frame : stack) {
+                String className = frame.getClassName();
+                if (className.startsWith(prefix) && !className.equals(EdtWatchdog.class.getName())) {
+                    return className.substring(prefix.length()) + "." + frame.getMethodName()
+                            + "(" + frame.getFileName() + ":" + frame.getLineNumber() + ")";
+                }
+            }
+        }
+        return describe(event);
+    }
+
+    static String describe(AWTEvent event) {
+        Object source = event.getSource();
+        return simpleName(event.getClass()) + (source == null ? "" : " from " + simpleName(source.getClass()));
+    }
+
+    private static String simpleName(Class<?> type) {
+        String name = type.getName(); // 익명 클래스는 getSimpleName이 빈 문자열이다.
+        return name.substring(name.lastIndexOf('.') + 1);
+    }
+
+    static String formatStack(StackTraceElement[] stack, int maxFrames) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < stack.length && i < maxFrames; i++) {
+            text.append(i == 0 ? "" : "\n").append("\tat ").append(stack[i]);
+        }
+        if (stack.length > maxFrames) {
+            text.append("\n\t... ").append(stack.length - maxFrames).append(" more");
+        }
+        return text.toString();
+    }
+}
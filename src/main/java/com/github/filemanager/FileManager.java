@@ -32,10 +32,21 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.*;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
 import javax.imageio.ImageIO;
 import javax.swing.*;
+import javax.swing.Timer;
 import javax.swing.border.*;
 import javax.swing.event.*;
 import javax.swing.filechooser.FileSystemView;
@@ -47,12 +58,14 @@ import org.apache.commons.io.FileUtils;
 import org.eclipse.jgit.api.*;
 import org.eclipse.jgit.api.errors.*;
 
+import org.eclipse.jgit.errors.RepositoryNotFoundException;
 import org.eclipse.jgit.lib.ObjectId;
 import org.eclipse.jgit.lib.Ref;
 import org.eclipse.jgit.lib.Repository;
 import org.eclipse.jgit.merge.MergeStrategy;
 import org.eclipse.jgit.revwalk.*;
 import org.eclipse.jgit.storage.file.FileRepositoryBuilder;
+import org.eclipse.jgit.transport.UsernamePasswordCredentialsProvider;
 
 
 /**
@@ -106,6 +119,8 @@ public class FileManager {
      * Main GUI container
      */
     private JPanel gui;
+    /* main()에서 넘겨받는 시작 단계별 시간 측정. 첫 paint 때 출력한다. */
+    private StartupTimer startupTimer;
     private JFrame bmFrame;
     /**
      * File-system tree. Built Lazily
@@ -127,12 +142,19 @@ public class FileManager {
 
     private ListSelectionListener listSelectionListener;
     private boolean cellSizesSet = false;
+    /* 세션에서 복원한 열 너비. 처음 테이블 열 크기를 정할 때 한 번 적용한다. */
+    private int[] restoredColumnWidths;
     private int rowIconPadding = 6;
 
     /* File controls. */
     private JButton openFile;
     private JButton printFile;
     private JButton editFile;
+    private JButton viewFile;
+    private JButton hexFile;
+    private JButton extractFile;
+    private JButton compressFile;
+    private JButton checksumFile;
     private JButton deleteFile;
     private JButton newdeltefile;
     private JButton newFile;
@@ -154,6 +176,18 @@ public class FileManager {
     private JButton gitBranchManagerFile; // git Branch Manager
     private JButton gitCreateBranchFile; // git branch
     private JButton gitCurrentBranch; // git current branch
+    private RefCache branchLabelRefs; // gitCurrentBranch가 HEAD 변경을 따라가는 repository
+    private final RefCache.HeadListener branchLabelListener = new RefCache.HeadListener() {
+        public void headChanged(final RefCache refs, final String branch) { // 감시 스레드에서 호출된다.
+            SwingUtilities.invokeLater(new Runnable() {
+                public void run() {
+                    if (refs == branchLabelRefs && gitCurrentBranch != null) {
+                        gitCurrentBranch.setText("Current Git Branch: " + branch);
+                    }
+                }
+            });
+        }
+    };
 
     /* git branch manager 팝업창에서 사용할 버튼 */
     private JButton gitMergeBranchFile; // git merge
@@ -183,10 +217,63 @@ public class FileManager {
 
     /* List에서 File을 선택했는지 Tree에서 File을 선택헀는지 분간하기 위한 변수. True일 경우에만 git 버튼이 활성화된다.*/
     private boolean isFileSelectedInList = false;
+    /* 마지막으로 요청한 백그라운드 git status 계산의 번호. 이전 선택의 결과가 늦게 도착하면 버린다. EDT에서만 접근한다. */
+    private int gitStatusGeneration = 0;
+    /* 아직 끝나지 않은 git status 계산. 새로 선택하면 취소한다. EDT에서만 접근한다. */
+    private SwingWorker<GitFileStatus, Void> gitStatusWorker;
+    /* git status 계산은 한 번에 하나씩 실행한다. 실행 전에 취소된 계산은 큐에서 바로 끝난다. */
+    private static final ExecutorService GIT_STATUS_EXECUTOR = Executors.newSingleThreadExecutor(new ThreadFactory() {
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "git-status");
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+    /* 마지막으로 테이블 렌더러에 적용한 git status. checkout 후에는 바뀐 경로만 다시 계산해서 갱신한다. EDT에서만 접근한다. */
+    private GitFileStatus appliedGitStatus;
+    /* checkout으로 바뀐 경로가 이보다 많으면 경로별로 갱신하지 않고 전체 status를 다시 계산한다. */
+    private static final int MAX_INCREMENTAL_CHECKOUT_PATHS = 2000;
+
+    /* 파일 시스템 변경 감시. 트리에서 펼친 디렉토리와 테이블에 표시 중인 디렉토리만 등록한다. */
+    private static final int MAX_WATCHED_DIRECTORIES = 256;
+    private DirectoryWatcher directoryWatcher;
+    /* 자식 노드가 이미 로드된 감시 중인 트리 노드. EDT에서만 접근한다. */
+    private final Map<Path, DefaultMutableTreeNode> watchedTreeNodes = new HashMap<Path, DefaultMutableTreeNode>();
+    /* 현재 테이블에 표시 중인 디렉토리 */
+    private File tableDirectory;
+
+    /* 파일 이름 검색. 인덱스는 마지막으로 검색한 루트 하나만 유지한다. */
+    private static final int MAX_SEARCH_RESULTS = 10000;
+    private static final int MAX_INDEX_WATCHED_DIRECTORIES = 4096;
+    private JTextField searchField;
+    private volatile FileNameIndex fileNameIndex;
+
+    /* 파일 내용 검색 (search in files) */
+    private static final int MAX_CONTENT_MATCHES = 10000;
+    private JCheckBox searchContents;
+    private JCheckBox searchRegex;
+    private JCheckBox searchIgnoreCase;
+
+    /* 테이블 Icon 열의 이미지 축소판. Thumbnails를 처음 켤 때 만든다. EDT에서만 접근한다. */
+    private JCheckBox showThumbnails;
+    private ThumbnailCache thumbnailCache;
+    private int listRowHeight = -1; // 축소판을 끄면 되돌릴 행 높이
+
+    /* 파일 내용 인덱스. 루트마다 한 번 열어 두고 재사용한다 (검색 스레드에서도 접근한다). */
+    private final Map<Path, ContentIndex> contentIndexes = new ConcurrentHashMap<Path, ContentIndex>();
 
     public Container getGui() {
         if (gui == null) {
-            gui = new JPanel(new BorderLayout(3, 3));
+            gui = new JPanel(new BorderLayout(3, 3)) {
+                @Override
+                public void paint(Graphics g) {
+                    super.paint(g);
+                    if (startupTimer != null) {
+                        startupTimer.firstPaint();
+                    }
+                }
+            };
             gui.setBorder(new EmptyBorder(5, 5, 5, 5));
 
             fileSystemView = FileSystemView.getFileSystemView();
@@ -199,11 +286,7 @@ public class FileManager {
             table.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
             table.setAutoCreateRowSorter(true);
             table.setShowVerticalLines(false);
-            try {
-                renderGitFileStatus(); //초기 렌더링 설정. 나중에 딜레이 안생김
-            } catch (GitAPIException | IOException e) {
-                e.printStackTrace();
-            }
+            // git status 렌더링은 처음 선택할 때 백그라운드에서 한다 (refreshGitStatusAsync). 시작 시에는 선택한 파일이 없다.
 
 
             listSelectionListener = new ListSelectionListener() {
@@ -212,21 +295,78 @@ public class FileManager {
                     int row = table.getSelectionModel().getLeadSelectionIndex();
                     setFileDetails(((FileTableModel) table.getModel()).getFile(row));
                     isFileSelectedInList = true; //리스트에서 파일을 선택했으므로 true
-                    if (isFileInGitRepository()) {
-                        try {
-                            renderGitFileStatus(); //일관성 유지를 위해 선택한 파일이 바뀔 때마다 렌더링한다. (성능은 감소할 수 있음)
-                        } catch (IOException | GitAPIException e) {
-                            e.printStackTrace();
-                        }
-                    }
+                    refreshGitStatusAsync(true); //일관성 유지를 위해 선택한 파일이 바뀔 때마다 렌더링한다. (백그라운드에서 계산)
                 }
             };
             table.getSelectionModel().addListSelectionListener(listSelectionListener);
             JScrollPane tableScroll = new JScrollPane(table);
+            tableScroll.getViewport().addChangeListener(new ChangeListener() {
+                public void stateChanged(ChangeEvent ce) {
+                    updateVisibleThumbnails(); // 스크롤하면 보이는 파일의 축소판부터 만든다.
+                }
+            });
             Dimension d = tableScroll.getPreferredSize();
             tableScroll.setPreferredSize(new Dimension((int) d.getWidth(), (int) d.getHeight() / 2));
             detailView.add(tableScroll, BorderLayout.CENTER);
 
+            // 선택한 디렉토리 아래에서 파일 이름 검색 (부분 문자열 또는 *, ? 글롭)
+            JToolBar searchToolBar = new JToolBar();
+            searchToolBar.setFloatable(false);
+            searchToolBar.add(new JLabel("Search "));
+            searchField = new JTextField(20);
+            searchField.setToolTipText("파일 이름의 일부 또는 글롭(*.java, test?.txt)을 입력하고 Enter");
+            searchField.addActionListener(new ActionListener() {
+                public void actionPerformed(ActionEvent ae) {
+                    if (searchContents.isSelected()) {
+                        searchInFiles();
+                    } else {
+                        searchFiles();
+                    }
+                }
+            });
+            searchToolBar.add(searchField);
+            searchContents = new JCheckBox("In contents");
+            searchToolBar.add(searchContents);
+            searchRegex = new JCheckBox("Regex");
+            searchToolBar.add(searchRegex);
+            searchIgnoreCase = new JCheckBox("Ignore case");
+            searchToolBar.add(searchIgnoreCase);
+            JButton indexButton = new JButton("Index");
+            indexButton.setToolTipText("선택한 디렉토리의 내용 인덱스를 만들거나 갱신합니다. 인덱스가 있으면 In contents 검색이 빨라집니다.");
+            indexButton.addActionListener(new ActionListener() {
+                public void actionPerformed(ActionEvent ae) {
+                    indexContents();
+                }
+            });
+            searchToolBar.add(indexButton);
+            searchToolBar.addSeparator();
+            JButton duplicatesButton = new JButton("Duplicates");
+            duplicatesButton.setToolTipText("선택한 디렉토리 아래에서 내용이 같은 파일을 찾습니다.");
+            duplicatesButton.addActionListener(new ActionListener() {
+                public void actionPerformed(ActionEvent ae) {
+                    findDuplicates();
+                }
+            });
+            searchToolBar.add(duplicatesButton);
+            JButton diskUsageButton = new JButton("Disk usage");
+            diskUsageButton.setToolTipText("선택한 디렉토리 아래의 디스크 사용량을 treemap으로 보여줍니다.");
+            diskUsageButton.addActionListener(new ActionListener() {
+                public void actionPerformed(ActionEvent ae) {
+                    showDiskUsage();
+                }
+            });
+            searchToolBar.add(diskUsageButton);
+            searchToolBar.addSeparator();
+            showThumbnails = new JCheckBox("Thumbnails");
+            showThumbnails.setToolTipText("Icon 열에 이미지 파일의 축소판을 보여줍니다.");
+            showThumbnails.addActionListener(new ActionListener() {
+                public void actionPerformed(ActionEvent ae) {
+                    setThumbnailsVisible(showThumbnails.isSelected());
+                }
+            });
+            searchToolBar.add(showThumbnails);
+            detailView.add(searchToolBar, BorderLayout.NORTH);
+
             // the File tree
             DefaultMutableTreeNode root = new DefaultMutableTreeNode();
             treeModel = new DefaultTreeModel(root);
@@ -237,33 +377,14 @@ public class FileManager {
                     showChildren(node);
                     setFileDetails((File) node.getUserObject());
                     isFileSelectedInList = false; //리스트가 아닌 트리에서 파일을 선택했으므로 false. 이때는 git 버튼이 비활성화된다.
-                    if (isTreeInGitRepository()) {
-                        try {
-                            renderGitFileStatus(); //디렉토리가 변경될 때마다 또 바뀐 파일 목록의 status를 출력을 해줘야 하므로 렌더링한다.
-                        } catch (IOException | GitAPIException e) {
-                            e.printStackTrace();
-                        }
-                    } else { // Project 2 추가: git repository가 아닌 디렉토리를 선택했을 때 current branch가 없다고 표시해주기 위함
-                        System.out.println("select non-git repository on the tree");
-                        gitCurrentBranch.setText("Current Git Branch: Not a git repo");
-                    }
+                    refreshGitStatusAsync(false); //디렉토리가 변경될 때마다 또 바뀐 파일 목록의 status를 출력을 해줘야 하므로 렌더링한다.
                 }
             };
 
-            // show the file system roots.
+            // show the file system roots. 하위 디렉토리는 창을 띄운 뒤 loadRootChildren이 백그라운드에서 채운다.
             File[] roots = fileSystemView.getRoots();
             for (File fileSystemRoot : roots) {
-                DefaultMutableTreeNode node = new DefaultMutableTreeNode(fileSystemRoot);
-                root.add(node);
-                // showChildren(node);
-                //
-                File[] files = fileSystemView.getFiles(fileSystemRoot, true);
-                for (File file : files) {
-                    if (file.isDirectory()) {
-                        node.add(new DefaultMutableTreeNode(file));
-                    }
-                }
-                //
+                root.add(new DefaultMutableTreeNode(fileSystemRoot));
             }
 
 
@@ -271,7 +392,39 @@ public class FileManager {
             tree.setRootVisible(false);
             tree.addTreeSelectionListener(treeSelectionListener);
             tree.setCellRenderer(new FileTreeCellRenderer());
-            tree.expandRow(0);
+
+            // 펼친 디렉토리는 외부에서 파일이 생성/삭제되어도 바로 반영되도록 감시한다.
+            directoryWatcher = createDirectoryWatcher();
+            tree.addTreeExpansionListener(new TreeExpansionListener() {
+                public void treeExpanded(TreeExpansionEvent event) {
+                    // 다시 펼치면 JTree가 펼쳐 두었던 하위 노드도 함께 보여주므로 그 노드들도 다시 감시한다.
+                    Enumeration<TreePath> expanded = tree.getExpandedDescendants(event.getPath());
+                    while (expanded != null && expanded.hasMoreElements()) {
+                        watchTreeNode((DefaultMutableTreeNode) expanded.nextElement().getLastPathComponent());
+                    }
+                }
+
+                public void treeCollapsed(TreeExpansionEvent event) {
+                    unwatchSubtree((DefaultMutableTreeNode) event.getPath().getLastPathComponent());
+                }
+            });
+            // 트리에서 빠진 노드(삭제, 이름 변경, 다시 읽기)는 더 이상 이벤트를 받지 않도록 감시 목록에서 뺀다.
+            treeModel.addTreeModelListener(new TreeModelListener() {
+                public void treeNodesChanged(TreeModelEvent e) {
+                }
+
+                public void treeNodesInserted(TreeModelEvent e) {
+                }
+
+                public void treeNodesRemoved(TreeModelEvent e) {
+                    for (Object child : e.getChildren()) {
+                        unwatchSubtree((DefaultMutableTreeNode) child);
+                    }
+                }
+
+                public void treeStructureChanged(TreeModelEvent e) {
+                }
+            });
             JScrollPane treeScroll = new JScrollPane(tree);
 
             // as per trashgod tip
@@ -330,11 +483,13 @@ public class FileManager {
 
             openFile.addActionListener(new ActionListener() {
                 public void actionPerformed(ActionEvent ae) {
-                    try {
-                        desktop.open(currentFile);
-                    } catch (Throwable t) {
-                        showThrowable(t);
-                    }
+                    withLocalFile(currentFile, file -> { // 압축 파일 안의 항목은 그 항목만 꺼내서 연다.
+                        try {
+                            desktop.open(file);
+                        } catch (Throwable t) {
+                            showThrowable(t);
+                        }
+                    });
                     gui.repaint();
                 }
             });
@@ -344,6 +499,10 @@ public class FileManager {
             editFile.setMnemonic('e');
             editFile.addActionListener(new ActionListener() {
                 public void actionPerformed(ActionEvent ae) {
+                    if (currentFile instanceof ArchiveFile) {
+                        showErrorMessage("압축 파일 안의 항목은 수정할 수 없습니다. Extract로 꺼낸 뒤 편집해주세요.", "Read-only Archive");
+                        return;
+                    }
                     try {
                         desktop.edit(currentFile);
                     } catch (Throwable t) {
@@ -353,6 +512,51 @@ public class FileManager {
             });
             toolBar.add(editFile);
 
+            viewFile = new JButton("View");
+            viewFile.setMnemonic('v');
+            viewFile.addActionListener(new ActionListener() {
+                public void actionPerformed(ActionEvent ae) {
+                    viewFile();
+                }
+            });
+            toolBar.add(viewFile);
+
+            hexFile = new JButton("Hex");
+            hexFile.setMnemonic('h');
+            hexFile.addActionListener(new ActionListener() {
+                public void actionPerformed(ActionEvent ae) {
+                    hexViewFile();
+                }
+            });
+            toolBar.add(hexFile);
+
+            extractFile = new JButton("Extract");
+            extractFile.setMnemonic('t');
+            extractFile.addActionListener(new ActionListener() {
+                public void actionPerformed(ActionEvent ae) {
+                    extractArchiveEntry();
+                }
+            });
+            toolBar.add(extractFile);
+
+            compressFile = new JButton("Compress");
+            compressFile.setMnemonic('z');
+            compressFile.addActionListener(new ActionListener() {
+                public void actionPerformed(ActionEvent ae) {
+                    compressFile();
+                }
+            });
+            toolBar.add(compressFile);
+
+            checksumFile = new JButton("Checksum");
+            checksumFile.setMnemonic('k');
+            checksumFile.addActionListener(new ActionListener() {
+                public void actionPerformed(ActionEvent ae) {
+                    checksumFile();
+                }
+            });
+            toolBar.add(checksumFile);
+
             printFile = new JButton("Print");
             printFile.setMnemonic('p');
             printFile.addActionListener(new ActionListener() {
@@ -548,6 +752,34 @@ public class FileManager {
             });
             toolBar.add(gitCommitHistoryFile);
 
+            // 13. 선택한 디렉토리 아래 모든 repository의 상태 조회
+            JButton gitDashboardFile = new JButton("Git dashboard");
+            gitDashboardFile.addActionListener(new ActionListener() {
+                public void actionPerformed(ActionEvent ae) {
+                    gitRepositoryDashboard();
+                }
+            });
+            toolBar.add(gitDashboardFile);
+
+            // 14. 작업 트리에 일부 디렉토리만 두기 (git sparse-checkout)
+            JButton gitSparseCheckoutFile = new JButton("Sparse checkout");
+            gitSparseCheckoutFile.addActionListener(new ActionListener() {
+                public void actionPerformed(ActionEvent ae) {
+                    gitSparseCheckout();
+                }
+            });
+            toolBar.add(gitSparseCheckoutFile);
+
+            // 15. 작업별 소요 시간, 프로세스 실행 횟수, 캐시 적중률 보기
+            toolBar.addSeparator();
+            JButton diagnosticsButton = new JButton("Diagnostics");
+            diagnosticsButton.addActionListener(new ActionListener() {
+                public void actionPerformed(ActionEvent ae) {
+                    showDiagnostics();
+                }
+            });
+            toolBar.add(diagnosticsButton);
+
             // current branch를 표시해줄 공간 생성
             JToolBar branchToolBar = new JToolBar();
             branchToolBar.setFloatable(false);
@@ -577,10 +809,216 @@ public class FileManager {
     }
 
     public void showRootFile() {
+        loadRootChildren();
+        SessionState session = SessionState.load();
+        if (session != null && session.lastDirectory != null) {
+            restoreSession(session);
+            return;
+        }
         // ensure the main files are displayed
         tree.setSelectionInterval(0, 0);
     }
 
+    /**
+     * 저장된 목록으로 펼쳐 두었던 트리와 마지막 디렉토리의 테이블을 바로 그린 뒤, 각 디렉토리를 백그라운드에서 다시 읽어
+     * (rescanDirectory, showChildren) 실제 내용에 맞춘다.
+     */
+    private void restoreSession(SessionState session) {
+        long start = System.currentTimeMillis();
+        restoredColumnWidths = session.columnWidths;
+        List<Path> expanded = new ArrayList<Path>();
+        for (String expandedPath : session.expandedPaths) {
+            DefaultMutableTreeNode node = findOrCreateTreeNode(Paths.get(expandedPath));
+            if (node == null) {
+                continue;
+            }
+            SessionState.Listing listing = session.getListing(expandedPath);
+            if (listing != null) {
+                Metrics.cacheHit("sessionListing");
+                for (int ii = 0; ii < listing.names.length; ii++) {
+                    File child = new File(expandedPath, listing.names[ii]);
+                    if (listing.directories[ii] && findChildNode(node, child) == null) {
+                        treeModel.insertNodeInto(new DefaultMutableTreeNode(child), node, node.getChildCount());
+                    }
+                }
+            } else {
+                Metrics.cacheMiss("sessionListing");
+            }
+            tree.expandPath(new TreePath(node.getPath())); // 펼치면 watchTreeNode가 감시를 시작한다.
+            expanded.add(Paths.get(expandedPath));
+        }
+        SessionState.Listing lastListing = session.getListing(session.lastDirectory);
+        if (lastListing != null) {
+            setTableData(lastListing.toFiles());
+        }
+        selectInTree(new File(session.lastDirectory)); // 선택하면 showChildren이 마지막 디렉토리를 다시 읽는다.
+        for (Path dir : expanded) {
+            if (!dir.equals(Paths.get(session.lastDirectory))) {
+                rescanDirectory(dir);
+            }
+        }
+        System.out.println("Restored session (" + expanded.size() + " expanded directories) in "
+                + (System.currentTimeMillis() - start) + " ms");
+    }
+
+    /**
+     * 디렉토리 감시를 멈추고 WatchService와 감시 스레드를 정리한다. 창을 닫을 때 호출한다.
+     */
+    public void closeWatchers() {
+        FileNameIndex index = fileNameIndex;
+        if (index != null) {
+            index.close();
+        }
+        for (ContentIndex contentIndex : contentIndexes.values()) {
+            contentIndex.close();
+        }
+        if (directoryWatcher != null) {
+            try {
+                directoryWatcher.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * 펼친 트리 경로, 마지막 디렉토리, 열 너비와 각 디렉토리의 목록을 저장한다. 창을 닫을 때 호출한다.
+     */
+    public void saveSession() {
+        if (tree == null) {
+            return;
+        }
+        SessionState session = new SessionState();
+        File lastDirectory = tableDirectory != null ? tableDirectory
+                : currentFile == null ? null : currentFile.isDirectory() ? currentFile : currentFile.getParentFile();
+        boolean archiveListing = false;
+        while (lastDirectory instanceof ArchiveFile || (lastDirectory != null && ArchiveFile.hasArchiveSuffix(lastDirectory) && !lastDirectory.isDirectory())) {
+            lastDirectory = lastDirectory.getParentFile(); // 압축 파일 안은 복원하지 않고 압축 파일이 있는 디렉토리에서 시작한다.
+            archiveListing = true;
+        }
+        session.lastDirectory = lastDirectory == null ? null : lastDirectory.getAbsolutePath();
+        session.columnWidths = new int[table.getColumnCount()];
+        for (int ii = 0; ii < session.columnWidths.length; ii++) {
+            session.columnWidths[ii] = table.getColumnModel().getColumn(ii).getWidth();
+        }
+        DefaultMutableTreeNode root = (DefaultMutableTreeNode) treeModel.getRoot();
+        Enumeration<TreePath> expandedPaths = tree.getExpandedDescendants(new TreePath(root));
+        while (expandedPaths != null && expandedPaths.hasMoreElements()) {
+            DefaultMutableTreeNode node = (DefaultMutableTreeNode) expandedPaths.nextElement().getLastPathComponent();
+            if (!(node.getUserObject() instanceof File)) {
+                continue;
+            }
+            if (node.getUserObject() instanceof ArchiveFile || ArchiveFile.hasArchiveSuffix((File) node.getUserObject())) {
+                continue; // 압축 파일 노드는 선택할 때 다시 읽는다.
+            }
+            String directory = ((File) node.getUserObject()).getAbsolutePath();
+            session.expandedPaths.add(directory);
+            // 트리에 이미 있는 하위 디렉토리 이름만 저장하므로 파일 시스템을 다시 읽지 않는다.
+            int count = Math.min(node.getChildCount(), SessionState.MAX_LISTING_ENTRIES);
+            SessionState.Listing listing = new SessionState.Listing(directory, count);
+            for (int ii = 0; ii < count; ii++) {
+                listing.names[ii] = ((File) ((DefaultMutableTreeNode) node.getChildAt(ii)).getUserObject()).getName();
+                listing.directories[ii] = true;
+            }
+            session.listings.add(listing);
+        }
+        // 부모부터 복원하도록 경로 길이 순으로 정렬
+        session.expandedPaths.sort((a, b) -> Integer.compare(Paths.get(a).getNameCount(), Paths.get(b).getNameCount()));
+        // 검색 결과를 보여주는 동안에는 tableDirectory가 null이고 테이블이 어떤 디렉토리의 목록도 아니므로 저장하지 않는다.
+        if (tableDirectory != null && fileTableModel != null && !archiveListing) {
+            String tablePath = tableDirectory.getAbsolutePath();
+            int count = Math.min(fileTableModel.getRowCount(), SessionState.MAX_LISTING_ENTRIES);
+            SessionState.Listing listing = new SessionState.Listing(tablePath, count);
+            for (int ii = 0; ii < count; ii++) {
+                File file = fileTableModel.getFile(ii);
+                listing.names[ii] = file.getName();
+                listing.directories[ii] = file.isDirectory();
+                listing.sizes[ii] = file.length();
+                listing.modified[ii] = file.lastModified();
+            }
+            SessionState.Listing treeListing = session.getListing(tablePath);
+            if (treeListing != null) {
+                session.listings.remove(treeListing); // 테이블의 목록이 하위 디렉토리도 포함한다.
+            }
+            session.listings.add(listing);
+        }
+        try {
+            session.save();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * 파일 시스템 루트들의 하위 디렉토리를 백그라운드에서 읽어 트리에 추가한다. 예전에는 getGui에서 동기적으로 읽어서
+     * 창이 뜨기 전까지 시간이 걸렸다.
+     */
+    private void loadRootChildren() {
+        final DefaultMutableTreeNode root = (DefaultMutableTreeNode) treeModel.getRoot();
+        final List<DefaultMutableTreeNode> rootNodes = new ArrayList<DefaultMutableTreeNode>();
+        for (int ii = 0; ii < root.getChildCount(); ii++) {
+            rootNodes.add((DefaultMutableTreeNode) root.getChildAt(ii));
+        }
+        SwingWorker<Void, Object[]> worker = new SwingWorker<Void, Object[]>() {
+            @Override
+            public Void doInBackground() {
+                for (DefaultMutableTreeNode node : rootNodes) {
+                    List<File> directories = new ArrayList<File>();
+                    for (File file : fileSystemView.getFiles((File) node.getUserObject(), true)) {
+                        if (file.isDirectory()) {
+                            directories.add(file);
+                        }
+                    }
+                    publish(new Object[]{node, directories});
+                }
+                return null;
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            protected void process(List<Object[]> chunks) {
+                for (Object[] chunk : chunks) {
+                    DefaultMutableTreeNode node = (DefaultMutableTreeNode) chunk[0];
+                    Set<Object> existing = new HashSet<Object>();
+                    for (int ii = 0; ii < node.getChildCount(); ii++) {
+                        existing.add(((DefaultMutableTreeNode) node.getChildAt(ii)).getUserObject());
+                    }
+                    int firstIndex = node.getChildCount();
+                    for (File directory : (List<File>) chunk[1]) {
+                        if (existing.add(directory)) { // showChildren이 먼저 추가한 노드는 건너뛴다.
+                            node.add(new DefaultMutableTreeNode(directory));
+                        }
+                    }
+                    notifyNodesInserted(node, firstIndex);
+                }
+            }
+
+            @Override
+            protected void done() {
+                tree.expandRow(0);
+                if (startupTimer != null) {
+                    startupTimer.log("root listing");
+                }
+            }
+        };
+        worker.execute();
+    }
+
+    /**
+     * node.add로 firstIndex 이후에 추가한 자식들을 트리 모델에 알린다.
+     */
+    private void notifyNodesInserted(DefaultMutableTreeNode node, int firstIndex) {
+        int count = node.getChildCount() - firstIndex;
+        if (count <= 0) {
+            return;
+        }
+        int[] indices = new int[count];
+        for (int ii = 0; ii < count; ii++) {
+            indices[ii] = firstIndex + ii;
+        }
+        treeModel.nodesWereInserted(node, indices);
+    }
+
     private TreePath findTreePath(File find) {
         for (int ii = 0; ii < tree.getRowCount(); ii++) {
             TreePath treePath = tree.getPathForRow(ii);
@@ -601,6 +1039,10 @@ public class FileManager {
             showErrorMessage("No file selected to rename.", "Select File");
             return;
         }
+        if (currentFile instanceof ArchiveFile) {
+            showErrorMessage("압축 파일 안의 항목은 이름을 바꿀 수 없습니다.", "Read-only Archive");
+            return;
+        }
 
         String renameTo = JOptionPane.showInputDialog(gui, "New Name");
         if (renameTo != null) {
@@ -609,7 +1051,9 @@ public class FileManager {
                 TreePath parentPath = findTreePath(currentFile.getParentFile());
                 DefaultMutableTreeNode parentNode = (DefaultMutableTreeNode) parentPath.getLastPathComponent();
 
+                long start = System.nanoTime();
                 boolean renamed = currentFile.renameTo(new File(currentFile.getParentFile(), renameTo));
+                Metrics.record("fs.rename", System.nanoTime() - start, !renamed);
                 if (renamed) {
                     if (directory) {
                         // rename the node..
@@ -646,6 +1090,10 @@ public class FileManager {
             showErrorMessage("No file selected for deletion.", "Select File");
             return;
         }
+        if (currentFile instanceof ArchiveFile) {
+            showErrorMessage("압축 파일 안의 항목은 삭제할 수 없습니다.", "Read-only Archive");
+            return;
+        }
 
         int result = JOptionPane.showConfirmDialog(gui, "Are you sure you want to delete this file?", "Delete File", JOptionPane.ERROR_MESSAGE);
         if (result == JOptionPane.OK_OPTION) {
@@ -657,7 +1105,18 @@ public class FileManager {
                 System.out.println("parentNode: " + parentNode);
 
                 boolean directory = currentFile.isDirectory();
-                if (FileUtils.deleteQuietly(currentFile)) {
+                FlightEvents.FileDelete event = new FlightEvents.FileDelete();
+                event.begin();
+                long start = System.nanoTime();
+                boolean deleted = FileUtils.deleteQuietly(currentFile);
+                Metrics.record("fs.delete", System.nanoTime() - start, !deleted);
+                if (event.shouldCommit()) {
+                    event.path = currentFile.getPath();
+                    event.directory = directory;
+                    event.deleted = deleted;
+                    event.commit();
+                }
+                if (deleted) {
                     if (directory) {
                         // delete the node..
                         TreePath currentPath = findTreePath(currentFile);
@@ -684,6 +1143,10 @@ public class FileManager {
             showErrorMessage("No location selected for new file.", "Select Location");
             return;
         }
+        if (currentFile instanceof ArchiveFile) {
+            showErrorMessage("압축 파일 안에는 파일을 만들 수 없습니다.", "Read-only Archive");
+            return;
+        }
 
         if (newFilePanel == null) {
             newFilePanel = new JPanel(new BorderLayout(3, 3));
@@ -713,11 +1176,13 @@ public class FileManager {
                     parentFile = parentFile.getParentFile();
                 }
                 File file = new File(parentFile, name.getText());
+                long start = System.nanoTime();
                 if (newTypeFile.isSelected()) {
                     created = file.createNewFile();
                 } else {
                     created = file.mkdir();
                 }
+                Metrics.record("fs.create", System.nanoTime() - start, !created);
                 if (created) {
 
                     TreePath parentPath = findTreePath(parentFile);
@@ -764,24 +1229,20 @@ public class FileManager {
      */
 
     private boolean isTreeInGitRepository() { // 현재 directory가 git repository인지 판정하는 함수, 이 조건을 충족한 뒤 git 명령어를 실행해야 한다.
-        String[] gitCheckCommand = {"git", "status"}; //Git status 명령어를 통해 간접적으로 .git 폴더 유무 확인
-        ProcessBuilder processBuilder = new ProcessBuilder(gitCheckCommand);
-        processBuilder.directory(currentFile); //선택한 파일의 경로 반환
-        Process process;
-        int gitStatus = -1;
+        return isInGitRepository(currentFile);
+    }
 
-        try {
-            process = processBuilder.start(); //git status 명령어를 선택한 파일의 경로에서 실행하여 git이 있는지 확인
-            gitStatus = process.waitFor(); //만일 git status가 잘 실행됐다면 git repository에 있다는 것이고, 아니라면 에러코드를 반환
-            if (gitStatus == 0) {
-                return true;
-            } else {
-                return false;
-            }
-        } catch (IOException | InterruptedException e) {
-            e.printStackTrace();
+    /**
+     * directory부터 위로 .git을 찾아 git repository의 작업 트리 안인지 판정한다. git 프로세스를 띄우지 않는다.
+     * currentFile을 읽지 않으므로 백그라운드 스레드에서도 호출할 수 있다.
+     */
+    static boolean isInGitRepository(File directory) {
+        File gitDir = new FileRepositoryBuilder().findGitDir(directory.getAbsoluteFile()).getGitDir();
+        if (gitDir == null) {
+            return false;
         }
-        return false;
+        // git status와 같이 .git 디렉토리 안은 작업 트리로 보지 않는다.
+        return !directory.getAbsoluteFile().toPath().normalize().startsWith(gitDir.getAbsoluteFile().toPath().normalize());
     }
 
 
@@ -806,7 +1267,7 @@ public class FileManager {
                 } else { //디렉토리를 경로로 선택하고 git init 실행 시 현재 경로 그대로 가져오기
                     processBuilder.directory(currentFile);
                 }
-                Process process = processBuilder.start();
+                Process process = Metrics.startProcess(processBuilder);
                 BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()));
                 String line;
                 while ((line = reader.readLine()) != null) {
@@ -847,24 +1308,7 @@ public class FileManager {
      */
 
     private boolean isFileInGitRepository() {
-        String[] gitCheckCommand = {"git", "status"}; //Git status 명령어를 통해 간접적으로 .git 폴더 유무 확인
-        ProcessBuilder processBuilder = new ProcessBuilder(gitCheckCommand);
-        processBuilder.directory(currentFile.getParentFile()); //선택한 파일의 경로 반환
-        Process process;
-        int gitStatus = -1;
-
-        try {
-            process = processBuilder.start(); //git status 명령어를 선택한 파일의 경로에서 실행하여 git이 있는지 확인
-            gitStatus = process.waitFor(); //만일 git status가 잘 실행됐다면 git repository에 있다는 것이고, 아니라면 에러코드를 반환
-            if (gitStatus == 0) {
-                return true;
-            } else {
-                return false;
-            }
-        } catch (IOException | InterruptedException e) {
-            e.printStackTrace();
-        }
-        return false;
+        return isInGitRepository(currentFile.getParentFile());
     }
 
     private void gitAddFile() { //선택한 파일을 stage하는 git add로직. "git add" 버튼을 누르면 이 로직이 실행된다.
@@ -891,11 +1335,11 @@ public class FileManager {
             try {
                 FileRepositoryBuilder builder = new FileRepositoryBuilder();
                 File gitDir = builder.findGitDir(currentFile).getGitDir(); // .git 폴더 찾기
-                Repository repository = builder.setGitDir(gitDir).readEnvironment().findGitDir().build(); // Repository 객체 생성
+                Repository repository = openRepository(builder.setGitDir(gitDir).readEnvironment().findGitDir()); // Repository 객체 생성
                 Git git = new Git(repository);
 
                 // Stage된 파일 목록 가져오기
-                Status status = git.status().call();
+                Status status = callGit("status", SparseCheckout.status(git));
                 Set<String> untracked = status.getUntracked();
                 Set<String> modified = status.getModified(); //변경사항이 stage되면 changed로 상태가 바뀌므로 따로 가져옴
 
@@ -915,7 +1359,7 @@ public class FileManager {
                     String[] gitAddCommand = {"git", "add", currentFile.getAbsolutePath()};
                     ProcessBuilder processBuilder = new ProcessBuilder(gitAddCommand);
                     processBuilder.directory(currentFile.getParentFile());
-                    Process process = processBuilder.start();
+                    Process process = Metrics.startProcess(processBuilder);
                     int addStatus = process.waitFor(); //git add 명령어 정상 실행 여부
 
                     if (addStatus == 0) { // git add 명령어가 정상적으로 실행되어 status가 0일 경우
@@ -948,11 +1392,11 @@ public class FileManager {
     private Object[][] getStagedFile(File curFile) throws IOException, GitAPIException {
         FileRepositoryBuilder builder = new FileRepositoryBuilder();
         File gitDir = builder.findGitDir(curFile).getGitDir(); // .git 폴더 찾기
-        Repository repository = builder.setGitDir(gitDir).readEnvironment().findGitDir().build(); // Repository 객체 생성
+        Repository repository = openRepository(builder.setGitDir(gitDir).readEnvironment().findGitDir()); // Repository 객체 생성
         Git git = new Git(repository);
 
         // Stage된 파일 목록 가져오기
-        Status status = git.status().call();
+        Status status = callGit("status", SparseCheckout.status(git));
         Set<String> staged = status.getAdded();
         Set<String> changed = status.getChanged(); //변경사항이 stage되면 changed로 상태가 바뀌므로 따로 가져옴
         Set<String> removed = status.getRemoved();
@@ -1043,7 +1487,7 @@ public class FileManager {
                             String[] gitCommitCommand = {"git", "commit", "-m", textField.getText()};
                             ProcessBuilder processBuilder = new ProcessBuilder(gitCommitCommand);
                             processBuilder.directory(currentFile.getParentFile());
-                            Process process = processBuilder.start();
+                            Process process = Metrics.startProcess(processBuilder);
                             int commitStatus = process.waitFor(); //git commit 명령어 정상 실행 여부
 
                             if (commitStatus == 0) { // git commit 명령어가 정상적으로 실행되어 status가 0일 경우
@@ -1148,7 +1592,7 @@ public class FileManager {
                             String[] gitMvCommand = {"git", "mv", currentFile.getName(), file_to_string};
                             ProcessBuilder processBuilder = new ProcessBuilder(gitMvCommand);
                             processBuilder.directory(currentFile.getParentFile());
-                            Process process = processBuilder.start();
+                            Process process = Metrics.startProcess(processBuilder);
                             File temp_parentFile = currentFile.getParentFile();
                             int mvStatus = process.waitFor(); //git add 명령어 정상 실행 여부
                             if (mvStatus == 0) { // git mv 명령어가 정상적으로 실행되어 status가 0일 경우
@@ -1239,7 +1683,7 @@ public class FileManager {
                         String[] gitRmCommand = {"git", "rm", currentFile.getName()};
                         ProcessBuilder processBuilder = new ProcessBuilder(gitRmCommand);
                         processBuilder.directory(currentFile.getParentFile());
-                        Process process = processBuilder.start();
+                        Process process = Metrics.startProcess(processBuilder);
                         int rmStatus = process.waitFor(); //git rm 명령어 정상 실행 여부
 
                         if (rmStatus == 0) { // git rm 명령어가 정상적으로 실행되어 status가 0일 경우
@@ -1290,7 +1734,7 @@ public class FileManager {
                         String[] gitRmCCCommand = {"git", "rm", "--cached", currentFile.getName()};
                         ProcessBuilder processBuilder = new ProcessBuilder(gitRmCCCommand);
                         processBuilder.directory(currentFile.getParentFile());
-                        Process process = processBuilder.start();
+                        Process process = Metrics.startProcess(processBuilder);
                         int rmStatus = process.waitFor(); //git rm --cached 명령어 정상 실행 여부
 
                         if (rmStatus == 0) { //5. git rm --cached 명령어가 정상적으로 실행되어 status가 0일 경우
@@ -1325,67 +1769,257 @@ public class FileManager {
 
     private void renderGitFileStatus() throws IOException, GitAPIException, NullPointerException { //텍스트 색깔 렌더링 함수
         try {
-            FileRepositoryBuilder builder = new FileRepositoryBuilder();
-            File gitDir = builder.findGitDir(currentFile).getGitDir(); // .git 폴더 찾기
-            Repository repository = builder.setGitDir(gitDir).readEnvironment().findGitDir().build(); // Repository 객체 생성
-            Git git = new Git(repository);
+            applyGitFileStatus(loadGitFileStatus(currentFile));
+        } catch (IOException | GitAPIException | NullPointerException e) {
+            e.printStackTrace();
+        }
+    }
 
-            System.out.println("Branch: " + repository.getBranch()); // Project 2에서 추가: 함수 호출마다 현재 branch명 출력
-            if (gitCurrentBranch != null) { // null이 아닐 경우에만 branch명 갱신
-                gitCurrentBranch.setText("Current Git Branch: " + repository.getBranch()); // branch명 갱신
+    /**
+     * renderGitFileStatus에서 사용하는 repository의 branch명과 파일 상태. 백그라운드에서 계산한 뒤 EDT에서 렌더러에 적용한다.
+     */
+    static final class GitFileStatus {
+
+        String branch;
+        File gitDir;
+        Path workDirPath;
+        Set<String> changedFiles;
+        Set<String> addedFiles;
+        Set<String> modifiedFiles;
+        Set<String> untrackedFiles;
+
+        /**
+         * 테이블의 한 행에 해당하는 파일의 글자 색을 반환한다. 행을 그릴 때마다 호출되므로 가볍게 유지해야 한다.
+         */
+        Color colorOf(File file, Color defaultColor) {
+            Path relativePath = workDirPath.relativize(Paths.get(file.getAbsolutePath())); //불러온 .git의 절대경로를
+            //기준으로, 각 파일의 절대 경로를 상대화시킴으로써 상대 경로 반환 => 하위 폴더의 status까지 갱신할 수 있다.
+
+            if (addedFiles.contains(relativePath.toString())) { //그 파일이 added된 상태일 경우
+                return new Color(0, 153, 76); //초록색
+            } else if (modifiedFiles.contains(relativePath.toString())) { //그 파일이 변경되었을 경우
+                return new Color(255, 128, 0); //주황색
+            } else if (changedFiles.contains(relativePath.toString())) { //그 파일의 변경사항이 stage 되었을 경우
+                return new Color(0, 153, 76); //초록색
+            } else if (untrackedFiles.contains(relativePath.toString())) { //그 파일이 untracked 상태이거나, 새로운 파일일 경우
+                return Color.RED; //빨간색
             }
+            return defaultColor; //그 외의 경우 (commit된 상태) 기본 색상으로 설정
+        }
 
-            File workDir = repository.getWorkTree(); //현재 .git 폴더의 위치 반환
-            Path workDirPath = Paths.get(workDir.getAbsolutePath()); //해당 폴더의 절대 경로 불러오기
-
-            Status status = git.status().call(); //파일의 상태를 가져온다.
-
-            Set<String> changedFiles = status.getChanged(); //변경사항이 staged 됐을 경우 -> Staged 색상과 동일
-            Set<String> addedFiles = status.getAdded(); //새로운 파일이 added (staged) 됐을 경우 -> 초록색
-            Set<String> modifiedFiles = status.getModified(); //Tracked 파일에 변경사항이 생겼을 경우 -> 주황색
-            Set<String> untrackedFiles = status.getUntracked(); //새로운 파일이 생성되거나, untracked 파일일 경우 -> 빨간색
+        /**
+         * paths의 상태만 partial(paths로 제한해서 계산한 status)로 바꾼 복사본을 반환한다. 나머지 경로의 상태는 그대로 둔다.
+         */
+        GitFileStatus withPaths(String newBranch, Collection<String> paths, Status partial) {
+            GitFileStatus result = new GitFileStatus();
+            result.branch = newBranch;
+            result.gitDir = gitDir;
+            result.workDirPath = workDirPath;
+            result.changedFiles = replace(changedFiles, paths, partial == null ? null : partial.getChanged());
+            result.addedFiles = replace(addedFiles, paths, partial == null ? null : partial.getAdded());
+            result.modifiedFiles = replace(modifiedFiles, paths, partial == null ? null : partial.getModified());
+            result.untrackedFiles = replace(untrackedFiles, paths, partial == null ? null : partial.getUntracked());
+            return result;
+        }
 
-            table.setDefaultRenderer(Object.class, new DefaultTableCellRenderer() { //테이블 Render를 Override하여 색상을 변경할 수 있게 한다.
-                public Component getTableCellRendererComponent(JTable table, Object value, boolean isSelected, boolean hasFocus, int row, int column) {
-                    Component c = super.getTableCellRendererComponent(table, value, isSelected, hasFocus, row, column);
-                    FileTableModel model = (FileTableModel) table.getModel(); //테이블의 모델 가져오기
-                    File file = model.getFile(row); //각 테이블의 행에 해당하는 파일을 가져온다.
-                    Path relativePath = workDirPath.relativize(Paths.get(file.getAbsolutePath())); //불러온 .git의 절대경로를
-                    //기준으로, 각 파일의 절대 경로를 상대화시킴으로써 상대 경로 반환 => 하위 폴더의 status까지 갱신할 수 있다.
-
-                    if (addedFiles.contains(relativePath.toString())) { //그 파일이 added된 상태일 경우
-                        c.setForeground(new Color(0, 153, 76)); //초록색
-                    } else if (modifiedFiles.contains(relativePath.toString())) { //그 파일이 변경되었을 경우
-                        c.setForeground(new Color(255, 128, 0)); //주황색
-                    } else if (changedFiles.contains(relativePath.toString())) { //그 파일의 변경사항이 stage 되었을 경우
-                        c.setForeground(new Color(0, 153, 76)); //초록색
-                    } else if (untrackedFiles.contains(relativePath.toString())) { //그 파일이 untracked 상태이거나, 새로운 파일일 경우
-                        c.setForeground(Color.RED); //빨간색
-                    } else {
-                        c.setForeground(table.getForeground()); //그 외의 경우 (commit된 상태) 기본 색상으로 설정
-                    }
-                    return c;
-                }
-            });
-        } catch (IOException | GitAPIException | NullPointerException e) {
-            e.printStackTrace();
+        private static Set<String> replace(Set<String> files, Collection<String> paths, Set<String> updated) {
+            Set<String> result = new HashSet<String>(files);
+            result.removeAll(paths);
+            if (updated != null) {
+                result.addAll(updated);
+            }
+            return result;
         }
     }
 
     /**
-     * 단일 파일을 선택 했을 때 해당 파일이 Commited or UnModified 상태인지 확인해 주는 boolean 함수
+     * file이 속한 repository의 status를 계산한다. Swing 컴포넌트를 건드리지 않으므로 백그라운드 스레드에서 호출할 수 있다.
      */
-    private boolean isCommittedOrUnmodifiedFile(File file) {
+    static GitFileStatus loadGitFileStatus(File file) throws IOException, GitAPIException {
+        Metrics.Sample sample = Metrics.start("status.load"); // repository 열기와 status 계산
         try {
-            FileRepositoryBuilder builder = new FileRepositoryBuilder();
-            File gitDir = builder.findGitDir(file).getGitDir(); // .git 파일 위치 찾기
-            Repository repository = builder.setGitDir(gitDir).readEnvironment().findGitDir().build(); // Repository 객체 생성
-            File workDir = repository.getWorkTree(); // .git이 있는 파일
-            Path workDirPath = Paths.get(workDir.getAbsolutePath()); //.git 이 있는 폴더의 절대 경로
-            Path relativePath = workDirPath.relativize(Paths.get(file.getAbsolutePath())); // .git이 있는 폴더의 상대경로로 인자로 받은 파일의 위치를 나타내줌
-
-            Git git = new Git(repository);
-            Status status = git.status().call();
+            return loadGitFileStatus0(file);
+        } catch (IOException | GitAPIException | RuntimeException e) {
+            sample.error();
+            throw e;
+        } finally {
+            sample.stop();
+        }
+    }
+
+    private static GitFileStatus loadGitFileStatus0(File file) throws IOException, GitAPIException {
+        FileRepositoryBuilder builder = new FileRepositoryBuilder();
+        File gitDir = builder.findGitDir(file).getGitDir(); // .git 폴더 찾기
+        try (Repository repository = openRepository(builder.setGitDir(gitDir).readEnvironment().findGitDir()); // Repository 객체 생성
+             Git git = new Git(repository)) {
+            GitFileStatus result = new GitFileStatus();
+            result.branch = repository.getBranch();
+            result.gitDir = repository.getDirectory();
+
+            File workDir = repository.getWorkTree(); //현재 .git 폴더의 위치 반환
+            result.workDirPath = Paths.get(workDir.getAbsolutePath()); //해당 폴더의 절대 경로 불러오기
+
+            Status status = callGit("status", SparseCheckout.status(git)); //파일의 상태를 가져온다.
+
+            result.changedFiles = status.getChanged(); //변경사항이 staged 됐을 경우 -> Staged 색상과 동일
+            result.addedFiles = status.getAdded(); //새로운 파일이 added (staged) 됐을 경우 -> 초록색
+            result.modifiedFiles = status.getModified(); //Tracked 파일에 변경사항이 생겼을 경우 -> 주황색
+            result.untrackedFiles = status.getUntracked(); //새로운 파일이 생성되거나, untracked 파일일 경우 -> 빨간색
+            return result;
+        }
+    }
+
+    /**
+     * JGit 명령을 실행하고 jgit.&lt;name&gt; 작업으로 시간과 실패 여부를 기록한다.
+     */
+    static <T> T callGit(String name, GitCommand<T> command) throws GitAPIException {
+        Metrics.Sample sample = Metrics.start("jgit." + name);
+        FlightEvents.GitCommand event = new FlightEvents.GitCommand();
+        event.begin();
+        T result = null;
+        try {
+            result = command.call();
+            return result;
+        } catch (GitAPIException | RuntimeException e) {
+            sample.error();
+            event.failed = true;
+            throw e;
+        } finally {
+            sample.stop();
+            if (event.shouldCommit()) {
+                event.command = name;
+                event.repository = command.getRepository() == null ? null // clone, lsRemote
+                        : command.getRepository().getDirectory().getPath();
+                if (result instanceof Status) {
+                    Status status = (Status) result;
+                    event.fileCount = status.getUncommittedChanges().size() + status.getUntracked().size();
+                }
+                event.commit();
+            }
+        }
+    }
+
+    /**
+     * builder로 Repository를 연다. jgit.open 작업으로 시간을 기록하고 JFR 이벤트를 남긴다.
+     */
+    static Repository openRepository(FileRepositoryBuilder builder) throws IOException {
+        Metrics.Sample sample = Metrics.start("jgit.open");
+        FlightEvents.RepositoryOpen event = new FlightEvents.RepositoryOpen();
+        event.begin();
+        try {
+            return builder.build();
+        } catch (IOException | RuntimeException e) {
+            sample.error();
+            throw e;
+        } finally {
+            sample.stop();
+            if (event.shouldCommit()) {
+                event.repository = String.valueOf(builder.getGitDir() != null ? builder.getGitDir() : builder.getWorkTree());
+                event.commit();
+            }
+        }
+    }
+
+    private void applyGitFileStatus(GitFileStatus status) {
+        appliedGitStatus = status;
+        System.out.println("Branch: " + status.branch); // Project 2에서 추가: 함수 호출마다 현재 branch명 출력
+        if (gitCurrentBranch != null) { // null이 아닐 경우에만 branch명 갱신
+            gitCurrentBranch.setText("Current Git Branch: " + status.branch); // branch명 갱신
+        }
+        followBranchLabel(RefCache.forRepository(status.gitDir)); // 이후에는 다른 곳에서 checkout해도 라벨이 따라간다.
+        table.setDefaultRenderer(Object.class, new DefaultTableCellRenderer() { //테이블 Render를 Override하여 색상을 변경할 수 있게 한다.
+            public Component getTableCellRendererComponent(JTable table, Object value, boolean isSelected, boolean hasFocus, int row, int column) {
+                Component c = super.getTableCellRendererComponent(table, value, isSelected, hasFocus, row, column);
+                FileTableModel model = (FileTableModel) table.getModel(); //테이블의 모델 가져오기
+                File file = model.getFile(row); //각 테이블의 행에 해당하는 파일을 가져온다.
+                c.setForeground(status.colorOf(file, table.getForeground()));
+                return c;
+            }
+        });
+    }
+
+    /**
+     * 현재 branch 라벨이 refs의 HEAD 변경을 따라가게 한다. null이면 따라가지 않는다.
+     */
+    private void followBranchLabel(RefCache refs) {
+        if (refs == branchLabelRefs) {
+            return;
+        }
+        if (branchLabelRefs != null) {
+            branchLabelRefs.removeHeadListener(branchLabelListener);
+        }
+        branchLabelRefs = refs;
+        if (refs != null) {
+            refs.addHeadListener(branchLabelListener);
+        }
+    }
+
+    /**
+     * 선택이 바뀔 때마다 git repository 판정과 status 계산을 백그라운드에서 하고, 가장 마지막 선택의 결과만 반영한다.
+     * 예전에는 EDT에서 실행해서 선택할 때마다 화면이 멈췄다. 계산은 한 스레드에서 차례로 하고, 아직 시작하지 않은 이전 선택의
+     * 계산은 취소하므로 선택을 빠르게 바꿔도 계산이 쌓이지 않는다.
+     */
+    private void refreshGitStatusAsync(final boolean fileInList) {
+        final int generation = ++gitStatusGeneration;
+        if (gitStatusWorker != null) {
+            gitStatusWorker.cancel(false); // 실행 중인 JGit 작업은 끊지 않고 결과만 버린다.
+            gitStatusWorker = null;
+        }
+        final File file = currentFile;
+        if (file == null) {
+            return;
+        }
+        final Metrics.Sample sample = Metrics.start("status.refresh"); // 선택부터 색이 적용될 때까지
+        SwingWorker<GitFileStatus, Void> worker = new SwingWorker<GitFileStatus, Void>() {
+            @Override
+            public GitFileStatus doInBackground() throws IOException, GitAPIException {
+                File directory = fileInList ? file.getParentFile() : file;
+                if (file instanceof ArchiveFile || !directory.isDirectory() || !isInGitRepository(directory)) {
+                    return null; // 압축 파일이나 그 안의 항목
+                }
+                return loadGitFileStatus(file);
+            }
+
+            @Override
+            protected void done() {
+                try {
+                    if (generation != gitStatusGeneration || isCancelled()) {
+                        return; // 그 사이에 다른 파일을 선택했다.
+                    }
+                    gitStatusWorker = null;
+                    GitFileStatus status = get();
+                    if (status != null) {
+                        applyGitFileStatus(status);
+                    } else if (!fileInList) { // Project 2 추가: git repository가 아닌 디렉토리를 선택했을 때 current branch가 없다고 표시해주기 위함
+                        gitCurrentBranch.setText("Current Git Branch: Not a git repo");
+                        followBranchLabel(null);
+                    }
+                } catch (Exception e) {
+                    sample.error();
+                    e.printStackTrace();
+                } finally {
+                    sample.stop(); // 다른 파일을 선택해 버려진 결과나 실패도 측정에 남긴다.
+                }
+            }
+        };
+        gitStatusWorker = worker;
+        GIT_STATUS_EXECUTOR.execute(worker);
+    }
+
+    /**
+     * 단일 파일을 선택 했을 때 해당 파일이 Commited or UnModified 상태인지 확인해 주는 boolean 함수
+     */
+    private boolean isCommittedOrUnmodifiedFile(File file) {
+        try {
+            FileRepositoryBuilder builder = new FileRepositoryBuilder();
+            File gitDir = builder.findGitDir(file).getGitDir(); // .git 파일 위치 찾기
+            Repository repository = openRepository(builder.setGitDir(gitDir).readEnvironment().findGitDir()); // Repository 객체 생성
+            File workDir = repository.getWorkTree(); // .git이 있는 파일
+            Path workDirPath = Paths.get(workDir.getAbsolutePath()); //.git 이 있는 폴더의 절대 경로
+            Path relativePath = workDirPath.relativize(Paths.get(file.getAbsolutePath())); // .git이 있는 폴더의 상대경로로 인자로 받은 파일의 위치를 나타내줌
+
+            Git git = new Git(repository);
+            Status status = callGit("status", SparseCheckout.status(git));
 
             Set<String> untracked = status.getUntracked();  //Untracked 파일 이름을 받아와 비교
             Set<String> modified = status.getModified();    //Modified 파일 이름을 받아와 비교
@@ -1412,13 +2046,13 @@ public class FileManager {
         try {
             FileRepositoryBuilder builder = new FileRepositoryBuilder();
             File gitDir = builder.findGitDir(file).getGitDir(); // .git 파일 위치 찾기
-            Repository repository = builder.setGitDir(gitDir).readEnvironment().findGitDir().build(); // Repository 객체 생성
+            Repository repository = openRepository(builder.setGitDir(gitDir).readEnvironment().findGitDir()); // Repository 객체 생성
             File workDir = repository.getWorkTree(); // .git이 있는 파일
             Path workDirPath = Paths.get(workDir.getAbsolutePath()); //.git 이 있는 폴더의 절대 경로
             Path relativePath = workDirPath.relativize(Paths.get(file.getAbsolutePath())); // .git이 있는 폴더의 상대경로로 인자로 받은 파일의 위치를 나타내줌
 
             Git git = new Git(repository);
-            Status status = git.status().call();
+            Status status = callGit("status", SparseCheckout.status(git));
 
             Set<String> modified = status.getModified(); // Modified 파일 이름을 받아와 비교
 
@@ -1443,13 +2077,13 @@ public class FileManager {
             // jgit 사용 이전에 .git 파일의 위치를
             FileRepositoryBuilder builder = new FileRepositoryBuilder();
             File gitDir = builder.findGitDir(file).getGitDir(); // .git 파일 위치 찾기
-            Repository repository = builder.setGitDir(gitDir).readEnvironment().findGitDir().build(); // Repository 객체 생성
+            Repository repository = openRepository(builder.setGitDir(gitDir).readEnvironment().findGitDir()); // Repository 객체 생성
             File workDir = repository.getWorkTree(); // .git이 있는 파일
             Path workDirPath = Paths.get(workDir.getAbsolutePath()); //.git 이 있는 폴더의 절대 경로
             Path relativePath = workDirPath.relativize(Paths.get(file.getAbsolutePath())); // .git이 있는 폴더의 상대경로로 인자로 받은 파일의 위치를 나타내줌
 
             Git git = new Git(repository);
-            Status status = git.status().call();
+            Status status = callGit("status", SparseCheckout.status(git));
             //staged 영역에 있는 경우는 2가지 존재
             Set<String> added = status.getAdded(); // 1. add 되고 수정이 없는 상태
             Set<String> changed = status.getChanged(); // 2. add 되고 수정이 있는 상태
@@ -1483,7 +2117,7 @@ public class FileManager {
                         String[] gitRestoreCommand = {"git", "restore", currentFile.getName()};
                         ProcessBuilder processBuilder = new ProcessBuilder(gitRestoreCommand);
                         processBuilder.directory(currentFile.getParentFile());
-                        Process process = processBuilder.start();
+                        Process process = Metrics.startProcess(processBuilder);
 
                         int commitStatus = process.waitFor(); //git restore 명령어 정상 수행여부
                         if (commitStatus == 0) { // 정상수행을 의미
@@ -1527,7 +2161,7 @@ public class FileManager {
                         String[] gitRestoreStagedCommand = {"git", "restore", "--staged", currentFile.getName()};
                         ProcessBuilder processBuilder = new ProcessBuilder(gitRestoreStagedCommand);
                         processBuilder.directory(currentFile.getParentFile());
-                        Process process = processBuilder.start();
+                        Process process = Metrics.startProcess(processBuilder);
 
                         int commitStatus = process.waitFor(); //git restore --staged 명령어 정상 수행여부
                         if (commitStatus == 0) { // 정상수행을 의미
@@ -1620,10 +2254,11 @@ public class FileManager {
                     } else { // 현재 파일 -> 파일의 부모 디렉토리 기준으로 실행
                         processBuilder.directory(currentFile.getParentFile());
                     }
-                    Process process = processBuilder.start();
+                    Process process = Metrics.startProcess(processBuilder);
 
                     int mvStatus = process.waitFor(); // git branch 명령어 정상 실행 여부 판단
                     if (mvStatus == 0) { // git branch 명령어가 정상적으로 실행될 경우
+                        refsChanged();
                         JOptionPane.showMessageDialog(gui, "성공적으로 branch를 생성했습니다.");
                         System.out.println("new branch name: " + name);
                     } else { //git branch 명령어가 정상적으로 실행되지 않았을 경우
@@ -1656,30 +2291,29 @@ public class FileManager {
         bmFrame = new JFrame("Git Branch manager");
         bmFrame.setLayout(new BorderLayout());
         try {
-            FileRepositoryBuilder builder = new FileRepositoryBuilder();
-            File gitDir = builder.findGitDir(currentFile).getGitDir(); // .git 폴더 찾기
-            Repository repository = builder.setGitDir(gitDir).readEnvironment().findGitDir().build(); // Repository 객체 생성
-            Git git = new Git(repository);
+            RefCache refCache = currentRefCache(); // 감시 중인 repository면 다시 읽지 않는다.
 
             // branch 목록에 대한 정보를 2차원 배열로 가져오기
-            List<Ref> call = git.branchList().call();
+            Map<String, ObjectId> branches = refCache.getBranches();
             String[] columnNames = {"branch name", "commit id"};
-            String[][] rowData = new String[call.size()][2];
+            String[][] rowData = new String[branches.size()][2];
             int i = 0;
-            for (Ref ref : call) {
-                rowData[i][0] = ref.getName().substring(11);
-                rowData[i][1] = ref.getObjectId().getName();
+            for (Map.Entry<String, ObjectId> branch : branches.entrySet()) {
+                rowData[i][0] = branch.getKey();
+                rowData[i][1] = branch.getValue().getName();
                 i++;
             }
 
-            // 테이블 하위에 위치할 버튼 4개 추가
+            // 테이블 하위에 위치할 버튼 5개 추가
             JButton renameBranchButton = new JButton("Rename Branch");
             JButton deleteBranchButton = new JButton("Delete Branch");
+            JButton previewMergeButton = new JButton("Preview Merge");
             JButton mergeBranchButton = new JButton("Merge Branch");
             JButton checkoutButton = new JButton("Checkout Branch");
             JPanel buttonPanel = new JPanel();
             buttonPanel.add(renameBranchButton);
             buttonPanel.add(deleteBranchButton);
+            buttonPanel.add(previewMergeButton);
             buttonPanel.add(mergeBranchButton);
             buttonPanel.add(checkoutButton);
 
@@ -1729,13 +2363,8 @@ public class FileManager {
                     String selectedBranch = table.getValueAt(selectedRow, 0).toString(); // 선택된 셀의 branch 이름 , 어느곳을 선택해도 branch name 반환
 
                     //삭제를 하면 안되는 경우들에 대한 얘외처리
-                    FileRepositoryBuilder builder = new FileRepositoryBuilder();
-                    File gitDir = builder.findGitDir(currentFile).getGitDir(); // .git 폴더 찾기
-
                     try {
-                        Repository repository = builder.setGitDir(gitDir).readEnvironment().findGitDir().build(); // Repository 객체 생성
-                        Ref head = repository.findRef("HEAD");
-                        String headBranch = repository.getBranch();
+                        String headBranch = currentRefCache().getHeadBranch();
                         // 현재 head 의 branch 는 삭제할 수 없음
                         if (headBranch.equals(selectedBranch)) {
                             JOptionPane.showMessageDialog(bmFrame, "현재 Head branch는 삭제할 수 없습니다.", "Current Head chosen error", JOptionPane.ERROR_MESSAGE);
@@ -1749,6 +2378,18 @@ public class FileManager {
                 }
             });
 
+            previewMergeButton.addActionListener(new ActionListener() { // preview merge 버튼 클릭 시
+                @Override
+                public void actionPerformed(ActionEvent e) {
+                    int selectedRow = table.getSelectedRow(); // 선택된 행의 인덱스
+                    if (selectedRow == -1) {
+                        JOptionPane.showMessageDialog(bmFrame, "선택한 branch가 없습니다. Merge할 target branch를 선택하고 다시 시도해주세요", "Branch not selected error", JOptionPane.ERROR_MESSAGE);
+                        return;
+                    }
+                    previewGitBranchMerge(table.getValueAt(selectedRow, 0).toString());
+                }
+            });
+
             mergeBranchButton.addActionListener(new ActionListener() { // merge branch 버튼 클릭 시
                 @Override
                 public void actionPerformed(ActionEvent e) {
@@ -1764,13 +2405,8 @@ public class FileManager {
                     String selectedBranch = table.getValueAt(selectedRow, 0).toString(); // 선택된 셀의 branch 이름 , 어느곳을 선택해도 branch name 반환
 
                     //삭제를 하면 안되는 경우들에 대한 얘외처리
-                    FileRepositoryBuilder builder = new FileRepositoryBuilder();
-                    File gitDir = builder.findGitDir(currentFile).getGitDir(); // .git 폴더 찾기
-
                     try {
-                        Repository repository = builder.setGitDir(gitDir).readEnvironment().findGitDir().build(); // Repository 객체 생성
-                        Ref head = repository.findRef("HEAD");
-                        String headBranch = repository.getBranch();
+                        String headBranch = currentRefCache().getHeadBranch();
                         // 현재 head 의 branch 는 삭제할 수 없음
                         if (headBranch.equals(selectedBranch)) {
                             JOptionPane.showMessageDialog(bmFrame, "현재 Head branch와 Merge할 target branch가 같습니다.", "Current Head chosen error", JOptionPane.ERROR_MESSAGE);
@@ -1798,13 +2434,8 @@ public class FileManager {
                     }
                     String selectedBranch = table.getValueAt(selectedRow, 0).toString(); // 선택된 셀의 branch 이름 , 어느곳을 선택해도 branch name 반환
 
-                    FileRepositoryBuilder builder = new FileRepositoryBuilder();
-                    File gitDir = builder.findGitDir(currentFile).getGitDir(); // .git 폴더 찾기
-
                     try {
-                        Repository repository = builder.setGitDir(gitDir).readEnvironment().findGitDir().build(); // Repository 객체 생성
-                        Ref head = repository.findRef("HEAD");
-                        String headBranch = repository.getBranch();
+                        String headBranch = currentRefCache().getHeadBranch();
                         // 현재 head 의 branch로는 checkout하지 않음.
                         if (selectedBranch.compareTo(headBranch) == 0) {
                             JOptionPane.showMessageDialog(bmFrame, "이미 " + selectedBranch + "에 있습니다.", "Already in selected Branch", JOptionPane.ERROR_MESSAGE);
@@ -1824,77 +2455,140 @@ public class FileManager {
             bmFrame.setLocationRelativeTo(null);
             bmFrame.setPreferredSize(new Dimension(700, 300));
             bmFrame.pack();
-        } catch (IOException | GitAPIException e) {
+        } catch (IOException e) {
             e.printStackTrace();
         }
     }
 
     private boolean ifSameNameExistInBranch(String name) { // 현재 git repository의 branch 중 name이 존재하는지 판단하기 위한 함수
         try {
-            FileRepositoryBuilder builder = new FileRepositoryBuilder();
-            File gitDir = builder.findGitDir(currentFile).getGitDir(); // .git 폴더 찾기
-            Repository repository = builder.setGitDir(gitDir).readEnvironment().findGitDir().build(); // Repository 객체 생성
-            Git git = new Git(repository);
-            List<Ref> call = git.branchList().call();
-            for (Ref ref : call) {
-                if (ref.getName().equals("refs/heads/" + name)) {
-                    return true;
-                }
-            }
-        } catch (IOException | GitAPIException e) {
+            return currentRefCache().hasBranch(name);
+        } catch (IOException e) {
             e.printStackTrace();
         }
         return false;
     }
 
     /**
-     * git checkout branch
+     * currentFile이 속한 repository의 RefCache. git 명령으로 ref를 바꾼 뒤에는 invalidate를 호출해야 바로 반영된다.
+     */
+    private RefCache currentRefCache() throws IOException {
+        File gitDir = new FileRepositoryBuilder().findGitDir(currentFile).getGitDir(); // .git 폴더 찾기
+        if (gitDir == null) {
+            throw new RepositoryNotFoundException(currentFile);
+        }
+        return RefCache.forRepository(gitDir);
+    }
+
+    /**
+     * git 명령으로 branch를 바꾼 직후에 호출한다. 감시 이벤트보다 먼저 다시 읽어야 하는 경우를 위한 것이다.
      */
-    private void checkoutGitBranch(String branchName) {
+    private void refsChanged() {
         try {
-            String[] gitCheckoutCommand = {"git", "checkout", branchName};
-            ProcessBuilder processBuilder = new ProcessBuilder(gitCheckoutCommand);
-            if (currentFile.isDirectory()) { // 현재 디렉토리 -> 바로 실행
-                processBuilder.directory(currentFile);
-            } else { // 현재 파일 -> 파일의 부모 디렉토리 기준으로 실행
-                processBuilder.directory(currentFile.getParentFile());
-            }
+            currentRefCache().invalidate();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
 
-            Process process = processBuilder.start();
+    /**
+     * git checkout branch
+     */
+    private void checkoutGitBranch(final String branchName) {
+        final File gitDir = new FileRepositoryBuilder().findGitDir(currentFile).getGitDir(); // .git 폴더 찾기
+        if (gitDir == null) {
+            showErrorMessage("이 디렉토리는 git repository가 아닙니다.", "Not Git Repository");
+            return;
+        }
+        final GitFileStatus previous = appliedGitStatus;
+        progressBar.setVisible(true);
+        progressBar.setIndeterminate(true);
+        SwingWorker<BranchCheckout, Void> worker = new SwingWorker<BranchCheckout, Void>() {
+            @Override
+            public BranchCheckout doInBackground() throws IOException, GitAPIException, InterruptedException {
+                return BranchCheckout.run(gitDir, branchName, previous, MAX_INCREMENTAL_CHECKOUT_PATHS);
+            }
 
-            int checkoutStatus = process.waitFor(); // git checkout branch 명령어 정상 실행 여부 판단
-            if (checkoutStatus == 0) { // git checkout branch 명령어가 정상적으로 실행될 경우
+            @Override
+            protected void done() {
+                progressBar.setIndeterminate(false);
+                progressBar.setVisible(false);
+                BranchCheckout checkout;
+                try {
+                    checkout = get();
+                } catch (ExecutionException e) {
+                    e.getCause().printStackTrace();
+                    if (e.getCause() instanceof CheckoutConflictException) {
+                        String conflicts = "다음 파일의 변경사항이 checkout으로 덮어써지므로 Checkout을 중단합니다.\n\n";
+                        for (String path : ((CheckoutConflictException) e.getCause()).getConflictingPaths()) {
+                            conflicts += path + "\n";
+                        }
+                        showErrorMessage(conflicts, "git checkout branch error");
+                    } else {
+                        showErrorMessage("선택한 Branch로 Checkout하는 과정에서 오류가 발생하였습니다.\n" + e.getCause().getMessage(), "git checkout branch error");
+                    }
+                    return;
+                } catch (InterruptedException e) {
+                    e.printStackTrace();
+                    return;
+                }
                 JOptionPane.showMessageDialog(bmFrame, branchName + " branch로 Checkout하였습니다.");
-                System.out.println("Checkout to selected Branch");
-
-                FileRepositoryBuilder builder = new FileRepositoryBuilder();
-                File gitDir = builder.findGitDir(currentFile).getGitDir(); // .git 폴더 찾기
+                System.out.println("Checkout to selected Branch: " + (checkout.paths == null ? "all" : checkout.paths.size()) + " paths changed");
 
                 try {//전체 gui에서 current branch 명 갱신해주기.
-                    Repository repository = builder.setGitDir(gitDir).readEnvironment().findGitDir().build(); // Repository 객체 생성
+                    RefCache refCache = RefCache.forRepository(gitDir);
+                    refCache.invalidate();
                     if (gitCurrentBranch != null) { // null이 아닐 경우에만 branch명 갱신
-                        gitCurrentBranch.setText("Current Git Branch: " + repository.getBranch()); // branch명 갱신
+                        gitCurrentBranch.setText("Current Git Branch: " + refCache.getHeadBranch()); // branch명 갱신
                     }
                 } catch (IOException err) {
                     err.printStackTrace();
                 }
 
+                if (checkout.status != null) { // checkout이 바꾼 경로의 status, 트리 노드, 테이블 행만 갱신
+                    ++gitStatusGeneration; // checkout 전에 시작한 status 계산 결과는 버린다.
+                    applyGitFileStatus(checkout.status);
+                    refreshCheckedOutPaths(checkout.workTree, checkout.paths);
+                    return;
+                }
                 //중앙 탐색기에서 현재 브랜치의 파일들 렌더링해주기.
                 try {
-                    renderGitFileStatus(); //스테이지 했을 경우, 파일에 변화가 일어났으므로 렌더링
+                    renderGitFileStatus();
                     TreePath parentPath = findTreePath(currentFile);
                     DefaultMutableTreeNode parentNode = (DefaultMutableTreeNode) parentPath.getLastPathComponent();
                     showChildren(parentNode);
-                } catch (IOException | GitAPIException e1) {
+                } catch (IOException | GitAPIException | NullPointerException e1) {
                     e1.printStackTrace();
                 }
                 gui.repaint();
+            }
+        };
+        worker.execute();
+    }
 
+    /**
+     * checkout이 작업 트리에서 바꾸거나 지운 파일과 그 상위 디렉토리 중, 트리에 펼쳐져 있거나 테이블에 표시 중인 것만 갱신한다.
+     */
+    private void refreshCheckedOutPaths(File workTree, List<String> paths) {
+        Set<File> affected = new LinkedHashSet<File>();
+        for (String path : paths) {
+            for (File file = new File(workTree, path); file != null && !file.equals(workTree); file = file.getParentFile()) {
+                if (!affected.add(file)) {
+                    break; // 상위 디렉토리는 이미 추가했다.
+                }
+            }
+        }
+        for (File file : affected) {
+            Path dir = file.getParentFile().toPath();
+            if (!isTableDirectory(dir) && !watchedTreeNodes.containsKey(dir)) {
+                continue;
+            }
+            if (file.exists()) {
+                fileCreated(dir, file); // 이미 있으면 무시된다.
+                fileModified(dir, file);
             } else {
-                showErrorMessage("선택한 Branch로 Checkout하는 과정에서 오류가 발생하였습니다.", "git checkout branch error");
+                fileDeleted(dir, file);
             }
-        } catch (IOException | NullPointerException | InterruptedException e) {
-            e.printStackTrace();
         }
     }
 
@@ -1911,10 +2605,11 @@ public class FileManager {
                 processBuilder.directory(currentFile.getParentFile());
             }
 
-            Process process = processBuilder.start();
+            Process process = Metrics.startProcess(processBuilder);
 
             int delStatus = process.waitFor(); // git branch -d 명령어 정상 실행 여부 판단
             if (delStatus == 0) { // git branch -d 명령어가 정상적으로 실행될 경우
+                refsChanged();
                 JOptionPane.showMessageDialog(bmFrame, "성공적으로 브랜치를 삭제했습니다.");
                 System.out.println("branch Deleted");
                 bmFrame.dispose();
@@ -1933,10 +2628,11 @@ public class FileManager {
                         pBuilder.directory(currentFile.getParentFile());
                     }
 
-                    Process hardDeleteProcess = pBuilder.start();
+                    Process hardDeleteProcess = Metrics.startProcess(pBuilder);
                     int delHardProcess = hardDeleteProcess.waitFor();
 
                     if (delHardProcess == 0) {
+                        refsChanged();
                         bmFrame.dispose();
                         gitBranchManagerFile();
                         JOptionPane.showMessageDialog(bmFrame, "성공적으로 브랜치를 삭제했습니다.");
@@ -2008,10 +2704,11 @@ public class FileManager {
                     } else { // 현재 파일 -> 파일의 부모 디렉토리 기준으로 실행
                         processBuilder.directory(currentFile.getParentFile());
                     }
-                    Process process = processBuilder.start();
+                    Process process = Metrics.startProcess(processBuilder);
 
                     int mvStatus = process.waitFor(); // git branch -m 명령어 정상 실행 여부 판단
                     if (mvStatus == 0) { // git branch -m 명령어가 정상적으로 실행될 경우
+                        refsChanged();
                         JOptionPane.showMessageDialog(bmFrame, "성공적으로 branch 이름을 변경했습니다.");
                         System.out.println("Old branch name : " + branchName + " new branch name : " + newBranchName);
                         bmFrame.dispose();
@@ -2041,18 +2738,17 @@ public class FileManager {
         try {
             FileRepositoryBuilder builder = new FileRepositoryBuilder();
             File gitDir = builder.findGitDir(currentFile).getGitDir(); // .git 폴더 찾기
-            Repository repository = builder.setGitDir(gitDir).readEnvironment().findGitDir().build(); // Repository 객체 생성
+            Repository repository = openRepository(builder.setGitDir(gitDir).readEnvironment().findGitDir()); // Repository 객체 생성
             Git git = new Git(repository);
             String currentBranch = repository.getBranch(); // 현재 브랜치 이름
             // 먼저 병합 대상 브랜치로 체크아웃
             Ref mergeTargetBranch = repository.findRef(currentBranch);
-            git.checkout().setName(mergeTargetBranch.getName()).call();
+            callGit("checkout", git.checkout().setName(mergeTargetBranch.getName()));
 
             // 병합을 수행할 브랜치와 병합
-            MergeResult mergeResult = git.merge()
+            MergeResult mergeResult = callGit("merge", git.merge()
                     .include(repository.findRef(branchName)) // 병합할 브랜치의 이름 설정
-                    .setStrategy(MergeStrategy.RESOLVE)
-                    .call();
+                    .setStrategy(MergeStrategy.RESOLVE));
             if (mergeResult.getConflicts() != null) {// merge 중 conflict 이 난 경우
                 String confiltFilePaths = "다음과 같은 경로에 충돌하는 파일이 발생하므로 Merge를 중단합니다.\n\n";
                 // conflict이 일어난 파일들의 경로를 저장하여 경고 메세지를 띄워줌
@@ -2072,7 +2768,7 @@ public class FileManager {
                 } else { // 현재 파일 -> 파일의 부모 디렉토리 기준으로 실행
                     pBuilder.directory(currentFile.getParentFile());
                 }
-                Process hardDeleteProcess = pBuilder.start();
+                Process hardDeleteProcess = Metrics.startProcess(pBuilder);
                 int mergeAbortProcess = hardDeleteProcess.waitFor();
                 if (mergeAbortProcess == 0) { // merge abort 성공적 수행
                     JOptionPane.showMessageDialog(bmFrame, " Merge를 취소하였습니다.");
@@ -2081,6 +2777,7 @@ public class FileManager {
                 }
             } else {
                 // merge가 정상적으로 끝난 경우
+                refsChanged();
                 JOptionPane.showMessageDialog(bmFrame, "성공적으로 브랜치를 병합(merge)했습니다.");
             }
 
@@ -2090,6 +2787,108 @@ public class FileManager {
 
     }
 
+    /**
+     * 현재 HEAD에 branchName을 merge한 결과를 작업 트리와 index를 건드리지 않고 계산해서 보여준다.
+     */
+    private void previewGitBranchMerge(final String branchName) {
+        final File gitDir = new FileRepositoryBuilder().findGitDir(currentFile).getGitDir(); // .git 폴더 찾기
+        if (gitDir == null) {
+            showErrorMessage("이 디렉토리는 git repository가 아닙니다.", "Not Git Repository");
+            return;
+        }
+        progressBar.setVisible(true);
+        progressBar.setIndeterminate(true);
+        SwingWorker<MergePreview, Void> worker = new SwingWorker<MergePreview, Void>() {
+            @Override
+            public MergePreview doInBackground() throws IOException {
+                try (Repository repository = openRepository(new FileRepositoryBuilder().setGitDir(gitDir).readEnvironment().findGitDir())) {
+                    return MergePreview.compute(repository, branchName);
+                }
+            }
+
+            @Override
+            protected void done() {
+                progressBar.setIndeterminate(false);
+                progressBar.setVisible(false);
+                try {
+                    showMergePreview(get());
+                } catch (ExecutionException e) {
+                    e.getCause().printStackTrace();
+                    showErrorMessage("merge 결과를 계산하는 중 오류가 발생했습니다.\n" + e.getCause().getMessage(), "Merge preview error");
+                } catch (InterruptedException e) {
+                    e.printStackTrace();
+                }
+            }
+        };
+        worker.execute();
+    }
+
+    private void showMergePreview(final MergePreview preview) {
+        String summary;
+        switch (preview.outcome) {
+            case UP_TO_DATE:
+                summary = preview.branch + "의 변경이 이미 모두 포함되어 있습니다.";
+                break;
+            case FAST_FORWARD:
+                summary = "fast-forward: " + preview.files.size() + " files changed, +" + preview.insertions + " -" + preview.deletions;
+                break;
+            case CLEAN:
+                summary = "충돌 없이 merge됩니다: " + preview.files.size() + " files changed, +" + preview.insertions + " -" + preview.deletions;
+                break;
+            default:
+                summary = preview.conflictCount + "개 파일에서 충돌이 발생합니다. (" + preview.branch + "의 변경: "
+                        + preview.files.size() + " files, +" + preview.insertions + " -" + preview.deletions + ")";
+                break;
+        }
+
+        final DefaultTableModel model = new DefaultTableModel(new String[]{"File", "Result", "Change", "+", "-"}, 0) {
+            public boolean isCellEditable(int row, int column) {
+                return false;
+            }
+
+            public Class<?> getColumnClass(int column) {
+                return column >= 3 ? Integer.class : String.class;
+            }
+        };
+        for (MergePreview.FileChange file : preview.files) {
+            model.addRow(new Object[]{file.path, file.conflict ? "Conflict" : "Clean", file.changeType.name(),
+                    file.insertions, file.deletions});
+        }
+        JTable table = new JTable(model);
+        table.setAutoCreateRowSorter(true);
+        table.getColumnModel().getColumn(0).setPreferredWidth(400);
+
+        final JFrame previewFrame = new JFrame("Merge preview: " + preview.branch);
+        JButton mergeButton = new JButton("Merge");
+        mergeButton.setEnabled(preview.outcome != MergePreview.Outcome.UP_TO_DATE);
+        JButton closeButton = new JButton("Close");
+        mergeButton.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                previewFrame.dispose();
+                mergeGitBranch(preview.branch);
+            }
+        });
+        closeButton.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                previewFrame.dispose();
+            }
+        });
+        JPanel buttonPanel = new JPanel();
+        buttonPanel.add(mergeButton);
+        buttonPanel.add(closeButton);
+
+        previewFrame.setLayout(new BorderLayout());
+        previewFrame.add(new JLabel(summary), BorderLayout.NORTH);
+        previewFrame.add(new JScrollPane(table), BorderLayout.CENTER);
+        previewFrame.add(buttonPanel, BorderLayout.SOUTH);
+        previewFrame.setPreferredSize(new Dimension(700, 400));
+        previewFrame.pack();
+        previewFrame.setLocationRelativeTo(bmFrame);
+        previewFrame.setVisible(true);
+    }
+
     /**
      * git log --graph 명령어를 통한 그래프 좌측 출력 및 테이블의 행을 그래프의 위치에 맞게 조정하여 커밋 테이블을 구현
      */
@@ -2107,7 +2906,7 @@ public class FileManager {
         try {
             FileRepositoryBuilder builder = new FileRepositoryBuilder();
             File gitDir = builder.findGitDir(currentFile).getGitDir(); // .git 폴더 찾기
-            Repository repository = builder.setGitDir(gitDir).readEnvironment().findGitDir().build(); // Repository 객체 생성
+            Repository repository = openRepository(builder.setGitDir(gitDir).readEnvironment().findGitDir()); // Repository 객체 생성
             Git git = new Git(repository);
 
 
@@ -2302,25 +3101,28 @@ public class FileManager {
      * @param syncTableWithGraph
      */
     private void parseGraphLog(JTextArea textArea, List<Boolean> syncTableWithGraph) {
+        //파일일 경우 오류 발생하므로 부모 디렉토리에서 실행되도록 수정
+        File directory = currentFile.isFile() ? currentFile.getParentFile() : currentFile;
+        textArea.setText(loadGraphLog(directory, syncTableWithGraph));
+    }
+
+    /**
+     * directory에서 git log --graph를 실행하여 그래프 모양만 남긴 문자열을 반환한다. Swing 컴포넌트를 건드리지 않는다.
+     */
+    static String loadGraphLog(File directory, List<Boolean> syncTableWithGraph) {
+        StringBuilder output = new StringBuilder();
+        output.append("\n");
         try {
             ProcessBuilder processBuilder = new ProcessBuilder("git", "log", "--graph", "--pretty=oneline");
-            if (currentFile.isFile()) { //파일일 경우 오류 발생하므로 부모 디렉토리에서 실행되도록 수정
-                processBuilder.directory(new File(currentFile.getParentFile().getAbsolutePath()));
-            } else {
-                processBuilder.directory(new File(currentFile.getAbsolutePath()));
-            }
-            Process process = processBuilder.start();
+            processBuilder.directory(new File(directory.getAbsolutePath()));
+            Process process = Metrics.startProcess(processBuilder);
 
             // Read the output of the command
             BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()));
             String line;
-            StringBuilder output = new StringBuilder();
-            output.append("\n");
 
             //알파벳이 있는 Checksum을 인식하기 위한 Pattern Matcher 선언
             Pattern pattern = Pattern.compile("[a-zA-Z]");
-            Matcher matcher;
-            boolean containsAlphabet;
 
             while ((line = reader.readLine()) != null) {
                 if (pattern.matcher(line).find()) { //알파벳이 인식된다는 것은 Checksum이 있다는 의미로, 리스트에 True 저장
@@ -2343,15 +3145,13 @@ public class FileManager {
                 output.append("\n");
             }
 
-            // Set the output to the JTextArea
-            textArea.setText(output.toString());
-
             // Close the reader and wait for the process to finish
             reader.close();
             process.waitFor();
         } catch (Exception e) {
             e.printStackTrace();
         }
+        return output.toString();
     }
 
     private void showCommitDiff(String commitID, Repository repository) {
@@ -2378,6 +3178,27 @@ public class FileManager {
     }
 
     private void parseCommitDiff(JTextPane textArea, String commitID, Repository repository) {
+        //파일일 경우 오류 발생하므로 부모 디렉토리에서 실행되도록 수정
+        File directory = currentFile.isFile() ? currentFile.getParentFile() : currentFile;
+        for (String line : loadCommitDiff(directory, commitID, repository)) {
+            if (line.startsWith("+")) { //추가한 내용은 초록색
+                appendToPane(textArea, line + "\n", new Color(0, 153, 76));
+            } else if (line.startsWith("-")) { //제거한 내용은 빨간색
+                appendToPane(textArea, line + "\n", Color.red);
+            } else { //그 외는 검은색
+                appendToPane(textArea, line + "\n", Color.black);
+            }
+        }
+    }
+
+    /**
+     * 커밋과 첫 번째 부모 커밋 사이의 git diff 출력을 줄 단위로 반환한다. Swing 컴포넌트를 건드리지 않는다.
+     */
+    static List<String> loadCommitDiff(File directory, String commitID, Repository repository) {
+        List<String> lines = new ArrayList<String>();
+        FlightEvents.GitDiff event = new FlightEvents.GitDiff();
+        event.begin();
+        long bytes = 0;
         try {
             ObjectId commitObjectId = ObjectId.fromString(commitID);
             RevCommit targetCommit = repository.parseCommit(commitObjectId);
@@ -2391,31 +3212,29 @@ public class FileManager {
 
             ProcessBuilder processBuilder = new ProcessBuilder("git", "diff", parentCommitID, commitID); //git diff commitID
             //를 통해 해당 커밋의 내용 불러오기
-            if (currentFile.isFile()) { //파일일 경우 오류 발생하므로 부모 디렉토리에서 실행되도록 수정
-                processBuilder.directory(new File(currentFile.getParentFile().getAbsolutePath()));
-            } else {
-                processBuilder.directory(new File(currentFile.getAbsolutePath()));
-            }
-            Process process = processBuilder.start();
+            processBuilder.directory(new File(directory.getAbsolutePath()));
+            Process process = Metrics.startProcess(processBuilder);
 
             BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()));
             String line;
-
-
             while ((line = reader.readLine()) != null) {
-                if (line.startsWith("+")) { //추가한 내용은 초록색
-                    appendToPane(textArea, line + "\n", new Color(0, 153, 76));
-                } else if (line.startsWith("-")) { //제거한 내용은 빨간색
-                    appendToPane(textArea, line + "\n", Color.red);
-                } else { //그 외는 검은색
-                    appendToPane(textArea, line + "\n", Color.black);
-
-                }
+                lines.add(line);
+                bytes += line.length() + 1;
             }
-
-        } catch (IOException e) {
+            reader.close();
+            process.waitFor();
+        } catch (IOException | InterruptedException e) {
             e.printStackTrace();
+        } finally {
+            if (event.shouldCommit()) {
+                event.repository = repository.getDirectory().getPath();
+                event.commit = commitID;
+                event.lineCount = lines.size();
+                event.bytes = bytes;
+                event.commit();
+            }
         }
+        return lines;
     }
 
     private void appendToPane(JTextPane tp, String msg, Color c) {
@@ -2439,34 +3258,51 @@ public class FileManager {
      * @param syncTableWithGraph
      */
     private void drawCommitTable(Git git, DefaultTableModel tableModel, List<Boolean> syncTableWithGraph) {
+        for (Object[] rowData : loadCommitRows(git, syncTableWithGraph)) {
+            tableModel.addRow(rowData);
+        }
+    }
+
+    /**
+     * 커밋 테이블의 행(커밋 ID, 커밋 메시지)을 만든다. 그래프에서 커밋 오브젝트가 없는 줄은 빈 행이 된다.
+     */
+    static List<Object[]> loadCommitRows(Git git, List<Boolean> syncTableWithGraph) {
+        List<Object[]> rows = new ArrayList<Object[]>();
+        Metrics.Sample sample = Metrics.start("jgit.log"); // 커밋은 순회하면서 읽으므로 순회까지 포함해서 잰다.
+        FlightEvents.GitLog event = new FlightEvents.GitLog();
+        event.begin();
+        int commitCount = 0;
         try {
             Iterable<RevCommit> commits = git.log().call();
             int i = 0;
 
             for (RevCommit commit : commits) {
-                Object[] rowData = new Object[tableModel.getColumnCount()];
-
                 String commitId = commit.getId().getName();
                 String commitMessage = commit.getShortMessage();
                 if (!syncTableWithGraph.get(i)) { //해당 줄에 커밋 오브젝트가 없으면 빈 행으로 출력
                     while (!syncTableWithGraph.get(i)) {
-                        rowData[0] = null;
-                        rowData[1] = null;
-                        tableModel.addRow(rowData);
+                        rows.add(new Object[]{null, null});
                         i++;
                     }
                 }
-                rowData[0] = commitId;
-                rowData[1] = commitMessage;
                 i++;
 
-                tableModel.addRow(rowData);
-
+                rows.add(new Object[]{commitId, commitMessage});
+                commitCount++;
             }
 
         } catch (GitAPIException e) {
+            sample.error();
             e.printStackTrace();
+        } finally {
+            sample.stop();
+            if (event.shouldCommit()) {
+                event.repository = git.getRepository().getDirectory().getPath();
+                event.commitCount = commitCount;
+                event.commit();
+            }
         }
+        return rows;
     }
 
 // Java에는 그래프 API가 그나마 명령어가 간단한 것이 JUNG API 인데, 처음에 이를 통해 구현하다가 제대로 출력이 되지 않고, 심지어 JScrollPane이
@@ -2499,13 +3335,17 @@ public class FileManager {
                 table.getSelectionModel().removeListSelectionListener(listSelectionListener);
                 fileTableModel.setFiles(files);
                 table.getSelectionModel().addListSelectionListener(listSelectionListener);
-                if (!cellSizesSet) {
-                    Icon icon = fileSystemView.getSystemIcon(files[0]);
+                updateVisibleThumbnails();
+                if (!cellSizesSet && files.length > 0) {
+                    Icon icon = ArchiveFile.getSystemIcon(fileSystemView, files[0]);
 
                     // size adjustment to better account for icons
-                    table.setRowHeight(icon.getIconHeight() + rowIconPadding);
+                    listRowHeight = icon.getIconHeight() + rowIconPadding;
+                    if (!showThumbnails.isSelected()) {
+                        table.setRowHeight(listRowHeight);
+                    }
 
-                    setColumnWidth(0, -1);
+                    setColumnWidth(0, showThumbnails.isSelected() ? ThumbnailCache.SIZE + 8 : -1);
                     setColumnWidth(3, 60);
                     table.getColumnModel().getColumn(3).setMaxWidth(120);
                     setColumnWidth(4, -1);
@@ -2515,6 +3355,12 @@ public class FileManager {
                     setColumnWidth(8, -1);
                     setColumnWidth(9, -1);
 
+                    if (restoredColumnWidths != null) { // 고정 너비 열은 min/max 범위 안으로 제한된다.
+                        for (int ii = 0; ii < restoredColumnWidths.length && ii < table.getColumnCount(); ii++) {
+                            table.getColumnModel().getColumn(ii).setPreferredWidth(restoredColumnWidths[ii]);
+                        }
+                        restoredColumnWidths = null;
+                    }
                     cellSizesSet = true;
                 }
             }
@@ -2522,59 +3368,1652 @@ public class FileManager {
     }
 
 
-    private void setColumnWidth(int column, int width) {
-        TableColumn tableColumn = table.getColumnModel().getColumn(column);
-        if (width < 0) {
-            // use the preferred width of the header..
-            JLabel label = new JLabel((String) tableColumn.getHeaderValue());
-            Dimension preferred = label.getPreferredSize();
-            // altered 10->14 as per camickr comment.
-            width = (int) preferred.getWidth() + 14;
-        }
-        tableColumn.setPreferredWidth(width);
-        tableColumn.setMaxWidth(width);
-        tableColumn.setMinWidth(width);
-    }
-
     /**
-     * Add the files that are contained within the directory of this node. Thanks to Hovercraft Full
-     * Of Eels.
+     * Icon 열에 이미지 파일의 축소판을 보여줄지 정한다. 축소판은 백그라운드에서 만들어지는 대로 채워진다.
      */
-    private void showChildren(final DefaultMutableTreeNode node) {
-        tree.setEnabled(false);
-        progressBar.setVisible(true);
-        progressBar.setIndeterminate(true);
-
-        SwingWorker<Void, File> worker = new SwingWorker<Void, File>() {
-            @Override
+    private void setThumbnailsVisible(boolean visible) {
+        if (visible && thumbnailCache == null) {
+            int threads = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() / 2));
+            thumbnailCache = new ThumbnailCache(ThumbnailCache.defaultDirectory(), threads, file -> table.repaint());
+            table.setDefaultRenderer(ImageIcon.class, new DefaultTableCellRenderer() {
+                public Component getTableCellRendererComponent(JTable table, Object value, boolean isSelected, boolean hasFocus, int row, int column) {
+                    super.getTableCellRendererComponent(table, null, isSelected, hasFocus, row, column);
+                    setHorizontalAlignment(JLabel.CENTER);
+                    Icon icon = (Icon) value;
+                    if (showThumbnails.isSelected() && table.getModel() instanceof FileTableModel) {
+                        Icon thumbnail = thumbnailCache.get(((FileTableModel) table.getModel()).getFile(table.convertRowIndexToModel(row)));
+                        if (thumbnail != null) {
+                            icon = thumbnail;
+                        }
+                    }
+                    setIcon(icon);
+                    return this;
+                }
+            });
+        }
+        if (visible) {
+            if (listRowHeight < 0) {
+                listRowHeight = table.getRowHeight();
+            }
+            table.setRowHeight(ThumbnailCache.SIZE + rowIconPadding);
+            if (table.getColumnCount() > 0) { // 아직 목록을 표시하지 않았으면 setTableData에서 맞춘다.
+                setColumnWidth(0, ThumbnailCache.SIZE + 8);
+            }
+            updateVisibleThumbnails();
+        } else {
+            if (listRowHeight > 0) {
+                table.setRowHeight(listRowHeight);
+            }
+            if (table.getColumnCount() > 0) {
+                setColumnWidth(0, -1);
+            }
+        }
+        table.repaint();
+    }
+
+    /**
+     * 지금 테이블에 보이는 행의 파일을 축소판 캐시에 알린다. 보이지 않게 된 파일의 작업은 실행되지 않는다.
+     */
+    private void updateVisibleThumbnails() {
+        if (thumbnailCache == null || !showThumbnails.isSelected() || !(table.getModel() instanceof FileTableModel)) {
+            return;
+        }
+        FileTableModel model = (FileTableModel) table.getModel();
+        Rectangle view = table.getVisibleRect();
+        int first = table.rowAtPoint(view.getLocation());
+        int last = table.rowAtPoint(new Point(view.x, view.y + view.height - 1));
+        if (last < 0) {
+            last = table.getRowCount() - 1;
+        }
+        List<File> files = new ArrayList<File>();
+        for (int row = Math.max(0, first); first >= 0 && row <= last; row++) {
+            files.add(model.getFile(table.convertRowIndexToModel(row)));
+        }
+        thumbnailCache.setVisible(files);
+    }
+
+    private void setColumnWidth(int column, int width) {
+        TableColumn tableColumn = table.getColumnModel().getColumn(column);
+        if (width < 0) {
+            // use the preferred width of the header..
+            JLabel label = new JLabel((String) tableColumn.getHeaderValue());
+            Dimension preferred = label.getPreferredSize();
+            // altered 10->14 as per camickr comment.
+            width = (int) preferred.getWidth() + 14;
+        }
+        tableColumn.setPreferredWidth(width);
+        tableColumn.setMaxWidth(width);
+        tableColumn.setMinWidth(width);
+    }
+
+    /**
+     * Add the files that are contained within the directory of this node. Thanks to Hovercraft Full
+     * Of Eels.
+     */
+    private void showChildren(final DefaultMutableTreeNode node) {
+        tree.setEnabled(false);
+        progressBar.setVisible(true);
+        progressBar.setIndeterminate(true);
+
+        SwingWorker<Void, File> worker = new SwingWorker<Void, File>() {
+            @Override
+            public Void doInBackground() {
+                File file = (File) node.getUserObject();
+                if (file instanceof ArchiveFile || ArchiveFile.isArchive(file)) {
+                    // 압축 파일은 중앙 디렉토리만 읽고, 이 디렉토리의 항목만 목록으로 만든다.
+                    File[] files;
+                    try {
+                        files = ArchiveFile.list(file);
+                    } catch (IOException | RuntimeException e) {
+                        e.printStackTrace();
+                        files = new File[0];
+                    }
+                    for (File child : files) {
+                        if (child.isDirectory()) {
+                            publish(child);
+                        }
+                    }
+                    setTableData(files);
+                } else if (file.isDirectory()) {
+                    FlightEvents.DirectoryListing event = new FlightEvents.DirectoryListing();
+                    event.begin();
+                    long start = System.nanoTime();
+                    File[] files = fileSystemView.getFiles(file, true); // !!
+                    Metrics.record("fs.list", System.nanoTime() - start, false);
+                    if (event.shouldCommit()) {
+                        event.directory = file.getPath();
+                        event.fileCount = files.length;
+                        event.commit();
+                    }
+                    // selectInTree로 경로상의 노드만 먼저 만들어진 경우가 있으므로 leaf가 아니어도 빠진 하위 디렉토리를 채운다.
+                    for (File child : files) {
+                        if (child.isDirectory() || ArchiveFile.isArchive(child)) { // 압축 파일도 디렉토리처럼 펼친다.
+                            publish(child);
+                        }
+                    }
+                    setTableData(files);
+                }
+                return null;
+            }
+
+            @Override
+            protected void process(List<File> chunks) {
+                Set<Object> existing = new HashSet<Object>();
+                for (int ii = 0; ii < node.getChildCount(); ii++) {
+                    existing.add(((DefaultMutableTreeNode) node.getChildAt(ii)).getUserObject());
+                }
+                int firstIndex = node.getChildCount();
+                for (File child : chunks) {
+                    if (existing.add(child)) { // 이미 있거나 감시 이벤트로 먼저 추가된 노드는 건너뛴다.
+                        node.add(new DefaultMutableTreeNode(child));
+                    }
+                }
+                notifyNodesInserted(node, firstIndex);
+            }
+
+            @Override
+            protected void done() {
+                progressBar.setIndeterminate(false);
+                progressBar.setVisible(false);
+                tree.setEnabled(true);
+                File file = (File) node.getUserObject();
+                if (file.isDirectory() || ArchiveFile.isArchive(file)) {
+                    watchTableDirectory(node);
+                }
+            }
+        };
+        worker.execute();
+    }
+
+    /**
+     * 선택한 디렉토리 아래에서 이름이 일치하는 파일을 찾아 테이블에 표시한다. 처음 검색하거나 기존 인덱스 범위 밖의
+     * 디렉토리를 검색할 때만 인덱스를 새로 만들고, 이후에는 감시 이벤트로 갱신된 인덱스를 재사용한다.
+     */
+    private void searchFiles() {
+        final String query = searchField.getText().trim();
+        if (query.isEmpty()) {
+            showErrorMessage("검색어를 입력해주세요.", "Empty Query");
+            return;
+        }
+        if (currentFile == null) {
+            showErrorMessage("검색할 디렉토리를 선택해주세요.", "Select Directory");
+            return;
+        }
+        File scopeDirectory = currentFile.isDirectory() ? currentFile : currentFile.getParentFile();
+        final Path scope = scopeDirectory.toPath().toAbsolutePath();
+
+        tableDirectory = null; // 검색 결과를 보여주는 동안에는 감시 이벤트를 테이블에 반영하지 않는다.
+        setTableData(new File[0]);
+        searchField.setEnabled(false);
+        progressBar.setVisible(true);
+        progressBar.setIndeterminate(true);
+
+        SwingWorker<Integer, File> worker = new SwingWorker<Integer, File>() {
+            @Override
+            public Integer doInBackground() {
+                FileNameIndex index = fileNameIndex;
+                if (index == null || !scope.startsWith(index.getRoot())) {
+                    Metrics.cacheMiss("fileNameIndex");
+                    if (index != null) {
+                        index.close();
+                    }
+                    long start = System.currentTimeMillis();
+                    index = new FileNameIndex(scope, ForkJoinPool.commonPool(), MAX_INDEX_WATCHED_DIRECTORIES);
+                    index.build();
+                    System.out.println("Indexed " + index.size() + " files under " + scope + " in "
+                            + (System.currentTimeMillis() - start) + " ms");
+                    fileNameIndex = index;
+                } else {
+                    Metrics.cacheHit("fileNameIndex");
+                }
+                return index.search(query, scope, MAX_SEARCH_RESULTS, path -> publish(path.toFile()));
+            }
+
+            @Override
+            protected void process(final List<File> chunks) {
+                updateTableModel(() -> fileTableModel.addFiles(chunks));
+            }
+
+            @Override
+            protected void done() {
+                progressBar.setIndeterminate(false);
+                progressBar.setVisible(false);
+                searchField.setEnabled(true);
+                try {
+                    int found = get();
+                    System.out.println("Search '" + query + "': " + found + " files");
+                    if (found >= MAX_SEARCH_RESULTS) {
+                        showErrorMessage("검색 결과가 너무 많아 " + MAX_SEARCH_RESULTS + "개까지만 표시합니다.", "Too Many Results");
+                    }
+                } catch (Exception e) {
+                    showThrowable(e);
+                }
+            }
+        };
+        worker.execute();
+    }
+
+    /**
+     * 선택한 디렉토리 아래 파일들의 내용을 검색하고, 찾는 대로 결과 창의 테이블(파일, 줄 번호, 내용)에 추가한다.
+     */
+    private void searchInFiles() {
+        final String query = searchField.getText();
+        if (query.isEmpty()) {
+            showErrorMessage("검색어를 입력해주세요.", "Empty Query");
+            return;
+        }
+        if (currentFile == null) {
+            showErrorMessage("검색할 디렉토리를 선택해주세요.", "Select Directory");
+            return;
+        }
+        File scopeDirectory = currentFile.isDirectory() ? currentFile : currentFile.getParentFile();
+        final ContentSearcher searcher;
+        try {
+            searcher = new ContentSearcher(scopeDirectory.toPath().toAbsolutePath(), query,
+                    searchRegex.isSelected(), searchIgnoreCase.isSelected(), MAX_CONTENT_MATCHES);
+        } catch (PatternSyntaxException e) {
+            showErrorMessage("잘못된 정규식입니다.\n" + e.getDescription(), "Regex Error");
+            return;
+        }
+        // 내용 인덱스가 있으면 후보 파일만 확인한다. 정규식 검색은 인덱스로 좁힐 수 없으므로 항상 전체를 스캔한다.
+        final Path indexedRoot = searchRegex.isSelected() ? null : ContentIndex.findIndexedRoot(scopeDirectory.toPath());
+
+        //--------------------결과 창 UI 구성----------------------
+        final DefaultTableModel resultModel = new DefaultTableModel(new String[]{"File", "Line", "Snippet"}, 0) {
+            public boolean isCellEditable(int row, int column) {
+                return false;
+            }
+
+            public Class<?> getColumnClass(int column) {
+                return column == 1 ? Long.class : String.class;
+            }
+        };
+        final JTable resultTable = new JTable(resultModel);
+        resultTable.setAutoCreateRowSorter(true);
+        resultTable.getColumnModel().getColumn(0).setPreferredWidth(300);
+        resultTable.getColumnModel().getColumn(1).setPreferredWidth(50);
+        resultTable.getColumnModel().getColumn(2).setPreferredWidth(500);
+        final List<File> resultFiles = new ArrayList<File>(); // 결과 행과 같은 순서의 파일 목록
+        resultTable.addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                int row = resultTable.getSelectedRow();
+                if (e.getClickCount() == 2 && row >= 0) { // 더블 클릭하면 해당 파일의 정보를 보여준다.
+                    setFileDetails(resultFiles.get(resultTable.convertRowIndexToModel(row)));
+                }
+            }
+        });
+        JScrollPane resultScroll = new JScrollPane(resultTable);
+        resultScroll.setPreferredSize(new Dimension(900, 400));
+
+        final JLabel statusLabel = new JLabel("Searching '" + query + "' in " + scopeDirectory + " ...");
+        JButton stopButton = new JButton("Stop");
+        stopButton.addActionListener(new ActionListener() {
+            public void actionPerformed(ActionEvent ae) {
+                searcher.cancel();
+            }
+        });
+        JPanel statusPanel = new JPanel(new BorderLayout(3, 3));
+        statusPanel.add(statusLabel, BorderLayout.CENTER);
+        statusPanel.add(stopButton, BorderLayout.EAST);
+
+        JFrame resultFrame = new JFrame("Search in files: " + query);
+        resultFrame.setLayout(new BorderLayout());
+        resultFrame.add(resultScroll, BorderLayout.CENTER);
+        resultFrame.add(statusPanel, BorderLayout.SOUTH);
+        resultFrame.addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosed(WindowEvent e) {
+                searcher.cancel(); // 창을 닫으면 검색도 중단한다.
+            }
+        });
+        resultFrame.setDefaultCloseOperation(WindowConstants.DISPOSE_ON_CLOSE);
+        resultFrame.pack();
+        resultFrame.setLocationRelativeTo(gui);
+        resultFrame.setVisible(true);
+        //-------------------------UI 구성 끝-----------------------
+
+        final long start = System.currentTimeMillis();
+        SwingWorker<Void, ContentSearcher.Match> worker = new SwingWorker<Void, ContentSearcher.Match>() {
+            private int candidateCount = -1; // 인덱스를 사용했을 때 후보 파일 수
+
+            @Override
+            public Void doInBackground() {
+                ForkJoinPool pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+                try {
+                    List<Path> candidates = null;
+                    if (indexedRoot != null) {
+                        try {
+                            candidates = getContentIndex(indexedRoot).candidates(query, scopeDirectory.toPath());
+                        } catch (IOException e) {
+                            e.printStackTrace(); // 인덱스를 읽을 수 없으면 전체 스캔으로 대신한다.
+                        }
+                    }
+                    if (candidates != null) {
+                        candidateCount = candidates.size();
+                        searcher.runFiles(pool, candidates, match -> publish(match));
+                    } else {
+                        searcher.run(pool, match -> publish(match));
+                    }
+                } finally {
+                    pool.shutdown();
+                }
+                return null;
+            }
+
+            @Override
+            protected void process(List<ContentSearcher.Match> chunks) {
+                for (ContentSearcher.Match match : chunks) {
+                    resultFiles.add(match.file);
+                    resultModel.addRow(new Object[]{match.file.getPath(), match.line, match.snippet});
+                }
+                statusLabel.setText(resultModel.getRowCount() + " matches, " + searcher.getFilesScanned() + " files scanned ...");
+            }
+
+            @Override
+            protected void done() {
+                stopButton.setEnabled(false);
+                statusLabel.setText(searcher.getMatchCount() + " matches in " + searcher.getFilesScanned() + " files ("
+                        + searcher.getBytesScanned() / 1024 + " KB, " + (System.currentTimeMillis() - start) + " ms"
+                        + (candidateCount >= 0 ? ", index: " + candidateCount + " candidates" : "") + ")"
+                        + (searcher.getMatchCount() >= MAX_CONTENT_MATCHES ? " - 결과가 너무 많아 일부만 표시합니다." : ""));
+            }
+        };
+        worker.execute();
+    }
+
+    JFrame diagnosticsFrame;
+
+    /**
+     * Metrics에 모인 작업별 소요 시간, 외부 프로세스 실행 횟수, 캐시 적중률을 보여주는 창을 연다. 이미 열려 있으면 앞으로 가져온다.
+     */
+    private void showDiagnostics() {
+        if (diagnosticsFrame == null) {
+            diagnosticsFrame = new JFrame("Diagnostics");
+            DiagnosticsPanel diagnosticsPanel = new DiagnosticsPanel();
+            EdtWatchdog watchdog = EdtWatchdog.getInstalled();
+            if (watchdog != null) {
+                diagnosticsPanel.addTab("EDT stalls", new EdtStallPanel(watchdog));
+            }
+            diagnosticsFrame.setContentPane(diagnosticsPanel);
+            diagnosticsFrame.setDefaultCloseOperation(WindowConstants.HIDE_ON_CLOSE);
+            diagnosticsFrame.pack();
+            diagnosticsFrame.setLocationRelativeTo(gui);
+        }
+        diagnosticsFrame.setVisible(true);
+        diagnosticsFrame.toFront();
+    }
+
+    /**
+     * 작업 트리에 남길 디렉토리를 고르고 git sparse-checkout으로 적용한다. 목록은 index의 최상위 디렉토리와 현재 포함된
+     * 디렉토리이며, 트리에서 선택한 디렉토리는 미리 선택해 둔다. 아무것도 고르지 않고 적용하거나 Disable을 누르면 끈다.
+     */
+    private void gitSparseCheckout() {
+        if (currentFile == null) { // 파일 선택되지 않았을 때 에러
+            showErrorMessage("No location selected for new file.", "Select Location");
+            return;
+        }
+
+        if (!((isFileSelectedInList && isFileInGitRepository()) || (!isFileSelectedInList && isTreeInGitRepository()))) { // git repository가 아닌 경우 에러
+            showErrorMessage("이 디렉토리는 git repository가 아닙니다.", "Not Git Repository");
+            return;
+        }
+        final File selected = currentFile;
+        SwingWorker<Object[], Void> worker = new SwingWorker<Object[], Void>() { // 큰 index를 읽으므로 백그라운드에서
+            @Override
+            public Object[] doInBackground() throws IOException {
+                FileRepositoryBuilder builder = new FileRepositoryBuilder();
+                File gitDir = builder.findGitDir(selected).getGitDir(); // .git 폴더 찾기
+                try (Repository repository = openRepository(builder.setGitDir(gitDir).readEnvironment().findGitDir())) {
+                    return new Object[]{repository.getWorkTree(), SparseCheckout.topLevelDirectories(repository),
+                            SparseCheckout.readCone(repository)};
+                }
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            protected void done() {
+                try {
+                    Object[] result = get();
+                    showSparseCheckout((File) result[0], selected, (List<String>) result[1], (SparseCheckout.Cone) result[2]);
+                } catch (Exception e) {
+                    e.printStackTrace();
+                    showErrorMessage("sparse checkout 정보를 읽는 중 오류가 발생했습니다.", "git sparse-checkout error");
+                }
+            }
+        };
+        worker.execute();
+    }
+
+    private void showSparseCheckout(final File workTree, File selected, List<String> topLevel, SparseCheckout.Cone cone) {
+        TreeSet<String> directories = new TreeSet<String>(topLevel);
+        List<String> included = cone == null ? Collections.<String>emptyList() : cone.directories;
+        directories.addAll(included);
+        String selectedPath = null;
+        File selectedDirectory = selected.isDirectory() ? selected : selected.getParentFile();
+        if (!selectedDirectory.equals(workTree) && selectedDirectory.getAbsolutePath().startsWith(workTree.getAbsolutePath())) {
+            selectedPath = workTree.toPath().relativize(selectedDirectory.toPath()).toString().replace(File.separatorChar, '/');
+            directories.add(selectedPath);
+        }
+
+        final DefaultListModel<String> model = new DefaultListModel<String>();
+        for (String directory : directories) {
+            model.addElement(directory);
+        }
+        final JList<String> list = new JList<String>(model);
+        list.setSelectionMode(ListSelectionModel.MULTIPLE_INTERVAL_SELECTION);
+        for (int i = 0; i < model.size(); i++) {
+            if (included.contains(model.get(i)) || model.get(i).equals(selectedPath)) {
+                list.addSelectionInterval(i, i);
+            }
+        }
+
+        final JFrame sparseFrame = new JFrame("Sparse checkout (" + workTree.getName() + ")");
+        JLabel stateLabel = new JLabel(cone == null
+                ? " Sparse checkout is off. Select the directories to keep (files in the root are always kept)."
+                : " " + included.size() + " directories are checked out. Select the directories to keep.");
+        JButton applyButton = new JButton("Apply");
+        JButton disableButton = new JButton("Disable");
+        JButton cancelButton = new JButton("Cancel");
+        JPanel buttonPanel = new JPanel();
+        buttonPanel.add(applyButton);
+        buttonPanel.add(disableButton);
+        buttonPanel.add(cancelButton);
+        sparseFrame.setLayout(new BorderLayout());
+        sparseFrame.add(stateLabel, BorderLayout.NORTH);
+        sparseFrame.add(new JScrollPane(list), BorderLayout.CENTER);
+        sparseFrame.add(buttonPanel, BorderLayout.SOUTH);
+        sparseFrame.setPreferredSize(new Dimension(520, 400));
+        sparseFrame.pack();
+        sparseFrame.setLocationRelativeTo(gui);
+        sparseFrame.setVisible(true);
+
+        applyButton.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                sparseFrame.dispose();
+                applySparseCheckout(workTree, list.getSelectedValuesList());
+            }
+        });
+        disableButton.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                sparseFrame.dispose();
+                applySparseCheckout(workTree, Collections.<String>emptyList());
+            }
+        });
+        cancelButton.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                sparseFrame.dispose();
+            }
+        });
+    }
+
+    /**
+     * git이 바뀐 경로만 작업 트리에서 꺼내거나 지운다. 끝나면 repository 디렉토리를 다시 읽고 status 색을 갱신한다.
+     */
+    private void applySparseCheckout(final File workTree, final List<String> directories) {
+        for (String directory : directories) {
+            if (!SparseCheckout.isValidDirectory(directory)) {
+                showErrorMessage("잘못된 디렉토리입니다: " + directory, "git sparse-checkout error");
+                return;
+            }
+        }
+        progressBar.setVisible(true);
+        progressBar.setIndeterminate(true);
+        SwingWorker<Void, Void> worker = new SwingWorker<Void, Void>() {
+            @Override
+            public Void doInBackground() throws IOException, InterruptedException {
+                SparseCheckout.apply(workTree, directories);
+                return null;
+            }
+
+            @Override
+            protected void done() {
+                progressBar.setIndeterminate(false);
+                progressBar.setVisible(false);
+                try {
+                    get();
+                    System.out.println("sparse-checkout: " + (directories.isEmpty() ? "disabled" : directories));
+                    TreePath workTreePath = findTreePath(workTree);
+                    if (workTreePath != null) {
+                        showChildren((DefaultMutableTreeNode) workTreePath.getLastPathComponent());
+                    }
+                    refreshGitStatusAsync(isFileSelectedInList);
+                } catch (ExecutionException e) {
+                    e.getCause().printStackTrace();
+                    showErrorMessage("sparse checkout을 적용하는 중 오류가 발생했습니다.\n" + e.getCause().getMessage(), "git sparse-checkout error");
+                } catch (InterruptedException e) {
+                    e.printStackTrace();
+                }
+            }
+        };
+        worker.execute();
+    }
+
+    /**
+     * 선택한 디렉토리 아래의 모든 git repository를 찾아 branch, 변경된 파일 수, ahead/behind를 표에 보여준다.
+     * repository마다 git status를 실행하지 않고 JGit으로 계산하며, 계산이 끝나는 대로 행을 추가한다.
+     */
+    private void gitRepositoryDashboard() {
+        if (currentFile == null) {
+            showErrorMessage("검색할 디렉토리를 선택해주세요.", "Select Directory");
+            return;
+        }
+        File scopeDirectory = currentFile.isDirectory() ? currentFile : currentFile.getParentFile();
+        final RepositoryScanner scanner = new RepositoryScanner(scopeDirectory.toPath().toAbsolutePath(),
+                Math.min(8, Runtime.getRuntime().availableProcessors()));
+
+        //--------------------결과 창 UI 구성----------------------
+        final DefaultTableModel resultModel = new DefaultTableModel(
+                new String[]{"Repository", "Branch", "Staged", "Modified", "Untracked", "Conflicts", "Ahead", "Behind", "Error"}, 0) {
+            public boolean isCellEditable(int row, int column) {
+                return false;
+            }
+
+            public Class<?> getColumnClass(int column) {
+                return column >= 2 && column <= 7 ? Integer.class : String.class;
+            }
+        };
+        final JTable resultTable = new JTable(resultModel);
+        resultTable.setAutoCreateRowSorter(true);
+        resultTable.getColumnModel().getColumn(0).setPreferredWidth(350);
+        resultTable.getColumnModel().getColumn(1).setPreferredWidth(120);
+        resultTable.getColumnModel().getColumn(8).setPreferredWidth(200);
+        final List<File> resultFiles = new ArrayList<File>(); // 결과 행과 같은 순서의 repository 목록
+        resultTable.addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                int row = resultTable.getSelectedRow();
+                if (e.getClickCount() == 2 && row >= 0) { // 더블 클릭하면 트리에서 해당 repository를 선택한다.
+                    selectInTree(resultFiles.get(resultTable.convertRowIndexToModel(row)));
+                }
+            }
+        });
+        JScrollPane resultScroll = new JScrollPane(resultTable);
+        resultScroll.setPreferredSize(new Dimension(1000, 400));
+
+        final JLabel statusLabel = new JLabel("Searching repositories in " + scopeDirectory + " ...");
+        final JButton stopButton = new JButton("Stop");
+        stopButton.addActionListener(new ActionListener() {
+            public void actionPerformed(ActionEvent ae) {
+                scanner.cancel();
+            }
+        });
+        JPanel statusPanel = new JPanel(new BorderLayout(3, 3));
+        statusPanel.add(statusLabel, BorderLayout.CENTER);
+        statusPanel.add(stopButton, BorderLayout.EAST);
+
+        JFrame resultFrame = new JFrame("Git dashboard: " + scopeDirectory);
+        resultFrame.setLayout(new BorderLayout());
+        resultFrame.add(resultScroll, BorderLayout.CENTER);
+        resultFrame.add(statusPanel, BorderLayout.SOUTH);
+        resultFrame.addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosed(WindowEvent e) {
+                scanner.cancel(); // 창을 닫으면 계산도 중단한다.
+            }
+        });
+        resultFrame.setDefaultCloseOperation(WindowConstants.DISPOSE_ON_CLOSE);
+        resultFrame.pack();
+        resultFrame.setLocationRelativeTo(gui);
+        resultFrame.setVisible(true);
+        //-------------------------UI 구성 끝-----------------------
+
+        final long start = System.currentTimeMillis();
+        SwingWorker<Void, RepositoryScanner.RepositoryStatus> worker = new SwingWorker<Void, RepositoryScanner.RepositoryStatus>() {
+            @Override
+            public Void doInBackground() throws InterruptedException {
+                ForkJoinPool pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+                try {
+                    scanner.run(pool, status -> publish(status));
+                } finally {
+                    pool.shutdown();
+                }
+                return null;
+            }
+
+            @Override
+            protected void process(List<RepositoryScanner.RepositoryStatus> chunks) {
+                for (RepositoryScanner.RepositoryStatus status : chunks) {
+                    resultFiles.add(status.directory.toFile());
+                    resultModel.addRow(new Object[]{status.directory.toString(), status.branch,
+                            status.staged, status.modified, status.untracked, status.conflicting,
+                            status.ahead < 0 ? null : status.ahead, status.behind < 0 ? null : status.behind, status.error});
+                }
+                statusLabel.setText(scanner.getCompletedCount() + " / " + scanner.getFoundCount() + " repositories ...");
+            }
+
+            @Override
+            protected void done() {
+                stopButton.setEnabled(false);
+                int dirty = 0;
+                for (int ii = 0; ii < resultModel.getRowCount(); ii++) {
+                    for (int column = 2; column <= 5; column++) {
+                        if ((Integer) resultModel.getValueAt(ii, column) > 0) {
+                            dirty++;
+                            break;
+                        }
+                    }
+                }
+                statusLabel.setText(scanner.isCancelled() ? "검색을 중단했습니다."
+                        : resultModel.getRowCount() + " repositories, " + dirty + " with uncommitted changes ("
+                        + (System.currentTimeMillis() - start) + " ms)");
+                try {
+                    get();
+                } catch (Exception e) {
+                    showThrowable(e);
+                }
+            }
+        };
+        worker.execute();
+    }
+
+    /**
+     * 선택한 디렉토리 아래의 중복 파일을 찾아 결과 창에 묶음별로 보여준다. 확보할 수 있는 공간이 큰 묶음부터 표시한다.
+     */
+    private void findDuplicates() {
+        if (currentFile == null) {
+            showErrorMessage("검색할 디렉토리를 선택해주세요.", "Select Directory");
+            return;
+        }
+        final File scopeDirectory = currentFile.isDirectory() ? currentFile : currentFile.getParentFile();
+        final DuplicateFinder finder = new DuplicateFinder(scopeDirectory.toPath().toAbsolutePath());
+
+        //--------------------결과 창 UI 구성----------------------
+        final DefaultTableModel resultModel = new DefaultTableModel(new String[]{"Group", "Size", "File"}, 0) {
+            public boolean isCellEditable(int row, int column) {
+                return false;
+            }
+
+            public Class<?> getColumnClass(int column) {
+                return column == 2 ? String.class : column == 0 ? Integer.class : Long.class;
+            }
+        };
+        final JTable resultTable = new JTable(resultModel);
+        resultTable.setAutoCreateRowSorter(true);
+        resultTable.getColumnModel().getColumn(0).setPreferredWidth(50);
+        resultTable.getColumnModel().getColumn(1).setPreferredWidth(100);
+        resultTable.getColumnModel().getColumn(2).setPreferredWidth(650);
+        final List<File> resultFiles = new ArrayList<File>(); // 결과 행과 같은 순서의 파일 목록
+        resultTable.addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                int row = resultTable.getSelectedRow();
+                if (e.getClickCount() == 2 && row >= 0) { // 더블 클릭하면 해당 파일의 정보를 보여준다.
+                    setFileDetails(resultFiles.get(resultTable.convertRowIndexToModel(row)));
+                }
+            }
+        });
+        JScrollPane resultScroll = new JScrollPane(resultTable);
+        resultScroll.setPreferredSize(new Dimension(800, 400));
+
+        final JLabel statusLabel = new JLabel("Scanning " + scopeDirectory + " ...");
+        final JButton stopButton = new JButton("Stop");
+        stopButton.addActionListener(new ActionListener() {
+            public void actionPerformed(ActionEvent ae) {
+                finder.cancel();
+            }
+        });
+        JPanel statusPanel = new JPanel(new BorderLayout(3, 3));
+        statusPanel.add(statusLabel, BorderLayout.CENTER);
+        statusPanel.add(stopButton, BorderLayout.EAST);
+
+        JFrame resultFrame = new JFrame("Duplicates: " + scopeDirectory);
+        resultFrame.setLayout(new BorderLayout());
+        resultFrame.add(resultScroll, BorderLayout.CENTER);
+        resultFrame.add(statusPanel, BorderLayout.SOUTH);
+        resultFrame.addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosed(WindowEvent e) {
+                finder.cancel(); // 창을 닫으면 검색도 중단한다.
+            }
+        });
+        resultFrame.setDefaultCloseOperation(WindowConstants.DISPOSE_ON_CLOSE);
+        resultFrame.pack();
+        resultFrame.setLocationRelativeTo(gui);
+        resultFrame.setVisible(true);
+        //-------------------------UI 구성 끝-----------------------
+
+        // 진행 상황은 1초에 몇 번만 갱신하면 충분하다.
+        final Timer progressTimer = new Timer(250, new ActionListener() {
+            public void actionPerformed(ActionEvent ae) {
+                statusLabel.setText(finder.getStage() + " ... " + finder.getFilesScanned() + " files, "
+                        + formatSize(finder.getBytesHashed()) + " hashed");
+            }
+        });
+        progressTimer.start();
+        final long start = System.currentTimeMillis();
+        SwingWorker<List<DuplicateFinder.Group>, Void> worker = new SwingWorker<List<DuplicateFinder.Group>, Void>() {
+            @Override
+            public List<DuplicateFinder.Group> doInBackground() {
+                ForkJoinPool pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+                try {
+                    return finder.run(pool);
+                } finally {
+                    pool.shutdown();
+                }
+            }
+
+            @Override
+            protected void done() {
+                progressTimer.stop();
+                stopButton.setEnabled(false);
+                try {
+                    List<DuplicateFinder.Group> groups = get();
+                    long reclaimable = 0;
+                    int duplicates = 0;
+                    for (int ii = 0; ii < groups.size(); ii++) {
+                        DuplicateFinder.Group group = groups.get(ii);
+                        for (Path path : group.files) {
+                            resultFiles.add(path.toFile());
+                            resultModel.addRow(new Object[]{ii + 1, group.size, path.toString()});
+                        }
+                        reclaimable += group.getReclaimableBytes();
+                        duplicates += group.files.size() - 1;
+                    }
+                    statusLabel.setText(finder.isCancelled() ? "검색을 중단했습니다."
+                            : groups.size() + " groups, " + duplicates + " duplicate files, " + formatSize(reclaimable)
+                            + " reclaimable (" + finder.getFilesScanned() + " files, " + formatSize(finder.getBytesHashed())
+                            + " hashed, " + (System.currentTimeMillis() - start) + " ms)");
+                } catch (Exception e) {
+                    showThrowable(e);
+                }
+            }
+        };
+        worker.execute();
+    }
+
+    /**
+     * 선택한 파일을 읽기 전용 뷰어로 연다. Desktop으로 여는 것과 달리 파일 전체를 메모리에 올리지 않으므로 수 GB짜리 로그도 볼 수 있다.
+     */
+    private void viewFile() {
+        if (currentFile == null || !currentFile.isFile()) {
+            showErrorMessage("볼 파일을 선택해주세요.", "Select File");
+            return;
+        }
+        final File source = currentFile;
+        withLocalFile(source, local -> showViewer(source, local));
+    }
+
+    private void showViewer(File source, File local) {
+        final MappedTextFile file;
+        try {
+            file = new MappedTextFile(local.toPath());
+        } catch (IOException e) {
+            e.printStackTrace();
+            showErrorMessage("파일을 열 수 없습니다.\n" + e.getMessage(), "View error");
+            return;
+        }
+        final LargeFileViewer viewer = new LargeFileViewer(file);
+        JFrame viewerFrame = new JFrame("View: " + source);
+        viewerFrame.setLayout(new BorderLayout());
+        viewerFrame.add(viewer, BorderLayout.CENTER);
+        viewerFrame.addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosed(WindowEvent e) {
+                viewer.close(); // 검색과 인덱싱을 멈추고 매핑을 놓는다.
+            }
+        });
+        viewerFrame.setDefaultCloseOperation(WindowConstants.DISPOSE_ON_CLOSE);
+        viewerFrame.pack();
+        viewerFrame.setLocationRelativeTo(gui);
+        viewerFrame.setVisible(true);
+    }
+
+    /**
+     * 선택한 파일을 hex 뷰어로 연다. 보이는 행만 읽으므로 파일 크기와 관계없이 바로 열린다.
+     */
+    private void hexViewFile() {
+        if (currentFile == null || !currentFile.isFile()) {
+            showErrorMessage("볼 파일을 선택해주세요.", "Select File");
+            return;
+        }
+        final File source = currentFile;
+        withLocalFile(source, local -> showHexViewer(source, local));
+    }
+
+    private void showHexViewer(File source, File local) {
+        final MappedFile file;
+        try {
+            file = new MappedFile(local.toPath());
+        } catch (IOException e) {
+            e.printStackTrace();
+            showErrorMessage("파일을 열 수 없습니다.\n" + e.getMessage(), "Hex view error");
+            return;
+        }
+        final HexViewer viewer = new HexViewer(file);
+        JFrame viewerFrame = new JFrame("Hex: " + source);
+        viewerFrame.setLayout(new BorderLayout());
+        viewerFrame.add(viewer, BorderLayout.CENTER);
+        viewerFrame.addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosed(WindowEvent e) {
+                viewer.close();
+            }
+        });
+        viewerFrame.setDefaultCloseOperation(WindowConstants.DISPOSE_ON_CLOSE);
+        viewerFrame.pack();
+        viewerFrame.setLocationRelativeTo(gui);
+        viewerFrame.setVisible(true);
+    }
+
+    /**
+     * file이 압축 파일 안의 항목이면 그 항목만 임시 디렉토리에 꺼낸 뒤, 아니면 바로 action을 EDT에서 실행한다.
+     */
+    private void withLocalFile(final File file, final Consumer<File> action) {
+        if (!(file instanceof ArchiveFile)) {
+            action.accept(file);
+            return;
+        }
+        progressBar.setVisible(true);
+        progressBar.setIndeterminate(true);
+        SwingWorker<File, Void> worker = new SwingWorker<File, Void>() {
+            @Override
+            public File doInBackground() throws IOException {
+                return ((ArchiveFile) file).extractToTemp();
+            }
+
+            @Override
+            protected void done() {
+                progressBar.setIndeterminate(false);
+                progressBar.setVisible(false);
+                try {
+                    action.accept(get());
+                } catch (InterruptedException | ExecutionException e) {
+                    e.printStackTrace();
+                    showErrorMessage("압축 파일에서 항목을 꺼낼 수 없습니다.\n" + e.getMessage(), "Extract error");
+                }
+            }
+        };
+        worker.execute();
+    }
+
+    /**
+     * 선택한 압축 파일 항목(디렉토리이면 하위 항목까지)을 고른 디렉토리로 꺼낸다. 압축 파일 전체를 풀지 않는다.
+     */
+    private void extractArchiveEntry() {
+        if (!(currentFile instanceof ArchiveFile)) {
+            showErrorMessage("꺼낼 압축 파일 항목을 선택해주세요.", "Select Entry");
+            return;
+        }
+        final ArchiveFile entry = (ArchiveFile) currentFile;
+        JFileChooser chooser = new JFileChooser(entry.getArchive().getParentFile());
+        chooser.setFileSelectionMode(JFileChooser.DIRECTORIES_ONLY);
+        chooser.setDialogTitle("Extract " + entry.getName());
+        if (chooser.showDialog(gui, "Extract") != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        final File target = new File(chooser.getSelectedFile(), entry.getName());
+        if (target.exists()) {
+            int result = JOptionPane.showConfirmDialog(gui, "'" + target + "' 을(를) 덮어쓸까요?", "Extract", JOptionPane.OK_CANCEL_OPTION);
+            if (result != JOptionPane.OK_OPTION) {
+                return;
+            }
+        }
+        progressBar.setVisible(true);
+        progressBar.setIndeterminate(true);
+        SwingWorker<Integer, Void> worker = new SwingWorker<Integer, Void>() {
+            @Override
+            public Integer doInBackground() throws IOException {
+                return entry.extractTo(target);
+            }
+
+            @Override
+            protected void done() {
+                progressBar.setIndeterminate(false);
+                progressBar.setVisible(false);
+                try {
+                    int count = get();
+                    System.out.println("Extracted " + count + " files to " + target);
+                } catch (InterruptedException | ExecutionException e) {
+                    e.printStackTrace();
+                    showErrorMessage("압축 파일에서 항목을 꺼낼 수 없습니다.\n" + e.getMessage(), "Extract error");
+                }
+            }
+        };
+        worker.execute();
+    }
+
+    /**
+     * 선택한 파일이나 디렉토리를 zip 또는 tar.gz로 압축한다. 만들어진 파일은 디렉토리 감시로 테이블에 나타난다.
+     */
+    private void compressFile() {
+        if (currentFile == null || currentFile instanceof ArchiveFile) {
+            showErrorMessage("압축할 파일이나 디렉토리를 선택해주세요.", "Select File");
+            return;
+        }
+        final File source = currentFile;
+        JComboBox<ArchiveCompressor.Format> formatBox = new JComboBox<ArchiveCompressor.Format>(ArchiveCompressor.Format.values());
+        JPanel formatPanel = new JPanel(new BorderLayout(3, 3));
+        formatPanel.add(new JLabel("Format"), BorderLayout.WEST);
+        formatPanel.add(formatBox);
+        if (JOptionPane.showConfirmDialog(gui, formatPanel, "Compress " + source.getName(), JOptionPane.OK_CANCEL_OPTION) != JOptionPane.OK_OPTION) {
+            return;
+        }
+        ArchiveCompressor.Format format = (ArchiveCompressor.Format) formatBox.getSelectedItem();
+        JFileChooser chooser = new JFileChooser(source.getAbsoluteFile().getParentFile());
+        chooser.setSelectedFile(new File(source.getAbsoluteFile().getParentFile(), source.getName() + format.suffix));
+        if (chooser.showSaveDialog(gui) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        File target = chooser.getSelectedFile();
+        if (target.exists()) {
+            int result = JOptionPane.showConfirmDialog(gui, "'" + target + "' 을(를) 덮어쓸까요?", "Compress", JOptionPane.OK_CANCEL_OPTION);
+            if (result != JOptionPane.OK_OPTION) {
+                return;
+            }
+        }
+        compressInBackground(new ArchiveCompressor(source, target, format));
+    }
+
+    /**
+     * 백그라운드에서 압축하면서 진행 상황 창을 띄운다. Cancel을 누르거나 창을 닫으면 중단하고 만들던 파일을 지운다.
+     */
+    private void compressInBackground(final ArchiveCompressor compressor) {
+        final File target = compressor.getTarget();
+        final JFrame progressFrame = new JFrame("Compress: " + target.getName());
+        final JLabel nameLabel = new JLabel("Scanning...");
+        final JLabel bytesLabel = new JLabel(" ");
+        final JProgressBar compressProgressBar = new JProgressBar(0, 1000);
+        compressProgressBar.setIndeterminate(true);
+        compressProgressBar.setStringPainted(true);
+        final JButton cancelButton = new JButton("Cancel");
+
+        JPanel labels = new JPanel(new GridLayout(2, 1));
+        labels.add(nameLabel);
+        labels.add(bytesLabel);
+        JPanel buttons = new JPanel();
+        buttons.add(cancelButton);
+        JPanel panel = new JPanel(new BorderLayout(3, 3));
+        panel.setBorder(new EmptyBorder(6, 6, 6, 6));
+        panel.add(labels, BorderLayout.NORTH);
+        panel.add(compressProgressBar, BorderLayout.CENTER);
+        panel.add(buttons, BorderLayout.SOUTH);
+        progressFrame.setContentPane(panel);
+        progressFrame.setDefaultCloseOperation(WindowConstants.DO_NOTHING_ON_CLOSE);
+
+        final ActionListener cancel = new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                compressor.cancel();
+                cancelButton.setEnabled(false);
+                nameLabel.setText("Cancelling...");
+            }
+        };
+        cancelButton.addActionListener(cancel);
+        progressFrame.addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosing(WindowEvent e) {
+                cancel.actionPerformed(null);
+            }
+        });
+        progressFrame.setPreferredSize(new Dimension(420, 130));
+        progressFrame.pack();
+        progressFrame.setLocationRelativeTo(gui);
+        progressFrame.setVisible(true);
+
+        final long start = System.currentTimeMillis();
+        SwingWorker<Long, Object[]> worker = new SwingWorker<Long, Object[]>() {
+            @Override
+            public Long doInBackground() throws IOException {
+                return compressor.call(new ArchiveCompressor.Listener() {
+                    public void progress(String name, long bytes, long totalBytes) {
+                        publish(new Object[]{name, bytes, totalBytes});
+                    }
+                });
+            }
+
+            @Override
+            protected void process(List<Object[]> chunks) {
+                if (compressor.isCancelled()) {
+                    return;
+                }
+                Object[] latest = chunks.get(chunks.size() - 1); // 중간 값은 건너뛴다.
+                long bytes = (Long) latest[1];
+                long totalBytes = (Long) latest[2];
+                long elapsed = Math.max(1, System.currentTimeMillis() - start);
+                nameLabel.setText(String.valueOf(latest[0]));
+                bytesLabel.setText(formatSize(bytes) + " / " + formatSize(totalBytes) + " (" + formatSize(bytes * 1000 / elapsed) + "/s)");
+                compressProgressBar.setIndeterminate(false);
+                compressProgressBar.setValue(totalBytes == 0 ? 1000 : (int) (bytes * 1000 / totalBytes));
+            }
+
+            @Override
+            protected void done() {
+                progressFrame.dispose();
+                try {
+                    long size = get();
+                    System.out.println("Compressed to " + target + " (" + formatSize(size) + ") in "
+                            + (System.currentTimeMillis() - start) + " ms");
+                } catch (ExecutionException e) {
+                    if (compressor.isCancelled()) {
+                        JOptionPane.showMessageDialog(gui, "압축을 취소했습니다.");
+                    } else {
+                        e.getCause().printStackTrace();
+                        showErrorMessage("압축하는 과정에서 오류가 발생했습니다.\n" + e.getCause().getMessage(), "Compress error");
+                    }
+                } catch (InterruptedException e) {
+                    e.printStackTrace();
+                }
+            }
+        };
+        worker.execute();
+    }
+
+    /**
+     * 선택한 파일이나 디렉토리의 체크섬을 계산하거나, manifest에 기록된 값과 비교한다.
+     */
+    private void checksumFile() {
+        if (currentFile == null || currentFile instanceof ArchiveFile) {
+            showErrorMessage("체크섬을 계산할 파일이나 디렉토리를 선택해주세요.", "Select File");
+            return;
+        }
+        final File source = currentFile;
+        JRadioButton compute = new JRadioButton("Compute for " + source.getName(), true);
+        JRadioButton verify = new JRadioButton("Verify against a manifest");
+        ButtonGroup modes = new ButtonGroup();
+        modes.add(compute);
+        modes.add(verify);
+        Map<ChecksumCalculator.Algorithm, JCheckBox> algorithmBoxes = new EnumMap<ChecksumCalculator.Algorithm, JCheckBox>(ChecksumCalculator.Algorithm.class);
+        JPanel algorithmPanel = new JPanel(new GridLayout(1, 0, 2, 2));
+        for (ChecksumCalculator.Algorithm algorithm : ChecksumCalculator.Algorithm.values()) {
+            JCheckBox box = new JCheckBox(algorithm.label, algorithm != ChecksumCalculator.Algorithm.SHA_1);
+            algorithmBoxes.put(algorithm, box);
+            algorithmPanel.add(box);
+        }
+        JPanel optionPanel = new JPanel(new GridLayout(0, 1, 2, 2));
+        optionPanel.add(compute);
+        optionPanel.add(algorithmPanel);
+        optionPanel.add(verify);
+        if (JOptionPane.showConfirmDialog(gui, optionPanel, "Checksum", JOptionPane.OK_CANCEL_OPTION) != JOptionPane.OK_OPTION) {
+            return;
+        }
+
+        if (verify.isSelected()) {
+            JFileChooser chooser = new JFileChooser(source.isDirectory() ? source : source.getAbsoluteFile().getParentFile());
+            if (source.isFile()) {
+                chooser.setSelectedFile(source);
+            }
+            chooser.setDialogTitle("Manifest");
+            if (chooser.showOpenDialog(gui) != JFileChooser.APPROVE_OPTION) {
+                return;
+            }
+            final File manifest = chooser.getSelectedFile();
+            showChecksums("Verify: " + manifest, source, () -> ChecksumCalculator.forManifest(manifest));
+        } else {
+            final Set<ChecksumCalculator.Algorithm> algorithms = EnumSet.noneOf(ChecksumCalculator.Algorithm.class);
+            for (Map.Entry<ChecksumCalculator.Algorithm, JCheckBox> entry : algorithmBoxes.entrySet()) {
+                if (entry.getValue().isSelected()) {
+                    algorithms.add(entry.getKey());
+                }
+            }
+            if (algorithms.isEmpty()) {
+                showErrorMessage("알고리즘을 하나 이상 골라주세요.", "Select Algorithm");
+                return;
+            }
+            showChecksums("Checksum: " + source, source, () -> ChecksumCalculator.forTree(source, algorithms));
+        }
+    }
+
+    /**
+     * prepare로 만든 ChecksumCalculator를 백그라운드에서 실행하고 결과를 표로 보여준다. 결과는 manifest로 내보낼 수 있다.
+     */
+    private void showChecksums(String title, final File source, final Callable<ChecksumCalculator> prepare) {
+        final DefaultTableModel resultModel = new DefaultTableModel(0, 0) {
+            public boolean isCellEditable(int row, int column) {
+                return false;
+            }
+
+            public Class<?> getColumnClass(int column) {
+                return column == 1 ? Long.class : String.class;
+            }
+        };
+        final JTable resultTable = new JTable(resultModel);
+        resultTable.setAutoCreateRowSorter(true);
+        JScrollPane resultScroll = new JScrollPane(resultTable);
+        resultScroll.setPreferredSize(new Dimension(900, 400));
+
+        final JLabel statusLabel = new JLabel("Scanning " + source + " ...");
+        final JButton stopButton = new JButton("Stop");
+        stopButton.setEnabled(false);
+        final JButton exportButton = new JButton("Export...");
+        exportButton.setEnabled(false);
+        JPanel buttons = new JPanel();
+        buttons.add(exportButton);
+        buttons.add(stopButton);
+        JPanel statusPanel = new JPanel(new BorderLayout(3, 3));
+        statusPanel.add(statusLabel, BorderLayout.CENTER);
+        statusPanel.add(buttons, BorderLayout.EAST);
+
+        JFrame resultFrame = new JFrame(title);
+        resultFrame.setLayout(new BorderLayout());
+        resultFrame.add(resultScroll, BorderLayout.CENTER);
+        resultFrame.add(statusPanel, BorderLayout.SOUTH);
+        resultFrame.setDefaultCloseOperation(WindowConstants.DISPOSE_ON_CLOSE);
+        resultFrame.pack();
+        resultFrame.setLocationRelativeTo(gui);
+        resultFrame.setVisible(true);
+
+        final long start = System.currentTimeMillis();
+        final AtomicReference<ChecksumCalculator> calculator = new AtomicReference<ChecksumCalculator>();
+        stopButton.addActionListener(new ActionListener() {
+            public void actionPerformed(ActionEvent ae) {
+                calculator.get().cancel();
+            }
+        });
+        resultFrame.addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosed(WindowEvent e) {
+                if (calculator.get() != null) {
+                    calculator.get().cancel(); // 창을 닫으면 계산도 중단한다.
+                }
+            }
+        });
+        // 진행 상황은 1초에 몇 번만 갱신하면 충분하다.
+        final Timer progressTimer = new Timer(250, new ActionListener() {
+            public void actionPerformed(ActionEvent ae) {
+                ChecksumCalculator current = calculator.get();
+                if (current != null) {
+                    long bytes = current.getBytesHashed();
+                    statusLabel.setText("Hashing ... " + current.getFilesHashed() + " / " + current.getFileCount() + " files, "
+                            + formatSize(bytes) + " / " + formatSize(current.getTotalBytes())
+                            + " (" + formatSize(bytes * 1000 / Math.max(1, System.currentTimeMillis() - start)) + "/s)");
+                }
+            }
+        });
+        progressTimer.start();
+        SwingWorker<List<ChecksumCalculator.Result>, Void> worker = new SwingWorker<List<ChecksumCalculator.Result>, Void>() {
+            @Override
+            public List<ChecksumCalculator.Result> doInBackground() throws Exception {
+                ChecksumCalculator current = prepare.call();
+                calculator.set(current);
+                SwingUtilities.invokeLater(() -> stopButton.setEnabled(true));
+                ForkJoinPool pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+                try {
+                    return current.run(pool);
+                } finally {
+                    pool.shutdown();
+                }
+            }
+
+            @Override
+            protected void done() {
+                progressTimer.stop();
+                stopButton.setEnabled(false);
+                final List<ChecksumCalculator.Result> results;
+                try {
+                    results = get();
+                } catch (InterruptedException | ExecutionException e) {
+                    e.printStackTrace();
+                    statusLabel.setText("Failed: " + e.getCause());
+                    return;
+                }
+                ChecksumCalculator current = calculator.get();
+                Vector<Object> columns = new Vector<Object>(Arrays.asList("File", "Size"));
+                columns.addAll(current.getAlgorithms());
+                columns.add("Status");
+                // 한 행씩 addRow하면 행마다 row sorter가 다시 정렬하므로 모든 행을 만든 뒤 한 번에 넣는다.
+                Vector<Vector<Object>> rows = new Vector<Vector<Object>>(results.size());
+                Map<ChecksumCalculator.Status, Integer> counts = new EnumMap<ChecksumCalculator.Status, Integer>(ChecksumCalculator.Status.class);
+                for (ChecksumCalculator.Result result : results) {
+                    Vector<Object> row = new Vector<Object>();
+                    row.add(result.name);
+                    row.add(result.size);
+                    for (ChecksumCalculator.Algorithm algorithm : current.getAlgorithms()) {
+                        row.add(result.checksums.get(algorithm));
+                    }
+                    ChecksumCalculator.Status status = result.getStatus();
+                    row.add(result.error != null ? status + ": " + result.error.getMessage() : status.toString());
+                    rows.add(row);
+                    counts.merge(status, 1, Integer::sum);
+                }
+                resultModel.setDataVector(rows, columns);
+                resultTable.getColumnModel().getColumn(0).setPreferredWidth(350);
+                long elapsed = System.currentTimeMillis() - start;
+                StringBuilder summary = new StringBuilder(current.isCancelled() ? "Stopped: " : "");
+                for (Map.Entry<ChecksumCalculator.Status, Integer> entry : counts.entrySet()) {
+                    summary.append(entry.getKey()).append(' ').append(entry.getValue()).append(", ");
+                }
+                summary.append(formatSize(current.getBytesHashed())).append(" in ").append(elapsed).append(" ms");
+                statusLabel.setText(summary.toString());
+                System.out.println("Checksums: " + summary);
+                exportButton.setEnabled(!current.isCancelled());
+                exportButton.addActionListener(new ActionListener() {
+                    public void actionPerformed(ActionEvent ae) {
+                        exportChecksums(source, results);
+                    }
+                });
+            }
+        };
+        worker.execute();
+    }
+
+    private void exportChecksums(File source, List<ChecksumCalculator.Result> results) {
+        File directory = source.getAbsoluteFile().getParentFile();
+        JFileChooser chooser = new JFileChooser(directory);
+        chooser.setSelectedFile(new File(directory, source.getName() + ".checksums"));
+        if (chooser.showSaveDialog(gui) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        try {
+            ChecksumCalculator.writeManifest(chooser.getSelectedFile(), results);
+        } catch (IOException e) {
+            e.printStackTrace();
+            showErrorMessage("manifest를 저장할 수 없습니다.\n" + e.getMessage(), "Export error");
+        }
+    }
+
+    /**
+     * 선택한 디렉토리 아래를 병렬로 스캔하면서 디스크 사용량 treemap과 확장자별 합계를 주기적으로 갱신해 보여준다.
+     * 타일을 클릭하면 트리에서 그 디렉토리를 선택한다.
+     */
+    private void showDiskUsage() {
+        if (currentFile == null) {
+            showErrorMessage("디스크 사용량을 볼 디렉토리를 선택해주세요.", "Select Directory");
+            return;
+        }
+        File scopeDirectory = currentFile.isDirectory() ? currentFile : currentFile.getParentFile();
+        final DiskUsageScanner scanner = new DiskUsageScanner(scopeDirectory.toPath().toAbsolutePath());
+
+        //--------------------결과 창 UI 구성----------------------
+        final DiskUsageView view = new DiskUsageView(scanner, path -> selectInTree(path.toFile()));
+
+        final DefaultTableModel typeModel = new DefaultTableModel(new String[]{"Type", "Size", "Files"}, 0) {
+            public boolean isCellEditable(int row, int column) {
+                return false;
+            }
+
+            public Class<?> getColumnClass(int column) {
+                return column == 0 ? String.class : Long.class;
+            }
+        };
+        JTable typeTable = new JTable(typeModel);
+        typeTable.setAutoCreateRowSorter(true);
+        JScrollPane typeScroll = new JScrollPane(typeTable);
+        typeScroll.setPreferredSize(new Dimension(250, 500));
+
+        final JLabel statusLabel = new JLabel("Scanning " + scopeDirectory + " ...");
+        JButton upButton = new JButton("Up");
+        upButton.addActionListener(new ActionListener() {
+            public void actionPerformed(ActionEvent ae) {
+                view.zoomOut();
+            }
+        });
+        final JButton stopButton = new JButton("Stop");
+        stopButton.addActionListener(new ActionListener() {
+            public void actionPerformed(ActionEvent ae) {
+                scanner.cancel();
+            }
+        });
+        JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.TRAILING, 3, 0));
+        buttonPanel.add(upButton);
+        buttonPanel.add(stopButton);
+        JPanel statusPanel = new JPanel(new BorderLayout(3, 3));
+        statusPanel.add(statusLabel, BorderLayout.CENTER);
+        statusPanel.add(buttonPanel, BorderLayout.EAST);
+
+        JFrame resultFrame = new JFrame("Disk usage: " + scopeDirectory);
+        resultFrame.setLayout(new BorderLayout());
+        resultFrame.add(view, BorderLayout.CENTER);
+        resultFrame.add(typeScroll, BorderLayout.EAST);
+        resultFrame.add(statusPanel, BorderLayout.SOUTH);
+        resultFrame.addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosed(WindowEvent e) {
+                scanner.cancel(); // 창을 닫으면 스캔도 중단한다.
+            }
+        });
+        resultFrame.setDefaultCloseOperation(WindowConstants.DISPOSE_ON_CLOSE);
+        resultFrame.pack();
+        resultFrame.setLocationRelativeTo(gui);
+        resultFrame.setVisible(true);
+        //-------------------------UI 구성 끝-----------------------
+
+        final long start = System.currentTimeMillis();
+        final Runnable refresh = new Runnable() {
+            public void run() {
+                view.repaint();
+                List<Map.Entry<String, DiskUsageScanner.TypeStats>> types =
+                        new ArrayList<Map.Entry<String, DiskUsageScanner.TypeStats>>(scanner.getTypes().entrySet());
+                typeModel.setRowCount(0);
+                for (Map.Entry<String, DiskUsageScanner.TypeStats> type : types) {
+                    typeModel.addRow(new Object[]{type.getKey(), type.getValue().bytes.sum(), type.getValue().files.sum()});
+                }
+                statusLabel.setText(view.getCurrentPath() + " - " + formatSize(scanner.getRootNode().getSize()) + " in "
+                        + scanner.getFilesScanned() + " files, " + scanner.getDirectoriesScanned() + " directories");
+            }
+        };
+        // 스캔하는 동안 주기적으로 다시 그려서 treemap이 점점 세밀해지도록 한다.
+        final Timer refreshTimer = new Timer(500, new ActionListener() {
+            public void actionPerformed(ActionEvent ae) {
+                refresh.run();
+            }
+        });
+        refreshTimer.start();
+        SwingWorker<Void, Void> worker = new SwingWorker<Void, Void>() {
+            @Override
             public Void doInBackground() {
-                File file = (File) node.getUserObject();
-                if (file.isDirectory()) {
-                    File[] files = fileSystemView.getFiles(file, true); // !!
-                    if (node.isLeaf()) {
-                        for (File child : files) {
-                            if (child.isDirectory()) {
-                                publish(child);
-                            }
-                        }
-                    }
-                    setTableData(files);
+                ForkJoinPool pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+                try {
+                    scanner.run(pool);
+                } finally {
+                    pool.shutdown();
                 }
                 return null;
             }
 
             @Override
-            protected void process(List<File> chunks) {
-                for (File child : chunks) {
-                    node.add(new DefaultMutableTreeNode(child));
+            protected void done() {
+                refreshTimer.stop();
+                stopButton.setEnabled(false);
+                refresh.run();
+                System.out.println("Disk usage of " + scanner.getRoot() + ": " + scanner.getFilesScanned() + " files in "
+                        + (System.currentTimeMillis() - start) + " ms" + (scanner.isCancelled() ? " (cancelled)" : ""));
+            }
+        };
+        worker.execute();
+    }
+
+    /**
+     * target 디렉토리까지 트리 노드를 따라 내려가 선택한다. 아직 읽지 않은 디렉토리는 경로상의 노드만 만들어 두고,
+     * 나머지 하위 디렉토리는 그 노드를 선택할 때 showChildren이 채운다.
+     */
+    private void selectInTree(File target) {
+        DefaultMutableTreeNode node = findOrCreateTreeNode(target.toPath());
+        if (node == null) {
+            return; // 트리의 어느 루트에도 속하지 않는 경로
+        }
+        TreePath treePath = new TreePath(node.getPath());
+        tree.setSelectionPath(treePath);
+        tree.scrollPathToVisible(treePath);
+    }
+
+    /**
+     * target 디렉토리의 트리 노드를 찾는다. 경로상에 아직 없는 노드는 만들어서 추가하고, 어느 루트에도 속하지 않으면 null.
+     */
+    private DefaultMutableTreeNode findOrCreateTreeNode(Path target) {
+        Path targetPath = target.toAbsolutePath().normalize();
+        DefaultMutableTreeNode node = (DefaultMutableTreeNode) treeModel.getRoot();
+        while (!(node.getUserObject() instanceof File && ((File) node.getUserObject()).toPath().toAbsolutePath().equals(targetPath))) {
+            DefaultMutableTreeNode next = null;
+            for (int ii = 0; ii < node.getChildCount() && next == null; ii++) {
+                DefaultMutableTreeNode child = (DefaultMutableTreeNode) node.getChildAt(ii);
+                if (child.getUserObject() instanceof File
+                        && targetPath.startsWith(((File) child.getUserObject()).toPath().toAbsolutePath())) {
+                    next = child;
+                }
+            }
+            if (next == null) {
+                if (!(node.getUserObject() instanceof File)) {
+                    return null;
                 }
+                Path parentPath = ((File) node.getUserObject()).toPath().toAbsolutePath();
+                File childFile = new File((File) node.getUserObject(), parentPath.relativize(targetPath).getName(0).toString());
+                next = new DefaultMutableTreeNode(childFile);
+                treeModel.insertNodeInto(next, node, node.getChildCount());
+            }
+            node = next;
+        }
+        return node;
+    }
+
+    static String formatSize(long bytes) {
+        if (bytes < 1024) {
+            return bytes + " B";
+        }
+        int unit = (63 - Long.numberOfLeadingZeros(bytes)) / 10;
+        return String.format("%.1f %sB", bytes / (double) (1L << (unit * 10)), "KMGTPE".charAt(unit - 1));
+    }
+
+    private ContentIndex getContentIndex(Path root) throws IOException {
+        ContentIndex index = contentIndexes.get(root);
+        if (index != null) {
+            Metrics.cacheHit("contentIndex");
+        } else {
+            Metrics.cacheMiss("contentIndex");
+            index = ContentIndex.open(root);
+            contentIndexes.put(root, index);
+        }
+        return index;
+    }
+
+    /**
+     * 선택한 디렉토리(상위 디렉토리에 이미 인덱스가 있으면 그 루트)의 내용 인덱스를 만들거나, 바뀐 파일만 다시 읽어 갱신한다.
+     */
+    private void indexContents() {
+        if (currentFile == null) {
+            showErrorMessage("인덱스를 만들 디렉토리를 선택해주세요.", "Select Directory");
+            return;
+        }
+        File directory = currentFile.isDirectory() ? currentFile : currentFile.getParentFile();
+        Path indexedRoot = ContentIndex.findIndexedRoot(directory.toPath());
+        final Path root = indexedRoot != null ? indexedRoot : directory.toPath().toAbsolutePath().normalize();
+
+        progressBar.setVisible(true);
+        progressBar.setIndeterminate(true);
+        final long start = System.currentTimeMillis();
+        SwingWorker<ContentIndex, Integer> worker = new SwingWorker<ContentIndex, Integer>() {
+            @Override
+            public ContentIndex doInBackground() throws IOException {
+                ContentIndex index = getContentIndex(root);
+                index.update(ForkJoinPool.commonPool(), (indexed, changed) -> publish(indexed * 100 / changed));
+                return index;
+            }
+
+            @Override
+            protected void process(List<Integer> chunks) {
+                progressBar.setIndeterminate(false);
+                progressBar.setValue(chunks.get(chunks.size() - 1));
             }
 
             @Override
             protected void done() {
                 progressBar.setIndeterminate(false);
                 progressBar.setVisible(false);
-                tree.setEnabled(true);
+                try {
+                    ContentIndex index = get();
+                    System.out.println("Indexed contents of " + index.getDocumentCount() + " files under " + root + " in "
+                            + (System.currentTimeMillis() - start) + " ms");
+                } catch (Exception e) {
+                    showThrowable(e);
+                }
+            }
+        };
+        worker.execute();
+    }
+
+    private DefaultMutableTreeNode findChildNode(DefaultMutableTreeNode parent, File file) {
+        for (int ii = 0; ii < parent.getChildCount(); ii++) {
+            DefaultMutableTreeNode child = (DefaultMutableTreeNode) parent.getChildAt(ii);
+            if (file.equals(child.getUserObject())) {
+                return child;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 감시 스레드에서 받은 이벤트를 EDT로 넘겨 트리와 테이블에 반영하는 DirectoryWatcher를 생성한다.
+     * WatchService를 지원하지 않는 환경에서는 null을 반환하고, 기존처럼 선택할 때만 목록이 갱신된다.
+     */
+    private DirectoryWatcher createDirectoryWatcher() {
+        try {
+            return new DirectoryWatcher(MAX_WATCHED_DIRECTORIES, new DirectoryWatcher.Listener() {
+                public void created(final Path dir, final Path child) {
+                    SwingUtilities.invokeLater(() -> fileCreated(dir, child.toFile()));
+                }
+
+                public void deleted(final Path dir, final Path child) {
+                    SwingUtilities.invokeLater(() -> fileDeleted(dir, child.toFile()));
+                }
+
+                public void modified(final Path dir, final Path child) {
+                    SwingUtilities.invokeLater(() -> fileModified(dir, child.toFile()));
+                }
+
+                public void overflow(final Path dir) {
+                    SwingUtilities.invokeLater(() -> rescanDirectory(dir));
+                }
+            });
+        } catch (IOException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    private void watchTreeNode(DefaultMutableTreeNode node) {
+        if (directoryWatcher == null || !(node.getUserObject() instanceof File)) {
+            return;
+        }
+        if (node.getUserObject() instanceof ArchiveFile || ArchiveFile.isArchive((File) node.getUserObject())) {
+            return; // 압축 파일 안은 감시할 수 없다. 압축 파일 자체의 변경은 상위 디렉토리 감시로 알 수 있다.
+        }
+        Path dir = ((File) node.getUserObject()).toPath();
+        if (directoryWatcher.register(dir)) {
+            watchedTreeNodes.put(dir, node);
+        }
+    }
+
+    /**
+     * node와 그 하위 노드 중 감시 중인 것을 모두 감시 목록에서 뺀다. 같은 경로를 다른 노드가 감시 중이면 그대로 둔다.
+     */
+    private void unwatchSubtree(DefaultMutableTreeNode node) {
+        if (directoryWatcher == null) {
+            return;
+        }
+        Enumeration<?> nodes = node.depthFirstEnumeration();
+        while (nodes.hasMoreElements()) {
+            DefaultMutableTreeNode child = (DefaultMutableTreeNode) nodes.nextElement();
+            if (!(child.getUserObject() instanceof File)) {
+                continue;
+            }
+            File file = (File) child.getUserObject();
+            Path dir = file.toPath();
+            if (watchedTreeNodes.get(dir) != child) {
+                continue;
+            }
+            boolean attached = child.getRoot() == treeModel.getRoot();
+            if (file.equals(tableDirectory)) { // 테이블에 표시 중인 디렉토리는 계속 감시한다.
+                if (!attached) {
+                    watchedTreeNodes.remove(dir);
+                }
+                continue;
+            }
+            watchedTreeNodes.remove(dir);
+            directoryWatcher.unregister(dir);
+        }
+    }
+
+    /**
+     * 테이블에 표시하는 디렉토리를 바꾸면서 감시 대상도 옮긴다. 이전 디렉토리가 트리에서 펼쳐져 있다면 계속 감시한다.
+     */
+    private void watchTableDirectory(DefaultMutableTreeNode node) {
+        File previous = tableDirectory;
+        tableDirectory = (File) node.getUserObject();
+        if (directoryWatcher == null) {
+            return;
+        }
+        watchTreeNode(node);
+        if (previous != null && !previous.equals(tableDirectory)) {
+            DefaultMutableTreeNode previousNode = watchedTreeNodes.get(previous.toPath());
+            if (previousNode == null || !tree.isExpanded(new TreePath(previousNode.getPath()))) {
+                directoryWatcher.unregister(previous.toPath());
+                watchedTreeNodes.remove(previous.toPath());
+            }
+        }
+    }
+
+    private boolean isTableDirectory(Path dir) {
+        return fileTableModel != null && tableDirectory != null && tableDirectory.toPath().equals(dir);
+    }
+
+    /**
+     * 테이블 모델을 부분적으로 변경한다. 행이 바뀌는 동안 선택 리스너가 잘못된 행을 읽지 않도록 잠시 떼어 놓는다.
+     */
+    private void updateTableModel(Runnable update) {
+        table.getSelectionModel().removeListSelectionListener(listSelectionListener);
+        update.run();
+        table.getSelectionModel().addListSelectionListener(listSelectionListener);
+    }
+
+    private void fileCreated(Path dir, final File file) {
+        if (fileSystemView.isHiddenFile(file)) { // getFiles(dir, true)와 동일하게 숨김 파일은 표시하지 않는다.
+            return;
+        }
+        DefaultMutableTreeNode parentNode = watchedTreeNodes.get(dir);
+        if (parentNode != null && file.isDirectory() && findChildNode(parentNode, file) == null) {
+            treeModel.insertNodeInto(new DefaultMutableTreeNode(file), parentNode, parentNode.getChildCount());
+        }
+        if (isTableDirectory(dir)) {
+            updateTableModel(() -> fileTableModel.addFile(file));
+        }
+    }
+
+    private void fileDeleted(Path dir, final File file) {
+        DefaultMutableTreeNode parentNode = watchedTreeNodes.get(dir);
+        if (parentNode != null) {
+            DefaultMutableTreeNode node = findChildNode(parentNode, file);
+            if (node != null) {
+                treeModel.removeNodeFromParent(node);
+            }
+        }
+        watchedTreeNodes.remove(file.toPath());
+        if (isTableDirectory(dir)) {
+            updateTableModel(() -> fileTableModel.removeFile(file));
+        }
+    }
+
+    private void fileModified(Path dir, File file) {
+        if (isTableDirectory(dir)) {
+            fileTableModel.updateFile(file);
+            if (thumbnailCache != null && showThumbnails.isSelected()) {
+                thumbnailCache.refresh(file);
+            }
+        }
+    }
+
+    /**
+     * 이벤트가 유실되었을 때(OVERFLOW) 디렉토리를 다시 읽어 트리 노드와 테이블을 실제 내용에 맞춘다.
+     */
+    private void rescanDirectory(final Path dir) {
+        SwingWorker<File[], Void> worker = new SwingWorker<File[], Void>() {
+            @Override
+            public File[] doInBackground() {
+                return fileSystemView.getFiles(dir.toFile(), true);
+            }
+
+            @Override
+            protected void done() {
+                File[] files;
+                try {
+                    files = get();
+                } catch (Exception e) {
+                    e.printStackTrace();
+                    return;
+                }
+                DefaultMutableTreeNode node = watchedTreeNodes.get(dir);
+                if (node != null) {
+                    Set<File> directories = new HashSet<File>();
+                    for (File file : files) {
+                        if (file.isDirectory()) {
+                            directories.add(file);
+                        }
+                    }
+                    for (int ii = node.getChildCount() - 1; ii >= 0; ii--) {
+                        DefaultMutableTreeNode child = (DefaultMutableTreeNode) node.getChildAt(ii);
+                        if (!directories.remove(child.getUserObject())) {
+                            treeModel.removeNodeFromParent(child);
+                        }
+                    }
+                    for (File directory : directories) {
+                        treeModel.insertNodeInto(new DefaultMutableTreeNode(directory), node, node.getChildCount());
+                    }
+                }
+                if (isTableDirectory(dir)) {
+                    setTableData(files);
+                }
             }
         };
         worker.execute();
@@ -2585,9 +5024,9 @@ public class FileManager {
      */
     private void setFileDetails(File file) {
         currentFile = file;
-        Icon icon = fileSystemView.getSystemIcon(file);
+        Icon icon = ArchiveFile.getSystemIcon(fileSystemView, file);
         fileName.setIcon(icon);
-        fileName.setText(fileSystemView.getSystemDisplayName(file));
+        fileName.setText(ArchiveFile.getSystemDisplayName(fileSystemView, file));
         path.setText(file.getPath());
         date.setText(new Date(file.lastModified()).toString());
         size.setText(file.length() + " bytes");
@@ -2600,40 +5039,57 @@ public class FileManager {
 
         JFrame f = (JFrame) gui.getTopLevelAncestor();
         if (f != null) {
-            f.setTitle(APP_TITLE + " :: " + fileSystemView.getSystemDisplayName(file));
+            f.setTitle(APP_TITLE + " :: " + ArchiveFile.getSystemDisplayName(fileSystemView, file));
         }
 
         gui.repaint();
     }
 
     public static boolean copyFile(File from, File to) throws IOException {
+        Metrics.Sample sample = Metrics.start("fs.copy");
+        FlightEvents.FileCopy event = new FlightEvents.FileCopy();
+        event.begin();
+        try {
+            boolean created = to.createNewFile();
+            event.copied = created;
 
-        boolean created = to.createNewFile();
-
-        if (created) {
-            FileChannel fromChannel = null;
-            FileChannel toChannel = null;
-            try {
-                fromChannel = new FileInputStream(from).getChannel();
-                toChannel = new FileOutputStream(to).getChannel();
-
-                toChannel.transferFrom(fromChannel, 0, fromChannel.size());
-
-                // set the flags of the to the same as the from
-                to.setReadable(from.canRead());
-                to.setWritable(from.canWrite());
-                to.setExecutable(from.canExecute());
-            } finally {
-                if (fromChannel != null) {
-                    fromChannel.close();
-                }
-                if (toChannel != null) {
-                    toChannel.close();
+            if (created) {
+                FileChannel fromChannel = null;
+                FileChannel toChannel = null;
+                try {
+                    fromChannel = new FileInputStream(from).getChannel();
+                    toChannel = new FileOutputStream(to).getChannel();
+
+                    toChannel.transferFrom(fromChannel, 0, fromChannel.size());
+
+                    // set the flags of the to the same as the from
+                    to.setReadable(from.canRead());
+                    to.setWritable(from.canWrite());
+                    to.setExecutable(from.canExecute());
+                } finally {
+                    if (fromChannel != null) {
+                        fromChannel.close();
+                    }
+                    if (toChannel != null) {
+                        toChannel.close();
+                    }
+                    return false;
                 }
-                return false;
+            }
+            return created;
+        } catch (IOException | RuntimeException e) {
+            sample.error();
+            event.copied = false;
+            throw e;
+        } finally {
+            sample.stop();
+            if (event.shouldCommit()) {
+                event.source = from.getPath();
+                event.destination = to.getPath();
+                event.bytes = to.length();
+                event.commit();
             }
         }
-        return created;
     }
 
     JFrame cloneFrame;
@@ -2706,17 +5162,33 @@ public class FileManager {
         privatePanel.add(labelPanel, BorderLayout.WEST);
         privatePanel.add(inputPanel, BorderLayout.CENTER);
 
+        //큰 repository를 적게 받기 위한 옵션 (git clone --depth, --branch, --single-branch, --no-checkout)
+        JPanel optionsPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        JSpinner depthSpinner = new JSpinner(new SpinnerNumberModel(0, 0, Integer.MAX_VALUE, 1)); // 0이면 전체 history
+        depthSpinner.setPreferredSize(new Dimension(70, 20));
+        JTextField branchTextField = new JTextField();
+        branchTextField.setPreferredSize(new Dimension(100, 20));
+        JCheckBox singleBranchCheckBox = new JCheckBox("Single branch");
+        JCheckBox noCheckoutCheckBox = new JCheckBox("No checkout");
+        optionsPanel.add(new JLabel("Depth (0 = all):"));
+        optionsPanel.add(depthSpinner);
+        optionsPanel.add(new JLabel("Branch:"));
+        optionsPanel.add(branchTextField);
+        optionsPanel.add(singleBranchCheckBox);
+        optionsPanel.add(noCheckoutCheckBox);
+
         JButton okButton = new JButton("Ok"), cancelButton = new JButton("Cancel");
         buttonPanel = new JPanel();
         buttonPanel.add(okButton);
         buttonPanel.add(cancelButton);
 
+        cloneFrame.add(optionsPanel, BorderLayout.NORTH);
         cloneFrame.add(publicPanel, BorderLayout.CENTER);
         cloneFrame.add(jpRadioButtons, BorderLayout.WEST);
         cloneFrame.add(buttonPanel, BorderLayout.SOUTH);
         cloneFrame.setVisible(true);
         cloneFrame.setLocationRelativeTo(null);
-        cloneFrame.setPreferredSize(new Dimension(500, 120));
+        cloneFrame.setPreferredSize(new Dimension(680, 150));
         cloneFrame.pack();
         jbrPublic.addActionListener(new ActionListener() {//public 입력창으로 변환.
             @Override
@@ -2739,12 +5211,24 @@ public class FileManager {
         okButton.addActionListener(new ActionListener() {
             @Override
             public void actionPerformed(ActionEvent e) {
+                String url = jbrPublic.isSelected() ? publicUrlTextField.getText() : privateUrlTextField.getText();
+                File directory = new File(currentFile, findFileNameFromURL(url));
+                String[] existing = directory.list();
+                if (!url.isEmpty() && existing != null && existing.length > 0) { // git clone과 마찬가지로 비어 있지 않은 디렉토리에는 받지 않는다.
+                    showErrorMessage("이미 같은 이름의 디렉토리가 있습니다: " + directory.getName(), "git clone error");
+                    return;
+                }
+                RepositoryCloner cloner = new RepositoryCloner(url, directory)
+                        .setDepth((Integer) depthSpinner.getValue())
+                        .setBranch(branchTextField.getText().trim())
+                        .setSingleBranch(singleBranchCheckBox.isSelected())
+                        .setNoCheckout(noCheckoutCheckBox.isSelected());
                 if (jbrPublic.isSelected()) {
                     if (publicUrlTextField.getText().isEmpty()) {
                         showErrorMessage("Github Repository Address를 입력해주세요.", "Empty URL");
                         return;
                     }
-                    gitClonePublic(publicUrlTextField.getText());
+                    gitClonePublic(cloner);
                 } else if (jbrPrivate.isSelected()) {
                     if (privateUrlTextField.getText().isEmpty()) {
                         showErrorMessage("Github Repository Address를 입력해주세요.", "Empty URL");
@@ -2757,7 +5241,7 @@ public class FileManager {
                         return;
                     }
 
-                    gitClonePrivate(privateUrlTextField.getText(), idTextField.getText(), tokenTextField.getText());
+                    gitClonePrivate(cloner, idTextField.getText(), tokenTextField.getText());
                 }
                 cloneFrame.dispose();
             }
@@ -2771,70 +5255,14 @@ public class FileManager {
 
     }
 
-    private void gitClonePublic(String RepositoryURL) {
-        try {
-            int result = JOptionPane.showConfirmDialog(cloneFrame, "Public Repository를 Clone하시겠습니까?", "git clone public", JOptionPane.ERROR_MESSAGE);
-
-            if (result == JOptionPane.OK_OPTION) { // "예" 클릭 시 git clone 명령어 실행
-                String[] gitCloneCommand = {"git", "clone", RepositoryURL};
-                ProcessBuilder processBuilder = new ProcessBuilder(gitCloneCommand);
-                processBuilder.directory(currentFile);
-                Process process = processBuilder.start();
-                int cloneStatus = process.waitFor(); //git clone 명령어 정상 실행 여부
-
-                if (cloneStatus == 0) { // git clone 명령어가 정상적으로 실행되어 status가 0일 경우
-                    JOptionPane.showMessageDialog(cloneFrame, "성공적으로 Repository를 clone 했습니다.");
-                    System.out.println("Cloned");
-
-                    TreePath parentPath = findTreePath(currentFile);
-                    DefaultMutableTreeNode parentNode = (DefaultMutableTreeNode) parentPath.getLastPathComponent();
-                    DefaultMutableTreeNode newNode = new DefaultMutableTreeNode(findRenamedFile(currentFile, findFileNameFromURL(RepositoryURL)));
-                    treeModel.insertNodeInto(newNode, parentNode, parentNode.getChildCount());
-                    showChildren(parentNode);
-
-                } else { //git clone 명령어가 정상적으로 실행되지 않았을 경우
-                    showErrorMessage("파일을 Clone하는 과정에서 오류가 발생했습니다.", "git clone error");
-                }
-            }
-            gui.repaint();
-        } catch (InterruptedException | IOException e) {
-            e.printStackTrace();
-        }
-        DefaultMutableTreeNode newNode = new DefaultMutableTreeNode(findFileNameFromURL(RepositoryURL));
-
-
+    private void gitClonePublic(RepositoryCloner cloner) {
+        cloneInBackground(cloner);
     }
 
-    private void gitClonePrivate(String RepositoryURL, String id, String token) {
-        try {
-            int result = JOptionPane.showConfirmDialog(cloneFrame, "Private Repository를 Clone하시겠습니까?", "git clone private", JOptionPane.ERROR_MESSAGE);
-
-            if (result == JOptionPane.OK_OPTION) { // "예" 클릭 시 git clone 명령어 실행
-                String[] gitCloneCommand = {"git", "clone", "https://" + id + ":" + token + "@" + RepositoryURL.substring(8)};
-                ProcessBuilder processBuilder = new ProcessBuilder(gitCloneCommand);
-                processBuilder.directory(currentFile);
-                Process process = processBuilder.start();
-                int cloneStatus = process.waitFor(); //git clone 명령어 정상 실행 여부
-
-                if (cloneStatus == 0) { // git clone 명령어가 정상적으로 실행되어 status가 0일 경우
-                    JOptionPane.showMessageDialog(cloneFrame, "성공적으로 Repository를 clone 했습니다.");
-                    System.out.println("Cloned");
-
-                    TreePath parentPath = findTreePath(currentFile);
-                    DefaultMutableTreeNode parentNode = (DefaultMutableTreeNode) parentPath.getLastPathComponent();
-                    DefaultMutableTreeNode newNode = new DefaultMutableTreeNode(findRenamedFile(currentFile, findFileNameFromURL(RepositoryURL)));
-                    treeModel.insertNodeInto(newNode, parentNode, parentNode.getChildCount());
-                    showChildren(parentNode);
-                } else { //git clone 명령어가 정상적으로 실행되지 않았을 경우
-                    showErrorMessage("파일을 Clone하는 과정에서 오류가 발생했습니다.", "git clone error");
-                    return;
-                }
-            }
+    private void gitClonePrivate(RepositoryCloner cloner, String id, String token) {
+        // URL에 id와 token을 넣으면 .git/config의 remote url에 그대로 남으므로 인증 정보로 넘긴다.
+        cloneInBackground(cloner.setCredentials(new UsernamePasswordCredentialsProvider(id, token)));
 
-            gui.repaint();
-        } catch (InterruptedException | IOException e) {
-            e.printStackTrace();
-        }
         //파일 입출력으로 정보 저장해주기
         boolean ifExist = false;
         FileWriter fw = null;
@@ -2914,10 +5342,114 @@ public class FileManager {
         }
     }
 
-    private String findFileNameFromURL(String Repositoryurl) {//clone한 디렉토리 이름 parsing.
-        String[] strArray = Repositoryurl.split("/");
-        strArray[strArray.length - 1] = strArray[strArray.length - 1].substring(0, strArray[strArray.length - 1].length() - 4);
-        return strArray[strArray.length - 1];
+    private String findFileNameFromURL(String Repositoryurl) {//clone한 디렉토리 이름 parsing. 예: https://host/a/b.git, /srv/b.git/, host:b -> b
+        String name = Repositoryurl.trim().replaceAll("[/\\\\]+$", "");
+        name = name.substring(Math.max(Math.max(name.lastIndexOf('/'), name.lastIndexOf('\\')), name.lastIndexOf(':')) + 1);
+        return name.endsWith(".git") ? name.substring(0, name.length() - 4) : name;
+    }
+
+    /**
+     * 백그라운드에서 clone하면서 진행 상황 창을 띄운다. Cancel을 누르거나 창을 닫으면 clone을 중단하고 만들던 디렉토리를 지운다.
+     * 끝나면 clone한 디렉토리를 트리에 추가한다.
+     */
+    private void cloneInBackground(final RepositoryCloner cloner) {
+        final File directory = cloner.getDirectory();
+        final JFrame progressFrame = new JFrame("git clone: " + directory.getName());
+        final JLabel taskLabel = new JLabel("Connecting...");
+        final JLabel bytesLabel = new JLabel(" ");
+        final JProgressBar cloneProgressBar = new JProgressBar();
+        cloneProgressBar.setIndeterminate(true);
+        cloneProgressBar.setStringPainted(true);
+        final JButton cancelButton = new JButton("Cancel");
+
+        JPanel labels = new JPanel(new GridLayout(2, 1));
+        labels.add(taskLabel);
+        labels.add(bytesLabel);
+        JPanel buttons = new JPanel();
+        buttons.add(cancelButton);
+        JPanel panel = new JPanel(new BorderLayout(3, 3));
+        panel.setBorder(new EmptyBorder(6, 6, 6, 6));
+        panel.add(labels, BorderLayout.NORTH);
+        panel.add(cloneProgressBar, BorderLayout.CENTER);
+        panel.add(buttons, BorderLayout.SOUTH);
+        progressFrame.setContentPane(panel);
+        progressFrame.setDefaultCloseOperation(WindowConstants.DO_NOTHING_ON_CLOSE);
+
+        final ActionListener cancel = new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                cloner.cancel();
+                cancelButton.setEnabled(false);
+                taskLabel.setText("Cancelling...");
+            }
+        };
+        cancelButton.addActionListener(cancel);
+        progressFrame.addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosing(WindowEvent e) {
+                cancel.actionPerformed(null);
+            }
+        });
+        progressFrame.setPreferredSize(new Dimension(420, 130));
+        progressFrame.pack();
+        progressFrame.setLocationRelativeTo(gui);
+        progressFrame.setVisible(true);
+
+        SwingWorker<File, Object[]> worker = new SwingWorker<File, Object[]>() {
+            @Override
+            public File doInBackground() throws GitAPIException {
+                return cloner.call(new RepositoryCloner.Listener() {
+                    public void progress(String task, int completed, int total, long bytes) {
+                        publish(new Object[]{task, completed, total, bytes});
+                    }
+                });
+            }
+
+            @Override
+            protected void process(List<Object[]> chunks) {
+                if (cloner.isCancelled()) {
+                    return;
+                }
+                Object[] latest = chunks.get(chunks.size() - 1); // 중간 값은 건너뛴다.
+                int completed = (Integer) latest[1];
+                int total = (Integer) latest[2];
+                taskLabel.setText(latest[0] + ": " + completed + (total > 0 ? " / " + total : ""));
+                bytesLabel.setText("Received: " + FileUtils.byteCountToDisplaySize((Long) latest[3]));
+                cloneProgressBar.setIndeterminate(total <= 0);
+                if (total > 0) {
+                    cloneProgressBar.setMaximum(total);
+                    cloneProgressBar.setValue(completed);
+                }
+            }
+
+            @Override
+            protected void done() {
+                progressFrame.dispose();
+                try {
+                    get();
+                    JOptionPane.showMessageDialog(gui, "성공적으로 Repository를 clone 했습니다.");
+                    System.out.println("Cloned");
+
+                    TreePath parentPath = findTreePath(directory.getParentFile()); // 그 사이에 선택이 바뀌었을 수 있다.
+                    if (parentPath != null) {
+                        DefaultMutableTreeNode parentNode = (DefaultMutableTreeNode) parentPath.getLastPathComponent();
+                        treeModel.insertNodeInto(new DefaultMutableTreeNode(directory), parentNode, parentNode.getChildCount());
+                        showChildren(parentNode);
+                    }
+                } catch (ExecutionException e) {
+                    if (cloner.isCancelled()) {
+                        JOptionPane.showMessageDialog(gui, "clone을 취소했습니다.");
+                    } else {
+                        e.getCause().printStackTrace();
+                        showErrorMessage("파일을 Clone하는 과정에서 오류가 발생했습니다.\n" + e.getCause().getMessage(), "git clone error");
+                    }
+                } catch (InterruptedException e) {
+                    e.printStackTrace();
+                }
+                gui.repaint();
+            }
+        };
+        worker.execute();
     }
 
     private boolean has_gitFile() {//현재 디렉토리에 .git파일이 있는지 검사하는 함수
@@ -2928,7 +5460,7 @@ public class FileManager {
         int gitStatus = -1;
 
         try {
-            process = processBuilder.start(); //git status 명령어를 선택한 파일의 경로에서 실행하여 git이 있는지 확인
+            process = Metrics.startProcess(processBuilder); //git status 명령어를 선택한 파일의 경로에서 실행하여 git이 있는지 확인
             gitStatus = process.waitFor(); //만일 git status가 잘 실행됐다면 git repository에 있다는 것이고, 아니라면 에러코드를 반환
             if (gitStatus == 0) {
                 return true;
@@ -2942,19 +5474,26 @@ public class FileManager {
     }
 
     public static void main(String[] args) {
+        final StartupTimer startupTimer = new StartupTimer();
+        Metrics.registerMBean();
+        EdtWatchdog.install(); // 시작 중의 이벤트도 재도록 GUI를 만들기 전에 설치한다.
         SwingUtilities.invokeLater(new Runnable() {
             public void run() {
+                startupTimer.mark("event queue");
                 try {
                     // Significantly improves the look of the output in
                     // terms of the file names returned by FileSystemView!
                     UIManager.setLookAndFeel(UIManager.getSystemLookAndFeelClassName());
                 } catch (Exception weTried) {
                 }
+                startupTimer.mark("look and feel");
                 JFrame f = new JFrame(APP_TITLE);
                 f.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
 
                 FileManager fileManager = new FileManager();
+                fileManager.startupTimer = startupTimer;
                 f.setContentPane(fileManager.getGui());
+                startupTimer.mark("build gui");
 
                 try {
                     URL urlBig = fileManager.getClass().getResource("fm-icon-32x32.png");
@@ -2970,6 +5509,15 @@ public class FileManager {
                 f.setLocationByPlatform(true);
                 f.setMinimumSize(f.getSize());
                 f.setVisible(true);
+                startupTimer.mark("show frame");
+                f.addWindowListener(new WindowAdapter() {
+                    @Override
+                    public void windowClosing(WindowEvent e) {
+                        fileManager.saveSession(); // 다음 실행 때 같은 화면에서 시작하도록 저장
+                        fileManager.closeWatchers();
+                        ArchiveFile.closeAll();
+                    }
+                });
 
                 fileManager.showRootFile();
             }
@@ -2977,92 +5525,6 @@ public class FileManager {
     }
 }
 
-/**
- * A TableModel to hold File[].
- */
-class FileTableModel extends AbstractTableModel {
-
-    private File[] files;
-    private FileSystemView fileSystemView = FileSystemView.getFileSystemView();
-    private String[] columns = {"Icon", "File", "Path/name", "Size", "Last Modified", "R", "W", "E", "D", "F",};
-
-    FileTableModel() {
-        this(new File[0]);
-    }
-
-    FileTableModel(File[] files) {
-        this.files = files;
-    }
-
-    public Object getValueAt(int row, int column) {
-        File file = files[row];
-        switch (column) {
-            case 0:
-                return fileSystemView.getSystemIcon(file);
-            case 1:
-                return fileSystemView.getSystemDisplayName(file);
-            case 2:
-                return file.getPath();
-            case 3:
-                return file.length();
-            case 4:
-                return file.lastModified();
-            case 5:
-                return file.canRead();
-            case 6:
-                return file.canWrite();
-            case 7:
-                return file.canExecute();
-            case 8:
-                return file.isDirectory();
-            case 9:
-                return file.isFile();
-            default:
-                System.err.println("Logic Error");
-        }
-        return "";
-    }
-
-    public int getColumnCount() {
-        return columns.length;
-    }
-
-    public Class<?> getColumnClass(int column) {
-        switch (column) {
-            case 0:
-                return ImageIcon.class;
-            case 3:
-                return Long.class;
-            case 4:
-                return Date.class;
-            case 5:
-            case 6:
-            case 7:
-            case 8:
-            case 9:
-                return Boolean.class;
-        }
-        return String.class;
-    }
-
-    public String getColumnName(int column) {
-        return columns[column];
-    }
-
-    public int getRowCount() {
-        return files.length;
-    }
-
-    public File getFile(int row) {
-        return files[row];
-    }
-
-    public void setFiles(File[] files) {
-        this.files = files;
-        fireTableDataChanged();
-    }
-}
-
 /**
  * A TreeCellRenderer for a File.
  */
@@ -3083,8 +5545,8 @@ class FileTreeCellRenderer extends DefaultTreeCellRenderer {
 
         DefaultMutableTreeNode node = (DefaultMutableTreeNode) value;
         File file = (File) node.getUserObject();
-        label.setIcon(fileSystemView.getSystemIcon(file));
-        label.setText(fileSystemView.getSystemDisplayName(file));
+        label.setIcon(ArchiveFile.getSystemIcon(fileSystemView, file));
+        label.setText(ArchiveFile.getSystemDisplayName(fileSystemView, file));
         label.setToolTipText(file.getPath());
 
         if (selected) {
@@ -0,0 +1,458 @@
+/*
+The MIT License
+
+Copyright (c) 2015-2023 Valentyn Kolesnikov (https://github.com/javadev/file-manager)
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package com.github.filemanager;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+/**
+ * 선택한 루트 아래의 모든 파일 이름을 메모리에 올려두고 부분 문자열/글롭 검색을 하는 인덱스.
+ *
+ * <p>파일 이름(경로의 마지막 구성 요소)의 소문자 trigram마다 파일 id의 posting 목록을 유지한다. id는 추가 순서대로
+ * 증가하므로 posting 목록은 항상 정렬되어 있고, 검색은 가장 짧은 목록부터 교집합을 구한 뒤 후보만 실제 이름과 비교한다.
+ * 삭제된 파일은 id를 재사용하지 않고 deleted 비트만 세운다. 디렉토리를 지울 때 전체를 훑지 않도록 부모 디렉토리별 자식 id
+ * 목록도 유지한다.
+ *
+ * <p>루트는 ForkJoinPool에서 디렉토리 단위로 병렬 탐색하며, 탐색하면서 먼저 방문한 maxWatchedDirectories개의
+ * 디렉토리를 자체 DirectoryWatcher에 등록해 이후의 생성/삭제를 인덱스에 반영한다. 한도를 넘는 깊은 디렉토리의 변경은
+ * 해당 범위를 다시 검색(인덱스 재생성)할 때 반영된다.
+ */
+class FileNameIndex implements Closeable {
+
+    /**
+     * 검색 결과를 이만큼 모을 때마다 잠금을 풀고 consumer에 전달한다.
+     */
+    private static final int SEARCH_BATCH_SIZE = 256;
+
+    private final Path root;
+    private final ForkJoinPool pool;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /* id -> 경로. 이름은 nameStart[id]부터의 부분 문자열이다. */
+    private String[] paths = new String[1024];
+    private int[] nameStart = new int[1024];
+    private int count = 0;
+    private final BitSet deleted = new BitSet();
+    private final BitSet directories = new BitSet();
+    private final Map<String, Integer> ids = new HashMap<String, Integer>();
+    private final Map<Long, IntList> postings = new HashMap<Long, IntList>();
+    /* 부모 디렉토리 경로(끝의 구분자 제외) -> 자식 id. 지워진 id가 남아 있을 수 있다. */
+    private final Map<String, IntList> children = new HashMap<String, IntList>();
+
+    private final DirectoryWatcher watcher;
+
+    FileNameIndex(Path root, ForkJoinPool pool, int maxWatchedDirectories) {
+        this.root = root;
+        this.pool = pool;
+        DirectoryWatcher directoryWatcher = null;
+        try {
+            directoryWatcher = new DirectoryWatcher(maxWatchedDirectories, new DirectoryWatcher.Listener() {
+                public void created(Path dir, Path child) {
+                    if (Files.isDirectory(child, LinkOption.NOFOLLOW_LINKS)) {
+                        index(child);
+                    } else {
+                        add(child, false);
+                    }
+                }
+
+                public void deleted(Path dir, Path child) {
+                    remove(child);
+                }
+
+                public void modified(Path dir, Path child) {
+                    // 이름만 인덱싱하므로 내용 변경은 무시한다.
+                }
+
+                public void overflow(Path dir) {
+                    removeChildren(dir);
+                    index(dir);
+                }
+            });
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        this.watcher = directoryWatcher;
+    }
+
+    Path getRoot() {
+        return root;
+    }
+
+    /**
+     * 루트 아래를 병렬로 탐색해 인덱스를 채운다. 탐색이 끝날 때까지 반환하지 않는다.
+     */
+    void build() {
+        add(root, true);
+        pool.invoke(new WalkTask(root));
+    }
+
+    /**
+     * 디렉토리 하나를 (하위 포함) 비동기로 다시 인덱싱한다. 감시 이벤트에서 호출된다.
+     */
+    private void index(Path dir) {
+        add(dir, true);
+        pool.execute(new WalkTask(dir));
+    }
+
+    int size() {
+        lock.readLock().lock();
+        try {
+            return count - deleted.cardinality();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void add(Path path, boolean directory) {
+        lock.writeLock().lock();
+        try {
+            addLocked(path.toString(), directory);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void addAll(List<Path> batch, BitSet batchDirectories) {
+        lock.writeLock().lock();
+        try {
+            for (int ii = 0; ii < batch.size(); ii++) {
+                addLocked(batch.get(ii).toString(), batchDirectories.get(ii));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void addLocked(String path, boolean directory) {
+        if (ids.containsKey(path)) {
+            return;
+        }
+        if (count == paths.length) {
+            paths = Arrays.copyOf(paths, count * 2);
+            nameStart = Arrays.copyOf(nameStart, count * 2);
+        }
+        int id = count++;
+        int start = path.lastIndexOf(File.separatorChar) + 1;
+        paths[id] = path;
+        nameStart[id] = start;
+        ids.put(path, id);
+        if (directory) {
+            directories.set(id);
+        }
+        String parent = directoryKey(path.substring(0, Math.max(start - 1, 0)));
+        IntList siblings = children.get(parent);
+        if (siblings == null) {
+            siblings = new IntList();
+            children.put(parent, siblings);
+        }
+        siblings.add(id);
+        String name = path.substring(start).toLowerCase(Locale.ROOT);
+        for (int ii = 0; ii + 3 <= name.length(); ii++) {
+            Long trigram = trigram(name, ii);
+            IntList list = postings.get(trigram);
+            if (list == null) {
+                list = new IntList();
+                postings.put(trigram, list);
+            }
+            // 같은 이름 안에서 trigram이 반복되면 마지막 값과 같으므로 중복 추가하지 않는다.
+            if (list.size == 0 || list.values[list.size - 1] != id) {
+                list.add(id);
+            }
+        }
+    }
+
+    /**
+     * 경로를 인덱스에서 지운다. 디렉토리였다면 하위 항목도 함께 지운다.
+     */
+    void remove(Path path) {
+        lock.writeLock().lock();
+        try {
+            Integer id = ids.remove(path.toString());
+            if (id == null) {
+                return;
+            }
+            deleted.set(id);
+            if (directories.get(id)) {
+                removeChildrenLocked(path.toString());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void removeChildren(Path dir) {
+        lock.writeLock().lock();
+        try {
+            removeChildrenLocked(dir.toString());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * dir 아래의 항목을 부모별 자식 목록을 따라 지운다. 지우는 항목 수에만 비례하고 인덱스 크기와는 무관하다.
+     */
+    private void removeChildrenLocked(String dir) {
+        List<String> pending = new ArrayList<String>();
+        pending.add(directoryKey(dir));
+        while (!pending.isEmpty()) {
+            IntList list = children.remove(pending.remove(pending.size() - 1));
+            if (list == null) {
+                continue;
+            }
+            for (int ii = 0; ii < list.size; ii++) {
+                int id = list.values[ii];
+                if (deleted.get(id)) {
+                    continue;
+                }
+                deleted.set(id);
+                ids.remove(paths[id]);
+                if (directories.get(id)) {
+                    pending.add(directoryKey(paths[id]));
+                }
+            }
+        }
+    }
+
+    /**
+     * 루트("/", "C:\")처럼 구분자로 끝나는 경로와 부모 경로를 같은 키로 맞춘다.
+     */
+    private static String directoryKey(String dir) {
+        return dir.endsWith(File.separator) ? dir.substring(0, dir.length() - 1) : dir;
+    }
+
+    /**
+     * scope 아래에서 이름이 query와 일치하는 파일을 찾는다. query에 '*'나 '?'가 있으면 글롭으로, 아니면 대소문자를
+     * 구분하지 않는 부분 문자열로 취급한다.
+     *
+     * @return 찾은 파일 수 (limit 이하)
+     */
+    int search(String query, Path scope, int limit, Consumer<Path> consumer) {
+        String lowerQuery = query.toLowerCase(Locale.ROOT);
+        boolean glob = lowerQuery.indexOf('*') >= 0 || lowerQuery.indexOf('?') >= 0;
+        Pattern pattern = glob ? Pattern.compile(globToRegex(lowerQuery)) : null;
+        String literal = glob ? longestLiteral(lowerQuery) : lowerQuery;
+        String scopePrefix = scope == null || scope.equals(root) ? null : scope.toString() + File.separator;
+
+        List<Path> batch = new ArrayList<Path>();
+        IntList candidates = null;
+        int position = 0;
+        int found = 0;
+        boolean first = true;
+        while (found < limit) {
+            lock.readLock().lock();
+            try {
+                if (first) {
+                    candidates = candidates(literal); // 교집합은 복사본이므로 잠금을 풀었다가 다시 잡아도 그대로 쓸 수 있다.
+                    first = false;
+                }
+                int size = candidates == null ? count : candidates.size;
+                for (; position < size && found + batch.size() < limit && batch.size() < SEARCH_BATCH_SIZE; position++) {
+                    int id = candidates == null ? position : candidates.values[position];
+                    if (deleted.get(id)) {
+                        continue;
+                    }
+                    String path = paths[id];
+                    if (scopePrefix != null && !path.startsWith(scopePrefix)) {
+                        continue;
+                    }
+                    String name = path.substring(nameStart[id]).toLowerCase(Locale.ROOT);
+                    if (glob ? pattern.matcher(name).matches() : name.contains(lowerQuery)) {
+                        batch.add(root.getFileSystem().getPath(path));
+                    }
+                }
+                if (batch.isEmpty()) {
+                    break; // 끝까지 훑었다.
+                }
+            } finally {
+                lock.readLock().unlock();
+            }
+            // consumer는 UI 쪽 코드를 호출할 수 있으므로 잠금을 푼 뒤에 찾은 만큼씩 전달한다.
+            for (Path path : batch) {
+                consumer.accept(path);
+            }
+            found += batch.size();
+            batch.clear();
+        }
+        return found;
+    }
+
+    /**
+     * literal의 모든 trigram posting 목록의 교집합을 구한다. literal이 3글자보다 짧으면 null(전체 검색)을 반환한다.
+     */
+    private IntList candidates(String literal) {
+        if (literal.length() < 3) {
+            return null;
+        }
+        List<IntList> lists = new ArrayList<IntList>();
+        for (int ii = 0; ii + 3 <= literal.length(); ii++) {
+            IntList list = postings.get(trigram(literal, ii));
+            if (list == null) {
+                return new IntList();
+            }
+            lists.add(list);
+        }
+        lists.sort((a, b) -> Integer.compare(a.size, b.size));
+        IntList result = lists.get(0).copy();
+        for (int ii = 1; ii < lists.size() && result.size > 0; ii++) {
+            result = result.intersect(lists.get(ii));
+        }
+        return result;
+    }
+
+    private static Long trigram(String s, int offset) {
+        return ((long) s.charAt(offset) << 32) | ((long) s.charAt(offset + 1) << 16) | s.charAt(offset + 2);
+    }
+
+    static String globToRegex(String glob) {
+        StringBuilder regex = new StringBuilder();
+        for (char c : glob.toCharArray()) {
+            if (c == '*') {
+                regex.append(".*");
+            } else if (c == '?') {
+                regex.append('.');
+            } else {
+                regex.append(Pattern.quote(String.valueOf(c)));
+            }
+        }
+        return regex.toString();
+    }
+
+    private static String longestLiteral(String glob) {
+        String longest = "";
+        for (String part : glob.split("[*?]")) {
+            if (part.length() > longest.length()) {
+                longest = part;
+            }
+        }
+        return longest;
+    }
+
+    @Override
+    public void close() {
+        if (watcher != null) {
+            try {
+                watcher.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * 디렉토리 하나의 항목을 모아 한 번에 추가하고, 하위 디렉토리마다 새 작업을 만든다.
+     */
+    private class WalkTask extends RecursiveAction {
+
+        private final Path dir;
+
+        WalkTask(Path dir) {
+            this.dir = dir;
+        }
+
+        @Override
+        protected void compute() {
+            if (watcher != null) {
+                watcher.tryRegister(dir);
+            }
+            List<Path> batch = new ArrayList<Path>();
+            BitSet batchDirectories = new BitSet();
+            List<WalkTask> subtasks = new ArrayList<WalkTask>();
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir)) {
+                for (Path child : stream) {
+                    boolean directory = Files.isDirectory(child, LinkOption.NOFOLLOW_LINKS);
+                    if (directory) {
+                        batchDirectories.set(batch.size());
+                        subtasks.add(new WalkTask(child));
+                    }
+                    batch.add(child);
+                }
+            } catch (IOException | SecurityException e) {
+                // 권한이 없는 디렉토리는 건너뛴다.
+                return;
+            }
+            addAll(batch, batchDirectories);
+            invokeAll(subtasks);
+        }
+    }
+
+    /**
+     * boxing 없이 int id를 담는 posting 목록.
+     */
+    private static class IntList {
+
+        int[] values = new int[4];
+        int size = 0;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        IntList copy() {
+            IntList list = new IntList();
+            list.values = Arrays.copyOf(values, Math.max(size, 1));
+            list.size = size;
+            return list;
+        }
+
+        IntList intersect(IntList other) {
+            IntList result = new IntList();
+            int ii = 0;
+            int jj = 0;
+            while (ii < size && jj < other.size) {
+                if (values[ii] < other.values[jj]) {
+                    ii++;
+                } else if (values[ii] > other.values[jj]) {
+                    jj++;
+                } else {
+                    result.add(values[ii]);
+                    ii++;
+                    jj++;
+                }
+            }
+            return result;
+        }
+    }
+}
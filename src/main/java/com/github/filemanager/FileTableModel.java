@@ -0,0 +1,184 @@
+/*
+The MIT License
+
+Copyright (c) 2015-2023 Valentyn Kolesnikov (https://github.com/javadev/file-manager)
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package com.github.filemanager;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javax.swing.ImageIcon;
+import javax.swing.filechooser.FileSystemView;
+import javax.swing.table.AbstractTableModel;
+
+/**
+ * A TableModel to hold File[].
+ */
+class FileTableModel extends AbstractTableModel {
+
+    private List<File> files;
+    // 감시 이벤트마다 목록을 훑지 않도록 파일의 행 번호를 따로 둔다.
+    private Map<File, Integer> rows = new HashMap<File, Integer>();
+    private FileSystemView fileSystemView = FileSystemView.getFileSystemView();
+    private String[] columns = {"Icon", "File", "Path/name", "Size", "Last Modified", "R", "W", "E", "D", "F",};
+
+    FileTableModel() {
+        this(new File[0]);
+    }
+
+    FileTableModel(File[] files) {
+        this.files = new ArrayList<File>(Arrays.asList(files));
+        reindex();
+    }
+
+    public Object getValueAt(int row, int column) {
+        File file = files.get(row);
+        switch (column) {
+            case 0:
+                return ArchiveFile.getSystemIcon(fileSystemView, file);
+            case 1:
+                return ArchiveFile.getSystemDisplayName(fileSystemView, file);
+            case 2:
+                return file.getPath();
+            case 3:
+                return file.length();
+            case 4:
+                return file.lastModified();
+            case 5:
+                return file.canRead();
+            case 6:
+                return file.canWrite();
+            case 7:
+                return file.canExecute();
+            case 8:
+                return file.isDirectory();
+            case 9:
+                return file.isFile();
+            default:
+                System.err.println("Logic Error");
+        }
+        return "";
+    }
+
+    public int getColumnCount() {
+        return columns.length;
+    }
+
+    public Class<?> getColumnClass(int column) {
+        switch (column) {
+            case 0:
+                return ImageIcon.class;
+            case 3:
+                return Long.class;
+            case 4:
+                return Date.class;
+            case 5:
+            case 6:
+            case 7:
+            case 8:
+            case 9:
+                return Boolean.class;
+        }
+        return String.class;
+    }
+
+    public String getColumnName(int column) {
+        return columns[column];
+    }
+
+    public int getRowCount() {
+        return files.size();
+    }
+
+    public File getFile(int row) {
+        return files.get(row);
+    }
+
+    public void setFiles(File[] files) {
+        this.files = new ArrayList<File>(Arrays.asList(files));
+        reindex();
+        fireTableDataChanged();
+    }
+
+    private void reindex() {
+        rows = new HashMap<File, Integer>(files.size() * 2);
+        for (int ii = 0; ii < files.size(); ii++) {
+            rows.put(files.get(ii), ii);
+        }
+    }
+
+    /**
+     * 파일 시스템 이벤트로 새로 생긴 파일을 목록 끝에 추가한다. 이미 있는 파일이면 무시한다.
+     */
+    public void addFile(File file) {
+        if (rows.containsKey(file)) {
+            return;
+        }
+        rows.put(file, files.size());
+        files.add(file);
+        fireTableRowsInserted(files.size() - 1, files.size() - 1);
+    }
+
+    /**
+     * 검색 결과처럼 중복이 없는 파일 목록을 한 번에 추가한다.
+     */
+    public void addFiles(List<File> newFiles) {
+        if (newFiles.isEmpty()) {
+            return;
+        }
+        int first = files.size();
+        for (File file : newFiles) {
+            rows.put(file, files.size());
+            files.add(file);
+        }
+        fireTableRowsInserted(first, files.size() - 1);
+    }
+
+    /**
+     * 행을 지우고 뒤의 행들을 한 칸씩 당긴다. 정렬 순서와 보고 있던 위치가 바뀌지 않도록 나머지 행의 순서는 유지한다.
+     */
+    public void removeFile(File file) {
+        Integer row = rows.remove(file);
+        if (row == null) {
+            return;
+        }
+        files.remove((int) row);
+        for (int ii = row; ii < files.size(); ii++) {
+            rows.put(files.get(ii), ii);
+        }
+        fireTableRowsDeleted(row, row);
+    }
+
+    /**
+     * 크기나 수정 시각이 바뀐 파일의 행만 다시 그린다.
+     */
+    public void updateFile(File file) {
+        Integer row = rows.get(file);
+        if (row != null) {
+            fireTableRowsUpdated(row, row);
+        }
+    }
+}
@@ -0,0 +1,178 @@
+/*
+The MIT License
+
+Copyright (c) 2015-2023 Valentyn Kolesnikov (https://github.com/javadev/file-manager)
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package com.github.filemanager;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Java Flight Recorder에 기록하는 FileManager 이벤트 모음.
+ *
+ * <p>JFR 녹화 중에 GC, 스레드, I/O 이벤트와 같은 시간축에서 어느 작업이 어느 저장소/경로에서 오래 걸렸는지 볼 수 있다.
+ * 예: java -XX:StartFlightRecording=filename=fm.jfr,settings=profile -jar file-manager.jar 후
+ * jfr print --categories "File Manager" fm.jfr
+ *
+ * <p>사용하는 쪽은 항상 다음 모양을 따른다. 녹화 중이 아니면 begin/shouldCommit은 사실상 아무 일도 하지 않으므로,
+ * 경로 문자열이나 파일 수처럼 값을 만드는 데 비용이 드는 필드는 shouldCommit이 true일 때만 채운다.
+ *
+ * <pre>
+ * FlightEvents.FileCopy event = new FlightEvents.FileCopy();
+ * event.begin();
+ * ... 작업 ...
+ * if (event.shouldCommit()) {
+ *     event.source = from.getPath();
+ *     event.commit();
+ * }
+ * </pre>
+ */
+final class FlightEvents {
+
+    private FlightEvents() {
+    }
+
+    @Name("com.github.filemanager.RepositoryOpen")
+    @Label("Repository Open")
+    @Category({"File Manager", "Git"})
+    static final class RepositoryOpen extends Event {
+
+        @Label("Repository")
+        String repository;
+    }
+
+    @Name("com.github.filemanager.GitCommand")
+    @Label("Git Command")
+    @Description("JGit 명령 한 번의 실행. status의 경우 변경되었거나 추적되지 않은 파일 수를 함께 기록한다.")
+    @Category({"File Manager", "Git"})
+    static final class GitCommand extends Event {
+
+        @Label("Command")
+        String command;
+
+        @Label("Repository")
+        String repository;
+
+        @Label("File Count")
+        int fileCount;
+
+        @Label("Failed")
+        boolean failed;
+    }
+
+    @Name("com.github.filemanager.GitLog")
+    @Label("Git Log Walk")
+    @Category({"File Manager", "Git"})
+    static final class GitLog extends Event {
+
+        @Label("Repository")
+        String repository;
+
+        @Label("Commit Count")
+        int commitCount;
+    }
+
+    @Name("com.github.filemanager.GitDiff")
+    @Label("Git Diff")
+    @Category({"File Manager", "Git"})
+    static final class GitDiff extends Event {
+
+        @Label("Repository")
+        String repository;
+
+        @Label("Commit")
+        String commit;
+
+        @Label("Line Count")
+        int lineCount;
+
+        @Label("Bytes")
+        @DataAmount
+        long bytes;
+    }
+
+    @Name("com.github.filemanager.ExternalProcess")
+    @Label("External Process")
+    @Description("git 등 외부 프로세스를 시작해서 종료를 확인할 때까지.")
+    @Category({"File Manager", "Process"})
+    static final class ExternalProcess extends Event {
+
+        @Label("Command")
+        String command;
+
+        @Label("Directory")
+        String directory;
+
+        @Label("Exit Value")
+        int exitValue;
+    }
+
+    @Name("com.github.filemanager.DirectoryListing")
+    @Label("Directory Listing")
+    @Category({"File Manager", "File System"})
+    static final class DirectoryListing extends Event {
+
+        @Label("Directory")
+        String directory;
+
+        @Label("File Count")
+        int fileCount;
+    }
+
+    @Name("com.github.filemanager.FileCopy")
+    @Label("File Copy")
+    @Category({"File Manager", "File System"})
+    static final class FileCopy extends Event {
+
+        @Label("Source")
+        String source;
+
+        @Label("Destination")
+        String destination;
+
+        @Label("Bytes")
+        @DataAmount
+        long bytes;
+
+        @Label("Copied")
+        boolean copied;
+    }
+
+    @Name("com.github.filemanager.FileDelete")
+    @Label("File Delete")
+    @Category({"File Manager", "File System"})
+    static final class FileDelete extends Event {
+
+        @Label("Path")
+        String path;
+
+        @Label("Directory")
+        boolean directory;
+
+        @Label("Deleted")
+        boolean deleted;
+    }
+}
@@ -0,0 +1,118 @@
+/*
+The MIT License
+
+Copyright (c) 2015-2023 Valentyn Kolesnikov (https://github.com/javadev/file-manager)
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package com.github.filemanager;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.jgit.ignore.IgnoreNode;
+import org.eclipse.jgit.storage.file.FileRepositoryBuilder;
+
+/**
+ * 디렉토리를 탐색할 때 .gitignore 규칙을 적용하기 위한 불변 객체.
+ *
+ * <p>디렉토리마다 그 디렉토리의 .gitignore를 하나의 노드로 쌓아 두고, 경로를 판정할 때는 가장 깊은 노드부터 위로 올라가며
+ * 처음으로 결정을 내리는 규칙을 따른다 (git과 같은 우선순위). 저장소 루트의 .git/info/exclude 도 루트 노드로 포함한다.
+ * .git 디렉토리 자체는 항상 무시한다.
+ */
+final class GitIgnoreRules {
+
+    private final GitIgnoreRules parent;
+    private final Path base;
+    private final IgnoreNode node;
+
+    private GitIgnoreRules(GitIgnoreRules parent, Path base, IgnoreNode node) {
+        this.parent = parent;
+        this.base = base;
+        this.node = node;
+    }
+
+    /**
+     * dir이 git 저장소 안에 있으면 작업 트리 루트부터 dir까지의 .gitignore를 읽은 규칙을, 저장소가 아니면 null을 반환한다.
+     */
+    static GitIgnoreRules forDirectory(Path dir) {
+        File gitDir = new FileRepositoryBuilder().findGitDir(dir.toFile()).getGitDir();
+        if (gitDir == null) {
+            return null;
+        }
+        Path workTree = gitDir.getParentFile().toPath().toAbsolutePath();
+        GitIgnoreRules rules = new GitIgnoreRules(null, workTree, read(gitDir.toPath().resolve("info").resolve("exclude")));
+        Path absoluteDir = dir.toAbsolutePath();
+        if (!absoluteDir.startsWith(workTree)) {
+            return rules;
+        }
+        List<Path> chain = new ArrayList<Path>();
+        for (Path p = absoluteDir; p != null && p.startsWith(workTree); p = p.getParent()) {
+            chain.add(0, p);
+        }
+        for (Path p : chain) {
+            rules = rules.child(p);
+        }
+        return rules;
+    }
+
+    /**
+     * 하위 디렉토리로 내려갈 때 호출한다. 그 디렉토리에 .gitignore가 없으면 자기 자신을 반환한다.
+     */
+    GitIgnoreRules child(Path dir) {
+        IgnoreNode childNode = read(dir.resolve(".gitignore"));
+        return childNode == null ? this : new GitIgnoreRules(this, dir, childNode);
+    }
+
+    boolean isIgnored(Path path, boolean directory) {
+        if (directory && path.getFileName() != null && ".git".equals(path.getFileName().toString())) {
+            return true;
+        }
+        for (GitIgnoreRules rules = this; rules != null; rules = rules.parent) {
+            if (rules.node == null || !path.startsWith(rules.base)) {
+                continue;
+            }
+            String relative = rules.base.relativize(path).toString().replace(File.separatorChar, '/');
+            Boolean ignored = rules.node.checkIgnored(relative, directory);
+            if (ignored != null) {
+                return ignored;
+            }
+        }
+        return false;
+    }
+
+    private static IgnoreNode read(Path ignoreFile) {
+        if (!Files.isRegularFile(ignoreFile)) {
+            return null;
+        }
+        IgnoreNode node = new IgnoreNode();
+        try (InputStream in = Files.newInputStream(ignoreFile)) {
+            node.parse(ignoreFile.toString(), in);
+        } catch (IOException e) {
+            e.printStackTrace();
+            return null;
+        }
+        return node.getRules().isEmpty() ? null : node;
+    }
+}
@@ -0,0 +1,506 @@
+/*
+The MIT License
+
+Copyright (c) 2015-2023 Valentyn Kolesnikov (https://github.com/javadev/file-manager)
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package com.github.filemanager;
+
+import java.awt.BorderLayout;
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.FlowLayout;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.awt.event.AdjustmentEvent;
+import java.awt.event.AdjustmentListener;
+import java.awt.event.ComponentAdapter;
+import java.awt.event.ComponentEvent;
+import java.awt.event.KeyAdapter;
+import java.awt.event.KeyEvent;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.event.MouseWheelEvent;
+import java.awt.event.MouseWheelListener;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.BooleanSupplier;
+
+import javax.swing.JButton;
+import javax.swing.JCheckBox;
+import javax.swing.JComponent;
+import javax.swing.JLabel;
+import javax.swing.JOptionPane;
+import javax.swing.JPanel;
+import javax.swing.JScrollBar;
+import javax.swing.JTextField;
+import javax.swing.SwingWorker;
+
+/**
+ * MappedFile을 16바이트씩 hex와 ASCII로 보여주는 읽기 전용 뷰어. 화면에 보이는 행의 바이트만 읽는다.
+ *
+ * <p>50 GB 파일은 30억 행이 넘어 int인 스크롤바 값에 담을 수 없으므로, 행 수가 SCROLL_RANGE를 넘으면 스크롤바 한 칸이 여러 행을
+ * 나타내도록 비율을 조정한다. 휠과 키보드는 항상 행 단위로 움직인다.
+ */
+class HexViewer extends JPanel {
+
+    private static final int BYTES_PER_ROW = 16;
+    private static final long SCROLL_RANGE = 1L << 30;
+    private static final Color HIGHLIGHT = new Color(255, 230, 120);
+    private static final Color SELECTION = new Color(190, 215, 250);
+
+    private final MappedFile file;
+    private final RowCanvas canvas = new RowCanvas();
+    private final JScrollBar verticalBar = new JScrollBar(JScrollBar.VERTICAL);
+    private final JTextField offsetField = new JTextField(14);
+    private final JTextField findField = new JTextField(24);
+    private final JCheckBox hexPattern = new JCheckBox("Hex", true);
+    private final JCheckBox matchCase = new JCheckBox("Match case", true);
+    private final JButton findButton = new JButton("Find Next");
+    private final JLabel statusLabel = new JLabel(" ");
+
+    private final long rowCount;
+    private final long scrollScale; // 스크롤바 값 1이 나타내는 행 수
+    private final int offsetDigits;
+    private long topRow = 0;
+    private boolean adjusting = false;
+    /* 강조할 범위 [matchStart, matchEnd) 와 클릭해서 선택한 바이트 */
+    private long matchStart = -1;
+    private long matchEnd = -1;
+    private long selected = -1;
+    private long searchFrom = 0;
+    private String lastQuery = null;
+    private SwingWorker<Long, Void> searchWorker;
+
+    HexViewer(MappedFile file) {
+        super(new BorderLayout(3, 3));
+        this.file = file;
+        this.rowCount = (file.size() + BYTES_PER_ROW - 1) / BYTES_PER_ROW;
+        this.scrollScale = Math.max(1, (rowCount + SCROLL_RANGE - 1) / SCROLL_RANGE);
+        this.offsetDigits = file.size() > 0xFFFFFFFFL ? 16 : 8;
+
+        JButton goButton = new JButton("Go");
+        ActionListener goAction = new ActionListener() {
+            public void actionPerformed(ActionEvent ae) {
+                goToOffset();
+            }
+        };
+        goButton.addActionListener(goAction);
+        offsetField.addActionListener(goAction);
+        offsetField.setToolTipText("0x1F40 또는 8000");
+        ActionListener findAction = new ActionListener() {
+            public void actionPerformed(ActionEvent ae) {
+                findNext();
+            }
+        };
+        findButton.addActionListener(findAction);
+        findField.addActionListener(findAction);
+        findField.setToolTipText("Hex: 7f 45 4c 46 (?? 는 아무 바이트), 그 외: 텍스트");
+        JPanel controls = new JPanel(new FlowLayout(FlowLayout.LEADING));
+        controls.add(new JLabel("Offset:"));
+        controls.add(offsetField);
+        controls.add(goButton);
+        controls.add(new JLabel("Find:"));
+        controls.add(findField);
+        controls.add(hexPattern);
+        controls.add(matchCase);
+        controls.add(findButton);
+        add(controls, BorderLayout.NORTH);
+
+        JPanel view = new JPanel(new BorderLayout());
+        view.add(canvas, BorderLayout.CENTER);
+        view.add(verticalBar, BorderLayout.EAST);
+        add(view, BorderLayout.CENTER);
+        add(statusLabel, BorderLayout.SOUTH);
+
+        verticalBar.setMaximum((int) ((rowCount + scrollScale - 1) / scrollScale));
+        verticalBar.addAdjustmentListener(new AdjustmentListener() {
+            public void adjustmentValueChanged(AdjustmentEvent ae) {
+                if (!adjusting) {
+                    topRow = Math.min((long) ae.getValue() * scrollScale, lastTopRow());
+                    canvas.repaint();
+                }
+            }
+        });
+        updateStatus();
+    }
+
+    private long lastTopRow() {
+        return Math.max(0, rowCount - canvas.visibleRows() + 1);
+    }
+
+    private void scrollTo(long row) {
+        topRow = Math.max(0, Math.min(row, lastTopRow()));
+        adjusting = true;
+        try {
+            int rows = (int) Math.max(1, canvas.visibleRows() / scrollScale);
+            verticalBar.setValues((int) (topRow / scrollScale), rows, 0, verticalBar.getMaximum());
+            verticalBar.setBlockIncrement(rows);
+        } finally {
+            adjusting = false;
+        }
+        canvas.repaint();
+    }
+
+    /**
+     * offset이 들어 있는 행이 화면 위쪽 1/3에 오도록 스크롤하고 그 바이트를 선택한다.
+     */
+    private void reveal(long offset) {
+        selected = offset;
+        long row = offset / BYTES_PER_ROW;
+        if (row < topRow || row >= topRow + canvas.visibleRows() - 1) {
+            scrollTo(row - canvas.visibleRows() / 3);
+        } else {
+            canvas.repaint();
+        }
+        updateStatus();
+    }
+
+    private void goToOffset() {
+        String text = offsetField.getText().trim().replace("_", "");
+        long offset;
+        try {
+            offset = text.startsWith("0x") || text.startsWith("0X") ? Long.parseLong(text.substring(2), 16) : Long.parseLong(text);
+        } catch (NumberFormatException e) {
+            JOptionPane.showMessageDialog(this, "offset을 10진수 또는 0x로 시작하는 16진수로 입력해주세요.", "Go to offset", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        if (offset < 0 || offset >= file.size()) {
+            JOptionPane.showMessageDialog(this, "파일 크기는 " + file.size() + " 바이트입니다.", "Go to offset", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        reveal(offset);
+        canvas.requestFocusInWindow();
+    }
+
+    /**
+     * "7f 45 4c 46", "7f454c46", "de ?? be ef" 형식의 hex 패턴. ?? 자리는 mask가 false이다.
+     *
+     * @return {pattern, mask}, 형식이 잘못되었으면 null
+     */
+    static Object[] parseHexPattern(String text) {
+        String compact = text.replaceAll("\\s+", "");
+        if (compact.isEmpty() || compact.length() % 2 != 0) {
+            return null;
+        }
+        byte[] pattern = new byte[compact.length() / 2];
+        boolean[] mask = new boolean[pattern.length];
+        boolean wildcard = false;
+        for (int ii = 0; ii < pattern.length; ii++) {
+            String digits = compact.substring(ii * 2, ii * 2 + 2);
+            if ("??".equals(digits)) {
+                wildcard = true;
+                continue;
+            }
+            int high = Character.digit(digits.charAt(0), 16);
+            int low = Character.digit(digits.charAt(1), 16);
+            if (high < 0 || low < 0) {
+                return null;
+            }
+            pattern[ii] = (byte) (high << 4 | low);
+            mask[ii] = true;
+        }
+        if (!mask[0]) { // 첫 바이트가 ?? 이면 결과 위치가 모호하다.
+            return null;
+        }
+        return new Object[]{pattern, wildcard ? mask : null};
+    }
+
+    /**
+     * 선택한 바이트(또는 마지막 결과) 다음부터 검색한다. 끝까지 없으면 처음부터 다시 찾는다.
+     */
+    private void findNext() {
+        final String query = findField.getText();
+        if (query.isEmpty() || (searchWorker != null && !searchWorker.isDone())) {
+            return;
+        }
+        final byte[] pattern;
+        final boolean[] mask;
+        if (hexPattern.isSelected()) {
+            Object[] parsed = parseHexPattern(query);
+            if (parsed == null) {
+                JOptionPane.showMessageDialog(this, "hex 패턴은 \"7f 45 4c 46\"처럼 두 자리씩 입력해주세요. ?? 는 아무 바이트와 맞으며 맨 앞에는 쓸 수 없습니다.",
+                        "Find", JOptionPane.ERROR_MESSAGE);
+                return;
+            }
+            pattern = (byte[]) parsed[0];
+            mask = (boolean[]) parsed[1];
+        } else {
+            pattern = query.getBytes(StandardCharsets.UTF_8);
+            mask = null;
+        }
+        String key = hexPattern.isSelected() + query;
+        if (!key.equals(lastQuery)) {
+            searchFrom = selected >= 0 ? selected : topRow * BYTES_PER_ROW;
+            lastQuery = key;
+        }
+        final boolean ignoreCase = !hexPattern.isSelected() && !matchCase.isSelected();
+        final long from = searchFrom;
+        final long end = file.size();
+        findButton.setEnabled(false);
+        statusLabel.setText("Searching...");
+        searchWorker = new SwingWorker<Long, Void>() {
+            @Override
+            public Long doInBackground() {
+                BooleanSupplier cancelled = new BooleanSupplier() {
+                    public boolean getAsBoolean() {
+                        return isCancelled();
+                    }
+                };
+                ForkJoinPool pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+                try {
+                    long offset = file.find(pool, pattern, mask, ignoreCase, from, end, cancelled);
+                    if (offset < 0 && from > 0) { // 처음부터 다시
+                        offset = file.find(pool, pattern, mask, ignoreCase, 0, Math.min(end, from + pattern.length - 1), cancelled);
+                    }
+                    return offset;
+                } finally {
+                    pool.shutdown();
+                }
+            }
+
+            @Override
+            protected void done() {
+                findButton.setEnabled(true);
+                if (isCancelled()) {
+                    return;
+                }
+                try {
+                    long offset = get();
+                    if (offset < 0) {
+                        updateStatus();
+                        statusLabel.setText(statusLabel.getText() + "  \"" + query + "\"을(를) 찾을 수 없습니다.");
+                        return;
+                    }
+                    matchStart = offset;
+                    matchEnd = offset + pattern.length;
+                    searchFrom = offset + 1;
+                    reveal(offset);
+                } catch (ExecutionException e) {
+                    e.getCause().printStackTrace();
+                    statusLabel.setText("검색 중 오류가 발생했습니다: " + e.getCause().getMessage());
+                } catch (InterruptedException e) {
+                    e.printStackTrace();
+                }
+            }
+        };
+        searchWorker.execute();
+    }
+
+    private void updateStatus() {
+        String status = String.format("%,d bytes", file.size());
+        if (selected >= 0 && selected < file.size()) {
+            byte[] bytes = new byte[4];
+            int count = 0;
+            try {
+                count = file.read(selected, bytes, 0, bytes.length);
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+            status += String.format("  offset 0x%X (%,d)  byte %d", selected, selected, bytes[0] & 0xFF);
+            if (count == 4) {
+                int little = (bytes[0] & 0xFF) | (bytes[1] & 0xFF) << 8 | (bytes[2] & 0xFF) << 16 | (bytes[3] & 0xFF) << 24;
+                status += "  int32 LE " + little + "  BE " + Integer.reverseBytes(little);
+            }
+        }
+        statusLabel.setText(status);
+    }
+
+    /**
+     * 창을 닫을 때 호출한다. 진행 중인 검색을 취소하고 파일을 닫는다.
+     */
+    void close() {
+        if (searchWorker != null) {
+            searchWorker.cancel(true);
+        }
+        try {
+            file.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * 보이는 행만 파일에서 읽어 offset, hex, ASCII 열로 그리는 영역
+     */
+    private final class RowCanvas extends JComponent {
+
+        private final Font font = new Font(Font.MONOSPACED, Font.PLAIN, 12);
+
+        RowCanvas() {
+            setFocusable(true);
+            addComponentListener(new ComponentAdapter() {
+                @Override
+                public void componentResized(ComponentEvent e) {
+                    scrollTo(topRow); // 보이는 행 수에 맞게 스크롤바를 다시 계산한다.
+                }
+            });
+            addMouseWheelListener(new MouseWheelListener() {
+                public void mouseWheelMoved(MouseWheelEvent e) {
+                    scrollTo(topRow + e.getWheelRotation() * 3L);
+                }
+            });
+            addMouseListener(new MouseAdapter() {
+                @Override
+                public void mousePressed(MouseEvent e) {
+                    requestFocusInWindow();
+                    long offset = offsetAt(e.getX(), e.getY());
+                    if (offset >= 0) {
+                        selected = offset;
+                        updateStatus();
+                        repaint();
+                    }
+                }
+            });
+            addKeyListener(new KeyAdapter() {
+                @Override
+                public void keyPressed(KeyEvent e) {
+                    int rows = Math.max(1, visibleRows() - 1);
+                    switch (e.getKeyCode()) {
+                        case KeyEvent.VK_UP:
+                            scrollTo(topRow - 1);
+                            break;
+                        case KeyEvent.VK_DOWN:
+                            scrollTo(topRow + 1);
+                            break;
+                        case KeyEvent.VK_PAGE_UP:
+                            scrollTo(topRow - rows);
+                            break;
+                        case KeyEvent.VK_PAGE_DOWN:
+                            scrollTo(topRow + rows);
+                            break;
+                        case KeyEvent.VK_HOME:
+                            scrollTo(0);
+                            break;
+                        case KeyEvent.VK_END:
+                            scrollTo(Long.MAX_VALUE);
+                            break;
+                        default:
+                            return;
+                    }
+                    e.consume();
+                }
+            });
+        }
+
+        @Override
+        public Dimension getPreferredSize() {
+            return new Dimension((asciiColumn() + BYTES_PER_ROW + 2) * charWidth() + 8, 600);
+        }
+
+        int lineHeight() {
+            return getFontMetrics(font).getHeight();
+        }
+
+        int charWidth() {
+            return getFontMetrics(font).charWidth('0');
+        }
+
+        int visibleRows() {
+            return Math.max(1, getHeight() / lineHeight());
+        }
+
+        /**
+         * 행에서 index 번째 바이트의 hex 값이 시작하는 글자 위치. 8바이트마다 한 칸 더 띄운다.
+         */
+        int hexColumn(int index) {
+            return offsetDigits + 2 + index * 3 + (index >= BYTES_PER_ROW / 2 ? 1 : 0);
+        }
+
+        int asciiColumn() {
+            return hexColumn(BYTES_PER_ROW) + 2;
+        }
+
+        private long offsetAt(int x, int y) {
+            long row = topRow + y / lineHeight();
+            int column = (x - 4) / charWidth();
+            int index = -1;
+            if (column >= asciiColumn() && column < asciiColumn() + BYTES_PER_ROW) {
+                index = column - asciiColumn();
+            } else {
+                for (int ii = 0; ii < BYTES_PER_ROW; ii++) {
+                    if (column >= hexColumn(ii) && column < hexColumn(ii) + 2) {
+                        index = ii;
+                    }
+                }
+            }
+            long offset = row * BYTES_PER_ROW + index;
+            return index < 0 || offset >= file.size() ? -1 : offset;
+        }
+
+        @Override
+        protected void paintComponent(Graphics g) {
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, getWidth(), getHeight());
+            g.setFont(font);
+            FontMetrics metrics = g.getFontMetrics();
+            int lineHeight = metrics.getHeight();
+            int charWidth = charWidth();
+            int rows = getHeight() / lineHeight + 1;
+            byte[] bytes = new byte[rows * BYTES_PER_ROW];
+            long first = topRow * BYTES_PER_ROW;
+            int count;
+            try {
+                count = file.read(first, bytes, 0, bytes.length);
+            } catch (IOException | RuntimeException e) { // 파일이 닫혔거나 잘렸다.
+                g.setColor(Color.RED);
+                g.drawString(String.valueOf(e.getMessage()), 4, metrics.getAscent());
+                return;
+            }
+            char[] line = new char[asciiColumn() + BYTES_PER_ROW];
+            for (int row = 0; row * BYTES_PER_ROW < count; row++) {
+                int y = row * lineHeight;
+                long rowOffset = first + (long) row * BYTES_PER_ROW;
+                int length = Math.min(BYTES_PER_ROW, count - row * BYTES_PER_ROW);
+                for (int ii = 0; ii < length; ii++) { // 검색 결과와 선택한 바이트 배경
+                    long offset = rowOffset + ii;
+                    Color background = offset == selected ? SELECTION : offset >= matchStart && offset < matchEnd ? HIGHLIGHT : null;
+                    if (background != null) {
+                        g.setColor(background);
+                        g.fillRect(4 + hexColumn(ii) * charWidth, y, 2 * charWidth, lineHeight);
+                        g.fillRect(4 + (asciiColumn() + ii) * charWidth, y, charWidth, lineHeight);
+                    }
+                }
+                Arrays.fill(line, ' ');
+                String offsetText = Long.toHexString(rowOffset).toUpperCase();
+                for (int ii = 0; ii < offsetDigits; ii++) {
+                    int from = offsetText.length() - offsetDigits + ii;
+                    line[ii] = from < 0 ? '0' : offsetText.charAt(from);
+                }
+                for (int ii = 0; ii < length; ii++) {
+                    int value = bytes[row * BYTES_PER_ROW + ii] & 0xFF;
+                    line[hexColumn(ii)] = Character.toUpperCase(Character.forDigit(value >> 4, 16));
+                    line[hexColumn(ii) + 1] = Character.toUpperCase(Character.forDigit(value & 0xF, 16));
+                    line[asciiColumn() + ii] = value >= 0x20 && value < 0x7F ? (char) value : '.';
+                }
+                g.setColor(Color.GRAY);
+                g.drawChars(line, 0, offsetDigits, 4, y + metrics.getAscent());
+                g.setColor(Color.BLACK);
+                g.drawChars(line, offsetDigits, line.length - offsetDigits, 4 + offsetDigits * charWidth, y + metrics.getAscent());
+            }
+        }
+    }
+}
@@ -0,0 +1,395 @@
+/*
+The MIT License
+
+Copyright (c) 2015-2023 Valentyn Kolesnikov (https://github.com/javadev/file-manager)
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package com.github.filemanager;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntConsumer;
+
+/**
+ * ContentIndex의 불변 세그먼트 파일 하나. 파일 전체를 memory-map 해서 읽는다.
+ *
+ * <pre>
+ * header   : int magic, int version, int docCount, int termCount, long docOffsetsPos, long termOffsetsPos
+ * docs     : docCount x (long size, long mtime, int pathLength, byte[] path)   size == -1 이면 삭제 표시(tombstone)
+ * postings : 용어마다 문서 id의 차이(delta)를 varint로 기록
+ * terms    : termCount x (short length, byte[] term, int postingsPos, int postingsCount)   unsigned 바이트 순으로 정렬
+ * docOffsets  : int[docCount]
+ * termOffsets : int[termCount]
+ * </pre>
+ *
+ * <p>용어 사전이 정렬되어 있으므로 검색은 termOffsets 위에서의 이진 탐색이고, 힙에 올리는 것은 문서 경로 정도다.
+ */
+final class IndexSegment {
+
+    static final long TOMBSTONE = -1;
+
+    private static final int MAGIC = 0x464d4958; // "FMIX"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 32;
+
+    private final Path file;
+    private final MappedByteBuffer buffer;
+    private final int docCount;
+    private final int termCount;
+    private final int docOffsetsPos;
+    private final int termOffsetsPos;
+
+    private IndexSegment(Path file, MappedByteBuffer buffer) throws IOException {
+        this.file = file;
+        this.buffer = buffer;
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            throw new IOException("Not an index segment: " + file);
+        }
+        this.docCount = buffer.getInt(8);
+        this.termCount = buffer.getInt(12);
+        this.docOffsetsPos = (int) buffer.getLong(16);
+        this.termOffsetsPos = (int) buffer.getLong(24);
+    }
+
+    static IndexSegment open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return new IndexSegment(file, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    Path getFile() {
+        return file;
+    }
+
+    int getDocCount() {
+        return docCount;
+    }
+
+    int getTermCount() {
+        return termCount;
+    }
+
+    String getPath(int doc) {
+        int offset = buffer.getInt(docOffsetsPos + doc * 4);
+        int length = buffer.getInt(offset + 16);
+        byte[] bytes = new byte[length];
+        for (int ii = 0; ii < length; ii++) {
+            bytes[ii] = buffer.get(offset + 20 + ii);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    long getSize(int doc) {
+        return buffer.getLong(buffer.getInt(docOffsetsPos + doc * 4));
+    }
+
+    long getModified(int doc) {
+        return buffer.getLong(buffer.getInt(docOffsetsPos + doc * 4) + 8);
+    }
+
+    byte[] getTerm(int term) {
+        int offset = buffer.getInt(termOffsetsPos + term * 4);
+        byte[] bytes = new byte[buffer.getShort(offset)];
+        for (int ii = 0; ii < bytes.length; ii++) {
+            bytes[ii] = buffer.get(offset + 2 + ii);
+        }
+        return bytes;
+    }
+
+    /**
+     * prefix로 시작하는 첫 번째 용어의 번호. 없으면 prefix보다 큰 첫 용어(또는 termCount)를 반환한다.
+     */
+    int lowerBound(byte[] prefix) {
+        int low = 0;
+        int high = termCount;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (compareTerm(mid, prefix, false) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    boolean termStartsWith(int term, byte[] prefix) {
+        return term < termCount && compareTerm(term, prefix, true) == 0;
+    }
+
+    /**
+     * 용어와 key를 unsigned 바이트 순으로 비교한다. prefixOnly이면 key 길이만큼만 비교한다.
+     */
+    private int compareTerm(int term, byte[] key, boolean prefixOnly) {
+        int offset = buffer.getInt(termOffsetsPos + term * 4);
+        int length = buffer.getShort(offset);
+        int n = Math.min(length, key.length);
+        for (int ii = 0; ii < n; ii++) {
+            int cmp = (buffer.get(offset + 2 + ii) & 0xff) - (key[ii] & 0xff);
+            if (cmp != 0) {
+                return cmp;
+            }
+        }
+        if (prefixOnly) {
+            return length >= key.length ? 0 : -1;
+        }
+        return length - key.length;
+    }
+
+    /**
+     * 용어의 posting 목록(문서 id, 오름차순)을 live에 있는 문서만 골라 result에 OR 한다.
+     */
+    void readPostings(int term, BitSet live, final BitSet result) {
+        readPostings(term, live, new IntConsumer() {
+            public void accept(int doc) {
+                result.set(doc);
+            }
+        });
+    }
+
+    /**
+     * 용어의 posting 목록에서 live에 있는 문서 id를 오름차순으로 consumer에 전달한다. live가 null이면 모든 문서를 전달한다.
+     */
+    void readPostings(int term, BitSet live, IntConsumer consumer) {
+        int offset = buffer.getInt(termOffsetsPos + term * 4);
+        int length = buffer.getShort(offset);
+        int position = buffer.getInt(offset + 2 + length);
+        int count = buffer.getInt(offset + 6 + length);
+        int doc = 0;
+        for (int ii = 0; ii < count; ii++) {
+            int delta = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = buffer.get(position++);
+                delta |= (b & 0x7f) << shift;
+                shift += 7;
+            } while (b < 0);
+            doc += delta;
+            if (live == null || live.get(doc)) {
+                consumer.accept(doc);
+            }
+        }
+    }
+
+    /**
+     * 메모리에서 문서와 용어를 모은 뒤 한 번에 세그먼트 파일로 기록하는 빌더.
+     */
+    static final class Builder {
+
+        private final List<String> paths = new ArrayList<String>();
+        private final List<long[]> attributes = new ArrayList<long[]>();
+        private final Map<Integer, PostingList> postings = new HashMap<Integer, PostingList>();
+        private long estimatedBytes = 0;
+
+        /**
+         * 문서를 추가하고 id를 반환한다. 삭제 표시를 남길 때는 size에 TOMBSTONE을 넘긴다.
+         */
+        int addDocument(String path, long size, long modified) {
+            paths.add(path);
+            attributes.add(new long[]{size, modified});
+            estimatedBytes += 40 + path.length() * 2;
+            return paths.size() - 1;
+        }
+
+        /**
+         * 용어는 3바이트(24비트) 정수로 받아 big-endian 3바이트로 기록한다. 같은 용어에 대해 문서 id는 증가하는 순서로 넘겨야 한다.
+         */
+        void addTerm(int term, int doc) {
+            PostingList list = postings.get(term);
+            if (list == null) {
+                list = new PostingList();
+                postings.put(term, list);
+                estimatedBytes += 80;
+            }
+            if (list.add(doc)) {
+                estimatedBytes += 2;
+            }
+        }
+
+        int getDocCount() {
+            return paths.size();
+        }
+
+        long getEstimatedBytes() {
+            return estimatedBytes;
+        }
+
+        void write(Path file) throws IOException {
+            List<TermEntry> terms = new ArrayList<TermEntry>(postings.size());
+            for (Map.Entry<Integer, PostingList> entry : postings.entrySet()) {
+                int term = entry.getKey();
+                terms.add(new TermEntry(new byte[]{(byte) (term >>> 16), (byte) (term >>> 8), (byte) term}, entry.getValue()));
+            }
+            // 읽을 때 바이트 단위로 이진 탐색하므로 unsigned 바이트 순서로 정렬한다.
+            terms.sort((a, b) -> compareBytes(a.term, b.term));
+
+            try (OutputStream fileOut = Files.newOutputStream(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+                 CountingOutputStream counting = new CountingOutputStream(new BufferedOutputStream(fileOut, 1 << 16));
+                 DataOutputStream out = new DataOutputStream(counting)) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeInt(paths.size());
+                out.writeInt(terms.size());
+                out.writeLong(0); // 나중에 채울 docOffsetsPos
+                out.writeLong(0); // 나중에 채울 termOffsetsPos
+
+                int[] docOffsets = new int[paths.size()];
+                for (int doc = 0; doc < paths.size(); doc++) {
+                    docOffsets[doc] = checkedOffset(counting.count);
+                    byte[] path = paths.get(doc).getBytes(StandardCharsets.UTF_8);
+                    out.writeLong(attributes.get(doc)[0]);
+                    out.writeLong(attributes.get(doc)[1]);
+                    out.writeInt(path.length);
+                    out.write(path);
+                }
+
+                int[] postingsPos = new int[terms.size()];
+                for (int ii = 0; ii < terms.size(); ii++) {
+                    postingsPos[ii] = checkedOffset(counting.count);
+                    terms.get(ii).postings.writeTo(out);
+                }
+
+                int[] termOffsets = new int[terms.size()];
+                for (int ii = 0; ii < terms.size(); ii++) {
+                    termOffsets[ii] = checkedOffset(counting.count);
+                    TermEntry entry = terms.get(ii);
+                    out.writeShort(entry.term.length);
+                    out.write(entry.term);
+                    out.writeInt(postingsPos[ii]);
+                    out.writeInt(entry.postings.size);
+                }
+
+                long docOffsetsPos = counting.count;
+                for (int offset : docOffsets) {
+                    out.writeInt(offset);
+                }
+                long termOffsetsPos = counting.count;
+                for (int offset : termOffsets) {
+                    out.writeInt(offset);
+                }
+                out.flush();
+                checkedOffset(counting.count);
+
+                // header의 위치 정보 채우기
+                try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                    ByteBuffer positions = ByteBuffer.allocate(16);
+                    positions.putLong(docOffsetsPos).putLong(termOffsetsPos).flip();
+                    channel.write(positions, 16);
+                }
+            }
+        }
+
+        private static int checkedOffset(long offset) throws IOException {
+            if (offset > Integer.MAX_VALUE) {
+                throw new IOException("Index segment is larger than 2 GB");
+            }
+            return (int) offset;
+        }
+    }
+
+    static int compareBytes(byte[] a, byte[] b) {
+        int n = Math.min(a.length, b.length);
+        for (int ii = 0; ii < n; ii++) {
+            int cmp = (a[ii] & 0xff) - (b[ii] & 0xff);
+            if (cmp != 0) {
+                return cmp;
+            }
+        }
+        return a.length - b.length;
+    }
+
+    /**
+     * 문서 id를 delta + varint로 압축해 메모리에 쌓아두는 posting 목록.
+     */
+    private static final class PostingList {
+
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream(8);
+        private int last = -1;
+        private int size = 0;
+
+        boolean add(int doc) {
+            if (doc == last) {
+                return false;
+            }
+            int delta = last < 0 ? doc : doc - last;
+            while ((delta & ~0x7f) != 0) {
+                bytes.write((delta & 0x7f) | 0x80);
+                delta >>>= 7;
+            }
+            bytes.write(delta);
+            last = doc;
+            size++;
+            return true;
+        }
+
+        void writeTo(OutputStream out) throws IOException {
+            bytes.writeTo(out);
+        }
+    }
+
+    private static final class TermEntry {
+
+        final byte[] term;
+        final PostingList postings;
+
+        TermEntry(byte[] term, PostingList postings) {
+            this.term = term;
+            this.postings = postings;
+        }
+    }
+
+    private static final class CountingOutputStream extends FilterOutputStream {
+
+        long count = 0;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+}
@@ -0,0 +1,492 @@
+/*
+The MIT License
+
+Copyright (c) 2015-2023 Valentyn Kolesnikov (https://github.com/javadev/file-manager)
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package com.github.filemanager;
+
+import java.awt.BorderLayout;
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.FlowLayout;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.awt.event.AdjustmentEvent;
+import java.awt.event.AdjustmentListener;
+import java.awt.event.KeyAdapter;
+import java.awt.event.KeyEvent;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.event.MouseWheelEvent;
+import java.awt.event.MouseWheelListener;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.BooleanSupplier;
+
+import javax.swing.JButton;
+import javax.swing.JCheckBox;
+import javax.swing.JComponent;
+import javax.swing.JLabel;
+import javax.swing.JOptionPane;
+import javax.swing.JPanel;
+import javax.swing.JScrollBar;
+import javax.swing.JTextField;
+import javax.swing.SwingWorker;
+import javax.swing.Timer;
+
+/**
+ * MappedTextFile을 보여주는 읽기 전용 뷰어. 화면에 보이는 줄만 읽어서 그린다.
+ *
+ * <p>Swing 컴포넌트의 높이는 int 픽셀이라 수억 줄짜리 파일을 JScrollPane에 넣을 수 없으므로, 세로 스크롤바는 픽셀이 아니라 줄
+ * 번호를 값으로 사용한다. Follow를 켜면 파일이 커질 때마다 늘어난 부분만 인덱싱하고 마지막 줄로 이동한다 (tail -f).
+ */
+class LargeFileViewer extends JPanel {
+
+    private static final int REFRESH_MILLIS = 500;
+    private static final Color HIGHLIGHT = new Color(255, 230, 120);
+    private static final Color CURRENT_LINE = new Color(232, 242, 254);
+
+    private final MappedTextFile file;
+    private final LineCanvas canvas = new LineCanvas();
+    private final JScrollBar verticalBar = new JScrollBar(JScrollBar.VERTICAL);
+    private final JScrollBar horizontalBar = new JScrollBar(JScrollBar.HORIZONTAL);
+    private final JTextField lineField = new JTextField(10);
+    private final JTextField findField = new JTextField(20);
+    private final JCheckBox matchCase = new JCheckBox("Match case");
+    private final JCheckBox follow = new JCheckBox("Follow");
+    private final JButton findButton = new JButton("Find Next");
+    private final JLabel statusLabel = new JLabel(" ");
+    private final Timer refreshTimer;
+
+    private long topLine = 0;
+    private long lineCount = 0;
+    private int widestColumns = 0;
+    private boolean adjusting = false;
+    /* 강조할 줄과 그 안의 열 범위. highlightLength가 0이면 줄 전체를 옅게 표시한다. */
+    private long highlightLine = -1;
+    private int highlightColumn = 0;
+    private int highlightLength = 0;
+    /* 다음 검색을 시작할 위치 */
+    private long searchFrom = 0;
+    private String lastQuery = null;
+    private SwingWorker<long[], Void> searchWorker;
+
+    LargeFileViewer(MappedTextFile file) {
+        super(new BorderLayout(3, 3));
+        this.file = file;
+
+        JButton goButton = new JButton("Go");
+        ActionListener goAction = new ActionListener() {
+            public void actionPerformed(ActionEvent ae) {
+                goToLine();
+            }
+        };
+        goButton.addActionListener(goAction);
+        lineField.addActionListener(goAction);
+        ActionListener findAction = new ActionListener() {
+            public void actionPerformed(ActionEvent ae) {
+                findNext();
+            }
+        };
+        findButton.addActionListener(findAction);
+        findField.addActionListener(findAction);
+        follow.addActionListener(new ActionListener() {
+            public void actionPerformed(ActionEvent ae) {
+                refresh();
+            }
+        });
+        JPanel controls = new JPanel(new FlowLayout(FlowLayout.LEADING));
+        controls.add(new JLabel("Line:"));
+        controls.add(lineField);
+        controls.add(goButton);
+        controls.add(new JLabel("Find:"));
+        controls.add(findField);
+        controls.add(findButton);
+        controls.add(matchCase);
+        controls.add(follow);
+        add(controls, BorderLayout.NORTH);
+
+        JPanel view = new JPanel(new BorderLayout());
+        view.add(canvas, BorderLayout.CENTER);
+        view.add(verticalBar, BorderLayout.EAST);
+        view.add(horizontalBar, BorderLayout.SOUTH);
+        add(view, BorderLayout.CENTER);
+        add(statusLabel, BorderLayout.SOUTH);
+
+        verticalBar.addAdjustmentListener(new AdjustmentListener() {
+            public void adjustmentValueChanged(AdjustmentEvent ae) {
+                if (!adjusting) {
+                    topLine = ae.getValue();
+                    canvas.repaint();
+                }
+            }
+        });
+        horizontalBar.addAdjustmentListener(new AdjustmentListener() {
+            public void adjustmentValueChanged(AdjustmentEvent ae) {
+                canvas.repaint();
+            }
+        });
+
+        refreshTimer = new Timer(REFRESH_MILLIS, new ActionListener() {
+            public void actionPerformed(ActionEvent ae) {
+                refresh();
+            }
+        });
+        file.startIndexing();
+    }
+
+    /**
+     * 인덱싱 진행 상황과 줄 수를 반영한다. Follow가 켜져 있으면 파일이 커졌는지 확인하고 마지막 줄로 이동한다.
+     */
+    void refresh() {
+        if (follow.isSelected()) {
+            try {
+                if (file.checkSize()) {
+                    file.startIndexing();
+                }
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+        long count = file.getLineCount();
+        boolean changed = count != lineCount;
+        lineCount = count;
+        updateScrollBars();
+        if (follow.isSelected()) {
+            scrollTo(Long.MAX_VALUE);
+        } else if (changed) {
+            canvas.repaint();
+        }
+        String status = String.format("%,d lines", lineCount);
+        if (file.isIndexing() || file.getIndexedBytes() < file.size()) {
+            status += String.format("  (indexing %s / %s)", FileManager.formatSize(file.getIndexedBytes()), FileManager.formatSize(file.size()));
+        } else {
+            status += "  " + FileManager.formatSize(file.size());
+        }
+        if (searchWorker != null && !searchWorker.isDone()) {
+            status += "  searching...";
+        }
+        statusLabel.setText(status);
+    }
+
+    private void updateScrollBars() {
+        int rows = canvas.visibleRows();
+        adjusting = true;
+        try {
+            int maximum = (int) Math.min(Integer.MAX_VALUE - 1, lineCount);
+            verticalBar.setValues((int) Math.min(topLine, maximum), Math.min(rows, maximum), 0, maximum);
+            verticalBar.setBlockIncrement(Math.max(1, rows - 1));
+        } finally {
+            adjusting = false;
+        }
+        int textWidth = Math.max(0, canvas.getWidth() - canvas.gutterWidth());
+        int maximum = widestColumns * canvas.charWidth() + 8;
+        horizontalBar.setValues(Math.min(horizontalBar.getValue(), Math.max(0, maximum - textWidth)), textWidth, 0, Math.max(maximum, textWidth));
+        horizontalBar.setBlockIncrement(Math.max(1, textWidth - canvas.charWidth()));
+        horizontalBar.setUnitIncrement(canvas.charWidth());
+    }
+
+    /**
+     * line이 맨 위에 오도록 스크롤한다. 마지막 줄이 화면 아래에 닿으면 더 내려가지 않는다.
+     */
+    private void scrollTo(long line) {
+        long last = Math.max(0, lineCount - canvas.visibleRows() + 1);
+        topLine = Math.max(0, Math.min(line, last));
+        adjusting = true;
+        try {
+            verticalBar.setValue((int) Math.min(topLine, Integer.MAX_VALUE - 1));
+        } finally {
+            adjusting = false;
+        }
+        canvas.repaint();
+    }
+
+    private void goToLine() {
+        long line;
+        try {
+            line = Long.parseLong(lineField.getText().trim().replace(",", ""));
+        } catch (NumberFormatException e) {
+            JOptionPane.showMessageDialog(this, "줄 번호를 숫자로 입력해주세요.", "Go to line", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        if (line < 1 || line > lineCount) {
+            JOptionPane.showMessageDialog(this, file.isIndexing()
+                            ? "아직 " + String.format("%,d", lineCount) + "줄까지만 인덱싱되었습니다."
+                            : "파일은 " + String.format("%,d", lineCount) + "줄입니다.",
+                    "Go to line", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        follow.setSelected(false);
+        highlightLine = line - 1;
+        highlightLength = 0;
+        scrollTo(line - 1 - canvas.visibleRows() / 3);
+        canvas.requestFocusInWindow();
+    }
+
+    /**
+     * 마지막으로 찾은 위치 다음부터 검색한다. 끝까지 없으면 처음부터 다시 찾는다. 인덱싱한 범위 안에서만 찾는다.
+     */
+    private void findNext() {
+        final String query = findField.getText();
+        if (query.isEmpty() || (searchWorker != null && !searchWorker.isDone())) {
+            return;
+        }
+        if (!query.equals(lastQuery)) {
+            searchFrom = 0;
+            lastQuery = query;
+        }
+        final byte[] pattern = query.getBytes(StandardCharsets.UTF_8);
+        final boolean ignoreCase = !matchCase.isSelected();
+        final long from = searchFrom;
+        final long end = file.getIndexedBytes();
+        findButton.setEnabled(false);
+        searchWorker = new SwingWorker<long[], Void>() {
+            @Override
+            public long[] doInBackground() throws IOException {
+                BooleanSupplier cancelled = new BooleanSupplier() {
+                    public boolean getAsBoolean() {
+                        return isCancelled();
+                    }
+                };
+                long offset;
+                ForkJoinPool pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+                try {
+                    offset = file.find(pool, pattern, ignoreCase, from, end, cancelled);
+                    if (offset < 0 && from > 0) { // 처음부터 다시
+                        offset = file.find(pool, pattern, ignoreCase, 0, Math.min(end, from + pattern.length - 1), cancelled);
+                    }
+                } finally {
+                    pool.shutdown();
+                }
+                if (offset < 0) {
+                    return null;
+                }
+                return new long[]{offset, file.lineOf(offset), file.columnOf(offset)};
+            }
+
+            @Override
+            protected void done() {
+                findButton.setEnabled(true);
+                if (isCancelled()) {
+                    return;
+                }
+                try {
+                    long[] match = get();
+                    if (match == null) {
+                        statusLabel.setText("\"" + query + "\"을(를) 찾을 수 없습니다.");
+                        return;
+                    }
+                    follow.setSelected(false);
+                    searchFrom = match[0] + 1;
+                    highlightLine = match[1];
+                    highlightColumn = (int) match[2];
+                    highlightLength = MappedTextFile.expandTabs(query).length();
+                    scrollTo(match[1] - canvas.visibleRows() / 3);
+                    int x = highlightColumn * canvas.charWidth();
+                    int textWidth = canvas.getWidth() - canvas.gutterWidth();
+                    if (x < horizontalBar.getValue() || x > horizontalBar.getValue() + textWidth - 8) {
+                        widestColumns = Math.max(widestColumns, highlightColumn + highlightLength);
+                        updateScrollBars();
+                        horizontalBar.setValue(Math.max(0, x - textWidth / 3));
+                    }
+                } catch (ExecutionException e) {
+                    e.getCause().printStackTrace();
+                    statusLabel.setText("검색 중 오류가 발생했습니다: " + e.getCause().getMessage());
+                } catch (InterruptedException e) {
+                    e.printStackTrace();
+                }
+            }
+        };
+        searchWorker.execute();
+        refresh();
+    }
+
+    /**
+     * 창을 닫을 때 호출한다. 진행 중인 검색을 취소하고 파일을 닫는다.
+     */
+    void close() {
+        refreshTimer.stop();
+        if (searchWorker != null) {
+            searchWorker.cancel(true);
+        }
+        try {
+            file.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    @Override
+    public void addNotify() {
+        super.addNotify();
+        refreshTimer.start();
+    }
+
+    @Override
+    public void removeNotify() {
+        refreshTimer.stop();
+        super.removeNotify();
+    }
+
+    /**
+     * 보이는 줄만 파일에서 읽어 그리는 영역. 왼쪽에 줄 번호를 표시한다.
+     */
+    private final class LineCanvas extends JComponent {
+
+        private final Font font = new Font(Font.MONOSPACED, Font.PLAIN, 12);
+
+        LineCanvas() {
+            setPreferredSize(new Dimension(900, 600));
+            setFocusable(true);
+            addMouseWheelListener(new MouseWheelListener() {
+                public void mouseWheelMoved(MouseWheelEvent e) {
+                    if (e.isShiftDown()) {
+                        horizontalBar.setValue(horizontalBar.getValue() + e.getWheelRotation() * 3 * charWidth());
+                        return;
+                    }
+                    if (e.getWheelRotation() < 0) {
+                        follow.setSelected(false);
+                    }
+                    scrollTo(topLine + e.getWheelRotation() * 3L);
+                }
+            });
+            addMouseListener(new MouseAdapter() {
+                @Override
+                public void mousePressed(MouseEvent e) {
+                    requestFocusInWindow();
+                }
+            });
+            addKeyListener(new KeyAdapter() {
+                @Override
+                public void keyPressed(KeyEvent e) {
+                    int rows = Math.max(1, visibleRows() - 1);
+                    switch (e.getKeyCode()) {
+                        case KeyEvent.VK_UP:
+                            follow.setSelected(false);
+                            scrollTo(topLine - 1);
+                            break;
+                        case KeyEvent.VK_DOWN:
+                            scrollTo(topLine + 1);
+                            break;
+                        case KeyEvent.VK_PAGE_UP:
+                            follow.setSelected(false);
+                            scrollTo(topLine - rows);
+                            break;
+                        case KeyEvent.VK_PAGE_DOWN:
+                            scrollTo(topLine + rows);
+                            break;
+                        case KeyEvent.VK_HOME:
+                            follow.setSelected(false);
+                            scrollTo(0);
+                            break;
+                        case KeyEvent.VK_END:
+                            scrollTo(Long.MAX_VALUE);
+                            break;
+                        default:
+                            return;
+                    }
+                    e.consume();
+                }
+            });
+        }
+
+        int lineHeight() {
+            return getFontMetrics(font).getHeight();
+        }
+
+        int charWidth() {
+            return getFontMetrics(font).charWidth('m');
+        }
+
+        int visibleRows() {
+            return Math.max(1, getHeight() / lineHeight());
+        }
+
+        int gutterWidth() {
+            FontMetrics metrics = getFontMetrics(font);
+            return metrics.stringWidth(Long.toString(Math.max(1000, topLine + visibleRows() + 1))) + 12;
+        }
+
+        @Override
+        protected void paintComponent(Graphics g) {
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, getWidth(), getHeight());
+            g.setFont(font);
+            FontMetrics metrics = g.getFontMetrics();
+            int lineHeight = metrics.getHeight();
+            int charWidth = charWidth();
+            int gutter = gutterWidth();
+            int rows = getHeight() / lineHeight + 1;
+            List<String> lines;
+            try {
+                lines = file.readLines(topLine, rows);
+            } catch (IOException | RuntimeException e) { // 파일이 닫혔거나 잘렸다.
+                g.setColor(Color.RED);
+                g.drawString(String.valueOf(e.getMessage()), gutter, metrics.getAscent());
+                return;
+            }
+            g.setColor(new Color(245, 245, 245));
+            g.fillRect(0, 0, gutter - 4, getHeight());
+
+            int scroll = horizontalBar.getValue();
+            int firstColumn = scroll / charWidth;
+            int columns = (getWidth() - gutter) / charWidth + 2;
+            boolean wider = false;
+            Graphics text = g.create(gutter, 0, getWidth() - gutter, getHeight()); // 줄 번호 영역을 덮지 않도록 잘라서 그린다.
+            for (int ii = 0; ii < lines.size(); ii++) {
+                String line = lines.get(ii);
+                long number = topLine + ii;
+                int y = ii * lineHeight;
+                if (number == highlightLine) {
+                    if (highlightLength > 0) {
+                        text.setColor(HIGHLIGHT);
+                        text.fillRect(highlightColumn * charWidth - scroll, y, highlightLength * charWidth, lineHeight);
+                    } else {
+                        text.setColor(CURRENT_LINE);
+                        text.fillRect(0, y, getWidth(), lineHeight);
+                    }
+                }
+                String label = Long.toString(number + 1);
+                g.setColor(Color.GRAY);
+                g.drawString(label, gutter - 8 - metrics.stringWidth(label), y + metrics.getAscent());
+                if (line.length() > widestColumns) {
+                    widestColumns = line.length();
+                    wider = true;
+                }
+                if (firstColumn < line.length()) { // 보이는 열만 그린다.
+                    text.setColor(Color.BLACK);
+                    text.drawString(line.substring(firstColumn, Math.min(line.length(), firstColumn + columns)),
+                            firstColumn * charWidth - scroll, y + metrics.getAscent());
+                }
+            }
+            text.dispose();
+            if (wider) {
+                updateScrollBars();
+            }
+        }
+    }
+}
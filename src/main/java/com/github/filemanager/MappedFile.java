@@ -0,0 +1,263 @@
+/*
+The MIT License
+
+Copyright (c) 2015-2023 Valentyn Kolesnikov (https://github.com/javadev/file-manager)
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package com.github.filemanager;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.BooleanSupplier;
+
+/**
+ * 파일을 WINDOW_SIZE 크기의 구간으로 나누어 FileChannel.map으로 읽는 클래스. 최근에 읽은 구간만 몇 개 유지하므로 파일 크기와
+ * 관계없이 heap을 거의 쓰지 않고, 열 때 파일을 읽지 않으므로 수십 GB짜리 파일도 바로 열린다. 텍스트 뷰어와 hex 뷰어가 함께 쓴다.
+ */
+final class MappedFile implements Closeable {
+
+    static final int WINDOW_SIZE = 64 << 20;
+    private static final int MAX_CACHED_WINDOWS = 8;
+    private static final int SEARCH_CHUNK_SIZE = 16 << 20; // 병렬 검색에서 작업 하나가 맡는 크기
+
+    private final Path path;
+    private final FileChannel channel;
+    /* 최근에 읽은 구간 (access order). 순차적으로 훑는 인덱싱과 검색은 여기에 넣지 않고 직접 매핑한다. */
+    private final Map<Long, MappedByteBuffer> windows = new LinkedHashMap<Long, MappedByteBuffer>(16, 0.75f, true);
+    private volatile long size;
+    private volatile boolean closed = false;
+
+    MappedFile(Path path) throws IOException {
+        this.path = path;
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        this.size = channel.size();
+    }
+
+    Path getPath() {
+        return path;
+    }
+
+    /**
+     * 마지막으로 확인한 파일 크기
+     */
+    long size() {
+        return size;
+    }
+
+    boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * 파일 크기를 다시 확인한다. 커졌거나 작아졌으면 true를 반환한다. 작아졌으면 매핑해 둔 구간도 버린다.
+     */
+    boolean checkSize() throws IOException {
+        long current = channel.size();
+        if (current == size) {
+            return false;
+        }
+        if (current < size) {
+            synchronized (windows) {
+                windows.clear();
+            }
+        }
+        size = current;
+        return true;
+    }
+
+    /**
+     * 캐시하지 않고 [position, position + length) 를 매핑한다.
+     */
+    MappedByteBuffer map(long position, int length) throws IOException {
+        return channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+    }
+
+    /**
+     * position부터 최대 length 바이트를 buffer에 읽는다.
+     *
+     * @return 읽은 바이트 수. 파일 끝을 넘으면 length보다 작다.
+     */
+    int read(long position, byte[] buffer, int offset, int length) throws IOException {
+        int count = (int) Math.max(0, Math.min(length, size - position));
+        Cursor cursor = new Cursor();
+        for (int ii = 0; ii < count; ii++) {
+            buffer[offset + ii] = cursor.get(position + ii);
+        }
+        return count;
+    }
+
+    private MappedByteBuffer window(long base) throws IOException {
+        synchronized (windows) {
+            MappedByteBuffer buffer = windows.get(base);
+            if (buffer == null || buffer.limit() < Math.min(WINDOW_SIZE, size - base)) { // 처음이거나, 매핑한 뒤 파일이 커졌다.
+                buffer = map(base, (int) Math.min(WINDOW_SIZE, Math.max(size, channel.size()) - base));
+                windows.put(base, buffer);
+                if (windows.size() > MAX_CACHED_WINDOWS) {
+                    windows.remove(windows.keySet().iterator().next());
+                }
+            }
+            return buffer;
+        }
+    }
+
+    /**
+     * 연속된 위치를 읽을 때 구간을 매번 찾지 않도록 현재 구간을 기억한다. 한 스레드에서만 사용한다.
+     */
+    final class Cursor {
+
+        private long base = -1;
+        private MappedByteBuffer buffer;
+
+        byte get(long position) throws IOException {
+            if (buffer == null || position < base || position - base >= buffer.limit()) {
+                base = position / WINDOW_SIZE * WINDOW_SIZE;
+                buffer = window(base);
+            }
+            return buffer.get((int) (position - base));
+        }
+    }
+
+    /**
+     * [from, to) 범위에서 pattern이 처음 나오는 위치를 찾는다. mask가 null이 아니면 mask가 false인 바이트는 아무 값이나
+     * 맞는 것으로 본다 (hex 검색의 ??). ignoreCase이면 ASCII 대소문자를 구분하지 않는다.
+     *
+     * <p>범위를 SEARCH_CHUNK_SIZE 단위로 나누어 pool에서 병렬로 찾는다. 앞쪽 결과가 우선이므로 병렬도의 두 배만큼씩 앞에서부터
+     * 묶어서 실행하고, 결과가 있는 첫 묶음에서 멈춘다.
+     *
+     * @return 찾은 위치, 없거나 cancelled가 true를 반환하면 -1
+     */
+    long find(ForkJoinPool pool, byte[] pattern, boolean[] mask, boolean ignoreCase, long from, long to,
+              BooleanSupplier cancelled) {
+        if (pattern.length == 0) {
+            return -1;
+        }
+        final byte[] needle = ignoreCase ? foldCase(pattern) : pattern;
+        Metrics.Sample sample = Metrics.start("viewer.find");
+        try {
+            int batch = pool.getParallelism() * 2;
+            for (long position = from; position + needle.length <= to; ) {
+                if (closed || cancelled.getAsBoolean()) {
+                    return -1;
+                }
+                List<SearchTask> tasks = new ArrayList<SearchTask>(batch);
+                for (int ii = 0; ii < batch && position + needle.length <= to; ii++, position += SEARCH_CHUNK_SIZE) {
+                    tasks.add(new SearchTask(needle, mask, ignoreCase, position, Math.min(to, position + SEARCH_CHUNK_SIZE), to, cancelled));
+                }
+                for (SearchTask task : tasks) {
+                    pool.execute(task);
+                }
+                long found = -1;
+                for (SearchTask task : tasks) { // 앞 chunk부터 확인하므로 첫 결과가 가장 앞의 위치다.
+                    long result = task.join();
+                    if (found < 0 && result >= 0) {
+                        found = result;
+                    }
+                }
+                if (found >= 0) {
+                    return found;
+                }
+            }
+            return -1;
+        } finally {
+            sample.stop();
+        }
+    }
+
+    /**
+     * [start, end) 에서 시작하는 결과를 찾는다. 경계에 걸친 결과도 찾도록 limit까지 pattern 길이만큼 더 매핑한다.
+     */
+    private final class SearchTask extends RecursiveTask<Long> {
+
+        private final byte[] needle;
+        private final boolean[] mask;
+        private final boolean ignoreCase;
+        private final long start;
+        private final long end;
+        private final long limit;
+        private final BooleanSupplier cancelled;
+
+        SearchTask(byte[] needle, boolean[] mask, boolean ignoreCase, long start, long end, long limit, BooleanSupplier cancelled) {
+            this.needle = needle;
+            this.mask = mask;
+            this.ignoreCase = ignoreCase;
+            this.start = start;
+            this.end = end;
+            this.limit = limit;
+            this.cancelled = cancelled;
+        }
+
+        @Override
+        protected Long compute() {
+            if (closed || cancelled.getAsBoolean()) {
+                return -1L;
+            }
+            try {
+                int length = (int) (Math.min(limit, end + needle.length - 1) - start);
+                MappedByteBuffer buffer = map(start, length);
+                int last = Math.min((int) (end - start), length - needle.length + 1);
+                for (int ii = 0; ii < last; ii++) {
+                    int jj = 0;
+                    while (jj < needle.length && ((mask != null && !mask[jj]) || fold(buffer.get(ii + jj), ignoreCase) == needle[jj])) {
+                        jj++;
+                    }
+                    if (jj == needle.length) {
+                        return start + ii;
+                    }
+                }
+            } catch (IOException e) {
+                if (!closed) {
+                    e.printStackTrace();
+                }
+            }
+            return -1L;
+        }
+    }
+
+    private static byte fold(byte b, boolean ignoreCase) {
+        return ignoreCase && b >= 'A' && b <= 'Z' ? (byte) (b + ('a' - 'A')) : b;
+    }
+
+    private static byte[] foldCase(byte[] bytes) {
+        byte[] folded = new byte[bytes.length];
+        for (int ii = 0; ii < bytes.length; ii++) {
+            folded[ii] = fold(bytes[ii], true);
+        }
+        return folded;
+    }
+
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        synchronized (windows) {
+            windows.clear();
+        }
+        channel.close();
+    }
+}
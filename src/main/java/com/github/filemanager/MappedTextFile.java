@@ -0,0 +1,308 @@
+/*
+The MIT License
+
+Copyright (c) 2015-2023 Valentyn Kolesnikov (https://github.com/javadev/file-manager)
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package com.github.filemanager;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.BooleanSupplier;
+
+/**
+ * 아주 큰 텍스트 파일을 heap에 올리지 않고 줄 단위로 읽기 위한 클래스.
+ *
+ * <p>파일은 MappedFile로 구간 단위로 매핑해서 읽는다. 줄 번호 → 파일 위치 인덱스는 백그라운드 스레드에서 만들며, 모든 줄이 아니라 STRIDE 줄마다 시작 위치만 저장하므로 20 GB 로그도 인덱스는 수십
+ * MB를 넘지 않는다. 인덱싱 도중에도 이미 읽은 부분까지는 볼 수 있다. 파일이 커지면 startIndexing을 다시 호출해서 늘어난 부분만
+ * 인덱싱하고, 작아지면 (로그 rotate 등) 처음부터 다시 인덱싱한다. 텍스트는 UTF-8로 해석한다.
+ */
+final class MappedTextFile implements Closeable {
+
+    private static final int INDEX_CHUNK_SIZE = 8 << 20; // 인덱싱 결과를 이 크기마다 공개한다. 첫 화면이 빨리 나온다.
+    private static final int STRIDE = 64; // 이 줄 수마다 시작 위치를 저장한다.
+    private static final int BLOCK_SIZE = 1 << 16; // 인덱스 배열 하나의 크기 (checkpoint 수)
+    /* 한 줄에서 읽는 최대 바이트 수. 이보다 긴 줄은 잘라서 보여준다. */
+    static final int MAX_LINE_BYTES = 64 * 1024;
+
+    /**
+     * 줄 시작 위치 인덱스. 인덱싱 스레드 하나만 쓰고, 다른 스레드는 volatile 필드를 먼저 읽은 뒤 그 범위 안의 값만 읽는다.
+     */
+    private static final class LineIndex {
+
+        private long[][] blocks = new long[16][];
+        private volatile long lineStarts = 1; // 기록한 줄 시작 위치 수. 0번 줄은 항상 0에서 시작한다.
+        private volatile long lastLineStart = 0;
+        private volatile long indexedBytes = 0;
+        private volatile long lineCount = 0;
+
+        LineIndex() {
+            blocks[0] = new long[BLOCK_SIZE];
+        }
+
+        void addLineStart(long offset) {
+            long line = lineStarts;
+            if (line % STRIDE == 0) {
+                long checkpoint = line / STRIDE;
+                int block = (int) (checkpoint / BLOCK_SIZE);
+                if (block == blocks.length) {
+                    blocks = Arrays.copyOf(blocks, blocks.length * 2);
+                }
+                if (blocks[block] == null) {
+                    blocks[block] = new long[BLOCK_SIZE];
+                }
+                blocks[block][(int) (checkpoint % BLOCK_SIZE)] = offset;
+            }
+            lastLineStart = offset;
+            lineStarts = line + 1;
+        }
+
+        long checkpoint(long checkpoint) {
+            return blocks[(int) (checkpoint / BLOCK_SIZE)][(int) (checkpoint % BLOCK_SIZE)];
+        }
+
+        /**
+         * position까지 인덱싱했음을 알린다. 그 전에는 구간 안의 줄이 기록되고 있어도 다른 스레드에 보이지 않는다.
+         */
+        void publish(long position) {
+            indexedBytes = position;
+            // 마지막 줄바꿈 뒤에 아직 내용이 없으면 그 줄은 세지 않는다.
+            lineCount = lastLineStart >= position ? lineStarts - 1 : lineStarts;
+        }
+
+        /**
+         * 인덱싱한 범위 안의 줄 수
+         */
+        long lineCount() {
+            return lineCount;
+        }
+    }
+
+    private final MappedFile file;
+    private volatile LineIndex index = new LineIndex();
+    private Thread indexer;
+
+    MappedTextFile(Path path) throws IOException {
+        this.file = new MappedFile(path);
+    }
+
+    Path getPath() {
+        return file.getPath();
+    }
+
+    /**
+     * 마지막으로 확인한 파일 크기
+     */
+    long size() {
+        return file.size();
+    }
+
+    long getIndexedBytes() {
+        return index.indexedBytes;
+    }
+
+    long getLineCount() {
+        return index.lineCount();
+    }
+
+    synchronized boolean isIndexing() {
+        return indexer != null && indexer.isAlive();
+    }
+
+    /**
+     * 인덱싱하지 않은 부분이 있으면 백그라운드에서 인덱싱한다. 이미 인덱싱 중이면 아무것도 하지 않는다.
+     */
+    synchronized void startIndexing() {
+        if (file.isClosed() || isIndexing()) {
+            return;
+        }
+        indexer = new Thread(new Runnable() {
+            public void run() {
+                try {
+                    index();
+                } catch (IOException e) {
+                    if (!file.isClosed()) {
+                        e.printStackTrace();
+                    }
+                }
+            }
+        }, "file-indexer");
+        indexer.setDaemon(true);
+        indexer.start();
+    }
+
+    /**
+     * 파일 크기를 다시 확인한다. 커졌거나 작아졌으면 true를 반환한다.
+     */
+    boolean checkSize() throws IOException {
+        return file.checkSize();
+    }
+
+    private void index() throws IOException {
+        Metrics.Sample sample = Metrics.start("viewer.index");
+        try {
+            file.checkSize();
+            long end = file.size();
+            LineIndex lineIndex = index;
+            if (end < lineIndex.indexedBytes) { // 파일이 잘렸다. 처음부터 다시 인덱싱한다.
+                lineIndex = new LineIndex();
+                index = lineIndex;
+            }
+            for (long position = lineIndex.indexedBytes; position < end && !file.isClosed(); ) {
+                int length = (int) Math.min(INDEX_CHUNK_SIZE, end - position);
+                MappedByteBuffer buffer = file.map(position, length);
+                for (int ii = 0; ii < length; ii++) {
+                    if (buffer.get(ii) == '\n') {
+                        lineIndex.addLineStart(position + ii + 1);
+                    }
+                }
+                position += length;
+                lineIndex.publish(position);
+            }
+        } finally {
+            sample.stop();
+        }
+    }
+
+    /**
+     * first 번째 줄부터 최대 count 줄을 읽는다. 인덱싱하지 않은 부분의 줄은 반환하지 않는다. 탭은 공백으로 펼친다.
+     */
+    List<String> readLines(long first, int count) throws IOException {
+        List<String> lines = new ArrayList<String>(count);
+        LineIndex lineIndex = index;
+        long lineCount = lineIndex.lineCount();
+        if (first < 0 || first >= lineCount) {
+            return lines;
+        }
+        long end = lineIndex.indexedBytes;
+        MappedFile.Cursor cursor = file.new Cursor();
+        long position = lineIndex.checkpoint(first / STRIDE);
+        for (long skip = first % STRIDE; skip > 0 && position < end; position++) {
+            if (cursor.get(position) == '\n') {
+                skip--;
+            }
+        }
+        byte[] bytes = new byte[256];
+        for (long line = first; line < lineCount && lines.size() < count && position < end; line++) {
+            int length = 0;
+            while (position < end) {
+                byte b = cursor.get(position++);
+                if (b == '\n') {
+                    break;
+                }
+                if (length < MAX_LINE_BYTES) {
+                    if (length == bytes.length) {
+                        bytes = Arrays.copyOf(bytes, bytes.length * 2);
+                    }
+                    bytes[length++] = b;
+                }
+            }
+            if (length > 0 && bytes[length - 1] == '\r') {
+                length--;
+            }
+            lines.add(expandTabs(new String(bytes, 0, length, StandardCharsets.UTF_8)));
+        }
+        return lines;
+    }
+
+    /**
+     * offset이 속한 줄 번호. offset은 인덱싱한 범위 안이어야 한다.
+     */
+    long lineOf(long offset) throws IOException {
+        LineIndex lineIndex = index;
+        long checkpoints = (lineIndex.lineStarts + STRIDE - 1) / STRIDE;
+        long low = 0;
+        long high = checkpoints - 1;
+        while (low < high) { // checkpoint(k) <= offset 인 가장 큰 k
+            long middle = (low + high + 1) >>> 1;
+            if (lineIndex.checkpoint(middle) <= offset) {
+                low = middle;
+            } else {
+                high = middle - 1;
+            }
+        }
+        long line = low * STRIDE;
+        MappedFile.Cursor cursor = file.new Cursor();
+        for (long position = lineIndex.checkpoint(low); position < offset; position++) {
+            if (cursor.get(position) == '\n') {
+                line++;
+            }
+        }
+        return line;
+    }
+
+    /**
+     * offset이 속한 줄에서 offset 앞에 있는 글자 수 (탭을 펼친 기준)
+     */
+    int columnOf(long offset) throws IOException {
+        MappedFile.Cursor cursor = file.new Cursor();
+        long start = offset;
+        while (start > 0 && offset - start < MAX_LINE_BYTES && cursor.get(start - 1) != '\n') {
+            start--;
+        }
+        byte[] bytes = new byte[(int) (offset - start)];
+        for (int ii = 0; ii < bytes.length; ii++) {
+            bytes[ii] = cursor.get(start + ii);
+        }
+        return expandTabs(new String(bytes, StandardCharsets.UTF_8)).length();
+    }
+
+    /**
+     * [from, to) 범위에서 text가 처음 나오는 위치를 pool에서 병렬로 찾는다. ignoreCase이면 ASCII 대소문자를 구분하지 않는다.
+     *
+     * @return 찾은 위치, 없거나 cancelled가 true를 반환하면 -1
+     */
+    long find(ForkJoinPool pool, byte[] text, boolean ignoreCase, long from, long to, BooleanSupplier cancelled) {
+        return file.find(pool, text, null, ignoreCase, from, to, cancelled);
+    }
+
+    /**
+     * 탭을 8칸 단위의 공백으로 바꾼다. 고정폭 글꼴로 그릴 때 글자 위치와 열 번호가 같아진다.
+     */
+    static String expandTabs(String text) {
+        if (text.indexOf('\t') < 0) {
+            return text;
+        }
+        StringBuilder builder = new StringBuilder(text.length() + 16);
+        for (int ii = 0; ii < text.length(); ii++) {
+            char c = text.charAt(ii);
+            if (c == '\t') {
+                do {
+                    builder.append(' ');
+                } while (builder.length() % 8 != 0);
+            } else {
+                builder.append(c);
+            }
+        }
+        return builder.toString();
+    }
+
+    @Override
+    public void close() throws IOException {
+        file.close();
+    }
+}
@@ -0,0 +1,183 @@
+/*
+The MIT License
+
+Copyright (c) 2015-2023 Valentyn Kolesnikov (https://github.com/javadev/file-manager)
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package com.github.filemanager;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.eclipse.jgit.diff.DiffEntry;
+import org.eclipse.jgit.diff.DiffFormatter;
+import org.eclipse.jgit.diff.Edit;
+import org.eclipse.jgit.lib.AnyObjectId;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectReader;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.merge.MergeStrategy;
+import org.eclipse.jgit.merge.ResolveMerger;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.revwalk.RevWalk;
+import org.eclipse.jgit.treewalk.AbstractTreeIterator;
+import org.eclipse.jgit.treewalk.CanonicalTreeParser;
+import org.eclipse.jgit.treewalk.EmptyTreeIterator;
+import org.eclipse.jgit.util.io.DisabledOutputStream;
+
+/**
+ * 현재 HEAD에 branch를 merge하면 어떻게 되는지 작업 트리와 index를 건드리지 않고 미리 계산한다.
+ *
+ * <p>mergeGitBranch와 같은 RESOLVE 전략의 ResolveMerger를 in-core 모드로 실행하므로 object만 읽고, 같은 subtree는
+ * 건너뛰기 때문에 큰 repository에서도 바뀐 부분만큼만 시간이 든다. 충돌이 없으면 HEAD와 merge 결과 tree의 차이를, 충돌이 있으면
+ * (결과 tree가 만들어지지 않으므로) merge base와 branch 사이의 변경을 파일별로 보여주고 충돌할 파일을 표시한다.
+ * 공통 조상이 없는 branch(unrelated histories)는 빈 tree를 merge base로 보므로 branch의 모든 파일이 추가로 나온다.
+ */
+final class MergePreview {
+
+    enum Outcome {
+        UP_TO_DATE, FAST_FORWARD, CLEAN, CONFLICTING
+    }
+
+    /**
+     * 파일 하나의 변경. conflict이면 merge할 때 충돌한다.
+     */
+    static final class FileChange {
+
+        final String path;
+        final DiffEntry.ChangeType changeType;
+        final boolean conflict;
+        int insertions;
+        int deletions;
+
+        FileChange(String path, DiffEntry.ChangeType changeType, boolean conflict) {
+            this.path = path;
+            this.changeType = changeType;
+            this.conflict = conflict;
+        }
+    }
+
+    final String branch;
+    final Outcome outcome;
+    final List<FileChange> files;
+    final int conflictCount;
+    final int insertions;
+    final int deletions;
+
+    private MergePreview(String branch, Outcome outcome, List<FileChange> files) {
+        this.branch = branch;
+        this.outcome = outcome;
+        this.files = Collections.unmodifiableList(files);
+        int conflicts = 0;
+        int added = 0;
+        int removed = 0;
+        for (FileChange file : files) {
+            conflicts += file.conflict ? 1 : 0;
+            added += file.insertions;
+            removed += file.deletions;
+        }
+        this.conflictCount = conflicts;
+        this.insertions = added;
+        this.deletions = removed;
+    }
+
+    /**
+     * 현재 HEAD에 branch(refs/heads/ 제외한 이름 또는 commit)를 merge한 결과를 계산한다.
+     */
+    static MergePreview compute(Repository repository, String branch) throws IOException {
+        ObjectId headId = repository.resolve(Constants.HEAD);
+        ObjectId branchId = repository.resolve(Constants.R_HEADS + branch); // 같은 이름의 tag보다 branch를 우선한다.
+        if (branchId == null) {
+            branchId = repository.resolve(branch);
+        }
+        if (headId == null || branchId == null) {
+            throw new IOException("commit을 찾을 수 없습니다: " + (headId == null ? Constants.HEAD : branch));
+        }
+        Metrics.Sample sample = Metrics.start("jgit.mergePreview");
+        try (RevWalk walk = new RevWalk(repository)) {
+            RevCommit head = walk.parseCommit(headId);
+            RevCommit other = walk.parseCommit(branchId);
+            if (walk.isMergedInto(other, head)) {
+                return new MergePreview(branch, Outcome.UP_TO_DATE, new ArrayList<FileChange>());
+            }
+            walk.reset();
+            if (walk.isMergedInto(head, other)) {
+                return new MergePreview(branch, Outcome.FAST_FORWARD,
+                        diff(repository, head.getTree(), other.getTree(), Collections.<String>emptySet()));
+            }
+
+            ResolveMerger merger = (ResolveMerger) MergeStrategy.RESOLVE.newMerger(repository, true); // in-core: 작업 트리와 index를 쓰지 않는다.
+            if (merger.merge(head, other)) {
+                return new MergePreview(branch, Outcome.CLEAN,
+                        diff(repository, head.getTree(), merger.getResultTreeId(), Collections.<String>emptySet()));
+            }
+            Set<String> conflicts = new HashSet<String>(merger.getUnmergedPaths());
+            if (merger.getFailingPaths() != null) {
+                conflicts.addAll(merger.getFailingPaths().keySet());
+            }
+            ObjectId baseId = merger.getBaseCommitId(); // 공통 조상이 없으면 null
+            List<FileChange> files = diff(repository, baseId == null ? null : walk.parseCommit(baseId).getTree(), other.getTree(), conflicts);
+            Set<String> listed = new HashSet<String>();
+            for (FileChange file : files) {
+                listed.add(file.path);
+            }
+            for (String path : conflicts) { // branch 쪽에서는 바뀌지 않았지만 충돌하는 경로 (예: 한쪽에서만 지운 경우)
+                if (!listed.contains(path)) {
+                    files.add(new FileChange(path, DiffEntry.ChangeType.MODIFY, true));
+                }
+            }
+            return new MergePreview(branch, Outcome.CONFLICTING, files);
+        } catch (IOException | RuntimeException e) {
+            sample.error();
+            throw e;
+        } finally {
+            sample.stop();
+        }
+    }
+
+    /**
+     * from과 to tree 사이의 변경을 파일별 추가/삭제 줄 수와 함께 반환한다. 바이너리 파일은 줄 수가 0이다.
+     * from이 null이면 빈 tree와 비교한다.
+     */
+    private static List<FileChange> diff(Repository repository, AnyObjectId from, AnyObjectId to, Set<String> conflicts)
+            throws IOException {
+        List<FileChange> files = new ArrayList<FileChange>();
+        try (DiffFormatter formatter = new DiffFormatter(DisabledOutputStream.INSTANCE);
+             ObjectReader reader = repository.newObjectReader()) {
+            formatter.setRepository(repository);
+            AbstractTreeIterator fromTree = from == null ? new EmptyTreeIterator() : new CanonicalTreeParser(null, reader, from);
+            for (DiffEntry entry : formatter.scan(fromTree, new CanonicalTreeParser(null, reader, to))) {
+                String path = entry.getChangeType() == DiffEntry.ChangeType.DELETE ? entry.getOldPath() : entry.getNewPath();
+                FileChange file = new FileChange(path, entry.getChangeType(), conflicts.contains(path));
+                for (Edit edit : formatter.toFileHeader(entry).toEditList()) {
+                    file.insertions += edit.getLengthB();
+                    file.deletions += edit.getLengthA();
+                }
+                files.add(file);
+            }
+        }
+        return files;
+    }
+}
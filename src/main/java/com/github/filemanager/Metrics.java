@@ -0,0 +1,551 @@
+/*
+The MIT License
+
+Copyright (c) 2015-2023 Valentyn Kolesnikov (https://github.com/javadev/file-manager)
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package com.github.filemanager;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.AttributeNotFoundException;
+import javax.management.DynamicMBean;
+import javax.management.JMException;
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanInfo;
+import javax.management.MBeanOperationInfo;
+import javax.management.MBeanParameterInfo;
+import javax.management.ObjectName;
+
+/**
+ * 작업별 소요 시간 분포, 호출/오류 횟수, 외부 프로세스 실행 횟수, 캐시 적중률을 모으는 전역 레지스트리.
+ *
+ * <p>작업 이름은 종류별 접두어를 붙인다: jgit.* (JGit 호출), exec.* (git 등 외부 프로세스, 시작부터 종료까지),
+ * fs.* (파일 작업과 디렉토리 목록), status.* (git 상태 계산과 적용). 모든 메서드는 어느 스레드에서나 호출할 수 있다.
+ * 값은 JMX (com.github.filemanager:type=Metrics)와 진단 창(DiagnosticsPanel)에서 볼 수 있다.
+ *
+ * <pre>
+ * Metrics.Sample sample = Metrics.start("fs.copy");
+ * try {
+ *     ...
+ * } catch (IOException e) {
+ *     sample.error();
+ *     ...
+ * } finally {
+ *     sample.stop();
+ * }
+ * </pre>
+ */
+final class Metrics {
+
+    static final String OBJECT_NAME = "com.github.filemanager:type=Metrics";
+    static final String SPAWN_COUNTER = "exec.spawns";
+
+    private static final Map<String, Operation> operations = new ConcurrentSkipListMap<String, Operation>();
+    private static final Map<String, LongAdder> counters = new ConcurrentSkipListMap<String, LongAdder>();
+    private static final Map<String, Cache> caches = new ConcurrentSkipListMap<String, Cache>();
+
+    private Metrics() {
+    }
+
+    /**
+     * 작업 하나의 소요 시간 분포. 마이크로초 단위로 2의 거듭제곱 구간마다 4개의 하위 구간을 두며, 백분위수는 해당 구간의
+     * 상한으로 근사한다 (오차 25% 이내).
+     */
+    static final class Operation {
+
+        private static final int SUB_BUCKETS = 4;
+        private static final int BUCKETS = 40 * SUB_BUCKETS;
+
+        final String name;
+        private final LongAdder count = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+
+        Operation(String name) {
+            this.name = name;
+        }
+
+        void record(long nanos, boolean error) {
+            count.increment();
+            if (error) {
+                errors.increment();
+            }
+            totalNanos.add(nanos);
+            long max = maxNanos.get();
+            while (nanos > max && !maxNanos.compareAndSet(max, nanos)) {
+                max = maxNanos.get();
+            }
+            buckets.incrementAndGet(Math.min(BUCKETS - 1, bucket(Math.max(1, nanos / 1000))));
+        }
+
+        private static int bucket(long micros) {
+            int log = 63 - Long.numberOfLeadingZeros(micros);
+            int sub = log >= 2 ? (int) ((micros >>> (log - 2)) & (SUB_BUCKETS - 1)) : 0;
+            return log * SUB_BUCKETS + sub;
+        }
+
+        private static long upperBoundMicros(int bucket) {
+            int log = bucket / SUB_BUCKETS;
+            int sub = bucket % SUB_BUCKETS;
+            return log >= 2 ? (long) (SUB_BUCKETS + sub + 1) << (log - 2) : 1L << (log + 1);
+        }
+
+        long getCount() {
+            return count.sum();
+        }
+
+        long getErrorCount() {
+            return errors.sum();
+        }
+
+        double getMeanMillis() {
+            long n = count.sum();
+            return n == 0 ? 0 : totalNanos.sum() / 1e6 / n;
+        }
+
+        double getMaxMillis() {
+            return maxNanos.get() / 1e6;
+        }
+
+        /**
+         * @param fraction 0과 1 사이 (예: 0.99)
+         */
+        double getPercentileMillis(double fraction) {
+            long[] snapshot = new long[BUCKETS];
+            long total = 0;
+            for (int ii = 0; ii < BUCKETS; ii++) {
+                snapshot[ii] = buckets.get(ii);
+                total += snapshot[ii];
+            }
+            if (total == 0) {
+                return 0;
+            }
+            long rank = (long) Math.ceil(fraction * total);
+            long seen = 0;
+            for (int ii = 0; ii < BUCKETS; ii++) {
+                seen += snapshot[ii];
+                if (seen >= rank) {
+                    return Math.min(upperBoundMicros(ii) / 1000.0, getMaxMillis());
+                }
+            }
+            return getMaxMillis();
+        }
+
+        void reset() {
+            count.reset();
+            errors.reset();
+            totalNanos.reset();
+            maxNanos.set(0);
+            for (int ii = 0; ii < BUCKETS; ii++) {
+                buckets.set(ii, 0);
+            }
+        }
+    }
+
+    /**
+     * 진행 중인 측정 하나. stop을 여러 번 호출해도 한 번만 기록된다.
+     */
+    static final class Sample {
+
+        private final Operation operation;
+        private final long start = System.nanoTime();
+        private boolean error;
+        private boolean stopped;
+
+        private Sample(Operation operation) {
+            this.operation = operation;
+        }
+
+        void error() {
+            error = true;
+        }
+
+        void stop() {
+            if (!stopped) {
+                stopped = true;
+                operation.record(System.nanoTime() - start, error);
+            }
+        }
+    }
+
+    static final class Cache {
+
+        final String name;
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder misses = new LongAdder();
+
+        Cache(String name) {
+            this.name = name;
+        }
+
+        long getHits() {
+            return hits.sum();
+        }
+
+        long getMisses() {
+            return misses.sum();
+        }
+
+        double getHitRate() {
+            long h = hits.sum();
+            long total = h + misses.sum();
+            return total == 0 ? 0 : (double) h / total;
+        }
+
+        void reset() {
+            hits.reset();
+            misses.reset();
+        }
+    }
+
+    static Sample start(String operation) {
+        return new Sample(operation(operation));
+    }
+
+    static void record(String operation, long nanos, boolean error) {
+        operation(operation).record(nanos, error);
+    }
+
+    static void increment(String counter) {
+        LongAdder adder = counters.get(counter);
+        if (adder == null) {
+            counters.putIfAbsent(counter, new LongAdder());
+            adder = counters.get(counter);
+        }
+        adder.increment();
+    }
+
+    static void cacheHit(String cache) {
+        cache(cache).hits.increment();
+    }
+
+    static void cacheMiss(String cache) {
+        cache(cache).misses.increment();
+    }
+
+    /**
+     * ProcessBuilder.start 대신 사용한다. 실행 횟수를 세고, 프로세스가 끝날 때까지의 시간을 exec.&lt;명령&gt; 작업으로 기록한다
+     * (종료 코드가 0이 아니면 오류). 시간은 waitFor가 반환되거나 exitValue가 처음 성공했을 때 기록되므로, 출력을 다 읽은 뒤에도
+     * waitFor를 호출해야 한다.
+     */
+    static Process startProcess(ProcessBuilder builder) throws IOException {
+        increment(SPAWN_COUNTER);
+        Sample sample = start(commandName(builder.command())); // 프로세스 생성 시간도 포함한다.
+        FlightEvents.ExternalProcess event = new FlightEvents.ExternalProcess();
+        event.begin();
+        if (event.isEnabled()) {
+            event.command = String.join(" ", builder.command());
+            event.directory = builder.directory() != null ? builder.directory().getPath() : null;
+        }
+        try {
+            return new MeasuredProcess(builder.start(), sample, event);
+        } catch (IOException e) {
+            sample.error();
+            sample.stop();
+            event.exitValue = -1;
+            event.commit();
+            throw e;
+        }
+    }
+
+    /**
+     * 예: [git, rm, --cached, a.txt] -> exec.git-rm, [git, --version] -> exec.git
+     */
+    static String commandName(List<String> command) {
+        StringBuilder name = new StringBuilder("exec.");
+        name.append(command.isEmpty() ? "?" : new File(command.get(0)).getName());
+        if (command.size() > 1 && !command.get(1).startsWith("-")) {
+            name.append('-').append(command.get(1));
+        }
+        return name.toString();
+    }
+
+    static List<Operation> getOperations() {
+        return new ArrayList<Operation>(operations.values());
+    }
+
+    static Map<String, Long> getCounters() {
+        Map<String, Long> snapshot = new ConcurrentSkipListMap<String, Long>();
+        for (Map.Entry<String, LongAdder> counter : counters.entrySet()) {
+            snapshot.put(counter.getKey(), counter.getValue().sum());
+        }
+        return snapshot;
+    }
+
+    static List<Cache> getCaches() {
+        return new ArrayList<Cache>(caches.values());
+    }
+
+    static void reset() {
+        for (Operation operation : operations.values()) {
+            operation.reset();
+        }
+        for (LongAdder counter : counters.values()) {
+            counter.reset();
+        }
+        for (Cache cache : caches.values()) {
+            cache.reset();
+        }
+    }
+
+    /**
+     * 플랫폼 MBeanServer에 등록한다. jconsole 등에서 com.github.filemanager:type=Metrics로 볼 수 있다.
+     */
+    static void registerMBean() {
+        try {
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (!ManagementFactory.getPlatformMBeanServer().isRegistered(name)) {
+                ManagementFactory.getPlatformMBeanServer().registerMBean(new MetricsMBean(), name);
+            }
+        } catch (JMException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private static Operation operation(String name) {
+        Operation operation = operations.get(name);
+        if (operation == null) {
+            operations.putIfAbsent(name, new Operation(name));
+            operation = operations.get(name);
+        }
+        return operation;
+    }
+
+    private static Cache cache(String name) {
+        Cache cache = caches.get(name);
+        if (cache == null) {
+            caches.putIfAbsent(name, new Cache(name));
+            cache = caches.get(name);
+        }
+        return cache;
+    }
+
+    /**
+     * 종료 시점을 기록하기 위해 Process를 감싼다. 나머지는 그대로 위임한다.
+     */
+    private static final class MeasuredProcess extends Process {
+
+        private final Process process;
+        private final Sample sample;
+        private FlightEvents.ExternalProcess event;
+
+        MeasuredProcess(Process process, Sample sample, FlightEvents.ExternalProcess event) {
+            this.process = process;
+            this.sample = sample;
+            this.event = event;
+        }
+
+        private synchronized void finished(int exitValue) {
+            if (exitValue != 0) {
+                sample.error();
+            }
+            sample.stop();
+            if (event != null) { // Sample과 달리 이벤트는 한 번만 commit해야 한다.
+                event.exitValue = exitValue;
+                event.commit();
+                event = null;
+            }
+        }
+
+        @Override
+        public OutputStream getOutputStream() {
+            return process.getOutputStream();
+        }
+
+        @Override
+        public InputStream getInputStream() {
+            return process.getInputStream();
+        }
+
+        @Override
+        public InputStream getErrorStream() {
+            return process.getErrorStream();
+        }
+
+        @Override
+        public int waitFor() throws InterruptedException {
+            int exitValue = process.waitFor();
+            finished(exitValue);
+            return exitValue;
+        }
+
+        @Override
+        public boolean waitFor(long timeout, TimeUnit unit) throws InterruptedException {
+            boolean exited = process.waitFor(timeout, unit);
+            if (exited) {
+                finished(process.exitValue());
+            }
+            return exited;
+        }
+
+        @Override
+        public int exitValue() {
+            int exitValue = process.exitValue();
+            finished(exitValue);
+            return exitValue;
+        }
+
+        @Override
+        public boolean isAlive() {
+            return process.isAlive();
+        }
+
+        @Override
+        public void destroy() {
+            process.destroy();
+        }
+
+        @Override
+        public Process destroyForcibly() {
+            process.destroyForcibly();
+            return this;
+        }
+    }
+
+    /**
+     * 모든 값을 이름.count, 이름.p99Millis 같은 속성으로 보여주는 DynamicMBean. 새 작업이 생기면 속성도 늘어난다.
+     */
+    private static final class MetricsMBean implements DynamicMBean {
+
+        @Override
+        public Object getAttribute(String attribute) throws AttributeNotFoundException {
+            int dot = attribute.lastIndexOf('.');
+            String name = dot < 0 ? attribute : attribute.substring(0, dot);
+            String field = dot < 0 ? "" : attribute.substring(dot + 1);
+            Operation operation = operations.get(name);
+            if (operation != null) {
+                switch (field) {
+                    case "count":
+                        return operation.getCount();
+                    case "errors":
+                        return operation.getErrorCount();
+                    case "meanMillis":
+                        return operation.getMeanMillis();
+                    case "p50Millis":
+                        return operation.getPercentileMillis(0.5);
+                    case "p90Millis":
+                        return operation.getPercentileMillis(0.9);
+                    case "p99Millis":
+                        return operation.getPercentileMillis(0.99);
+                    case "maxMillis":
+                        return operation.getMaxMillis();
+                    default:
+                        break;
+                }
+            }
+            Cache cache = caches.get(name);
+            if (cache != null) {
+                switch (field) {
+                    case "hits":
+                        return cache.getHits();
+                    case "misses":
+                        return cache.getMisses();
+                    case "hitRate":
+                        return cache.getHitRate();
+                    default:
+                        break;
+                }
+            }
+            LongAdder counter = counters.get(attribute);
+            if (counter != null) {
+                return counter.sum();
+            }
+            throw new AttributeNotFoundException(attribute);
+        }
+
+        @Override
+        public void setAttribute(Attribute attribute) throws AttributeNotFoundException {
+            throw new AttributeNotFoundException("read only: " + attribute.getName());
+        }
+
+        @Override
+        public AttributeList getAttributes(String[] attributes) {
+            AttributeList list = new AttributeList();
+            for (String attribute : attributes) {
+                try {
+                    list.add(new Attribute(attribute, getAttribute(attribute)));
+                } catch (AttributeNotFoundException e) {
+                    // 그 사이에 없어진 속성은 건너뛴다.
+                }
+            }
+            return list;
+        }
+
+        @Override
+        public AttributeList setAttributes(AttributeList attributes) {
+            return new AttributeList();
+        }
+
+        @Override
+        public Object invoke(String actionName, Object[] params, String[] signature) {
+            if ("reset".equals(actionName)) {
+                reset();
+            }
+            return null;
+        }
+
+        @Override
+        public MBeanInfo getMBeanInfo() {
+            List<MBeanAttributeInfo> attributes = new ArrayList<MBeanAttributeInfo>();
+            for (String name : operations.keySet()) {
+                attributes.add(attribute(name + ".count", "long", "calls"));
+                attributes.add(attribute(name + ".errors", "long", "failed calls"));
+                attributes.add(attribute(name + ".meanMillis", "double", "mean latency (ms)"));
+                attributes.add(attribute(name + ".p50Millis", "double", "median latency (ms)"));
+                attributes.add(attribute(name + ".p90Millis", "double", "90th percentile latency (ms)"));
+                attributes.add(attribute(name + ".p99Millis", "double", "99th percentile latency (ms)"));
+                attributes.add(attribute(name + ".maxMillis", "double", "maximum latency (ms)"));
+            }
+            for (String name : counters.keySet()) {
+                attributes.add(attribute(name, "long", "counter"));
+            }
+            for (String name : caches.keySet()) {
+                attributes.add(attribute(name + ".hits", "long", "cache hits"));
+                attributes.add(attribute(name + ".misses", "long", "cache misses"));
+                attributes.add(attribute(name + ".hitRate", "double", "cache hit rate (0-1)"));
+            }
+            MBeanOperationInfo resetOperation = new MBeanOperationInfo("reset", "Reset all metrics",
+                    new MBeanParameterInfo[0], "void", MBeanOperationInfo.ACTION);
+            return new MBeanInfo(getClass().getName(), "File manager operation metrics",
+                    attributes.toArray(new MBeanAttributeInfo[0]), null, new MBeanOperationInfo[]{resetOperation}, null);
+        }
+
+        private static MBeanAttributeInfo attribute(String name, String type, String description) {
+            return new MBeanAttributeInfo(name, type, description, true, false, false);
+        }
+    }
+}
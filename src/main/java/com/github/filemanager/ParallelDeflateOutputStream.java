@@ -0,0 +1,192 @@
+/*
+The MIT License
+
+Copyright (c) 2015-2023 Valentyn Kolesnikov (https://github.com/javadev/file-manager)
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package com.github.filemanager;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * pigz처럼 입력을 BLOCK_SIZE 단위로 나누어 여러 스레드에서 따로 압축하고, 입력 순서대로 이어 붙여 하나의 raw deflate
+ * 스트림으로 쓴다.
+ *
+ * <p>각 블록에는 앞 블록의 마지막 32KB를 사전(dictionary)으로 주므로 압축률은 한 스레드로 압축한 것과 거의 같다. 블록은
+ * SYNC_FLUSH로 바이트 경계에서 끝나므로 그대로 이어 붙여도 올바른 deflate 스트림이 되고, 마지막 블록만 FINISH로 닫는다.
+ * 압축 중인 블록 수는 pool의 병렬도에 비례하게 제한하므로 입력이 아무리 커도 메모리 사용량은 일정하다. 압축 전 데이터의 CRC32와
+ * 크기는 gzip trailer나 zip data descriptor에 쓸 수 있도록 함께 계산한다.
+ *
+ * <p>finish는 하위 스트림을 닫지 않으므로 zip의 항목처럼 같은 출력에 여러 스트림을 이어서 쓸 수 있다.
+ */
+final class ParallelDeflateOutputStream extends OutputStream {
+
+    static final int BLOCK_SIZE = 128 * 1024;
+    private static final int DICTIONARY_SIZE = 32 * 1024;
+
+    private final OutputStream out;
+    private final ForkJoinPool pool;
+    private final int level;
+    private final int maxPending;
+    private final ArrayDeque<ForkJoinTask<byte[]>> pending = new ArrayDeque<ForkJoinTask<byte[]>>();
+    private final CRC32 crc = new CRC32();
+    private byte[] block = new byte[BLOCK_SIZE];
+    private int blockLength = 0;
+    private byte[] previous; // 앞 블록. 마지막 32KB가 다음 블록의 사전이 된다.
+    private long bytesIn = 0;
+    private long bytesOut = 0;
+    private boolean finished = false;
+
+    ParallelDeflateOutputStream(OutputStream out, ForkJoinPool pool, int level) {
+        this.out = out;
+        this.pool = pool;
+        this.level = level;
+        this.maxPending = pool.getParallelism() * 2;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        block[blockLength++] = (byte) b;
+        if (blockLength == BLOCK_SIZE) {
+            submit(false);
+        }
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        if (finished) {
+            throw new IOException("Stream already finished");
+        }
+        while (len > 0) {
+            int n = Math.min(len, BLOCK_SIZE - blockLength);
+            System.arraycopy(b, off, block, blockLength, n);
+            blockLength += n;
+            off += n;
+            len -= n;
+            if (blockLength == BLOCK_SIZE) {
+                submit(false);
+            }
+        }
+    }
+
+    /**
+     * 남은 입력을 압축해서 deflate 스트림을 끝낸다. 하위 스트림은 닫지 않는다.
+     */
+    void finish() throws IOException {
+        if (finished) {
+            return;
+        }
+        submit(true);
+        while (!pending.isEmpty()) {
+            writeOldest();
+        }
+        finished = true;
+    }
+
+    /**
+     * 압축 전 데이터의 CRC32. finish 뒤에 호출한다.
+     */
+    long getCrc() {
+        return crc.getValue();
+    }
+
+    long getBytesIn() {
+        return bytesIn;
+    }
+
+    long getBytesOut() {
+        return bytesOut;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush(); // 블록을 채우기 전에 압축하면 압축률이 떨어지므로 완성된 블록만 내보낸다.
+    }
+
+    @Override
+    public void close() throws IOException {
+        finish();
+        out.close();
+    }
+
+    private void submit(final boolean last) throws IOException {
+        final byte[] input = block;
+        final int length = blockLength;
+        final byte[] dictionary = previous;
+        crc.update(input, 0, length);
+        bytesIn += length;
+        pending.add(pool.submit(() -> compress(input, length, dictionary, last, level)));
+        previous = input; // 마지막이 아닌 블록은 항상 BLOCK_SIZE만큼 차 있다.
+        block = new byte[BLOCK_SIZE];
+        blockLength = 0;
+        while (pending.size() >= maxPending) {
+            writeOldest();
+        }
+    }
+
+    private void writeOldest() throws IOException {
+        byte[] compressed;
+        try {
+            compressed = pending.poll().join();
+        } catch (RuntimeException e) {
+            throw new IOException("Compression failed", e);
+        }
+        out.write(compressed);
+        bytesOut += compressed.length;
+    }
+
+    private static byte[] compress(byte[] input, int length, byte[] dictionary, boolean last, int level) {
+        Deflater deflater = new Deflater(level, true);
+        try {
+            if (dictionary != null) {
+                deflater.setDictionary(dictionary, BLOCK_SIZE - DICTIONARY_SIZE, DICTIONARY_SIZE);
+            }
+            deflater.setInput(input, 0, length);
+            if (last) {
+                deflater.finish();
+            }
+            byte[] output = new byte[length + (length >> 3) + 64];
+            int position = 0;
+            while (true) {
+                if (position == output.length) {
+                    output = Arrays.copyOf(output, output.length * 2);
+                }
+                int space = output.length - position;
+                int n = last ? deflater.deflate(output, position, space)
+                        : deflater.deflate(output, position, space, Deflater.SYNC_FLUSH);
+                position += n;
+                // SYNC_FLUSH는 출력 버퍼를 다 채우지 못했을 때 블록을 모두 내보낸 것이다.
+                if (last ? deflater.finished() : n < space) {
+                    break;
+                }
+            }
+            return Arrays.copyOf(output, position);
+        } finally {
+            deflater.end();
+        }
+    }
+}
@@ -0,0 +1,340 @@
+/*
+The MIT License
+
+Copyright (c) 2015-2023 Valentyn Kolesnikov (https://github.com/javadev/file-manager)
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package com.github.filemanager;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.Ref;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.storage.file.FileRepositoryBuilder;
+
+/**
+ * repository별 branch 목록과 HEAD를 메모리에 들고 있는 캐시.
+ *
+ * <p>.git 디렉토리(HEAD, packed-refs)와 refs/heads 아래의 디렉토리를 DirectoryWatcher로 감시하다가 바뀌면 무효화하고, 다음
+ * 조회 때 한 번만 다시 읽는다. 그 사이의 조회(같은 이름의 branch가 있는지, 어떤 commit을 가리키는 branch가 무엇인지)는 해시
+ * 조회로 끝난다. HEAD가 바뀌면 HEAD 파일만 다시 읽어 HeadListener에게 알린다 (감시 스레드에서 호출된다).
+ *
+ * <p>감시를 등록하지 못한 repository는 조회할 때마다 다시 읽는다. git 명령을 직접 실행한 뒤에는 감시 이벤트를 기다리지 말고
+ * invalidate를 호출한다.
+ */
+final class RefCache {
+
+    /**
+     * HEAD가 가리키는 branch가 바뀌었을 때 호출된다. branch는 Repository.getBranch와 같은 형식이다 (detached면 commit id).
+     */
+    interface HeadListener {
+
+        void headChanged(RefCache cache, String branch);
+    }
+
+    private static final int MAX_WATCHED_DIRECTORIES = 4096;
+    private static final String HEAD_PREFIX = "ref: ";
+
+    private static final Map<Path, RefCache> caches = new ConcurrentHashMap<Path, RefCache>();
+    private static DirectoryWatcher watcher;
+    private static boolean watcherFailed = false;
+
+    private final Path gitDir;
+    private final AtomicLong version = new AtomicLong();
+    private final List<HeadListener> headListeners = new CopyOnWriteArrayList<HeadListener>();
+    private volatile boolean watching = false;
+    private volatile Snapshot snapshot;
+    private volatile String lastHead;
+
+    private RefCache(Path gitDir) {
+        this.gitDir = gitDir;
+    }
+
+    /**
+     * .git 디렉토리에 해당하는 캐시를 반환한다. 처음 요청할 때 감시를 등록한다.
+     */
+    static RefCache forRepository(File gitDir) {
+        Path key = gitDir.toPath().toAbsolutePath().normalize();
+        RefCache cache = caches.get(key);
+        if (cache == null) {
+            RefCache created = new RefCache(key);
+            cache = caches.putIfAbsent(key, created);
+            if (cache == null) {
+                cache = created;
+                cache.watch();
+            }
+        }
+        return cache;
+    }
+
+    /**
+     * 한 시점의 branch 목록. 만든 뒤에는 바뀌지 않는다.
+     */
+    private static final class Snapshot {
+
+        final long version;
+        final String headBranch;
+        final Map<String, ObjectId> branches; // 짧은 이름(refs/heads/ 제외) 순서
+        final Map<ObjectId, List<String>> branchesById;
+
+        Snapshot(long version, String headBranch, Map<String, ObjectId> branches, Map<ObjectId, List<String>> branchesById) {
+            this.version = version;
+            this.headBranch = headBranch;
+            this.branches = branches;
+            this.branchesById = branchesById;
+        }
+    }
+
+    File getGitDir() {
+        return gitDir.toFile();
+    }
+
+    String getHeadBranch() throws IOException {
+        return snapshot().headBranch;
+    }
+
+    /**
+     * branch 이름(refs/heads/ 제외)과 가리키는 commit. 이름 순서이며 수정할 수 없다.
+     */
+    Map<String, ObjectId> getBranches() throws IOException {
+        return snapshot().branches;
+    }
+
+    boolean hasBranch(String name) throws IOException {
+        return snapshot().branches.containsKey(name);
+    }
+
+    /**
+     * id를 가리키는 branch 이름들. 없으면 빈 목록.
+     */
+    List<String> getBranchesAt(ObjectId id) throws IOException {
+        List<String> names = snapshot().branchesById.get(id);
+        return names == null ? Collections.<String>emptyList() : names;
+    }
+
+    /**
+     * 다음 조회 때 다시 읽게 한다.
+     */
+    void invalidate() {
+        version.incrementAndGet();
+    }
+
+    void addHeadListener(HeadListener listener) {
+        headListeners.add(listener);
+    }
+
+    void removeHeadListener(HeadListener listener) {
+        headListeners.remove(listener);
+    }
+
+    private Snapshot snapshot() throws IOException {
+        Snapshot current = snapshot;
+        if (current != null && watching && current.version == version.get()) {
+            Metrics.cacheHit("refs");
+            return current;
+        }
+        synchronized (this) {
+            current = snapshot;
+            if (current != null && watching && current.version == version.get()) {
+                Metrics.cacheHit("refs");
+                return current;
+            }
+            Metrics.cacheMiss("refs");
+            current = load(version.get()); // 읽는 도중에 무효화되면 version이 달라지므로 다음 조회에서 다시 읽는다.
+            snapshot = current;
+            lastHead = current.headBranch;
+            return current;
+        }
+    }
+
+    private Snapshot load(long loadedVersion) throws IOException {
+        try (Repository repository = FileManager.openRepository(new FileRepositoryBuilder().setGitDir(gitDir.toFile()).readEnvironment())) {
+            Ref head = repository.exactRef(Constants.HEAD);
+            String headBranch = head == null ? null : branchName(head);
+
+            Map<String, ObjectId> branches = new TreeMap<String, ObjectId>();
+            Map<ObjectId, List<String>> branchesById = new HashMap<ObjectId, List<String>>();
+            for (Ref ref : repository.getRefDatabase().getRefsByPrefix(Constants.R_HEADS)) {
+                ObjectId id = ref.getObjectId();
+                if (id == null) {
+                    continue;
+                }
+                String name = Repository.shortenRefName(ref.getName());
+                branches.put(name, id);
+                List<String> names = branchesById.get(id);
+                if (names == null) {
+                    names = new ArrayList<String>(1);
+                    branchesById.put(id, names);
+                }
+                names.add(name);
+            }
+            return new Snapshot(loadedVersion, headBranch, Collections.unmodifiableMap(branches), branchesById);
+        }
+    }
+
+    private static String branchName(Ref head) {
+        if (head.isSymbolic()) {
+            return Repository.shortenRefName(head.getTarget().getName());
+        }
+        return head.getObjectId() == null ? null : head.getObjectId().getName();
+    }
+
+    /**
+     * .git/HEAD 파일만 읽는다. 예: "ref: refs/heads/main" -> main
+     */
+    private String readHead() throws IOException {
+        String content = new String(Files.readAllBytes(gitDir.resolve(Constants.HEAD)), StandardCharsets.UTF_8).trim();
+        return content.startsWith(HEAD_PREFIX)
+                ? Repository.shortenRefName(content.substring(HEAD_PREFIX.length()).trim())
+                : content;
+    }
+
+    private void headChanged() {
+        invalidate();
+        String head;
+        try {
+            head = readHead();
+        } catch (IOException e) { // checkout 도중이라 잠시 없을 수 있다. 다음 이벤트에서 다시 읽는다.
+            return;
+        }
+        if (head.equals(lastHead)) {
+            return;
+        }
+        lastHead = head;
+        for (HeadListener listener : headListeners) {
+            listener.headChanged(this, head);
+        }
+    }
+
+    private void changed(Path dir, Path child) {
+        String name = child.getFileName().toString();
+        if (name.endsWith(".lock")) { // git은 .lock 파일에 쓴 다음 이름을 바꾸므로 이름이 바뀔 때의 이벤트만 보면 된다.
+            return;
+        }
+        if (!dir.equals(gitDir)) { // refs 아래
+            if (Files.isDirectory(child)) {
+                watchTree(child);
+            }
+            invalidate();
+        } else if (name.equals(Constants.HEAD)) {
+            headChanged();
+        } else if (name.equals(Constants.PACKED_REFS)) {
+            invalidate();
+        }
+    }
+
+    private void watch() {
+        DirectoryWatcher directoryWatcher = watcher();
+        if (directoryWatcher == null || Files.exists(gitDir.resolve("commondir"))) { // worktree의 refs는 다른 곳에 있다.
+            return;
+        }
+        watching = directoryWatcher.tryRegister(gitDir) && watchTree(gitDir.resolve(Constants.R_REFS));
+    }
+
+    /**
+     * dir과 그 아래 디렉토리를 모두 등록한다 (branch 이름에 /가 있으면 하위 디렉토리가 생긴다). 하나라도 실패하면 이 캐시는
+     * 감시 없이 동작한다.
+     */
+    private boolean watchTree(Path dir) {
+        if (!Files.isDirectory(dir)) {
+            return true;
+        }
+        boolean registered = true;
+        try (Stream<Path> paths = Files.walk(dir)) {
+            for (Path path : (Iterable<Path>) paths::iterator) {
+                if (Files.isDirectory(path) && !watcher().tryRegister(path)) {
+                    registered = false;
+                    break;
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            e.printStackTrace();
+            registered = false;
+        }
+        if (!registered) {
+            watching = false;
+        }
+        return registered;
+    }
+
+    private static synchronized DirectoryWatcher watcher() {
+        if (watcher == null && !watcherFailed) {
+            try {
+                watcher = new DirectoryWatcher(MAX_WATCHED_DIRECTORIES, new DirectoryWatcher.Listener() {
+                    public void created(Path dir, Path child) {
+                        dispatch(dir, child);
+                    }
+
+                    public void deleted(Path dir, Path child) {
+                        dispatch(dir, child);
+                    }
+
+                    public void modified(Path dir, Path child) {
+                        dispatch(dir, child);
+                    }
+
+                    public void overflow(Path dir) {
+                        RefCache cache = owner(dir);
+                        if (cache != null) {
+                            cache.headChanged();
+                        }
+                    }
+                });
+            } catch (IOException e) {
+                e.printStackTrace();
+                watcherFailed = true;
+            }
+        }
+        return watcher;
+    }
+
+    private static void dispatch(Path dir, Path child) {
+        RefCache cache = owner(dir);
+        if (cache != null) {
+            cache.changed(dir, child);
+        }
+    }
+
+    private static RefCache owner(Path dir) {
+        for (Path path = dir; path != null; path = path.getParent()) {
+            RefCache cache = caches.get(path);
+            if (cache != null) {
+                return cache;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,247 @@
+/*
+The MIT License
+
+Copyright (c) 2015-2023 Valentyn Kolesnikov (https://github.com/javadev/file-manager)
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package com.github.filemanager;
+
+import java.io.File;
+import java.util.Collections;
+
+import org.eclipse.jgit.api.CloneCommand;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.errors.GitAPIException;
+import org.eclipse.jgit.api.errors.InvalidRemoteException;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ProgressMonitor;
+import org.eclipse.jgit.lib.Ref;
+import org.eclipse.jgit.transport.CredentialsProvider;
+
+/**
+ * JGit CloneCommand로 repository를 clone한다. git 프로세스를 띄우지 않으므로 진행 상황(받은 object 수와 pack 크기,
+ * checkout한 파일 수)을 Listener로 받을 수 있고 cancel로 중단할 수 있다.
+ *
+ * <p>depth, 한 branch만 받기(single branch), checkout 생략(no checkout)으로 큰 repository를 적은 비용으로 받을 수 있다.
+ * Swing과 무관하므로 로컬 bare repository를 대상으로 그대로 실행해 볼 수 있다. call은 백그라운드 스레드에서 호출한다.
+ */
+final class RepositoryCloner {
+
+    /**
+     * 진행 상황을 받는 인터페이스. clone을 실행하는 스레드에서 최대 PROGRESS_INTERVAL_MILLIS마다 한 번 호출된다.
+     */
+    interface Listener {
+
+        /**
+         * @param task      JGit 작업 이름 (예: Receiving objects, Checking out files)
+         * @param completed 작업에서 처리한 개수
+         * @param total     작업 전체 개수. 알 수 없으면 0
+         * @param bytes     지금까지 받은 pack 파일 크기
+         */
+        void progress(String task, int completed, int total, long bytes);
+    }
+
+    private static final long PROGRESS_INTERVAL_MILLIS = 100;
+
+    private final String uri;
+    private final File directory;
+    private CredentialsProvider credentials;
+    private int depth = 0;
+    private boolean singleBranch = false;
+    private String branch;
+    private boolean noCheckout = false;
+    private volatile boolean cancelled = false;
+
+    RepositoryCloner(String uri, File directory) {
+        this.uri = uri;
+        this.directory = directory;
+    }
+
+    RepositoryCloner setCredentials(CredentialsProvider credentials) {
+        this.credentials = credentials;
+        return this;
+    }
+
+    /**
+     * 최근 depth개의 commit만 받는다. 0이면 전체.
+     */
+    RepositoryCloner setDepth(int depth) {
+        this.depth = depth;
+        return this;
+    }
+
+    /**
+     * branch만 받는다. branch가 null이면 원격 HEAD가 가리키는 branch만 받는다.
+     */
+    RepositoryCloner setSingleBranch(boolean singleBranch) {
+        this.singleBranch = singleBranch;
+        return this;
+    }
+
+    /**
+     * checkout할 branch. null이면 원격 HEAD를 따른다.
+     */
+    RepositoryCloner setBranch(String branch) {
+        this.branch = branch == null || branch.isEmpty() ? null : branch;
+        return this;
+    }
+
+    RepositoryCloner setNoCheckout(boolean noCheckout) {
+        this.noCheckout = noCheckout;
+        return this;
+    }
+
+    File getDirectory() {
+        return directory;
+    }
+
+    /**
+     * 어느 스레드에서나 호출할 수 있다. JGit이 다음에 진행 상황을 확인할 때 중단하고, 만들던 디렉토리를 지운다.
+     */
+    void cancel() {
+        cancelled = true;
+    }
+
+    boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * clone을 실행하고 만들어진 작업 디렉토리를 반환한다. 취소되었으면 JGit이 던진 예외가 그대로 전달되므로 isCancelled로
+     * 구분한다.
+     */
+    File call(Listener listener) throws GitAPIException {
+        String branchRef = branch == null ? null : branch.startsWith(Constants.R_REFS) ? branch : Constants.R_HEADS + branch;
+        if (singleBranch && branchRef == null) {
+            branchRef = remoteHeadBranch();
+        }
+        CloneCommand command = Git.cloneRepository()
+                .setURI(uri)
+                .setDirectory(directory)
+                .setCredentialsProvider(credentials)
+                .setNoCheckout(noCheckout)
+                .setProgressMonitor(new Monitor(listener));
+        if (depth > 0) {
+            command.setDepth(depth);
+        }
+        if (branchRef != null) {
+            command.setBranch(branchRef);
+        }
+        if (singleBranch) {
+            command.setCloneAllBranches(false).setBranchesToClone(Collections.singleton(branchRef));
+        }
+        try (Git git = FileManager.callGit("clone", command)) {
+            return git.getRepository().getWorkTree();
+        }
+    }
+
+    /**
+     * 원격 HEAD가 가리키는 branch (예: refs/heads/main). git clone --single-branch에 branch를 주지 않았을 때와 같다.
+     */
+    private String remoteHeadBranch() throws GitAPIException {
+        Ref head = null;
+        for (Ref ref : FileManager.callGit("lsRemote", Git.lsRemoteRepository()
+                .setRemote(uri)
+                .setCredentialsProvider(credentials))) {
+            if (ref.getName().equals(Constants.HEAD)) {
+                head = ref;
+            }
+        }
+        if (head == null || !head.isSymbolic()) {
+            throw new InvalidRemoteException("원격 HEAD가 branch를 가리키지 않습니다. branch를 지정해 주세요: " + uri);
+        }
+        return head.getTarget().getName();
+    }
+
+    /**
+     * 받은 pack 파일 크기의 합. 받는 중인 pack은 .git/objects/incoming_*.pack, 다 받은 pack은 .git/objects/pack 아래에 있다.
+     */
+    long getReceivedBytes() {
+        File objects = new File(new File(directory, Constants.DOT_GIT), Constants.OBJECTS);
+        return sizeOfFiles(objects) + sizeOfFiles(new File(objects, "pack"));
+    }
+
+    private static long sizeOfFiles(File dir) {
+        File[] files = dir.listFiles();
+        long bytes = 0;
+        if (files != null) {
+            for (File file : files) {
+                if (file.isFile()) {
+                    bytes += file.length();
+                }
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * JGit의 진행 상황을 Listener로 넘기는 ProgressMonitor. 갱신이 object마다 오므로 일정 간격으로만 넘긴다.
+     */
+    private final class Monitor implements ProgressMonitor {
+
+        private final Listener listener;
+        private String task;
+        private int total;
+        private int completed;
+        private long lastNotified;
+
+        Monitor(Listener listener) {
+            this.listener = listener;
+        }
+
+        public void start(int totalTasks) {
+        }
+
+        public void beginTask(String title, int totalWork) {
+            task = title;
+            total = totalWork == UNKNOWN ? 0 : totalWork;
+            completed = 0;
+            notifyListener(true);
+        }
+
+        public void update(int work) {
+            completed += work;
+            notifyListener(false);
+        }
+
+        public void endTask() {
+            if (total > 0) {
+                completed = total;
+            }
+            notifyListener(true);
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        public void showDuration(boolean enabled) {
+        }
+
+        private void notifyListener(boolean force) {
+            long now = System.currentTimeMillis();
+            if (listener == null || (!force && now - lastNotified < PROGRESS_INTERVAL_MILLIS)) {
+                return;
+            }
+            lastNotified = now;
+            listener.progress(task, completed, total, getReceivedBytes());
+        }
+    }
+}
@@ -0,0 +1,190 @@
+/*
+The MIT License
+
+Copyright (c) 2015-2023 Valentyn Kolesnikov (https://github.com/javadev/file-manager)
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package com.github.filemanager;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.Status;
+import org.eclipse.jgit.lib.BranchTrackingStatus;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.storage.file.FileRepositoryBuilder;
+
+/**
+ * 디렉토리 아래의 git repository들을 찾아 각각의 branch와 변경 상태를 계산한다.
+ *
+ * <p>탐색은 ForkJoinPool에서 병렬로 하고, .git이 있는 디렉토리를 찾으면 그 아래로는 내려가지 않는다. 찾은 repository는 바로
+ * 크기가 정해진 스레드 풀에 넘겨 JGit으로 status를 계산하므로, 탐색과 status 계산이 겹쳐서 진행되고 결과는 끝나는 순서대로
+ * 전달된다. git 프로세스는 실행하지 않는다.
+ */
+class RepositoryScanner {
+
+    /**
+     * repository 하나의 상태. ahead/behind는 upstream이 없으면 -1.
+     */
+    static class RepositoryStatus {
+
+        final Path directory;
+        String branch;
+        int staged;
+        int modified;
+        int untracked;
+        int conflicting;
+        int ahead = -1;
+        int behind = -1;
+        String error;
+
+        RepositoryStatus(Path directory) {
+            this.directory = directory;
+        }
+
+        boolean isDirty() {
+            return staged + modified + untracked + conflicting > 0;
+        }
+    }
+
+    private final Path root;
+    private final int threads;
+    private final AtomicInteger found = new AtomicInteger();
+    private final AtomicInteger completed = new AtomicInteger();
+    private volatile boolean cancelled = false;
+
+    RepositoryScanner(Path root, int threads) {
+        this.root = root;
+        this.threads = threads;
+    }
+
+    int getFoundCount() {
+        return found.get();
+    }
+
+    int getCompletedCount() {
+        return completed.get();
+    }
+
+    void cancel() {
+        cancelled = true;
+    }
+
+    boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * 모든 repository의 상태를 계산하거나 취소될 때까지 반환하지 않는다. consumer는 status 스레드들에서 동시에 호출된다.
+     */
+    void run(ForkJoinPool walkPool, final Consumer<RepositoryStatus> consumer) throws InterruptedException {
+        final ExecutorService statusPool = Executors.newFixedThreadPool(threads);
+        try {
+            walkPool.invoke(new WalkTask(root, new Consumer<Path>() {
+                public void accept(final Path directory) {
+                    found.incrementAndGet();
+                    statusPool.execute(new Runnable() {
+                        public void run() {
+                            if (!cancelled) {
+                                consumer.accept(computeStatus(directory));
+                            }
+                            completed.incrementAndGet();
+                        }
+                    });
+                }
+            }));
+        } finally {
+            statusPool.shutdown();
+        }
+        while (!statusPool.awaitTermination(100, TimeUnit.MILLISECONDS)) {
+            if (cancelled) {
+                statusPool.shutdownNow();
+            }
+        }
+    }
+
+    static RepositoryStatus computeStatus(Path directory) {
+        RepositoryStatus result = new RepositoryStatus(directory);
+        try (Repository repository = FileManager.openRepository(new FileRepositoryBuilder().setWorkTree(directory.toFile()));
+             Git git = new Git(repository)) {
+            result.branch = repository.getBranch();
+            Status status = FileManager.callGit("status", SparseCheckout.status(git));
+            result.staged = status.getAdded().size() + status.getChanged().size() + status.getRemoved().size();
+            result.modified = status.getModified().size() + status.getMissing().size();
+            result.untracked = status.getUntracked().size();
+            result.conflicting = status.getConflicting().size();
+            BranchTrackingStatus tracking = BranchTrackingStatus.of(repository, repository.getBranch());
+            if (tracking != null) {
+                result.ahead = tracking.getAheadCount();
+                result.behind = tracking.getBehindCount();
+            }
+        } catch (Exception e) { // 손상된 repository 등은 행에 오류로 표시한다.
+            result.error = e.getClass().getSimpleName() + ": " + e.getMessage();
+        }
+        return result;
+    }
+
+    private class WalkTask extends RecursiveAction {
+
+        private final Path dir;
+        private final Consumer<Path> repositoryFound;
+
+        WalkTask(Path dir, Consumer<Path> repositoryFound) {
+            this.dir = dir;
+            this.repositoryFound = repositoryFound;
+        }
+
+        @Override
+        protected void compute() {
+            if (cancelled) {
+                return;
+            }
+            // .git은 디렉토리이거나 (worktree, submodule의 경우) gitdir을 가리키는 파일이다.
+            if (Files.exists(dir.resolve(".git"), LinkOption.NOFOLLOW_LINKS)) {
+                repositoryFound.accept(dir);
+                return;
+            }
+            List<WalkTask> tasks = new ArrayList<WalkTask>();
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir)) {
+                for (Path child : stream) {
+                    if (Files.isDirectory(child, LinkOption.NOFOLLOW_LINKS)) {
+                        tasks.add(new WalkTask(child, repositoryFound));
+                    }
+                }
+            } catch (IOException | SecurityException e) {
+                return;
+            }
+            invokeAll(tasks);
+        }
+    }
+}
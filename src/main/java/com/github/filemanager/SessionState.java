@@ -0,0 +1,197 @@
+/*
+The MIT License
+
+Copyright (c) 2015-2023 Valentyn Kolesnikov (https://github.com/javadev/file-manager)
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package com.github.filemanager;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.commons.io.input.CountingInputStream;
+
+/**
+ * 다음 실행 때 작업하던 화면을 바로 복원하기 위해 저장하는 세션 상태.
+ *
+ * <p>펼쳐 둔 트리 경로, 마지막으로 선택한 디렉토리, 테이블 열 너비, 그리고 디렉토리 목록(이름, 디렉토리 여부, 크기, 수정 시간)을
+ * ~/.filemanager/session.dat 에 바이너리로 저장한다. 복원한 목록은 화면에 먼저 보여주기 위한 것이고, 실제 내용은 복원한 뒤
+ * 백그라운드에서 다시 읽어 맞춘다.
+ */
+final class SessionState {
+
+    private static final int MAGIC = 0x464d5353; // "FMSS"
+    private static final int VERSION = 1;
+    static final int MAX_LISTING_ENTRIES = 5000; // 디렉토리 하나에 저장하는 최대 항목 수
+    /* 읽을 때 손상된 파일로 보는 개수. 저장할 때는 이보다 훨씬 적다. */
+    private static final int MAX_COLUMNS = 256;
+    private static final int MAX_EXPANDED_PATHS = 1000000;
+    private static final int MAX_LISTINGS = 1000000;
+
+    /**
+     * 디렉토리 하나의 목록. 항목마다 객체를 만들지 않고 배열로 저장한다.
+     */
+    static final class Listing {
+
+        final String directory;
+        final String[] names;
+        final boolean[] directories;
+        final long[] sizes;
+        final long[] modified;
+
+        Listing(String directory, int size) {
+            this.directory = directory;
+            this.names = new String[size];
+            this.directories = new boolean[size];
+            this.sizes = new long[size];
+            this.modified = new long[size];
+        }
+
+        /**
+         * 저장된 크기와 수정 시간을 돌려주는 File 배열. 복원 직후 테이블을 그릴 때 파일 시스템을 다시 읽지 않기 위해 사용한다.
+         */
+        File[] toFiles() {
+            File[] files = new File[names.length];
+            for (int ii = 0; ii < names.length; ii++) {
+                files[ii] = new CachedFile(new File(directory, names[ii]).getPath(), directories[ii], sizes[ii], modified[ii]);
+            }
+            return files;
+        }
+    }
+
+    String lastDirectory;
+    int[] columnWidths = new int[0];
+    final List<String> expandedPaths = new ArrayList<String>();
+    final List<Listing> listings = new ArrayList<Listing>();
+
+    static Path getFile() {
+        return Paths.get(System.getProperty("user.home"), ".filemanager", "session.dat");
+    }
+
+    Listing getListing(String directory) {
+        for (Listing listing : listings) {
+            if (listing.directory.equals(directory)) {
+                return listing;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 저장된 세션을 읽는다. 처음 실행했거나 파일이 손상되었으면 null.
+     * 개수는 배열을 만들기 전에 최댓값과 남은 파일 길이로 검사하므로 손상된 파일 때문에 큰 배열을 만들지 않는다.
+     */
+    static SessionState load() {
+        Path file = getFile();
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        try (CountingInputStream counter = new CountingInputStream(new BufferedInputStream(Files.newInputStream(file)));
+             DataInputStream in = new DataInputStream(counter)) {
+            long length = Files.size(file);
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                return null;
+            }
+            SessionState state = new SessionState();
+            String lastDirectory = in.readUTF();
+            state.lastDirectory = lastDirectory.isEmpty() ? null : lastDirectory;
+            state.columnWidths = new int[readCount(in, MAX_COLUMNS, length - counter.getByteCount(), 4)];
+            for (int ii = 0; ii < state.columnWidths.length; ii++) {
+                state.columnWidths[ii] = in.readInt();
+            }
+            int expandedCount = readCount(in, MAX_EXPANDED_PATHS, length - counter.getByteCount(), 2);
+            for (int ii = 0; ii < expandedCount; ii++) {
+                state.expandedPaths.add(in.readUTF());
+            }
+            int listingCount = readCount(in, MAX_LISTINGS, length - counter.getByteCount(), 6);
+            for (int ii = 0; ii < listingCount; ii++) {
+                String directory = in.readUTF();
+                // 항목 하나는 이름(2바이트 이상), 디렉토리 여부, 크기, 수정 시간으로 19바이트 이상이다.
+                Listing listing = new Listing(directory, readCount(in, MAX_LISTING_ENTRIES, length - counter.getByteCount(), 19));
+                for (int jj = 0; jj < listing.names.length; jj++) {
+                    listing.names[jj] = in.readUTF();
+                    listing.directories[jj] = in.readBoolean();
+                    listing.sizes[jj] = in.readLong();
+                    listing.modified[jj] = in.readLong();
+                }
+                state.listings.add(listing);
+            }
+            return state;
+        } catch (IOException | RuntimeException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    /**
+     * 개수를 읽는다. 음수이거나 max보다 크거나, 항목마다 최소 entryBytes 바이트가 필요한데 남은 remaining 바이트에 다 들어갈 수
+     * 없으면 손상된 파일이다.
+     */
+    private static int readCount(DataInputStream in, int max, long remaining, int entryBytes) throws IOException {
+        int count = in.readInt();
+        if (count < 0 || count > max || (long) count * entryBytes > remaining - 4) {
+            throw new IOException("세션 파일이 손상되었습니다: 개수 " + count);
+        }
+        return count;
+    }
+
+    /**
+     * 임시 파일에 쓴 뒤 교체하므로 저장 도중 종료되어도 이전 세션은 남는다.
+     */
+    void save() throws IOException {
+        Path file = getFile();
+        Files.createDirectories(file.getParent());
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeUTF(lastDirectory == null ? "" : lastDirectory);
+            out.writeInt(columnWidths.length);
+            for (int width : columnWidths) {
+                out.writeInt(width);
+            }
+            out.writeInt(expandedPaths.size());
+            for (String path : expandedPaths) {
+                out.writeUTF(path);
+            }
+            out.writeInt(listings.size());
+            for (Listing listing : listings) {
+                out.writeUTF(listing.directory);
+                out.writeInt(listing.names.length);
+                for (int ii = 0; ii < listing.names.length; ii++) {
+                    out.writeUTF(listing.names[ii]);
+                    out.writeBoolean(listing.directories[ii]);
+                    out.writeLong(listing.sizes[ii]);
+                    out.writeLong(listing.modified[ii]);
+                }
+            }
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
@@ -0,0 +1,274 @@
+/*
+The MIT License
+
+Copyright (c) 2015-2023 Valentyn Kolesnikov (https://github.com/javadev/file-manager)
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package com.github.filemanager;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.Status;
+import org.eclipse.jgit.api.StatusCommand;
+import org.eclipse.jgit.api.errors.JGitInternalException;
+import org.eclipse.jgit.dircache.DirCache;
+import org.eclipse.jgit.errors.ConfigInvalidException;
+import org.eclipse.jgit.lib.ConfigConstants;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.IndexDiff;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.lib.StoredConfig;
+import org.eclipse.jgit.storage.file.FileBasedConfig;
+import org.eclipse.jgit.treewalk.FileTreeIterator;
+
+/**
+ * git sparse-checkout (cone 모드)으로 작업 트리에 일부 디렉토리만 두고, git status를 그 범위로 제한한다.
+ *
+ * <p>JGit 6.5는 sparse checkout 패턴을 쓰거나 적용하지 못하므로 적용은 git sparse-checkout set을 실행한다 (git이 바뀐
+ * 경로만 꺼내거나 지운다). 패턴은 .git/info/sparse-checkout을 직접 읽고, status는 StatusCommand.addPath로 포함된 경로만
+ * 넘겨서 제외된 디렉토리의 index 항목과 작업 트리를 아예 보지 않게 한다.
+ */
+final class SparseCheckout {
+
+    private static final String PATTERN_FILE = "info/sparse-checkout";
+    private static final String CONFIG_SPARSE_CHECKOUT = "sparseCheckout";
+    private static final String CONFIG_WORKTREE_CONFIG = "worktreeConfig";
+    private static final String WORKTREE_CONFIG_FILE = "config.worktree";
+
+    /**
+     * cone 모드 패턴. directories는 하위 전체가 포함되는 디렉토리, parents는 그 상위 디렉토리로 바로 아래 파일만 포함된다.
+     * 루트("") 바로 아래 파일은 항상 포함된다.
+     */
+    static final class Cone {
+
+        final List<String> directories = new ArrayList<String>();
+        final List<String> parents = new ArrayList<String>();
+    }
+
+    private SparseCheckout() {
+    }
+
+    /**
+     * sparse checkout이 cone 모드로 켜져 있으면 그 패턴을, 꺼져 있거나 cone 모드가 아닌 패턴이면 null을 반환한다.
+     */
+    static Cone readCone(Repository repository) throws IOException {
+        if (!isEnabled(repository)) {
+            return null;
+        }
+        File patternFile = new File(repository.getDirectory(), PATTERN_FILE);
+        if (!patternFile.isFile()) {
+            return null;
+        }
+        List<String> lines = new ArrayList<String>();
+        for (String line : Files.readAllLines(patternFile.toPath(), StandardCharsets.UTF_8)) {
+            line = line.trim();
+            if (!line.isEmpty() && !line.startsWith("#")) {
+                lines.add(line);
+            }
+        }
+        // 예: /*  !/*/  /a/  !/a/*/  /a/b/  /c/  -> parents [a], directories [a/b, c]
+        if (lines.size() < 2 || !lines.get(0).equals("/*") || !lines.get(1).equals("!/*/")) {
+            return null;
+        }
+        Cone cone = new Cone();
+        for (int i = 2; i < lines.size(); i++) {
+            String line = lines.get(i);
+            if (!line.startsWith("/") || !line.endsWith("/") || line.length() < 3) {
+                return null;
+            }
+            String directory = line.substring(1, line.length() - 1);
+            if (i + 1 < lines.size() && lines.get(i + 1).equals("!/" + directory + "/*/")) {
+                cone.parents.add(directory);
+                i++;
+            } else {
+                cone.directories.add(directory);
+            }
+        }
+        return cone;
+    }
+
+    /**
+     * core.sparseCheckout. git sparse-checkout은 이 값을 .git/config.worktree에 쓰는데 JGit은 그 파일을 읽지 않으므로
+     * extensions.worktreeConfig가 켜져 있으면 직접 읽는다.
+     */
+    static boolean isEnabled(Repository repository) throws IOException {
+        StoredConfig config = repository.getConfig();
+        if (config.getBoolean(ConfigConstants.CONFIG_CORE_SECTION, CONFIG_SPARSE_CHECKOUT, false)) {
+            return true;
+        }
+        if (!config.getBoolean(ConfigConstants.CONFIG_EXTENSIONS_SECTION, CONFIG_WORKTREE_CONFIG, false)) {
+            return false;
+        }
+        FileBasedConfig worktreeConfig = new FileBasedConfig(config, new File(repository.getDirectory(), WORKTREE_CONFIG_FILE), repository.getFS());
+        try {
+            worktreeConfig.load();
+        } catch (ConfigInvalidException e) {
+            throw new IOException(e);
+        }
+        return worktreeConfig.getBoolean(ConfigConstants.CONFIG_CORE_SECTION, CONFIG_SPARSE_CHECKOUT, false);
+    }
+
+    /**
+     * git.status()와 같지만 sparse checkout이 켜져 있으면 포함된 경로만 계산한다.
+     */
+    static StatusCommand status(Git git) {
+        StatusCommand command = git.status();
+        Repository repository = git.getRepository();
+        if (repository.isBare()) {
+            return command;
+        }
+        Set<String> paths = new LinkedHashSet<String>();
+        try {
+            Cone cone = readCone(repository);
+            if (cone == null) {
+                return command;
+            }
+            paths.addAll(cone.directories);
+            Set<String> parents = new HashSet<String>(cone.parents);
+            parents.add("");
+            addFiles(repository, parents, paths);
+        } catch (IOException e) { // 패턴이나 index를 못 읽으면 전체를 계산한다.
+            e.printStackTrace();
+            return command;
+        }
+        if (paths.isEmpty()) {
+            return new EmptyStatusCommand(repository); // addPath 없이 실행하면 전체 트리를 계산한다.
+        }
+        for (String path : paths) {
+            command.addPath(path);
+        }
+        return command;
+    }
+
+    /**
+     * directories(최상위는 "") 바로 아래에 있는 파일. cone 모드에서는 이 파일들이 항상 checkout되어 있다.
+     * 작업 트리에서 지운 파일도 status에 나와야 하므로 topLevelDirectories와 같이 index에서도 찾아 작업 트리의 목록과 합친다.
+     */
+    private static void addFiles(Repository repository, Set<String> directories, Set<String> paths) throws IOException {
+        DirCache index = repository.readDirCache();
+        for (int i = 0; i < index.getEntryCount(); i++) {
+            String path = index.getEntry(i).getPathString();
+            int slash = path.lastIndexOf('/');
+            if (directories.contains(slash < 0 ? "" : path.substring(0, slash))) {
+                paths.add(path);
+            }
+        }
+        File workTree = repository.getWorkTree();
+        for (String directory : directories) {
+            File[] files = (directory.isEmpty() ? workTree : new File(workTree, directory)).listFiles();
+            if (files == null) {
+                continue;
+            }
+            for (File file : files) {
+                if (!file.isDirectory()) {
+                    paths.add(directory.isEmpty() ? file.getName() : directory + "/" + file.getName());
+                }
+            }
+        }
+    }
+
+    /**
+     * index에 있는 최상위 디렉토리. 제외된 디렉토리는 작업 트리에 없으므로 index에서 찾는다.
+     */
+    static List<String> topLevelDirectories(Repository repository) throws IOException {
+        TreeSet<String> directories = new TreeSet<String>();
+        DirCache index = repository.readDirCache();
+        for (int i = 0; i < index.getEntryCount(); i++) {
+            String path = index.getEntry(i).getPathString();
+            int slash = path.indexOf('/');
+            if (slash > 0) {
+                directories.add(path.substring(0, slash));
+            }
+        }
+        return new ArrayList<String>(directories);
+    }
+
+    /**
+     * directories만 작업 트리에 남긴다 (git sparse-checkout set --cone). 비어 있으면 sparse checkout을 끈다.
+     *
+     * @throws IOException git이 실패하면 git의 오류 출력을 메시지로 담는다.
+     */
+    static void apply(File workTree, List<String> directories) throws IOException, InterruptedException {
+        List<String> command = new ArrayList<String>();
+        command.add("git");
+        command.add("sparse-checkout");
+        if (directories.isEmpty()) {
+            command.add("disable");
+        } else {
+            command.add("set");
+            command.add("--cone");
+            command.add("--");
+            command.addAll(directories);
+        }
+        ProcessBuilder processBuilder = new ProcessBuilder(command);
+        processBuilder.directory(workTree);
+        processBuilder.redirectErrorStream(true);
+        Process process = Metrics.startProcess(processBuilder);
+        StringBuilder output = new StringBuilder();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                output.append(line).append('\n');
+            }
+        }
+        if (process.waitFor() != 0) {
+            throw new IOException(output.toString().trim());
+        }
+    }
+
+    /**
+     * 작업 트리 안의 상대 경로인지 확인한다. 예: src, docs/api
+     */
+    static boolean isValidDirectory(String directory) {
+        return !directory.isEmpty() && !directory.startsWith("/") && !directory.equals(Constants.DOT_GIT)
+                && !directory.contains("..");
+    }
+
+    /**
+     * 포함된 경로가 하나도 없을 때 쓰는 StatusCommand. 작업 트리와 index를 보지 않고 빈 Status를 돌려준다.
+     */
+    private static final class EmptyStatusCommand extends StatusCommand {
+
+        EmptyStatusCommand(Repository repository) {
+            super(repository);
+        }
+
+        @Override
+        public Status call() {
+            try {
+                return new Status(new IndexDiff(repo, Constants.HEAD, new FileTreeIterator(repo)));
+            } catch (IOException e) {
+                throw new JGitInternalException(e.getMessage(), e);
+            }
+        }
+    }
+}
@@ -0,0 +1,76 @@
+/*
+The MIT License
+
+Copyright (c) 2015-2023 Valentyn Kolesnikov (https://github.com/javadev/file-manager)
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package com.github.filemanager;
+
+/**
+ * 시작 단계별 소요 시간을 기록해 두었다가 첫 화면을 그릴 때 한 줄로 출력한다.
+ *
+ * <p>main()부터 첫 paint까지의 시간이 예산(시스템 속성 filemanager.startupBudgetMs, 기본 1000ms)을 넘으면 경고를 함께
+ * 출력한다. 모든 메소드는 EDT에서 호출한다.
+ */
+final class StartupTimer {
+
+    private static final long BUDGET_MILLIS = Long.getLong("filemanager.startupBudgetMs", 1000);
+
+    private final long start = System.nanoTime();
+    private final StringBuilder phases = new StringBuilder();
+    private long last = start;
+    private boolean painted = false;
+
+    /**
+     * 직전 단계가 끝난 뒤부터 지금까지를 phase의 시간으로 기록한다.
+     */
+    void mark(String phase) {
+        long now = System.nanoTime();
+        phases.append(phases.length() == 0 ? "" : ", ").append(phase).append(' ').append(toMillis(now - last)).append(" ms");
+        last = now;
+    }
+
+    /**
+     * 첫 paint에서 한 번만 지금까지의 단계를 출력한다.
+     */
+    void firstPaint() {
+        if (painted) {
+            return;
+        }
+        painted = true;
+        mark("first paint");
+        long total = toMillis(last - start);
+        System.out.println("Startup: " + phases + " (first paint after " + total + " ms)");
+        if (total > BUDGET_MILLIS) {
+            System.out.println("Startup: first paint took " + total + " ms, over the budget of " + BUDGET_MILLIS + " ms");
+        }
+    }
+
+    /**
+     * 첫 화면 이후에 끝나는 백그라운드 작업(루트 목록 등)의 완료 시점을 출력한다.
+     */
+    void log(String event) {
+        System.out.println("Startup: " + event + " after " + toMillis(System.nanoTime() - start) + " ms");
+    }
+
+    private static long toMillis(long nanos) {
+        return nanos / 1000000;
+    }
+}
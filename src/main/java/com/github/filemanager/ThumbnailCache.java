@@ -0,0 +1,412 @@
+/*
+The MIT License
+
+Copyright (c) 2015-2023 Valentyn Kolesnikov (https://github.com/javadev/file-manager)
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package com.github.filemanager;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import javax.swing.Icon;
+import javax.swing.ImageIcon;
+import javax.swing.SwingUtilities;
+
+/**
+ * 이미지 파일의 축소판을 백그라운드에서 만들고 메모리와 디스크에 캐시한다.
+ *
+ * <p>get은 EDT에서 호출하며 메모리에 없으면 null을 반환하고 작업을 예약한다. 작업은 스레드 수가 제한된 pool에서 실행되고, 가장
+ * 최근에 setVisible로 알린 화면에 보이는 파일부터 처리한다. 실행할 때 더 이상 보이지 않는 파일은 건너뛰므로, 빠르게 스크롤해도 지나간
+ * 파일을 디코딩하느라 밀리지 않는다. 디코딩은 ImageReader의 subsampling으로 필요한 크기에 가깝게 읽어서 큰 사진도 전체 픽셀을
+ * 메모리에 올리지 않는다. 결과는 경로, 크기, 수정 시각의 해시를 이름으로 한 PNG로 저장하므로 파일이 바뀌면 새로 만들고, 다음에 열
+ * 때는 원본을 다시 디코딩하지 않는다. 만들 수 없는 파일은 빈 파일로 표시해서 다시 시도하지 않는다. 디스크 캐시는 처음 저장할 때와
+ * 저장한 크기가 MAX_DISK_BYTES를 넘을 때 수정 시각이 오래된 파일부터 지운다. 디스크 캐시에서 읽을 때마다 수정 시각을 갱신하므로
+ * 최근에 본 축소판이 남는다.
+ *
+ * <p>get은 그릴 때마다 불리므로 확장자와 경로만 본다. 메모리 캐시는 경로를 키로 하고, 파일 속성을 읽고 해시를 계산하는 일은 모두
+ * 작업 스레드에서 한다. 보이는 파일은 setVisible과 refresh 때 작업 스레드에서 다시 확인해서 바뀌었으면 새로 만든다.
+ */
+final class ThumbnailCache {
+
+    static final int SIZE = 64;
+    private static final int MAX_MEMORY_ENTRIES = 2000; // 64x64 ARGB 약 16 KB, 최대 약 32 MB
+    private static final Icon NONE = new ImageIcon(); // 만들 수 없는 파일
+    private static final long MAX_DISK_BYTES = 64L << 20; // 64x64 PNG 약 5~10 KB, 약 1만 개
+
+    private final Path directory;
+    private final Consumer<File> listener;
+    private final Set<String> suffixes = new HashSet<String>();
+    /* 경로 -> 축소판, access order LRU */
+    private final Map<String, Thumbnail> memory = new LinkedHashMap<String, Thumbnail>(256, 0.75f, true);
+    private final Map<String, Task> pending = new ConcurrentHashMap<String, Task>();
+    private final ThreadPoolExecutor executor;
+    private final AtomicLong sequence = new AtomicLong();
+    private volatile Set<File> visible = Collections.emptySet();
+    private volatile long generation = 0;
+    /* 디스크 캐시의 크기. 아직 세지 않았으면 -1 */
+    private final AtomicLong diskBytes = new AtomicLong(-1);
+    private final Object trimLock = new Object();
+
+    /**
+     * @param listener 축소판이 준비되면 EDT에서 호출된다.
+     */
+    ThumbnailCache(Path directory, int threads, Consumer<File> listener) {
+        this.directory = directory;
+        this.listener = listener;
+        for (String suffix : ImageIO.getReaderFileSuffixes()) {
+            suffixes.add(suffix.toLowerCase(Locale.ROOT));
+        }
+        this.executor = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS,
+                new PriorityBlockingQueue<Runnable>(), new ThreadFactory() {
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "thumbnail");
+                thread.setDaemon(true);
+                thread.setPriority(Thread.MIN_PRIORITY);
+                return thread;
+            }
+        });
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    static Path defaultDirectory() {
+        return Paths.get(System.getProperty("user.home"), ".filemanager", "thumbnails");
+    }
+
+    /**
+     * 이름만 보고 판단하므로 파일 시스템에 접근하지 않는다. 같은 이름의 디렉토리는 작업 스레드에서 걸러진다.
+     */
+    boolean isImage(File file) {
+        String name = file.getName();
+        int dot = name.lastIndexOf('.');
+        return dot > 0 && !(file instanceof ArchiveFile) && suffixes.contains(name.substring(dot + 1).toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * 메모리에 있는 축소판을 반환한다. 없으면 null을 반환하고, 이미지 파일이면 만들도록 예약한다. EDT에서 호출한다.
+     */
+    Icon get(File file) {
+        if (!isImage(file)) {
+            return null;
+        }
+        Thumbnail thumbnail;
+        synchronized (memory) {
+            thumbnail = memory.get(file.getAbsolutePath());
+        }
+        if (thumbnail != null) {
+            return thumbnail.icon == NONE ? null : thumbnail.icon;
+        }
+        schedule(file);
+        return null;
+    }
+
+    /**
+     * 파일이 바뀌었을 수 있으면 호출한다. 메모리의 축소판은 그대로 보여주면서 작업 스레드에서 확인해 바뀌었으면 새로 만든다.
+     */
+    void refresh(File file) {
+        if (isImage(file)) {
+            schedule(file);
+        }
+    }
+
+    private void schedule(File file) {
+        String path = file.getAbsolutePath();
+        if (!pending.containsKey(path)) {
+            Task task = new Task(file, path, generation, sequence.incrementAndGet());
+            if (pending.putIfAbsent(path, task) == null) {
+                executor.execute(task);
+            }
+        }
+    }
+
+    /**
+     * 지금 화면에 보이는 파일. 예약된 작업 중 여기에 없는 파일은 실행하지 않고 버린다. 보이는 파일 중 메모리에 있는 축소판도
+     * 바뀌지 않았는지 다시 확인한다.
+     */
+    void setVisible(Collection<File> files) {
+        visible = new HashSet<File>(files);
+        generation++;
+        for (File file : files) {
+            refresh(file);
+        }
+    }
+
+    void close() {
+        executor.shutdownNow();
+        pending.clear();
+    }
+
+    /**
+     * 경로, 크기, 수정 시각의 SHA-1. 디스크 캐시의 파일 이름으로 쓴다.
+     */
+    static String key(File file) {
+        String text = file.getAbsolutePath() + '\n' + file.length() + '\n' + file.lastModified();
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-1").digest(text.getBytes(StandardCharsets.UTF_8));
+            StringBuilder builder = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                builder.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return builder.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * 메모리 캐시의 항목. key는 만들 때의 key(file)이며 파일이 바뀌었는지 확인하는 데 쓴다.
+     */
+    private static final class Thumbnail {
+
+        final Icon icon;
+        final String key;
+
+        Thumbnail(Icon icon, String key) {
+            this.icon = icon;
+            this.key = key;
+        }
+    }
+
+    /**
+     * 새로 알린 화면의 작업이 먼저, 같은 화면 안에서는 예약한 순서(위에서 아래)대로 실행한다.
+     */
+    private final class Task implements Runnable, Comparable<Task> {
+
+        final File file;
+        final String path;
+        final long generation;
+        final long sequence;
+
+        Task(File file, String path, long generation, long sequence) {
+            this.file = file;
+            this.path = path;
+            this.generation = generation;
+            this.sequence = sequence;
+        }
+
+        public int compareTo(Task other) {
+            if (generation != other.generation) {
+                return generation > other.generation ? -1 : 1;
+            }
+            return Long.compare(sequence, other.sequence);
+        }
+
+        public void run() {
+            try {
+                if (!visible.contains(file)) { // 스크롤해서 지나갔다. 다시 보이면 get이 다시 예약한다.
+                    return;
+                }
+                String key = key(file);
+                Thumbnail cached;
+                synchronized (memory) {
+                    cached = memory.get(path);
+                }
+                if (cached != null && cached.key.equals(key)) {
+                    return; // 바뀌지 않았다.
+                }
+                BufferedImage image = file.isFile() ? load(file, key) : null;
+                synchronized (memory) {
+                    memory.put(path, new Thumbnail(image == null ? NONE : new ImageIcon(image), key));
+                    Iterator<String> eldest = memory.keySet().iterator();
+                    while (memory.size() > MAX_MEMORY_ENTRIES) {
+                        eldest.next();
+                        eldest.remove();
+                    }
+                }
+                if (image != null || cached != null) { // 이전 축소판이 있었으면 지워진 것도 다시 그린다.
+                    SwingUtilities.invokeLater(new Runnable() {
+                        public void run() {
+                            listener.accept(file);
+                        }
+                    });
+                }
+            } finally {
+                pending.remove(path);
+            }
+        }
+    }
+
+    /**
+     * 디스크 캐시에 있으면 읽고, 없으면 원본을 디코딩해서 저장한다. 만들 수 없으면 null.
+     */
+    private BufferedImage load(File file, String key) {
+        Path cached = directory.resolve(key + ".png");
+        try {
+            if (Files.isRegularFile(cached)) {
+                Metrics.cacheHit("thumbnails");
+                Files.setLastModifiedTime(cached, FileTime.fromMillis(System.currentTimeMillis())); // LRU 순서
+                return Files.size(cached) == 0 ? null : ImageIO.read(cached.toFile());
+            }
+        } catch (IOException e) {
+            e.printStackTrace(); // 캐시 파일이 깨졌으면 다시 만든다.
+        }
+        Metrics.cacheMiss("thumbnails");
+        BufferedImage thumbnail = null;
+        Metrics.Sample sample = Metrics.start("thumbnail.decode");
+        try {
+            thumbnail = decode(file);
+        } catch (IOException | RuntimeException e) { // 지원하지 않거나 깨진 이미지
+            sample.error();
+        } finally {
+            sample.stop();
+        }
+        try {
+            Files.createDirectories(directory);
+            Path temporary = Files.createTempFile(directory, key, ".tmp");
+            if (thumbnail != null) {
+                ImageIO.write(thumbnail, "png", temporary.toFile());
+            }
+            Files.move(temporary, cached, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            written(Files.size(cached));
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        return thumbnail;
+    }
+
+    private void written(long bytes) {
+        long total = diskBytes.get() < 0 ? -1 : diskBytes.addAndGet(bytes);
+        if (total < 0 || total > MAX_DISK_BYTES) {
+            trimDisk();
+        }
+    }
+
+    /**
+     * 디스크 캐시의 크기를 다시 세고, MAX_DISK_BYTES를 넘으면 수정 시각이 오래된 파일부터 지워 3/4 이하로 줄인다.
+     * 매번 저장할 때마다 디렉토리를 다시 읽지 않도록 여유를 둔다. 작업 스레드에서 호출한다.
+     */
+    private void trimDisk() {
+        synchronized (trimLock) {
+            long total = diskBytes.get();
+            if (total >= 0 && total <= MAX_DISK_BYTES) {
+                return; // 다른 스레드가 이미 줄였다.
+            }
+            List<Path> files = new ArrayList<Path>();
+            final Map<Path, BasicFileAttributes> attributes = new HashMap<Path, BasicFileAttributes>();
+            total = 0;
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+                for (Path file : stream) {
+                    try {
+                        BasicFileAttributes attribute = Files.readAttributes(file, BasicFileAttributes.class);
+                        if (attribute.isRegularFile()) {
+                            files.add(file);
+                            attributes.put(file, attribute);
+                            total += attribute.size();
+                        }
+                    } catch (IOException e) {
+                        // 그 사이에 지워졌다.
+                    }
+                }
+            } catch (IOException e) {
+                e.printStackTrace();
+                return;
+            }
+            if (total > MAX_DISK_BYTES) {
+                Collections.sort(files, new Comparator<Path>() {
+                    public int compare(Path a, Path b) {
+                        return attributes.get(a).lastModifiedTime().compareTo(attributes.get(b).lastModifiedTime());
+                    }
+                });
+                for (int ii = 0; ii < files.size() && total > MAX_DISK_BYTES / 4 * 3; ii++) {
+                    try {
+                        Files.deleteIfExists(files.get(ii));
+                        total -= attributes.get(files.get(ii)).size();
+                    } catch (IOException e) {
+                        e.printStackTrace();
+                    }
+                }
+            }
+            diskBytes.set(total);
+        }
+    }
+
+    /**
+     * SIZE x SIZE 안에 들어가는 축소판. 원본의 가로세로 비율을 유지한다.
+     */
+    static BufferedImage decode(File file) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(file)) {
+            if (input == null) {
+                return null;
+            }
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                // 축소할 때 품질을 위해 목표 크기의 두 배 정도까지만 건너뛰며 읽는다.
+                int step = Math.max(1, Math.max(width, height) / (SIZE * 2));
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(step, step, 0, 0);
+                BufferedImage source = reader.read(0, param);
+                double scale = Math.min(1.0, (double) SIZE / Math.max(source.getWidth(), source.getHeight()));
+                int targetWidth = Math.max(1, (int) Math.round(source.getWidth() * scale));
+                int targetHeight = Math.max(1, (int) Math.round(source.getHeight() * scale));
+                BufferedImage thumbnail = new BufferedImage(targetWidth, targetHeight, BufferedImage.TYPE_INT_ARGB);
+                Graphics2D g = thumbnail.createGraphics();
+                g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                g.drawImage(source, 0, 0, targetWidth, targetHeight, null);
+                g.dispose();
+                return thumbnail;
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+}
@@ -0,0 +1,113 @@
+/*
+The MIT License
+
+Copyright (c) 2015-2023 Valentyn Kolesnikov (https://github.com/javadev/file-manager)
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package com.github.filemanager;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipInputStream;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class ArchiveCompressorTest {
+
+    @Rule
+    public TemporaryFolder temporary = new TemporaryFolder();
+
+    @Test
+    public void zipRoundTripsThroughZipInputStream() throws IOException {
+        File source = temporary.newFolder("src");
+        Map<String, byte[]> expected = new HashMap<String, byte[]>();
+        byte[] random = new byte[3 * ParallelDeflateOutputStream.BLOCK_SIZE + 17]; // 여러 블록에 걸치고 압축되지 않는 내용
+        new Random(1).nextBytes(random);
+        expected.put("src/random.bin", random);
+        expected.put("src/empty.txt", new byte[0]);
+        expected.put("src/sub/nested.txt", "hello hello hello".getBytes(StandardCharsets.UTF_8));
+        for (Map.Entry<String, byte[]> entry : expected.entrySet()) {
+            File file = new File(temporary.getRoot(), entry.getKey());
+            file.getParentFile().mkdirs();
+            Files.write(file.toPath(), entry.getValue());
+        }
+        File target = new File(temporary.getRoot(), "src.zip");
+        new ArchiveCompressor(source, target, ArchiveCompressor.Format.ZIP).call((name, bytes, totalBytes) -> {
+        });
+
+        Map<String, byte[]> actual = new HashMap<String, byte[]>();
+        try (ZipInputStream in = new ZipInputStream(new FileInputStream(target), StandardCharsets.UTF_8)) {
+            for (ZipEntry entry = in.getNextEntry(); entry != null; entry = in.getNextEntry()) {
+                if (!entry.isDirectory()) {
+                    actual.put(entry.getName(), readAll(in));
+                }
+            }
+        }
+        assertEquals(expected.keySet(), actual.keySet());
+        for (String name : expected.keySet()) {
+            assertArrayEquals(name, expected.get(name), actual.get(name));
+        }
+        try (ZipFile zip = new ZipFile(target, StandardCharsets.UTF_8)) { // central directory의 크기도 맞아야 한다.
+            for (String name : expected.keySet()) {
+                ZipEntry entry = zip.getEntry(name);
+                assertEquals(name, expected.get(name).length, entry.getSize());
+                try (InputStream in = zip.getInputStream(entry)) {
+                    assertArrayEquals(name, expected.get(name), readAll(in));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void zip64LocalHeaderOnlyNearFourGigabytes() {
+        assertFalse(ArchiveCompressor.needsZip64Local(0));
+        assertFalse(ArchiveCompressor.needsZip64Local(0xFFFFFFFFL - (0xFFFFFFFFL >> 8))); // 4GB보다 16MB 작다.
+        assertTrue(ArchiveCompressor.needsZip64Local(0xFFFFFFFFL - (0xFFFFFFFFL >> 11))); // 2MB 작다.
+        assertTrue(ArchiveCompressor.needsZip64Local(0xFFFFFFFFL));
+        assertTrue(ArchiveCompressor.needsZip64Local(5L << 30));
+    }
+
+    private static byte[] readAll(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int n;
+        while ((n = in.read(buffer)) > 0) {
+            out.write(buffer, 0, n);
+        }
+        return out.toByteArray();
+    }
+}
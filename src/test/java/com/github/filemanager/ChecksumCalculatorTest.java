@@ -0,0 +1,117 @@
+/*
+The MIT License
+
+Copyright (c) 2015-2023 Valentyn Kolesnikov (https://github.com/javadev/file-manager)
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package com.github.filemanager;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class ChecksumCalculatorTest {
+
+    @Rule
+    public TemporaryFolder temporary = new TemporaryFolder();
+
+    private ForkJoinPool pool;
+
+    @Before
+    public void setUp() {
+        pool = new ForkJoinPool(2);
+    }
+
+    @After
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Test
+    public void manifestRoundTrip() throws IOException {
+        File source = temporary.newFolder("data");
+        write(new File(source, "a.txt"), "alpha");
+        write(new File(source, "sub/b.txt"), "beta");
+        write(new File(source, "sub/c.txt"), "gamma");
+        ChecksumCalculator calculator = ChecksumCalculator.forTree(source,
+                EnumSet.of(ChecksumCalculator.Algorithm.SHA_256, ChecksumCalculator.Algorithm.CRC32C));
+        List<ChecksumCalculator.Result> computed = calculator.run(pool);
+        assertEquals(3, computed.size());
+        for (ChecksumCalculator.Result result : computed) {
+            assertEquals(result.name, ChecksumCalculator.Status.COMPUTED, result.getStatus());
+        }
+        File manifest = new File(temporary.getRoot(), "data.checksums");
+        ChecksumCalculator.writeManifest(manifest, computed);
+        assertTrue(Files.readAllLines(manifest.toPath(), StandardCharsets.UTF_8)
+                .contains("SHA256 (data/a.txt) = 8ed3f6ad685b959ead7022518e1af76cd816f8e8ec7ccdda1ed4018e8f2223f8"));
+
+        Map<String, ChecksumCalculator.Status> unchanged = verify(manifest);
+        assertEquals(3, unchanged.size());
+        for (ChecksumCalculator.Status status : unchanged.values()) {
+            assertEquals(ChecksumCalculator.Status.OK, status);
+        }
+
+        write(new File(source, "sub/b.txt"), "BETA");
+        assertTrue(new File(source, "sub/c.txt").delete());
+        Map<String, ChecksumCalculator.Status> changed = verify(manifest);
+        assertEquals(ChecksumCalculator.Status.OK, changed.get("data/a.txt"));
+        assertEquals(ChecksumCalculator.Status.FAILED, changed.get("data/sub/b.txt"));
+        assertEquals(ChecksumCalculator.Status.MISSING, changed.get("data/sub/c.txt"));
+    }
+
+    @Test
+    public void manifestAcceptsGnuFormat() throws IOException {
+        File source = temporary.newFile("a.txt");
+        write(source, "alpha");
+        File manifest = new File(temporary.getRoot(), "SHA1SUMS");
+        write(manifest, "be76331b95dfc399cd776d2fc68021e0db03cc4f  a.txt\nnot a checksum line\n");
+        Map<String, ChecksumCalculator.Status> statuses = verify(manifest);
+        assertEquals(1, statuses.size());
+        assertEquals(ChecksumCalculator.Status.OK, statuses.get("a.txt"));
+    }
+
+    private Map<String, ChecksumCalculator.Status> verify(File manifest) throws IOException {
+        Map<String, ChecksumCalculator.Status> statuses = new HashMap<String, ChecksumCalculator.Status>();
+        for (ChecksumCalculator.Result result : ChecksumCalculator.forManifest(manifest).run(pool)) {
+            statuses.put(result.name, result.getStatus());
+        }
+        return statuses;
+    }
+
+    private static void write(File file, String content) throws IOException {
+        file.getParentFile().mkdirs();
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+    }
+}
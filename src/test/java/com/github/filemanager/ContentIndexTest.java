@@ -0,0 +1,135 @@
+/*
+The MIT License
+
+Copyright (c) 2015-2023 Valentyn Kolesnikov (https://github.com/javadev/file-manager)
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package com.github.filemanager;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class ContentIndexTest {
+
+    private static final long WATCH_TIMEOUT_MILLIS = 10000;
+
+    @Rule
+    public TemporaryFolder temporary = new TemporaryFolder();
+
+    private String userHome;
+    private ForkJoinPool pool;
+    private Path root;
+    private ContentIndex index;
+
+    @Before
+    public void setUp() throws IOException {
+        userHome = System.getProperty("user.home");
+        System.setProperty("user.home", temporary.newFolder("home").getPath()); // 인덱스는 ~/.filemanager/index 아래에 만든다.
+        pool = new ForkJoinPool(2);
+        root = temporary.newFolder("root").toPath().toRealPath();
+        write("a.txt", "hello world");
+        write("b.txt", "nothing here");
+        write("d/c.txt", "say hello");
+        index = ContentIndex.open(root);
+        index.update(pool, null);
+    }
+
+    @After
+    public void tearDown() {
+        index.close();
+        pool.shutdown();
+        System.setProperty("user.home", userHome);
+    }
+
+    @Test
+    public void candidatesContainIndexedMatchesInScope() {
+        assertEquals(names("a.txt", "d/c.txt"), candidates("hello", root));
+        assertEquals(names("d/c.txt"), candidates("hello", root.resolve("d")));
+        assertNull(index.candidates("he", root)); // 3-gram보다 짧으면 인덱스로 좁힐 수 없다.
+    }
+
+    @Test
+    public void candidatesFollowFileChangesBeforeUpdate() throws Exception {
+        write("new.txt", "hello again");
+        write("b.txt", "now hello");
+        Files.delete(root.resolve("d/c.txt"));
+        Set<Path> expected = names("a.txt", "b.txt", "new.txt");
+        long deadline = System.currentTimeMillis() + WATCH_TIMEOUT_MILLIS;
+        while (!candidates("hello", root).equals(expected) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50); // 감시 이벤트는 감시 스레드에서 조금 늦게 도착한다.
+        }
+        assertEquals(expected, candidates("hello", root));
+    }
+
+    @Test
+    public void updateIndexesChangedFiles() throws IOException {
+        write("b.txt", "now hello");
+        Files.delete(root.resolve("d/c.txt"));
+        index.update(pool, null);
+        assertEquals(names("a.txt", "b.txt"), candidates("hello", root));
+        assertEquals(2, index.getDocumentCount());
+
+        ContentIndex reopened = ContentIndex.open(root); // 저장한 세그먼트를 다시 읽는다.
+        try {
+            assertEquals(names("a.txt", "b.txt"), candidates(reopened, "hello", root));
+        } finally {
+            reopened.close();
+        }
+    }
+
+    private void write(String name, String content) throws IOException {
+        Path file = root.resolve(name);
+        Files.createDirectories(file.getParent());
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private Set<Path> names(String... names) {
+        Set<Path> paths = new HashSet<Path>();
+        for (String name : names) {
+            paths.add(root.resolve(name.replace('/', File.separatorChar)));
+        }
+        return paths;
+    }
+
+    private Set<Path> candidates(String query, Path scope) {
+        return candidates(index, query, scope);
+    }
+
+    private static Set<Path> candidates(ContentIndex index, String query, Path scope) {
+        List<Path> candidates = index.candidates(query, scope);
+        return new HashSet<Path>(candidates);
+    }
+}
@@ -0,0 +1,139 @@
+/*
+The MIT License
+
+Copyright (c) 2015-2023 Valentyn Kolesnikov (https://github.com/javadev/file-manager)
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package com.github.filemanager;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.errors.GitAPIException;
+import org.eclipse.jgit.diff.DiffEntry;
+import org.eclipse.jgit.lib.PersonIdent;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class MergePreviewTest {
+
+    @Rule
+    public TemporaryFolder temporary = new TemporaryFolder();
+
+    private Git git;
+    private File workTree;
+
+    @Before
+    public void setUp() throws IOException, GitAPIException {
+        workTree = temporary.newFolder("repo");
+        git = Git.init().setDirectory(workTree).setInitialBranch("main").call();
+        write("f.txt", "one\n");
+        write("g.txt", "shared\n");
+        commit("initial");
+    }
+
+    @After
+    public void tearDown() {
+        git.close();
+    }
+
+    @Test
+    public void upToDateAndFastForward() throws Exception {
+        git.branchCreate().setName("old").call();
+        git.checkout().setCreateBranch(true).setName("topic").call();
+        write("h.txt", "new\nfile\n");
+        commit("topic");
+        git.checkout().setName("main").call();
+
+        assertEquals(MergePreview.Outcome.UP_TO_DATE, MergePreview.compute(git.getRepository(), "old").outcome);
+        MergePreview preview = MergePreview.compute(git.getRepository(), "topic");
+        assertEquals(MergePreview.Outcome.FAST_FORWARD, preview.outcome);
+        assertEquals(1, preview.files.size());
+        assertEquals(DiffEntry.ChangeType.ADD, preview.files.get(0).changeType);
+        assertEquals(2, preview.insertions);
+    }
+
+    @Test
+    public void conflictingBranches() throws Exception {
+        git.checkout().setCreateBranch(true).setName("topic").call();
+        write("f.txt", "topic\n");
+        write("h.txt", "added\n");
+        commit("topic");
+        git.checkout().setName("main").call();
+        write("f.txt", "main\n");
+        commit("main");
+
+        MergePreview preview = MergePreview.compute(git.getRepository(), "topic");
+        assertEquals(MergePreview.Outcome.CONFLICTING, preview.outcome);
+        assertEquals(1, preview.conflictCount);
+        Map<String, MergePreview.FileChange> files = byPath(preview);
+        assertTrue(files.get("f.txt").conflict);
+        assertFalse(files.get("h.txt").conflict);
+        assertEquals("main\n", new String(Files.readAllBytes(new File(workTree, "f.txt").toPath()), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void conflictingBranchWithoutCommonAncestor() throws Exception {
+        git.checkout().setOrphan(true).setName("unrelated").call();
+        git.rm().addFilepattern("f.txt").addFilepattern("g.txt").call();
+        write("f.txt", "other\n");
+        write("h.txt", "other\n");
+        commit("unrelated");
+        git.checkout().setName("main").call();
+
+        MergePreview preview = MergePreview.compute(git.getRepository(), "unrelated");
+        assertEquals(MergePreview.Outcome.CONFLICTING, preview.outcome);
+        Map<String, MergePreview.FileChange> files = byPath(preview);
+        assertEquals(2, files.size()); // merge base가 없으므로 빈 tree와 비교한다.
+        assertEquals(DiffEntry.ChangeType.ADD, files.get("f.txt").changeType);
+        assertTrue(files.get("f.txt").conflict);
+        assertFalse(files.get("h.txt").conflict);
+    }
+
+    private static Map<String, MergePreview.FileChange> byPath(MergePreview preview) {
+        Map<String, MergePreview.FileChange> files = new HashMap<String, MergePreview.FileChange>();
+        for (MergePreview.FileChange file : preview.files) {
+            files.put(file.path, file);
+        }
+        return files;
+    }
+
+    private void write(String name, String content) throws IOException {
+        Files.write(new File(workTree, name).toPath(), content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void commit(String message) throws GitAPIException {
+        PersonIdent person = new PersonIdent("Test", "test@example.com");
+        git.add().addFilepattern(".").call();
+        git.commit().setMessage(message).setAuthor(person).setCommitter(person).setSign(false).call();
+    }
+}
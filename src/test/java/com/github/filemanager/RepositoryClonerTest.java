@@ -0,0 +1,73 @@
+/*
+The MIT License
+
+Copyright (c) 2015-2023 Valentyn Kolesnikov (https://github.com/javadev/file-manager)
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package com.github.filemanager;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.errors.GitAPIException;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.PersonIdent;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class RepositoryClonerTest {
+
+    @Rule
+    public TemporaryFolder temporary = new TemporaryFolder();
+
+    @Test
+    public void clonesSingleBranch() throws IOException, GitAPIException {
+        File origin = temporary.newFolder("origin");
+        try (Git git = Git.init().setDirectory(origin).setInitialBranch("main").call()) {
+            PersonIdent person = new PersonIdent("Test", "test@example.com");
+            Files.write(new File(origin, "a.txt").toPath(), "main".getBytes(StandardCharsets.UTF_8));
+            git.add().addFilepattern(".").call();
+            git.commit().setMessage("main").setAuthor(person).setCommitter(person).setSign(false).call();
+            git.branchCreate().setName("other").call();
+        }
+
+        File target = new File(temporary.getRoot(), "clone");
+        RepositoryCloner cloner = new RepositoryCloner(origin.toURI().toString(), target).setSingleBranch(true);
+        File workTree = cloner.call((task, completed, total, bytes) -> {
+        });
+        assertEquals(target.getCanonicalFile(), workTree.getCanonicalFile());
+        assertEquals("main", new String(Files.readAllBytes(new File(workTree, "a.txt").toPath()), StandardCharsets.UTF_8));
+        assertFalse(cloner.isCancelled());
+        assertTrue(cloner.getReceivedBytes() >= 0);
+        try (Git clone = Git.open(workTree)) {
+            assertEquals("main", clone.getRepository().getBranch());
+            assertTrue(clone.getRepository().exactRef(Constants.R_REMOTES + "origin/main") != null);
+            assertEquals(null, clone.getRepository().exactRef(Constants.R_REMOTES + "origin/other"));
+        }
+    }
+}
@@ -0,0 +1,112 @@
+/*
+The MIT License
+
+Copyright (c) 2015-2023 Valentyn Kolesnikov (https://github.com/javadev/file-manager)
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package com.github.filemanager;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.Status;
+import org.eclipse.jgit.api.errors.GitAPIException;
+import org.eclipse.jgit.lib.PersonIdent;
+import org.eclipse.jgit.lib.StoredConfig;
+import org.eclipse.jgit.util.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class SparseCheckoutTest {
+
+    @Rule
+    public TemporaryFolder temporary = new TemporaryFolder();
+
+    private Git git;
+    private File workTree;
+
+    @Before
+    public void setUp() throws IOException, GitAPIException {
+        workTree = temporary.newFolder("repo");
+        git = Git.init().setDirectory(workTree).call();
+        write("top.txt", "top");
+        write("a/af.txt", "a");
+        write("a/x/deep.txt", "deep");
+        write("b/bf.txt", "b");
+        PersonIdent person = new PersonIdent("Test", "test@example.com");
+        git.add().addFilepattern(".").call();
+        git.commit().setMessage("initial").setAuthor(person).setCommitter(person).setSign(false).call();
+
+        // git sparse-checkout set --cone a/x 와 같은 설정. b는 작업 트리에서 빠진다.
+        StoredConfig config = git.getRepository().getConfig();
+        config.setBoolean("core", null, "sparseCheckout", true);
+        config.save();
+        File patterns = new File(git.getRepository().getDirectory(), "info/sparse-checkout");
+        patterns.getParentFile().mkdirs();
+        Files.write(patterns.toPath(), Arrays.asList("/*", "!/*/", "/a/", "!/a/*/", "/a/x/"), StandardCharsets.UTF_8);
+        FileUtils.delete(new File(workTree, "b"), FileUtils.RECURSIVE);
+    }
+
+    @After
+    public void tearDown() {
+        git.close();
+    }
+
+    @Test
+    public void readsCone() throws IOException {
+        SparseCheckout.Cone cone = SparseCheckout.readCone(git.getRepository());
+        assertEquals(Collections.singletonList("a"), cone.parents);
+        assertEquals(Collections.singletonList("a/x"), cone.directories);
+        assertEquals(Arrays.asList("a", "b"), SparseCheckout.topLevelDirectories(git.getRepository()));
+    }
+
+    @Test
+    public void statusIsLimitedToTheCone() throws GitAPIException, IOException {
+        Status clean = SparseCheckout.status(git).call();
+        assertTrue(clean.getMissing().isEmpty()); // 제외된 b/bf.txt는 없어도 지워진 것이 아니다.
+
+        Files.delete(new File(workTree, "top.txt").toPath());
+        Files.delete(new File(workTree, "a/af.txt").toPath());
+        write("a/x/deep.txt", "changed");
+        write("a/new.txt", "new");
+        Status status = SparseCheckout.status(git).call();
+        assertEquals(new HashSet<String>(Arrays.asList("top.txt", "a/af.txt")), status.getMissing());
+        assertEquals(Collections.singleton("a/x/deep.txt"), status.getModified());
+        assertEquals(Collections.singleton("a/new.txt"), status.getUntracked());
+    }
+
+    private void write(String name, String content) throws IOException {
+        File file = new File(workTree, name);
+        file.getParentFile().mkdirs();
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+    }
+}